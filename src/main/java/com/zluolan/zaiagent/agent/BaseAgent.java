@@ -1,6 +1,8 @@
 package com.zluolan.zaiagent.agent;
 
 import com.zluolan.zaiagent.agent.modle.AgentState;
+import com.zluolan.zaiagent.resilience.StepDeadline;
+import com.zluolan.zaiagent.tools.PdfGenerationTool;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.internal.StringUtil;
@@ -12,6 +14,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 抽象基础代理类，用于管理代理状态和执行流程。  
@@ -36,6 +39,8 @@ public abstract class BaseAgent {
     // 执行控制  
     private int maxSteps = 10;  
     private int currentStep = 0;  
+    // 整次运行的时间预算（毫秒），按剩余步骤分摊为每一步的截止时间
+    private long runBudgetMillis = 180_000;
   
     // LLM  
     private ChatClient chatClient;
@@ -63,13 +68,15 @@ public abstract class BaseAgent {
         // 保存结果列表  
         List<String> results = new ArrayList<>();
         String pdfPath = null;
+        String pdfJob = null;
+        long runDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runBudgetMillis);
         try {  
             for (int i = 0; i < maxSteps && state != AgentState.FINISHED; i++) {  
                 int stepNumber = i + 1;  
                 currentStep = stepNumber;  
                 log.info("Executing step " + stepNumber + "/" + maxSteps);  
                 // 单步执行  
-                String stepResult = step();  
+                String stepResult = timedStep(runDeadline, i);  
                 String result = "Step " + stepNumber + ": " + stepResult;  
                 results.add(result);
                 // 👇 检查是否生成了 PDF
@@ -80,6 +87,11 @@ public abstract class BaseAgent {
                         pdfPath = stepResult.substring(idx + "PDF successfully generated to:".length()).trim();
                     }
                 }
+                // 👇 PDF 改为后台渲染，工具只返回任务ID（步骤文本中的工具结果可能经过 JSON 转义）
+                String jobId = PdfGenerationTool.findJobId(stepResult);
+                if (jobId != null) {
+                    pdfJob = jobId;
+                }
             }  
             // 检查是否超出步骤限制  
             if (currentStep >= maxSteps) {  
@@ -90,6 +102,10 @@ public abstract class BaseAgent {
             if (pdfPath != null) {
                 return pdfPath;
             }
+            // 如果提交了 PDF 任务，直接返回任务句柄，由调用方凭任务ID查询和下载
+            if (pdfJob != null) {
+                return PdfGenerationTool.JOB_MARKER + pdfJob;
+            }
             return String.join("\n", results);
         } catch (Exception e) {  
             state = AgentState.ERROR;  
@@ -130,6 +146,7 @@ public abstract class BaseAgent {
                 // 记录消息上下文
                 messageList.add(new UserMessage(userPrompt));
 
+                long runDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(runBudgetMillis);
                 try {
                     for (int i = 0; i < maxSteps && state != AgentState.FINISHED; i++) {
                         int stepNumber = i + 1;
@@ -137,7 +154,7 @@ public abstract class BaseAgent {
                         log.info("Executing step " + stepNumber + "/" + maxSteps);
 
                         // 单步执行
-                        String stepResult = step();
+                        String stepResult = timedStep(runDeadline, i);
                         String result = "Step " + stepNumber + ": " + stepResult;
 
                         // 发送每一步的结果
@@ -186,6 +203,14 @@ public abstract class BaseAgent {
         return emitter;
     }
 
+    /**
+     * 把剩余运行预算平均分给剩余步骤，作为本步骤内外部工具调用的截止时间
+     */
+    private String timedStep(long runDeadline, int stepIndex) {
+        long remainingMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(runDeadline - System.nanoTime()));
+        return StepDeadline.within(remainingMillis / (maxSteps - stepIndex), this::step);
+    }
+
     /**  
      * 执行单个步骤  
      *  
@@ -3,6 +3,7 @@ package com.zluolan.zaiagent.agent;
 import cn.hutool.core.collection.CollUtil;
 import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
 import com.zluolan.zaiagent.agent.modle.AgentState;
+import com.zluolan.zaiagent.toolcall.ToolRegistry;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +17,6 @@ import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.model.tool.ToolCallingManager;
 import org.springframework.ai.model.tool.ToolExecutionResult;
-import org.springframework.ai.tool.ToolCallback;
 
 import java.util.List;
 import java.util.Map;
@@ -31,8 +31,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ToolCallAgent extends ReActAgent {
 
-    // 可用的工具
-    private final ToolCallback[] availableTools;
+    // 可用的工具，每一步都从注册表的当前快照读取，运行时启停的工具下一步即生效
+    private final ToolRegistry toolRegistry;
 
     // 保存了工具调用信息的响应
     private ChatResponse toolCallChatResponse;
@@ -51,10 +51,13 @@ public class ToolCallAgent extends ReActAgent {
     private static final Pattern FINISH_PATTERN =
             Pattern.compile(".*(已完成任务|任务完成|执行完毕|完成|期待你的回复|请告诉我|需要更多信息|等待你的回复|请提供|请分享).*");
 
-    public ToolCallAgent(ToolCallback[] availableTools) {
+    public ToolCallAgent(ToolRegistry toolRegistry) {
         super();
-        this.availableTools = availableTools;
-        this.toolCallingManager = ToolCallingManager.builder().build();
+        this.toolRegistry = toolRegistry;
+        // 执行工具调用时按名称从注册表查找，思考之后被停用或不存在的工具返回错误结果，而不是让这一步失败
+        this.toolCallingManager = ToolCallingManager.builder()
+                .toolCallbackResolver(toolRegistry::resolveForExecution)
+                .build();
         // 禁用 Spring AI 内置的工具调用机制，自己维护选项和消息上下文
         this.chatOptions = DashScopeChatOptions.builder()
                 .withInternalToolExecutionEnabled(false)
@@ -75,12 +78,13 @@ public class ToolCallAgent extends ReActAgent {
         }
 
         List<Message> messageList = getMessageList();
-        Prompt prompt = new Prompt(messageList, chatOptions);
+        // ChatClient 会把工具回调写入选项，用副本避免跨步骤累积
+        Prompt prompt = new Prompt(messageList, chatOptions.copy());
         try {
             // 获取带工具选项的响应
             ChatResponse chatResponse = getChatClient().prompt(prompt)
                     .system(getSystemPrompt())
-                    .toolCallbacks(availableTools)
+                    .toolCallbacks(toolRegistry.tools())
                     .call()
                     .chatResponse();
 
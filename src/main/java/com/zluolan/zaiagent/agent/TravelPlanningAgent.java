@@ -1,9 +1,9 @@
 package com.zluolan.zaiagent.agent;
 
 import com.zluolan.zaiagent.advisor.MyLoggerAdvisor;
+import com.zluolan.zaiagent.toolcall.ToolRegistry;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,8 +13,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class TravelPlanningAgent extends ToolCallAgent {
 
-    public TravelPlanningAgent(ToolCallback[] allTools, ChatModel dashscopeChatModel) {
-        super(allTools);
+    public TravelPlanningAgent(ToolRegistry toolRegistry, ChatModel dashscopeChatModel) {
+        super(toolRegistry);
         this.setName("TravelPlanningAgent");
         
         String SYSTEM_PROMPT = """
@@ -2,7 +2,13 @@ package com.zluolan.zaiagent.app;
 
 import com.zluolan.zaiagent.advisor.MyLoggerAdvisor;
 import com.zluolan.zaiagent.agent.TravelPlanningAgent;
+import cn.hutool.json.JSONUtil;
 import com.zluolan.zaiagent.chatmemeory.FileBasedChatMemoryRepository;
+import com.zluolan.zaiagent.mcp.McpToolCallbackProvider;
+import com.zluolan.zaiagent.toolcall.ToolPayload;
+import com.zluolan.zaiagent.toolcall.ToolPayloadStore;
+import com.zluolan.zaiagent.toolcall.ToolRegistry;
+import com.zluolan.zaiagent.tools.ItineraryPlannerTool;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -11,11 +17,14 @@ import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import static org.springframework.ai.chat.memory.ChatMemory.CONVERSATION_ID;
 
@@ -104,11 +113,47 @@ public class TravelApp {
         return travelPlan;
     }
 
+    /**
+     * 结构化旅游计划 - 逐日行程由行程编排工具确定，模型只负责介绍景点、估算预算和补充建议
+     */
+    @Resource
+    private ItineraryPlannerTool itineraryPlannerTool;
+
+    public TravelPlan doChatWithItinerary(String message, String chatId, String destination, String stops,
+                                          Integer days, String startDate, String hotel, String transportMode) {
+        ItineraryPlannerTool.PlannedItinerary planned = itineraryPlannerTool.plan(
+                destination, stops, days, startDate, hotel, transportMode, null, null);
+        String request = message != null && !message.isBlank() ? message : "请根据下面的行程生成旅游计划";
+        TravelPlan narrated = chatClient
+                .prompt()
+                .system(SYSTEM_PROMPT + """
+                        
+                        用户消息后附有已经排定的逐日行程，请据此生成结构化的旅游计划：
+                        - budget: 预算建议
+                        - attractions: 行程中各景点的简要介绍
+                        - recommendations: 旅游建议列表
+                        - itinerary: 原样使用已排定的行程，不要调整其中的顺序和时间
+                        """)
+                .user(request + "\n\n" + planned.report())
+                .advisors(spec -> spec.param(CONVERSATION_ID, chatId))
+                .call()
+                .entity(TravelPlan.class);
+        // 目的地、天数和逐日行程以编排结果为准，模型的输出只取叙述部分
+        TravelPlan travelPlan = new TravelPlan(planned.destination(), planned.days() + "天",
+                narrated != null ? narrated.budget() : null,
+                narrated != null ? narrated.attractions() : List.of(),
+                narrated != null ? narrated.recommendations() : List.of(),
+                planned.itinerary());
+        log.info("TravelPlan with itinerary: {}", travelPlan);
+        return travelPlan;
+    }
+
     /**
      * 使用工具的旅游规划
+     * 每次对话从工具注册表读取当前启用的工具
      */
     @Resource
-    private ToolCallback[] allTools;
+    private ToolRegistry toolRegistry;
 
     public String doChatWithTools(String message, String chatId) {
         ChatResponse response = chatClient
@@ -116,7 +161,7 @@ public class TravelApp {
                 .user(message)
                 .advisors(spec -> spec.param(CONVERSATION_ID, chatId))
                 .advisors(new MyLoggerAdvisor())
-                .toolCallbacks(allTools)
+                .toolCallbacks(toolRegistry.tools())
                 .call()
                 .chatResponse();
         String content = response.getResult().getOutput().getText();
@@ -126,10 +171,16 @@ public class TravelApp {
 
     /**
      * 使用MCP工具的旅游规划
+     * MCP 连接池（travel.mcp.enabled=true）提供的工具已收录进工具注册表，与本地工具一起调用
      */
+    @Autowired(required = false)
+    private McpToolCallbackProvider mcpToolCallbackProvider;
+
     public String doChatWithMcp(String message, String chatId) {
-        // 由于MCP服务被禁用，回退到普通工具调用
-        log.info("MCP服务已禁用，使用普通工具调用");
+        if (mcpToolCallbackProvider == null) {
+            // MCP服务被禁用，回退到普通工具调用
+            log.info("MCP服务已禁用，使用普通工具调用");
+        }
         return doChatWithTools(message, chatId);
     }
 
@@ -178,13 +229,55 @@ public class TravelApp {
                 .user(message)
                 .advisors(spec -> spec.param(CONVERSATION_ID, chatId))
                 .advisors(new MyLoggerAdvisor())
-                .toolCallbacks(allTools)
+                .toolCallbacks(toolRegistry.tools())
                 .stream()
                 .content()
                 .buffer(10) // 将更多小的chunk合并成更大的块
                 .map(chunks -> String.join("", chunks))
                 .filter(text -> !text.isEmpty()); // 过滤空字符串
     }
-}
 
+    /**
+     * 双通道流式输出（带工具调用）
+     * 模型只收到工具结果的摘要和结果ID，完整结果作为 tool-result 事件直接推送给界面，
+     * 回答正文作为 message 事件推送，回答结束时结果通道一并结束。
+     */
+    @Resource
+    private ToolPayloadStore toolPayloadStore;
+
+    public Flux<ServerSentEvent<String>> doChatByStreamWithPayloads(String message, String chatId) {
+        String conversationId = chatId != null ? chatId : UUID.randomUUID().toString();
+        Flux<ServerSentEvent<String>> answer = chatClient
+                .prompt()
+                .system(SYSTEM_PROMPT + """
+                        
+                        工具结果中带有 [结果ID: xxx] 时，完整结果已经展示在用户界面上，
+                        回答时引用该结果ID并概括要点和建议，不要逐条复述其中的列表和数据。
+                        """)
+                .user(message)
+                .advisors(spec -> spec.param(CONVERSATION_ID, conversationId))
+                .advisors(new MyLoggerAdvisor())
+                .toolCallbacks(toolRegistry.tools())
+                .toolContext(Map.of(ToolPayloadStore.CONVERSATION_ID, conversationId))
+                .stream()
+                .content()
+                .buffer(10) // 将更多小的chunk合并成更大的块
+                .map(chunks -> String.join("", chunks))
+                .filter(text -> !text.isEmpty()) // 过滤空字符串
+                .map(text -> ServerSentEvent.<String>builder().event("message").data(text).build());
+        Flux<ServerSentEvent<String>> payloads = toolPayloadStore.stream(conversationId)
+                .map(TravelApp::toPayloadEvent);
+        // 先订阅结果通道再发起对话，回答结束（含出错）时结果通道随之结束
+        return answer.publish(shared -> Flux.merge(payloads.takeUntilOther(shared.materialize().last()), shared));
+    }
 
+    private static ServerSentEvent<String> toPayloadEvent(ToolPayload payload) {
+        String data = JSONUtil.createObj()
+                .set("id", payload.id())
+                .set("tool", payload.tool())
+                .set("content", payload.content())
+                .set("createdAt", payload.createdAt())
+                .toString();
+        return ServerSentEvent.<String>builder().id(payload.id()).event("tool-result").data(data).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.zluolan.zaiagent.artifact;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 制品存储中的一个文件
+ *
+ * @param hash        内容的 SHA-256（十六进制），同时是制品 ID
+ * @param name        下载时使用的文件名
+ * @param contentType 内容类型
+ * @param size        字节数
+ * @param path        磁盘上的文件路径，只在服务端使用，不出现在接口响应中
+ * @param createdAt   入库时间（毫秒）
+ */
+public record Artifact(String hash, String name, String contentType, long size, @JsonIgnore String path, long createdAt) {
+
+    /**
+     * 强校验 ETag，内容不变则 ETag 不变
+     */
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * 下载地址
+     */
+    public String url() {
+        return "/api/travel/artifacts/" + hash;
+    }
+}
@@ -0,0 +1,388 @@
+package com.zluolan.zaiagent.artifact;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址的制品存储
+ * 生成的 PDF、下载的图片等文件按内容的 SHA-256 存放在 {@code <root>/<前两位>/<hash>.<扩展名>}，相同内容只存一份；
+ * 调用方还可以为制品登记来源键（如计划内容摘要），同一来源再次生成时直接复用。
+ * 超过保留期未访问的制品和超出容量时最久未访问的制品会被删除；启动时从目录重建索引。
+ * 文件本身由 {@link ArtifactTransfer} 零拷贝发送。
+ */
+@Slf4j
+public final class ArtifactStore {
+
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    public static final Duration DEFAULT_RETENTION = Duration.ofDays(7);
+
+    private static final Path DEFAULT_ROOT = Path.of(System.getProperty("user.dir"), "tmp", "artifacts");
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern STORED_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+    private static final String INCOMING_PREFIX = ".incoming-";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private static volatile ArtifactStore defaultInstance;
+
+    private static final class Entry {
+        private final Artifact artifact;
+        private long lastAccessedAt;
+
+        private Entry(Artifact artifact, long lastAccessedAt) {
+            this.artifact = artifact;
+            this.lastAccessedAt = lastAccessedAt;
+        }
+    }
+
+    private final Path root;
+    private final long maxBytes;
+    private final Duration retention;
+    /**
+     * 按访问顺序排列，最久未访问的在前；与 sources、totalBytes 一起由 entries 加锁保护
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> sources = new HashMap<>();
+    private long totalBytes;
+
+    public ArtifactStore(Path root, long maxBytes, Duration retention) {
+        if (maxBytes <= 0 || retention == null || retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException("容量和保留期必须为正数");
+        }
+        this.root = root.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.retention = retention;
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建制品目录失败: " + this.root, e);
+        }
+        scan();
+    }
+
+    /**
+     * 写入 {@code ${user.dir}/tmp/artifacts} 的默认实例，首次使用时创建
+     */
+    public static ArtifactStore getDefault() {
+        ArtifactStore instance = defaultInstance;
+        if (instance == null) {
+            synchronized (ArtifactStore.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new ArtifactStore(DEFAULT_ROOT, DEFAULT_MAX_BYTES, DEFAULT_RETENTION);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 把已有文件移入存储，源文件随后不再存在；内容已存在时直接返回已有制品
+     *
+     * @param sourceKey 来源键，可为 null
+     */
+    public Artifact moveIn(Path source, String name, String contentType, String sourceKey) throws IOException {
+        long size = Files.size(source);
+        String hash = hash(source);
+        return commit(source, hash, size, name, contentType, sourceKey);
+    }
+
+    /**
+     * 复制已有文件入库，源文件保持不变
+     */
+    public Artifact copyIn(Path source, String name, String contentType) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            return write(in, name, contentType, null);
+        }
+    }
+
+    /**
+     * 把输入流写入存储，写入的同时计算摘要，不需要再读一遍文件
+     */
+    public Artifact write(InputStream in, String name, String contentType, String sourceKey) throws IOException {
+        Path incoming = createIncomingFile(".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+                size = Files.copy(digesting, incoming, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return commit(incoming, HexFormat.of().formatHex(digest.digest()), size, name, contentType, sourceKey);
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+
+    /**
+     * 在存储目录中创建待入库的临时文件，写好后用 {@link #moveIn} 原子入库；进程中断留下的临时文件在下次启动时清理
+     */
+    public Path createIncomingFile(String suffix) throws IOException {
+        return Files.createTempFile(root, INCOMING_PREFIX, suffix);
+    }
+
+    /**
+     * 按内容摘要取制品并刷新访问时间，未知、已淘汰或文件已丢失返回 null
+     */
+    public Artifact get(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(hash);
+            if (entry == null) {
+                return null;
+            }
+            if (!Files.isRegularFile(Path.of(entry.artifact.path()))) {
+                removeLocked(hash);
+                return null;
+            }
+            entry.lastAccessedAt = System.currentTimeMillis();
+            return entry.artifact;
+        }
+    }
+
+    /**
+     * 按来源键取制品，没有或已淘汰返回 null
+     */
+    public Artifact findBySource(String sourceKey) {
+        if (sourceKey == null) {
+            return null;
+        }
+        String hash;
+        synchronized (entries) {
+            hash = sources.get(sourceKey);
+        }
+        return hash != null ? get(hash) : null;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * 立即执行一次淘汰，返回删除的制品数
+     */
+    public int purge() {
+        synchronized (entries) {
+            return evictLocked(null);
+        }
+    }
+
+    /**
+     * 按扩展名推断内容类型，入库时未给出内容类型时使用
+     */
+    public static String contentTypeOf(String name) {
+        String lower = name != null ? name.toLowerCase(Locale.ROOT) : "";
+        if (lower.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        if (lower.endsWith(".json")) {
+            return "application/json";
+        }
+        String guessed = URLConnection.guessContentTypeFromName(lower);
+        return guessed != null ? guessed : "application/octet-stream";
+    }
+
+    private Artifact commit(Path file, String hash, long size, String name, String contentType,
+                            String sourceKey) throws IOException {
+        String displayName = name != null && !name.isBlank() ? name.strip() : hash;
+        Path target = root.resolve(hash.substring(0, 2)).resolve(hash + extension(displayName));
+        synchronized (entries) {
+            Entry existing = entries.get(hash);
+            if (existing != null && Files.isRegularFile(Path.of(existing.artifact.path()))) {
+                Files.deleteIfExists(file);
+                existing.lastAccessedAt = System.currentTimeMillis();
+                registerSource(sourceKey, hash);
+                log.debug("制品已存在，复用 - {}: {}", hash, existing.artifact.name());
+                return existing.artifact;
+            }
+            if (existing != null) {
+                removeLocked(hash);
+            }
+            Files.createDirectories(target.getParent());
+            move(file, target);
+            long now = System.currentTimeMillis();
+            Artifact artifact = new Artifact(hash, displayName,
+                    contentType != null ? contentType : contentTypeOf(displayName), size, target.toString(), now);
+            entries.put(hash, new Entry(artifact, now));
+            totalBytes += size;
+            registerSource(sourceKey, hash);
+            evictLocked(hash);
+            return artifact;
+        }
+    }
+
+    private void registerSource(String sourceKey, String hash) {
+        if (sourceKey != null) {
+            sources.put(sourceKey, hash);
+        }
+    }
+
+    /**
+     * 先删除超过保留期未访问的，再从最久未访问的开始删除直到不超过容量；keep 为刚入库的制品，不会被删除
+     */
+    private int evictLocked(String keep) {
+        long expiredBefore = System.currentTimeMillis() - retention.toMillis();
+        List<String> victims = new ArrayList<>();
+        long remaining = totalBytes;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getKey().equals(keep)) {
+                continue;
+            }
+            if (e.getValue().lastAccessedAt < expiredBefore || remaining > maxBytes) {
+                victims.add(e.getKey());
+                remaining -= e.getValue().artifact.size();
+            }
+        }
+        for (String hash : victims) {
+            Artifact artifact = removeLocked(hash);
+            log.info("淘汰制品 - {}: {}, {} 字节", hash, artifact.name(), artifact.size());
+        }
+        return victims.size();
+    }
+
+    private Artifact removeLocked(String hash) {
+        Entry entry = entries.remove(hash);
+        if (entry == null) {
+            return null;
+        }
+        totalBytes -= entry.artifact.size();
+        sources.values().removeIf(hash::equals);
+        // 正在发送的文件已打开，删除目录项不影响发送完成
+        deleteQuietly(Path.of(entry.artifact.path()));
+        return entry.artifact;
+    }
+
+    /**
+     * 从目录重建索引，按修改时间作为访问顺序；下载文件名等元数据不落盘，重建后以存储文件名代替
+     */
+    private void scan() {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root, 2)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("扫描制品目录失败: " + root, e);
+        }
+        List<Entry> found = new ArrayList<>();
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if (fileName.startsWith(INCOMING_PREFIX)) {
+                deleteQuietly(file);
+                continue;
+            }
+            Matcher matcher = STORED_NAME.matcher(fileName);
+            if (!matcher.matches()) {
+                continue;
+            }
+            try {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                found.add(new Entry(new Artifact(matcher.group(1), fileName, contentTypeOf(fileName),
+                        Files.size(file), file.toString(), modified), modified));
+            } catch (IOException e) {
+                log.warn("读取制品失败，跳过: {}", file, e);
+            }
+        }
+        found.sort(Comparator.comparingLong(entry -> entry.lastAccessedAt));
+        synchronized (entries) {
+            for (Entry entry : found) {
+                entries.put(entry.artifact.hash(), entry);
+                totalBytes += entry.artifact.size();
+            }
+            int evicted = evictLocked(null);
+            if (!entries.isEmpty()) {
+                log.info("制品索引已重建 - {} 个，共 {} 字节，淘汰 {} 个", entries.size(), totalBytes, evicted);
+            }
+        }
+    }
+
+    /**
+     * 通过文件通道和直接缓冲区计算 SHA-256，文件内容不经过堆数组
+     */
+    static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String ext = name.substring(dot).toLowerCase(Locale.ROOT);
+        return ext.matches("\\.[a-z0-9]{1,8}") ? ext : "";
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // 跨文件系统时退化为复制后删除
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("删除文件失败: {}", path, e);
+        }
+    }
+}
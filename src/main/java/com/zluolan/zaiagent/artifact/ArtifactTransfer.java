@@ -0,0 +1,117 @@
+package com.zluolan.zaiagent.artifact;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 制品下载
+ * 支持 ETag / If-None-Match 协商缓存和单区间 Range（含 If-Range）断点续传。
+ * 内嵌 Tomcat 支持 sendfile 时只登记文件和区间，由连接器在请求结束后用 sendfile 直接从页缓存发往套接字，
+ * 文件内容不进入 JVM；否则通过 {@link FileChannel#transferTo} 分块写出，只占用固定大小的缓冲区。
+ */
+public final class ArtifactTransfer {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private ArtifactTransfer() {
+    }
+
+    /**
+     * 按请求头发送制品的全部或部分内容，HEAD 请求只写响应头
+     */
+    public static void send(Artifact artifact, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long size = artifact.size();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, artifact.etag());
+        // 内容寻址，同一地址的内容永远不变
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), artifact.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ByteRange range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.strip().equals(artifact.etag())) {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        response.setContentType(artifact.contentType());
+        ContentDisposition.Builder disposition = artifact.contentType().startsWith("image/")
+                ? ContentDisposition.inline() : ContentDisposition.attachment();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                disposition.filename(artifact.name(), StandardCharsets.UTF_8).build().toString());
+        long start = 0;
+        long length = size;
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+            start = range.start();
+            length = range.length();
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, artifact.path());
+            request.setAttribute(SENDFILE_START, start);
+            // 结束偏移不含
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        transfer(Path.of(artifact.path()), start, length, response.getOutputStream());
+    }
+
+    /**
+     * 把文件的一段写入输出流，返回实际写出的字节数（文件被截断时少于 count）
+     */
+    static long transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < count) {
+                long written = channel.transferTo(position + sent, count - sent, target);
+                if (written <= 0) {
+                    break;
+                }
+                sent += written;
+            }
+            return sent;
+        }
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
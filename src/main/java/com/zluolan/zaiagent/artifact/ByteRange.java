@@ -0,0 +1,71 @@
+package com.zluolan.zaiagent.artifact;
+
+/**
+ * HTTP Range 请求中的单个字节区间（闭区间）
+ *
+ * @param start 起始偏移
+ * @param end   结束偏移（含）
+ */
+public record ByteRange(long start, long end) {
+
+    /**
+     * 请求的区间都在文件之外，应返回 416
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Content-Range 响应头的值
+     */
+    public String contentRange(long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    /**
+     * 解析 Range 请求头
+     * 支持 {@code bytes=a-b}、{@code bytes=a-}、{@code bytes=-n}；没有请求头、格式不合法或请求多个区间时返回 null，
+     * 按规范忽略 Range 返回完整内容；区间完全超出文件时返回 {@link #UNSATISFIABLE}
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).strip();
+        if (spec.isEmpty() || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).strip();
+            String last = spec.substring(dash + 1).strip();
+            if (first.isEmpty()) {
+                // 后缀区间：最后 n 个字节
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.zluolan.zaiagent.budget;
+
+import com.zluolan.zaiagent.poi.PriceTier;
+
+/**
+ * 一次预算估算的结果，四个价格档次的分项费用一次算好
+ *
+ * @param city      城市
+ * @param reference 城市不在消费表中、使用参考值估算时为 true
+ * @param days      天数
+ * @param nights    住宿晚数（天数减一）
+ * @param travelers 人数
+ * @param rooms     房间数（两人一间）
+ * @param amounts   分项费用，下标为 档次序号 × 项目数 + 项目序号
+ */
+public record BudgetEstimate(String city,
+                             boolean reference,
+                             int days,
+                             int nights,
+                             int travelers,
+                             int rooms,
+                             long[] amounts) {
+
+    private static final int ITEMS = CostItem.values().length;
+
+    /**
+     * 某档次某项目的总费用
+     */
+    public long amount(PriceTier tier, CostItem item) {
+        return amounts[tier.ordinal() * ITEMS + item.ordinal()];
+    }
+
+    /**
+     * 某档次的总费用
+     */
+    public long total(PriceTier tier) {
+        long total = 0;
+        for (int item = 0; item < ITEMS; item++) {
+            total += amounts[tier.ordinal() * ITEMS + item];
+        }
+        return total;
+    }
+
+    /**
+     * 某档次的人均费用（向上取整）
+     */
+    public long perPerson(PriceTier tier) {
+        return (total(tier) + travelers - 1) / travelers;
+    }
+
+    /**
+     * 预算内能达到的最高档次
+     *
+     * @return 连经济型都不够时返回 null
+     */
+    public PriceTier fit(long budget) {
+        PriceTier fit = null;
+        for (PriceTier tier : PriceTier.values()) {
+            if (total(tier) <= budget) {
+                fit = tier;
+            }
+        }
+        return fit;
+    }
+}
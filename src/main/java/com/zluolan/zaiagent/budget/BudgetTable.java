@@ -0,0 +1,172 @@
+package com.zluolan.zaiagent.budget;
+
+import com.zluolan.zaiagent.poi.PriceTier;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 城市消费参考表
+ * 每个城市按价格档次记录住宿（每间每晚）和餐饮、市内交通、门票娱乐（每人每天）的参考花费，
+ * 加载后压平为一个 int 数组，估算只是几十次乘加，微秒级完成，不需要联网或让大模型做算术。
+ * 表中没有的城市使用“*”行的参考值。实例构建后只读，可在多线程间共享。
+ */
+@Slf4j
+public final class BudgetTable {
+
+    public static final String DEFAULT_RESOURCE = "budget/city-costs.tsv";
+
+    private static final String REFERENCE = "*";
+    private static final int TIERS = PriceTier.values().length;
+    private static final int ITEMS = CostItem.values().length;
+
+    private final Map<String, Integer> cityIndex;
+    private final int referenceRow;
+    private final int[] costs;
+
+    private BudgetTable(List<String> cities, int[] costs) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < cities.size(); i++) {
+            index.put(cities.get(i), i);
+        }
+        if (!index.containsKey(REFERENCE)) {
+            throw new IllegalArgumentException("消费表缺少城市为“" + REFERENCE + "”的参考行");
+        }
+        this.cityIndex = Map.copyOf(index);
+        this.referenceRow = index.get(REFERENCE);
+        this.costs = costs;
+    }
+
+    private static final class DefaultHolder {
+        private static final BudgetTable INSTANCE = loadResource(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * 获取基于内置消费表的共享实例（首次调用时加载）
+     */
+    public static BudgetTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 从类路径加载消费表
+     */
+    public static BudgetTable loadResource(String resource) {
+        try (InputStream in = BudgetTable.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("消费表不存在: " + resource);
+            }
+            BudgetTable table = load(in);
+            log.info("消费表加载完成 - 来源: {}, 城市: {}", resource, table.size());
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取消费表失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 从输入流加载消费表，格式错误时抛出带行号的 {@link IllegalArgumentException}
+     */
+    public static BudgetTable load(InputStream in) throws IOException {
+        List<String> cities = new ArrayList<>();
+        int[] costs = new int[0];
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                String[] fields = line.split("\t", -1);
+                if (!"@cost".equals(fields[0]) || fields.length != 2 + ITEMS || fields[1].isBlank()) {
+                    throw new IllegalArgumentException("应为“@cost\t城市\t住宿\t餐饮\t市内交通\t门票娱乐”");
+                }
+                String city = fields[1].strip();
+                if (cities.contains(city)) {
+                    throw new IllegalArgumentException("城市「" + city + "」重复");
+                }
+                int row = cities.size();
+                costs = Arrays.copyOf(costs, (row + 1) * TIERS * ITEMS);
+                for (int item = 0; item < ITEMS; item++) {
+                    String[] values = fields[2 + item].split(",");
+                    if (values.length != TIERS) {
+                        throw new IllegalArgumentException(CostItem.values()[item].getLabel()
+                                + "应有" + TIERS + "档价格，实际为" + values.length);
+                    }
+                    for (int tier = 0; tier < TIERS; tier++) {
+                        int value = Integer.parseInt(values[tier].strip());
+                        if (value < 0) {
+                            throw new IllegalArgumentException("价格不能为负数: " + value);
+                        }
+                        costs[(row * TIERS + tier) * ITEMS + item] = value;
+                    }
+                }
+                cities.add(city);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("消费表第" + lineNumber + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return new BudgetTable(cities, costs);
+    }
+
+    /**
+     * 城市是否在表中（不含参考行）
+     */
+    public boolean contains(String city) {
+        return city != null && !REFERENCE.equals(city) && cityIndex.containsKey(city);
+    }
+
+    /**
+     * 单价：住宿为每间每晚，其余为每人每天；表中没有的城市返回参考值
+     */
+    public int cost(String city, PriceTier tier, CostItem item) {
+        return costs[(row(city) * TIERS + tier.ordinal()) * ITEMS + item.ordinal()];
+    }
+
+    /**
+     * 估算全部档次的分项费用，两人一间，住宿晚数为天数减一
+     */
+    public BudgetEstimate estimate(String city, int days, int travelers) {
+        if (days < 1 || travelers < 1) {
+            throw new IllegalArgumentException("天数和人数至少为1");
+        }
+        int row = row(city);
+        int nights = days - 1;
+        int rooms = (travelers + 1) / 2;
+        long[] amounts = new long[TIERS * ITEMS];
+        for (int tier = 0; tier < TIERS; tier++) {
+            int base = (row * TIERS + tier) * ITEMS;
+            int offset = tier * ITEMS;
+            for (CostItem item : CostItem.values()) {
+                long unit = costs[base + item.ordinal()];
+                amounts[offset + item.ordinal()] = item == CostItem.LODGING
+                        ? unit * nights * rooms : unit * days * travelers;
+            }
+        }
+        return new BudgetEstimate(city, row == referenceRow, days, nights, travelers, rooms, amounts);
+    }
+
+    /**
+     * 表中的城市数量（不含参考行）
+     */
+    public int size() {
+        return cityIndex.size() - 1;
+    }
+
+    private int row(String city) {
+        Integer row = city != null ? cityIndex.get(city) : null;
+        return row != null ? row : referenceRow;
+    }
+}
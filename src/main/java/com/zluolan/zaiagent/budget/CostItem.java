@@ -0,0 +1,22 @@
+package com.zluolan.zaiagent.budget;
+
+/**
+ * 预算费用项目
+ */
+public enum CostItem {
+
+    LODGING("住宿"),
+    MEALS("餐饮"),
+    TRANSPORT("市内交通"),
+    TICKETS("门票娱乐");
+
+    private final String label;
+
+    CostItem(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,147 @@
+package com.zluolan.zaiagent.concurrent;
+
+import com.zluolan.zaiagent.resilience.StepDeadline;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工具子查询并发执行器
+ * 把组合工具中互不依赖的子查询并发执行，所有子查询共享同一个截止时间，
+ * 超时的子查询被取消并标记为 TIMEOUT，已完成的部分照常返回。
+ * 子查询在工作线程上沿用提交线程的步骤截止时间（{@link StepDeadline}），并且不晚于共享截止时间，
+ * 子查询内的外部调用据此缩短各自的超时
+ */
+@Component
+@Slf4j
+public class FanOutExecutor {
+
+    private static final int POOL_SIZE = 16;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final ExecutorService executor;
+
+    public FanOutExecutor() {
+        this(newPool());
+    }
+
+    public FanOutExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    private static final class DefaultHolder {
+        private static final FanOutExecutor INSTANCE = new FanOutExecutor();
+    }
+
+    /**
+     * 获取进程内共享的执行器，供不经 Spring 创建的工具使用，避免每个工具实例各开一个线程池。
+     * 共享实例不随容器关闭，空闲线程超时后自行退出
+     */
+    public static FanOutExecutor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static ExecutorService newPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new FanOutThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 并发执行所有子查询，最多等待 timeoutMillis 毫秒，当前步骤剩余时间更短时以步骤截止时间为准
+     *
+     * @param tasks         子查询，key 为子查询名称，按插入顺序返回结果
+     * @param timeoutMillis 共享截止时间
+     */
+    public <T> FanOutResult<T> invokeAll(Map<String, Callable<T>> tasks, long timeoutMillis) {
+        long startNanos = System.nanoTime();
+        long budgetMillis = Math.min(timeoutMillis, StepDeadline.remainingMillis());
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        List<String> names = new ArrayList<>(tasks.keySet());
+        List<Future<SectionResult<T>>> futures = new ArrayList<>(names.size());
+        for (String name : names) {
+            Callable<T> task = StepDeadline.wrap(tasks.get(name), budgetMillis);
+            try {
+                futures.add(executor.submit(() -> runTimed(name, task)));
+            } catch (RejectedExecutionException e) {
+                futures.add(null);
+            }
+        }
+
+        Map<String, SectionResult<T>> results = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            Future<SectionResult<T>> future = futures.get(i);
+            if (future == null) {
+                results.put(name, SectionResult.failed(name, 0, "rejected: executor saturated"));
+                continue;
+            }
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.put(name, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                results.put(name, SectionResult.timeout(name, elapsedMillis(startNanos)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.put(name, SectionResult.failed(name, elapsedMillis(startNanos), "interrupted"));
+            } catch (ExecutionException e) {
+                results.put(name, SectionResult.failed(name, elapsedMillis(startNanos), String.valueOf(e.getCause())));
+            }
+        }
+
+        FanOutResult<T> fanOutResult = new FanOutResult<>(results, elapsedMillis(startNanos));
+        log.info("并发子查询完成: {}", fanOutResult.timingSummary());
+        return fanOutResult;
+    }
+
+    private <T> SectionResult<T> runTimed(String name, Callable<T> task) {
+        long start = System.nanoTime();
+        try {
+            return SectionResult.ok(name, task.call(), elapsedMillis(start));
+        } catch (Exception e) {
+            log.warn("子查询 {} 执行失败: {}", name, e.getMessage());
+            return SectionResult.failed(name, elapsedMillis(start), e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class FanOutThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "tool-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.zluolan.zaiagent.concurrent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 一次并发扇出的全部结果，保持子查询的提交顺序
+ */
+public class FanOutResult<T> {
+
+    private final Map<String, SectionResult<T>> sections;
+    private final long totalMillis;
+
+    FanOutResult(Map<String, SectionResult<T>> sections, long totalMillis) {
+        this.sections = Collections.unmodifiableMap(sections);
+        this.totalMillis = totalMillis;
+    }
+
+    public SectionResult<T> get(String name) {
+        return sections.get(name);
+    }
+
+    public Collection<SectionResult<T>> sections() {
+        return sections.values();
+    }
+
+    public long totalMillis() {
+        return totalMillis;
+    }
+
+    public boolean isComplete() {
+        return sections.values().stream().allMatch(SectionResult::isOk);
+    }
+
+    /**
+     * 各子查询耗时摘要，如：total=812ms; attractions=35ms; hotels=TIMEOUT(8000ms)
+     */
+    public String timingSummary() {
+        return "total=" + totalMillis + "ms; " + sections.values().stream()
+                .map(section -> section.name() + "=" + (section.isOk()
+                        ? section.elapsedMillis() + "ms"
+                        : section.status() + "(" + section.elapsedMillis() + "ms)"))
+                .collect(Collectors.joining("; "));
+    }
+}
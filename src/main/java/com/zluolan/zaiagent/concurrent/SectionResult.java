@@ -0,0 +1,33 @@
+package com.zluolan.zaiagent.concurrent;
+
+/**
+ * 并发子查询的单项结果
+ *
+ * @param name          子查询名称
+ * @param value         结果值，超时或失败时为 null
+ * @param status        执行状态
+ * @param elapsedMillis 耗时（毫秒）
+ * @param error         失败原因
+ */
+public record SectionResult<T>(String name, T value, Status status, long elapsedMillis, String error) {
+
+    public enum Status {
+        OK, TIMEOUT, FAILED
+    }
+
+    public static <T> SectionResult<T> ok(String name, T value, long elapsedMillis) {
+        return new SectionResult<>(name, value, Status.OK, elapsedMillis, null);
+    }
+
+    public static <T> SectionResult<T> timeout(String name, long elapsedMillis) {
+        return new SectionResult<>(name, null, Status.TIMEOUT, elapsedMillis, "timeout");
+    }
+
+    public static <T> SectionResult<T> failed(String name, long elapsedMillis, String error) {
+        return new SectionResult<>(name, null, Status.FAILED, elapsedMillis, error);
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
@@ -0,0 +1,24 @@
+package com.zluolan.zaiagent.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 管理接口配置
+ * /api/travel/admin/** 下的接口会修改运行时状态（启停工具、重新加载工具等），
+ * 需要在请求头 X-Admin-Token 中携带 travel.admin.token
+ */
+@Configuration
+public class AdminConfig implements WebMvcConfigurer {
+
+    @Value("${travel.admin.token:}")
+    private String adminToken;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(adminToken))
+                .addPathPatterns("/api/travel/admin/**");
+    }
+}
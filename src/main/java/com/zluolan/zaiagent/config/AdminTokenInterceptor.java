@@ -0,0 +1,44 @@
+package com.zluolan.zaiagent.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 管理接口鉴权
+ * 请求头 X-Admin-Token 必须与 travel.admin.token 一致；未配置令牌时管理接口全部拒绝
+ */
+@Slf4j
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(String token) {
+        this.token = token != null && !token.isBlank() ? token.strip().getBytes(StandardCharsets.UTF_8) : null;
+        if (this.token == null) {
+            log.warn("未配置 travel.admin.token，管理接口将拒绝所有请求");
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (token == null) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        String provided = request.getHeader(HEADER);
+        // 按常量时间比较，避免通过响应时间猜出令牌
+        if (provided == null || !MessageDigest.isEqual(token, provided.strip().getBytes(StandardCharsets.UTF_8))) {
+            log.warn("管理接口鉴权失败 - {} {}", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+        return true;
+    }
+}
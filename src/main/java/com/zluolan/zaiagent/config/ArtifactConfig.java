@@ -0,0 +1,26 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 制品存储配置
+ * travel.artifact.dir 为存储目录（默认 ${user.dir}/tmp/artifacts），
+ * travel.artifact.max-size 为总容量上限，travel.artifact.retention 为未访问制品的保留期
+ */
+@Configuration
+public class ArtifactConfig {
+
+    @Bean
+    public ArtifactStore artifactStore(@Value("${travel.artifact.dir:${user.dir}/tmp/artifacts}") String dir,
+                                       @Value("${travel.artifact.max-size:512MB}") DataSize maxSize,
+                                       @Value("${travel.artifact.retention:7d}") Duration retention) {
+        return new ArtifactStore(Path.of(dir), maxSize.toBytes(), retention);
+    }
+}
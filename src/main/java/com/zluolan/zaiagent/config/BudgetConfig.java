@@ -0,0 +1,18 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.budget.BudgetTable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 预算估算配置
+ * 消费表与工具的无参构造共用同一个默认实例
+ */
+@Configuration
+public class BudgetConfig {
+
+    @Bean
+    public BudgetTable budgetTable() {
+        return BudgetTable.getDefault();
+    }
+}
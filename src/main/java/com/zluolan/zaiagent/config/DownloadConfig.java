@@ -0,0 +1,30 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.download.ResourceDownloader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * 资源下载配置
+ * 下载完成的文件存入制品存储，travel.download.partial-dir 存放未完成的下载以便续传（默认 ${user.dir}/tmp/downloads），
+ * travel.download.max-size 为单个文件大小上限，travel.download.parallelism、travel.download.per-host
+ * 为总并发数和单个站点的并发数
+ */
+@Configuration
+public class DownloadConfig {
+
+    @Bean
+    public ResourceDownloader resourceDownloader(
+            ArtifactStore artifactStore,
+            @Value("${travel.download.partial-dir:${user.dir}/tmp/downloads}") String partialDir,
+            @Value("${travel.download.max-size:20MB}") DataSize maxSize,
+            @Value("${travel.download.parallelism:4}") int parallelism,
+            @Value("${travel.download.per-host:2}") int perHost) {
+        return new ResourceDownloader(artifactStore, Path.of(partialDir), maxSize.toBytes(), parallelism, perHost);
+    }
+}
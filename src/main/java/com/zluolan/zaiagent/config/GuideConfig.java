@@ -0,0 +1,38 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.guide.GuideSearchEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 攻略检索配置
+ * 启动时加载内置攻略语料；配置了 travel.guide.corpus 时再导入该文件，编号相同的攻略以导入文件为准
+ */
+@Configuration
+@Slf4j
+public class GuideConfig {
+
+    @Bean
+    public GuideSearchEngine guideSearchEngine(@Value("${travel.guide.corpus:}") String corpus) {
+        GuideSearchEngine engine = GuideSearchEngine.getDefault();
+        if (!corpus.isBlank()) {
+            Path file = Path.of(corpus);
+            if (Files.isRegularFile(file)) {
+                try {
+                    engine.importCorpus(file);
+                } catch (IOException | IllegalArgumentException e) {
+                    log.error("攻略语料导入失败: {}", file, e);
+                }
+            } else {
+                log.warn("攻略语料文件不存在: {}", file);
+            }
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,47 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.inventory.InventoryLoader;
+import com.zluolan.zaiagent.inventory.InventoryStore;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * 酒店房态配置
+ * 启动时以 POI 目录生成从当天开始、随日期滚动的模拟房态；配置了 travel.inventory.snapshot 时在后台导入该快照文件覆盖对应日期，
+ * 导入期间查询照常进行
+ */
+@Configuration
+@Slf4j
+public class InventoryConfig {
+
+    @Bean
+    public InventoryStore inventoryStore(PoiCatalog poiCatalog,
+                                         @Value("${travel.inventory.days:" + InventoryStore.DEFAULT_DAYS + "}") int days) {
+        return InventoryStore.rolling(poiCatalog, Clock.systemDefaultZone(), days);
+    }
+
+    @Bean
+    public InventoryLoader inventoryLoader(InventoryStore inventoryStore, PoiCatalog poiCatalog,
+                                           @Value("${travel.inventory.snapshot:}") String snapshot) {
+        InventoryLoader loader = new InventoryLoader(inventoryStore, poiCatalog);
+        if (!snapshot.isBlank()) {
+            Path file = Path.of(snapshot);
+            if (Files.isRegularFile(file)) {
+                loader.loadAsync(file).exceptionally(e -> {
+                    log.error("房态快照导入失败: {}", file, e);
+                    return null;
+                });
+            } else {
+                log.warn("房态快照文件不存在: {}", file);
+            }
+        }
+        return loader;
+    }
+}
@@ -0,0 +1,18 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 地点规范化配置
+ * 与工具的无参构造共用同一个默认实例
+ */
+@Configuration
+public class LocationConfig {
+
+    @Bean
+    public LocationNormalizer locationNormalizer() {
+        return LocationNormalizer.getDefault();
+    }
+}
@@ -0,0 +1,45 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.mcp.McpClientPool;
+import com.zluolan.zaiagent.mcp.McpServerSpec;
+import com.zluolan.zaiagent.mcp.McpToolCallbackProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MCP 连接池配置，travel.mcp.enabled=true 时启用（Spring AI 自带的 MCP 客户端保持关闭）
+ * travel.mcp.servers-configuration 为 mcp-servers.json 格式的服务配置，离线测试可用 classpath:mcp/standin-servers.json；
+ * 每个服务常驻 pool-size 个进程，每个进程最多 max-in-flight 个并发请求，超出后最多排队 max-queued 个。
+ * 提供的工具回调由工具注册表统一收录。
+ */
+@Configuration
+@ConditionalOnProperty(name = "travel.mcp.enabled", havingValue = "true")
+public class McpConfig {
+
+    @Bean
+    public McpToolCallbackProvider mcpToolCallbackProvider(
+            @Value("${travel.mcp.servers-configuration:classpath:mcp-servers.json}") Resource serversConfiguration,
+            @Value("${travel.mcp.pool-size:2}") int poolSize,
+            @Value("${travel.mcp.max-in-flight:8}") int maxInFlight,
+            @Value("${travel.mcp.max-queued:64}") int maxQueued,
+            @Value("${travel.mcp.request-timeout:30s}") Duration requestTimeout) throws IOException {
+        List<McpServerSpec> specs;
+        try (InputStream in = serversConfiguration.getInputStream()) {
+            specs = McpServerSpec.load(in);
+        }
+        List<McpClientPool> pools = new ArrayList<>(specs.size());
+        for (McpServerSpec spec : specs) {
+            pools.add(new McpClientPool(spec, poolSize, maxInFlight, maxQueued, requestTimeout));
+        }
+        return new McpToolCallbackProvider(pools, requestTimeout);
+    }
+}
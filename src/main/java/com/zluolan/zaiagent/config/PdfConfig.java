@@ -0,0 +1,23 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.pdf.PdfRenderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * PDF 渲染配置
+ * 生成的行程单存入制品存储（见 {@link ArtifactConfig}），
+ * travel.pdf.workers、travel.pdf.queue-capacity 为渲染线程数和等待队列长度
+ */
+@Configuration
+public class PdfConfig {
+
+    @Bean
+    public PdfRenderService pdfRenderService(ArtifactStore artifactStore,
+                                             @Value("${travel.pdf.workers:2}") int workers,
+                                             @Value("${travel.pdf.queue-capacity:16}") int queueCapacity) {
+        return new PdfRenderService(artifactStore, workers, queueCapacity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * POI 目录配置
+ * 与工具的无参构造共用同一个默认实例，避免重复加载数据文件
+ */
+@Configuration
+public class PoiCatalogConfig {
+
+    @Bean
+    public PoiCatalog poiCatalog() {
+        return PoiCatalog.getDefault();
+    }
+}
@@ -0,0 +1,53 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.resilience.DependencyPolicy;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 外部依赖保护配置
+ * 高德和 SearchAPI 的并发上限、超时可通过 travel.resilience.* 调整，熔断参数使用内置默认值；
+ * travel.resilience.hedge.enabled 控制高德读请求是否对冲
+ */
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * 容器自己的实例，不复用 {@link ToolGuard#getDefault()}：容器关闭时会关闭实例的线程池，
+     * 共享实例被关闭后进程内所有不经 Spring 创建的工具都会降级
+     */
+    @Bean
+    public ToolGuard toolGuard(@Value("${travel.resilience.amap.max-concurrent:8}") int amapConcurrent,
+                               @Value("${travel.resilience.amap.timeout-millis:3000}") long amapTimeout,
+                               @Value("${travel.resilience.search-api.max-concurrent:4}") int searchConcurrent,
+                               @Value("${travel.resilience.search-api.timeout-millis:8000}") long searchTimeout) {
+        List<DependencyPolicy> policies = new ArrayList<>();
+        for (DependencyPolicy policy : ToolGuard.defaultPolicies()) {
+            policies.add(switch (policy.name()) {
+                case ToolGuard.AMAP -> override(policy, amapConcurrent, amapTimeout);
+                case ToolGuard.SEARCH_API -> override(policy, searchConcurrent, searchTimeout);
+                default -> policy;
+            });
+        }
+        return new ToolGuard(policies);
+    }
+
+    /**
+     * 同样使用独立实例，启停只影响容器中的客户端
+     */
+    @Bean
+    public HedgedRequester hedgedRequester(@Value("${travel.resilience.hedge.enabled:true}") boolean enabled) {
+        return HedgedRequester.withDefaults(enabled);
+    }
+
+    private static DependencyPolicy override(DependencyPolicy policy, int maxConcurrent, long timeoutMillis) {
+        return new DependencyPolicy(policy.name(), maxConcurrent, policy.maxWaitMillis(), timeoutMillis,
+                policy.failureThreshold(), policy.openMillis());
+    }
+}
@@ -0,0 +1,24 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.routing.RoutingEngine;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 离线路线引擎与同城距离矩阵配置
+ * 与工具的无参构造共用同一个默认实例，交通网络只加载一次，距离矩阵缓存也只有一份
+ */
+@Configuration
+public class RoutingConfig {
+
+    @Bean
+    public RoutingEngine routingEngine() {
+        return RoutingEngine.getDefault();
+    }
+
+    @Bean
+    public TravelMatrixService travelMatrixService() {
+        return TravelMatrixService.getDefault();
+    }
+}
@@ -1,22 +1,142 @@
 package com.zluolan.zaiagent.config;
 
+import com.zluolan.zaiagent.mcp.AmapMcpToolWrapper;
+import com.zluolan.zaiagent.mcp.AmapMcpToolWrapperCallbacks;
+import com.zluolan.zaiagent.toolcall.OutputMode;
+import com.zluolan.zaiagent.toolcall.ToolOutputEncoder;
+import com.zluolan.zaiagent.toolcall.ToolPayloadStore;
+import com.zluolan.zaiagent.toolcall.ToolRegistry;
+import com.zluolan.zaiagent.tools.AttractionSearchTool;
+import com.zluolan.zaiagent.tools.AttractionSearchToolCallbacks;
+import com.zluolan.zaiagent.tools.BatchWeatherTool;
+import com.zluolan.zaiagent.tools.BatchWeatherToolCallbacks;
+import com.zluolan.zaiagent.tools.BudgetEstimateTool;
+import com.zluolan.zaiagent.tools.BudgetEstimateToolCallbacks;
+import com.zluolan.zaiagent.tools.DestinationCompareTool;
+import com.zluolan.zaiagent.tools.DestinationCompareToolCallbacks;
+import com.zluolan.zaiagent.tools.EnhancedTravelTools;
+import com.zluolan.zaiagent.tools.EnhancedTravelToolsCallbacks;
+import com.zluolan.zaiagent.tools.HotelSearchTool;
+import com.zluolan.zaiagent.tools.HotelSearchToolCallbacks;
+import com.zluolan.zaiagent.tools.ItineraryPlannerTool;
+import com.zluolan.zaiagent.tools.ItineraryPlannerToolCallbacks;
+import com.zluolan.zaiagent.tools.NearbySearchTool;
+import com.zluolan.zaiagent.tools.NearbySearchToolCallbacks;
+import com.zluolan.zaiagent.tools.PdfGenerationTool;
+import com.zluolan.zaiagent.tools.PdfGenerationToolCallbacks;
+import com.zluolan.zaiagent.tools.RedbookTravelGuideTool;
+import com.zluolan.zaiagent.tools.RedbookTravelGuideToolCallbacks;
+import com.zluolan.zaiagent.tools.ResourceDownloadTool;
+import com.zluolan.zaiagent.tools.ResourceDownloadToolCallbacks;
+import com.zluolan.zaiagent.tools.RoutePlanningTool;
+import com.zluolan.zaiagent.tools.RoutePlanningToolCallbacks;
+import com.zluolan.zaiagent.tools.TerminateTool;
+import com.zluolan.zaiagent.tools.TerminateToolCallbacks;
+import com.zluolan.zaiagent.tools.WaypointOptimizerTool;
+import com.zluolan.zaiagent.tools.WaypointOptimizerToolCallbacks;
+import com.zluolan.zaiagent.tools.WeatherQueryTool;
+import com.zluolan.zaiagent.tools.WeatherQueryToolCallbacks;
+import com.zluolan.zaiagent.tools.WebPageReaderTool;
+import com.zluolan.zaiagent.tools.WebPageReaderToolCallbacks;
+import com.zluolan.zaiagent.tools.WebSearchTool;
+import com.zluolan.zaiagent.tools.WebSearchToolCallbacks;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.support.ToolUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Configuration
 public class ToolConfig {
 
+    /**
+     * 本地旅游工具（@Tool 方法）
+     * 回调由 ToolCallbackProcessor 在编译期生成（{@code <类名>Callbacks}），Schema 已预先算好，
+     * 调用时直接调用工具方法，启动时不再反射扫描，也不再逐次反射调用
+     */
     @Bean
-    public ToolCallback[] allTools(List<ToolCallbackProvider> toolCallbackProviders) {
-        return toolCallbackProviders.stream()
+    public ToolCallbackProvider travelToolCallbackProvider(AttractionSearchTool attractionSearchTool,
+                                                           HotelSearchTool hotelSearchTool,
+                                                           NearbySearchTool nearbySearchTool,
+                                                           RoutePlanningTool routePlanningTool,
+                                                           WaypointOptimizerTool waypointOptimizerTool,
+                                                           ItineraryPlannerTool itineraryPlannerTool,
+                                                           WeatherQueryTool weatherQueryTool,
+                                                           BatchWeatherTool batchWeatherTool,
+                                                           DestinationCompareTool destinationCompareTool,
+                                                           BudgetEstimateTool budgetEstimateTool,
+                                                           RedbookTravelGuideTool redbookTravelGuideTool,
+                                                           EnhancedTravelTools enhancedTravelTools,
+                                                           AmapMcpToolWrapper amapMcpToolWrapper,
+                                                           WebSearchTool webSearchTool,
+                                                           WebPageReaderTool webPageReaderTool,
+                                                           PdfGenerationTool pdfGenerationTool,
+                                                           ResourceDownloadTool resourceDownloadTool,
+                                                           TerminateTool terminateTool) {
+        List<ToolCallback> callbacks = new ArrayList<>();
+        callbacks.addAll(AttractionSearchToolCallbacks.of(attractionSearchTool));
+        callbacks.addAll(HotelSearchToolCallbacks.of(hotelSearchTool));
+        callbacks.addAll(NearbySearchToolCallbacks.of(nearbySearchTool));
+        callbacks.addAll(RoutePlanningToolCallbacks.of(routePlanningTool));
+        callbacks.addAll(WaypointOptimizerToolCallbacks.of(waypointOptimizerTool));
+        callbacks.addAll(ItineraryPlannerToolCallbacks.of(itineraryPlannerTool));
+        callbacks.addAll(WeatherQueryToolCallbacks.of(weatherQueryTool));
+        callbacks.addAll(BatchWeatherToolCallbacks.of(batchWeatherTool));
+        callbacks.addAll(DestinationCompareToolCallbacks.of(destinationCompareTool));
+        callbacks.addAll(BudgetEstimateToolCallbacks.of(budgetEstimateTool));
+        callbacks.addAll(RedbookTravelGuideToolCallbacks.of(redbookTravelGuideTool));
+        callbacks.addAll(EnhancedTravelToolsCallbacks.of(enhancedTravelTools));
+        callbacks.addAll(AmapMcpToolWrapperCallbacks.of(amapMcpToolWrapper));
+        callbacks.addAll(WebSearchToolCallbacks.of(webSearchTool));
+        callbacks.addAll(WebPageReaderToolCallbacks.of(webPageReaderTool));
+        callbacks.addAll(PdfGenerationToolCallbacks.of(pdfGenerationTool));
+        callbacks.addAll(ResourceDownloadToolCallbacks.of(resourceDownloadTool));
+        callbacks.addAll(TerminateToolCallbacks.of(terminateTool));
+        List<String> duplicates = ToolUtils.getDuplicateToolNames(callbacks);
+        if (!duplicates.isEmpty()) {
+            throw new IllegalStateException("工具名重复: " + String.join(", ", duplicates));
+        }
+        return ToolCallbackProvider.from(callbacks);
+    }
+
+    /**
+     * 双通道模式下完整工具结果的存放处
+     */
+    @Bean
+    public ToolPayloadStore toolPayloadStore(@Value("${travel.tool-output.payload-capacity:256}") int capacity) {
+        return new ToolPayloadStore(capacity);
+    }
+
+    /**
+     * 工具输出编码器，travel.tool-output.mode 为 compact（默认）或 rich
+     */
+    @Bean
+    public ToolOutputEncoder toolOutputEncoder(@Value("${travel.tool-output.mode:compact}") String mode,
+                                               @Value("${travel.tool-output.max-chars:2000}") int maxChars,
+                                               @Value("${travel.tool-output.tool-max-chars:}") String toolMaxChars,
+                                               @Value("${travel.tool-output.payload-min-tokens:120}") int payloadMinTokens,
+                                               ToolPayloadStore toolPayloadStore) {
+        return new ToolOutputEncoder(OutputMode.fromText(mode), maxChars,
+                ToolOutputEncoder.parseToolMaxChars(toolMaxChars), toolPayloadStore, payloadMinTokens);
+    }
+
+    /**
+     * 工具注册表：所有工具回调统一经过输出编码，按名称索引，可在运行时启停、调整权重和重新加载
+     * travel.tools.disabled 为默认停用的工具名称（逗号分隔），travel.tools.weights 形如 "webSearch=10,doTerminate=-10"
+     */
+    @Bean
+    public ToolRegistry toolRegistry(List<ToolCallbackProvider> toolCallbackProviders,
+                                     ToolOutputEncoder toolOutputEncoder,
+                                     @Value("${travel.tools.disabled:}") String disabled,
+                                     @Value("${travel.tools.weights:}") String weights) {
+        return new ToolRegistry(() -> Arrays.asList(toolOutputEncoder.wrapAll(toolCallbackProviders.stream()
                 .flatMap(provider -> Arrays.stream(provider.getToolCallbacks()))
-                .collect(Collectors.toList())
-                .toArray(new ToolCallback[0]);
+                .toArray(ToolCallback[]::new))),
+                ToolRegistry.parseNames(disabled), ToolRegistry.parseWeights(weights));
     }
 }
@@ -0,0 +1,22 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 天气查询配置
+ * 单城市和批量天气工具注入同一个高德天气客户端，共用城市编码与天气缓存
+ */
+@Configuration
+public class WeatherConfig {
+
+    @Bean
+    public AmapWeatherClient amapWeatherClient(@Value("${amap.api.key:c35d3d557f6de34f7ecae355b99d9147}") String apiKey,
+                                               ToolGuard toolGuard, HedgedRequester hedgedRequester) {
+        return new AmapWeatherClient(apiKey, toolGuard, hedgedRequester);
+    }
+}
@@ -2,13 +2,36 @@ package com.zluolan.zaiagent.controller;
 
 import com.zluolan.zaiagent.agent.TravelPlanningAgent;
 import com.zluolan.zaiagent.app.TravelApp;
+import com.zluolan.zaiagent.artifact.Artifact;
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.artifact.ArtifactTransfer;
+import com.zluolan.zaiagent.mcp.McpPoolStats;
+import com.zluolan.zaiagent.mcp.McpToolCallbackProvider;
+import com.zluolan.zaiagent.pdf.PdfJob;
+import com.zluolan.zaiagent.pdf.PdfRenderService;
+import com.zluolan.zaiagent.resilience.DependencyStats;
+import com.zluolan.zaiagent.resilience.HedgeStats;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import com.zluolan.zaiagent.toolcall.OutputMode;
+import com.zluolan.zaiagent.toolcall.ToolOutputEncoder;
+import com.zluolan.zaiagent.toolcall.ToolOutputStats;
+import com.zluolan.zaiagent.toolcall.ToolPayload;
+import com.zluolan.zaiagent.toolcall.ToolPayloadStore;
+import com.zluolan.zaiagent.toolcall.ToolRegistry;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +39,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -27,11 +51,32 @@ public class TravelController {
     private TravelApp travelApp;
 
     @Resource
-    private ToolCallback[] allTools;
+    private ToolRegistry toolRegistry;
 
     @Resource
     private ChatModel dashscopeChatModel;
 
+    @Resource
+    private ToolOutputEncoder toolOutputEncoder;
+
+    @Resource
+    private ToolPayloadStore toolPayloadStore;
+
+    @Resource
+    private ToolGuard toolGuard;
+
+    @Resource
+    private HedgedRequester hedgedRequester;
+
+    @Resource
+    private PdfRenderService pdfRenderService;
+
+    @Resource
+    private ArtifactStore artifactStore;
+
+    @Autowired(required = false)
+    private McpToolCallbackProvider mcpToolCallbackProvider;
+
     // ==================== 旅游规划应用接口 ====================
 
     /**
@@ -85,6 +130,14 @@ public class TravelController {
                         .build());
     }
 
+    /**
+     * SSE 双通道旅游规划对话：message 事件为回答正文，tool-result 事件为完整工具结果
+     */
+    @GetMapping(value = "/chat/sse/tools")
+    public Flux<ServerSentEvent<String>> chatSSEWithPayloads(String message, String chatId) {
+        return travelApp.doChatByStreamWithPayloads(message, chatId);
+    }
+
     /**
      * SSE 流式旅游规划对话（SseEmitter格式）
      */
@@ -128,6 +181,92 @@ public class TravelController {
         return travelApp.doChatWithPlan(message, chatId);
     }
 
+    /**
+     * 按指定地点编排逐日行程，再由模型补充介绍和建议
+     */
+    @GetMapping("/plan/itinerary")
+    public ResponseEntity<TravelApp.TravelPlan> getItineraryPlan(@RequestParam(required = false) String message,
+                                                                 @RequestParam(required = false) String chatId,
+                                                                 @RequestParam(required = false) String destination,
+                                                                 @RequestParam String stops,
+                                                                 @RequestParam(required = false) Integer days,
+                                                                 @RequestParam(required = false) String startDate,
+                                                                 @RequestParam(required = false) String hotel,
+                                                                 @RequestParam(required = false) String transportMode) {
+        try {
+            return ResponseEntity.ok(travelApp.doChatWithItinerary(message, chatId, destination, stops,
+                    days, startDate, hotel, transportMode));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 编排行程并生成 PDF 行程单，立即返回渲染任务，凭任务ID查询进度和下载
+     */
+    @GetMapping("/plan/itinerary/pdf")
+    public ResponseEntity<PdfJob> getItineraryPdf(@RequestParam(required = false) String message,
+                                                  @RequestParam(required = false) String chatId,
+                                                  @RequestParam(required = false) String destination,
+                                                  @RequestParam String stops,
+                                                  @RequestParam(required = false) Integer days,
+                                                  @RequestParam(required = false) String startDate,
+                                                  @RequestParam(required = false) String hotel,
+                                                  @RequestParam(required = false) String transportMode) {
+        try {
+            TravelApp.TravelPlan plan = travelApp.doChatWithItinerary(message, chatId, destination, stops,
+                    days, startDate, hotel, transportMode);
+            return ResponseEntity.accepted().body(pdfRenderService.submit(plan));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * PDF 渲染任务状态
+     */
+    @GetMapping("/pdf/jobs/{id}")
+    public ResponseEntity<PdfJob> pdfJob(@PathVariable String id) {
+        PdfJob job = pdfRenderService.get(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 下载已生成的 PDF，任务未完成时返回 409
+     */
+    @GetMapping("/pdf/jobs/{id}/file")
+    public void pdfFile(@PathVariable String id, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        PdfJob job = pdfRenderService.get(id);
+        if (job != null && !job.isFinished()) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            return;
+        }
+        // 任务不存在、失败或行程单已被淘汰
+        Artifact artifact = job != null ? artifactStore.get(job.artifact()) : null;
+        if (artifact == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ArtifactTransfer.send(artifact, request, response);
+    }
+
+    // ==================== 制品下载接口 ====================
+
+    /**
+     * 按内容摘要下载制品（行程单、下载的图片等），支持 Range 断点续传和 ETag 缓存
+     */
+    @GetMapping("/artifacts/{hash}")
+    public void artifact(@PathVariable String hash, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Artifact artifact = artifactStore.get(hash);
+        if (artifact == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ArtifactTransfer.send(artifact, request, response);
+    }
+
     // ==================== 旅游规划智能体接口 ====================
 
     /**
@@ -167,6 +306,107 @@ public class TravelController {
 
     // ==================== 旅游工具接口 ====================
 
+    /**
+     * 各工具输出编码节省的 token 统计
+     */
+    @GetMapping("/tools/output-stats")
+    public List<ToolOutputStats.Entry> toolOutputStats() {
+        return toolOutputEncoder.getStats().snapshot();
+    }
+
+    /**
+     * 当前的工具输出编码模式（compact / rich）
+     */
+    @GetMapping("/tools/output-mode")
+    public String toolOutputMode() {
+        return toolOutputEncoder.getMode().name().toLowerCase();
+    }
+
+    /**
+     * 切换工具输出编码模式（compact / rich），对所有会话生效；需要管理令牌
+     */
+    @PutMapping("/admin/tools/output-mode")
+    public ResponseEntity<String> updateToolOutputMode(@RequestParam String mode) {
+        OutputMode target = OutputMode.fromText(mode);
+        if (target == null) {
+            return ResponseEntity.badRequest().body("未知的输出模式: " + mode + "，可选 compact、rich");
+        }
+        toolOutputEncoder.setMode(target);
+        return ResponseEntity.ok(toolOutputEncoder.getMode().name().toLowerCase());
+    }
+
+    /**
+     * 工具注册表中全部工具的启用状态和权重
+     */
+    @GetMapping("/tools/registry")
+    public List<ToolRegistry.ToolEntry> toolRegistry() {
+        return toolRegistry.entries();
+    }
+
+    /**
+     * 启停工具或调整权重，下一次对话（智能体为下一步）生效，不传的参数保持不变；需要管理令牌
+     */
+    @PutMapping("/admin/tools/registry/{name}")
+    public ResponseEntity<ToolRegistry.ToolEntry> updateTool(@PathVariable String name,
+                                                             @RequestParam(required = false) Boolean enabled,
+                                                             @RequestParam(required = false) Integer weight) {
+        try {
+            return ResponseEntity.ok(toolRegistry.update(name, enabled, weight));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 重新读取所有工具来源（如 MCP 服务新增的工具），已有工具的启用状态和权重保持不变；需要管理令牌
+     */
+    @PostMapping("/admin/tools/reload")
+    public List<ToolRegistry.ToolEntry> reloadTools() {
+        toolRegistry.reload();
+        return toolRegistry.entries();
+    }
+
+    /**
+     * MCP 连接池状态：可用进程、在途和排队请求、失败与重启次数，未启用 MCP 时为空
+     */
+    @GetMapping("/tools/mcp")
+    public List<McpPoolStats> toolMcp() {
+        return mcpToolCallbackProvider != null ? mcpToolCallbackProvider.stats() : List.of();
+    }
+
+    /**
+     * 外部依赖（高德、SearchAPI）的熔断状态、在途调用和降级次数
+     */
+    @GetMapping("/tools/resilience")
+    public List<DependencyStats> toolResilience() {
+        return toolGuard.snapshot();
+    }
+
+    /**
+     * 高德读请求的对冲统计：对冲比例、当前阈值，以及对冲前后的 p99
+     */
+    @GetMapping("/tools/hedging")
+    public List<HedgeStats> toolHedging() {
+        return hedgedRequester.snapshot();
+    }
+
+    /**
+     * 按结果ID获取完整工具结果，会话ID必须与生成该结果的会话一致
+     */
+    @GetMapping("/tools/results/{id}")
+    public ResponseEntity<ToolPayload> toolResult(@PathVariable String id, @RequestParam String chatId) {
+        ToolPayload payload = toolPayloadStore.get(id, chatId);
+        return payload != null ? ResponseEntity.ok(payload) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 会话中仍保留的完整工具结果
+     */
+    @GetMapping("/tools/results")
+    public List<ToolPayload> toolResults(@RequestParam String chatId) {
+        return toolPayloadStore.list(chatId);
+    }
+
     /**
      * 景点搜索工具演示
      */
@@ -0,0 +1,31 @@
+package com.zluolan.zaiagent.download;
+
+import com.zluolan.zaiagent.artifact.Artifact;
+
+/**
+ * 单个资源的下载结果
+ *
+ * @param url      资源地址
+ * @param artifact 入库后的制品，失败时为 null
+ * @param resumed  是否从上次中断处续传
+ * @param cached   是否直接复用了之前下载的制品
+ * @param error    失败原因
+ */
+public record DownloadResult(String url, Artifact artifact, boolean resumed, boolean cached, String error) {
+
+    static DownloadResult ok(String url, Artifact artifact, boolean resumed) {
+        return new DownloadResult(url, artifact, resumed, false, null);
+    }
+
+    static DownloadResult reused(String url, Artifact artifact) {
+        return new DownloadResult(url, artifact, false, true, null);
+    }
+
+    static DownloadResult failed(String url, String error) {
+        return new DownloadResult(url, null, false, false, error != null ? error : "unknown error");
+    }
+
+    public boolean isOk() {
+        return artifact != null;
+    }
+}
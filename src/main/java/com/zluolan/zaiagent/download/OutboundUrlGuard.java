@@ -0,0 +1,173 @@
+package com.zluolan.zaiagent.download;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 对外请求的地址校验
+ * 地址由模型给出，请求前解析主机并拒绝指向内网的地址：回环、链路本地（含云厂商元数据地址 169.254.169.254）、
+ * RFC1918 私有网段、运营商级 NAT 网段（含 100.100.100.200）、通配地址、组播和 IPv6 ULA（fc00::/7）。
+ * 重定向不能交给 HTTP 客户端自动跟随，每一跳的 Location 都要重新校验。
+ * <p>
+ * 校验和连接之间主机可能被重新解析到内网（DNS rebinding），所以请求要用 {@link #route} 给出的路由连接已校验的地址：
+ * http 把已校验的地址当作 HTTP 代理，请求行带完整 URL、Host 头保持原主机名，不再二次解析；
+ * https 仍由客户端解析，但 TLS 握手要求证书和原主机名匹配，重新解析到内网服务时握手失败。
+ * 剩下的缺口是内网里持有该主机名有效证书的服务，这种情况需要在网络层出口限制
+ */
+public final class OutboundUrlGuard {
+
+    /**
+     * 最多跟随的重定向次数
+     */
+    public static final int MAX_REDIRECTS = 5;
+
+    private static final OutboundUrlGuard PUBLIC_ONLY = new OutboundUrlGuard(Set.of(), InetAddress::getAllByName);
+
+    /**
+     * 例外放行的 host:port，只用于本地测试服务
+     */
+    private final Set<String> trustedOrigins;
+
+    private final Resolver resolver;
+
+    private OutboundUrlGuard(Set<String> trustedOrigins, Resolver resolver) {
+        this.trustedOrigins = trustedOrigins;
+        this.resolver = resolver;
+    }
+
+    /**
+     * 只允许公网地址
+     */
+    public static OutboundUrlGuard publicOnly() {
+        return PUBLIC_ONLY;
+    }
+
+    /**
+     * 额外放行指定的 host:port，其他地址仍只允许公网
+     */
+    public static OutboundUrlGuard allowing(String... origins) {
+        return new OutboundUrlGuard(Set.of(origins), InetAddress::getAllByName);
+    }
+
+    /**
+     * 用指定的解析器解析主机，只用于测试
+     */
+    static OutboundUrlGuard allowing(Resolver resolver, String... origins) {
+        return new OutboundUrlGuard(Set.of(origins), resolver);
+    }
+
+    /**
+     * 校验地址，不是 http(s) 或主机解析到内网地址时抛出 {@link BlockedUrlException}
+     */
+    public void check(URI uri) throws BlockedUrlException {
+        validate(uri);
+    }
+
+    /**
+     * 校验地址并给出连接用的路由：http 固定连到刚校验过的地址，https 返回 null 交给客户端默认处理，
+     * 由证书校验保证连到的是原主机
+     */
+    public Proxy route(URI uri) throws BlockedUrlException {
+        InetAddress address = validate(uri);
+        if (!uri.getScheme().equalsIgnoreCase("http")) {
+            return null;
+        }
+        return new Proxy(Proxy.Type.HTTP, new InetSocketAddress(address, port(uri)));
+    }
+
+    /**
+     * 解析重定向目标并校验，Location 缺失时抛出异常
+     */
+    public URI redirect(URI current, String location) throws BlockedUrlException {
+        if (location == null || location.isBlank()) {
+            throw new BlockedUrlException("redirect without Location");
+        }
+        URI next;
+        try {
+            next = current.resolve(location.strip());
+        } catch (IllegalArgumentException e) {
+            throw new BlockedUrlException("invalid redirect: " + location);
+        }
+        check(next);
+        return next;
+    }
+
+    /**
+     * 校验并返回主机解析出的第一个地址
+     */
+    private InetAddress validate(URI uri) throws BlockedUrlException {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new BlockedUrlException("unsupported scheme: " + uri.getScheme());
+        }
+        String host = uri.getHost();
+        if (host == null || host.isEmpty()) {
+            throw new BlockedUrlException("missing host: " + uri);
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = resolver.resolve(host);
+        } catch (UnknownHostException e) {
+            throw new BlockedUrlException("unknown host: " + host);
+        }
+        if (trustedOrigins.contains(host.toLowerCase(Locale.ROOT) + ":" + port(uri))) {
+            return addresses[0];
+        }
+        // 任一解析结果在内网都拒绝，避免多条记录混入内网地址
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new BlockedUrlException("blocked address: " + host + " -> " + address.getHostAddress());
+            }
+        }
+        return addresses[0];
+    }
+
+    private static int port(URI uri) {
+        return uri.getPort() >= 0 ? uri.getPort() : uri.getScheme().equalsIgnoreCase("https") ? 443 : 80;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7 唯一本地地址
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        int first = bytes[0] & 0xff;
+        int second = bytes[1] & 0xff;
+        // 0.0.0.0/8、100.64.0.0/10、255.255.255.255
+        return first != 0 && !(first == 100 && second >= 64 && second < 128)
+                && !(first == 255 && second == 255);
+    }
+
+    /**
+     * 主机名解析
+     */
+    @FunctionalInterface
+    interface Resolver {
+
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    /**
+     * 地址被拒绝，不应重试
+     */
+    public static final class BlockedUrlException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public BlockedUrlException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.zluolan.zaiagent.download;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.zluolan.zaiagent.artifact.Artifact;
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.download.OutboundUrlGuard.BlockedUrlException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 旅游资源下载器
+ * <ul>
+ *     <li>响应体经 NIO 通道分块写入磁盘上的临时文件（{@link FileChannel#transferFrom}），不在内存中拼出整个文件，
+ *     完成后移入 {@link ArtifactStore}，调用方只拿到制品信息</li>
+ *     <li>只接受图片、PDF、GPX/KML 轨迹；声明长度超过上限的直接拒绝，未声明长度的在写入超过上限时中止</li>
+ *     <li>多个资源并行下载，同一站点的并发数单独限制</li>
+ *     <li>传输中断时保留已下载部分和 ETag/Last-Modified，重试和下次下载同一地址时用 Range + If-Range 续传</li>
+ *     <li>地址和每一跳重定向都经 {@link OutboundUrlGuard} 校验，不访问内网地址；http 连接固定到校验过的地址，
+ *     避免校验后主机被重新解析到内网，https 靠证书校验主机名（见 {@link OutboundUrlGuard}）</li>
+ * </ul>
+ */
+@Slf4j
+public final class ResourceDownloader implements AutoCloseable {
+
+    public static final long DEFAULT_MAX_BYTES = 20L * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_PER_HOST = 2;
+    public static final int MAX_ATTEMPTS = 3;
+
+    private static final Path DEFAULT_PARTIAL_DIR = Path.of(System.getProperty("user.dir"), "tmp", "downloads");
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int READ_TIMEOUT_MILLIS = 15_000;
+    private static final long HOST_WAIT_MILLIS = 30_000;
+    private static final long CHUNK_BYTES = 256 * 1024;
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; zl-ai-agent/1.0)";
+    private static final String SOURCE_PREFIX = "url:";
+
+    /**
+     * 接受的内容类型及其扩展名；SVG 可能带脚本，不接受
+     */
+    private static final Map<String, String> ACCEPTED_TYPES = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp",
+            "application/pdf", ".pdf",
+            "application/gpx+xml", ".gpx",
+            "application/vnd.google-earth.kml+xml", ".kml");
+    /**
+     * 内容类型不明确（octet-stream、xml）时按扩展名判断
+     */
+    private static final Set<String> GENERIC_TYPES = Set.of(
+            "application/octet-stream", "application/xml", "text/xml", "binary/octet-stream");
+    private static final Map<String, String> EXTENSION_TYPES = Map.of(
+            ".jpg", "image/jpeg",
+            ".jpeg", "image/jpeg",
+            ".png", "image/png",
+            ".gif", "image/gif",
+            ".webp", "image/webp",
+            ".pdf", "application/pdf",
+            ".gpx", "application/gpx+xml",
+            ".kml", "application/vnd.google-earth.kml+xml");
+
+    private static volatile ResourceDownloader defaultInstance;
+
+    private final ArtifactStore artifacts;
+    private final Path partialDir;
+    private final long maxBytes;
+    private final int perHost;
+    private final OutboundUrlGuard urlGuard;
+    private final ExecutorService executor;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    /**
+     * 地址摘要 -> 进行中的下载，同一地址同时只下载一次，共用同一个未完成文件
+     */
+    private final Map<String, CompletableFuture<DownloadResult>> inFlight = new ConcurrentHashMap<>();
+
+    public ResourceDownloader(ArtifactStore artifacts, Path partialDir, long maxBytes, int parallelism, int perHost) {
+        this(artifacts, partialDir, maxBytes, parallelism, perHost, OutboundUrlGuard.publicOnly());
+    }
+
+    public ResourceDownloader(ArtifactStore artifacts, Path partialDir, long maxBytes, int parallelism, int perHost,
+                              OutboundUrlGuard urlGuard) {
+        if (maxBytes <= 0 || parallelism < 1 || perHost < 1) {
+            throw new IllegalArgumentException("大小上限、并发数必须为正数");
+        }
+        this.artifacts = artifacts;
+        this.partialDir = partialDir.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.perHost = perHost;
+        this.urlGuard = urlGuard;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "resource-download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(this.partialDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建下载目录失败: " + this.partialDir, e);
+        }
+    }
+
+    /**
+     * 下载到默认制品存储的默认实例，首次使用时创建
+     */
+    public static ResourceDownloader getDefault() {
+        ResourceDownloader instance = defaultInstance;
+        if (instance == null) {
+            synchronized (ResourceDownloader.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new ResourceDownloader(ArtifactStore.getDefault(), DEFAULT_PARTIAL_DIR,
+                            DEFAULT_MAX_BYTES, DEFAULT_PARALLELISM, DEFAULT_PER_HOST);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 并行下载，结果与地址一一对应；整体超时的记为失败，已下载部分保留，下次调用续传
+     */
+    public List<DownloadResult> downloadAll(List<String> urls, Duration timeout) {
+        List<CompletableFuture<DownloadResult>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(CompletableFuture.supplyAsync(() -> download(url), executor));
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<DownloadResult> results = new ArrayList<>(urls.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.add(futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                results.add(DownloadResult.failed(urls.get(i), "timeout"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(DownloadResult.failed(urls.get(i), "interrupted"));
+            } catch (Exception e) {
+                results.add(DownloadResult.failed(urls.get(i), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 下载单个资源，同一地址已下载过时直接返回已有制品
+     */
+    public DownloadResult download(String url) {
+        URI uri = httpUri(url);
+        if (uri == null) {
+            return DownloadResult.failed(url, "invalid http(s) URL");
+        }
+        try {
+            urlGuard.check(uri);
+        } catch (BlockedUrlException e) {
+            log.warn("拒绝下载内网地址: {} ({})", url, e.getMessage());
+            return DownloadResult.failed(url, e.getMessage());
+        }
+        String source = SOURCE_PREFIX + uri;
+        Artifact existing = artifacts.findBySource(source);
+        if (existing != null) {
+            return DownloadResult.reused(url, existing);
+        }
+        String key = digest(uri.toString());
+        CompletableFuture<DownloadResult> mine = new CompletableFuture<>();
+        CompletableFuture<DownloadResult> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            DownloadResult result = transfer(url, uri, source, key);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private DownloadResult transfer(String url, URI uri, String source, String key) {
+        Path part = partialDir.resolve(key + ".part");
+        Path validator = partialDir.resolve(key + ".validator");
+        Semaphore permits = hostPermits.computeIfAbsent(uri.getHost().toLowerCase(Locale.ROOT),
+                host -> new Semaphore(perHost));
+        try {
+            if (!permits.tryAcquire(HOST_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return DownloadResult.failed(url, "host busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DownloadResult.failed(url, "interrupted");
+        }
+        try {
+            boolean resumed = false;
+            String lastError = null;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                Attempt result = fetch(uri, part, validator);
+                resumed |= result.resumed();
+                if (result.contentType() != null) {
+                    Artifact artifact = artifacts.moveIn(part, fileName(uri, result.contentType()),
+                            result.contentType(), source);
+                    Files.deleteIfExists(validator);
+                    log.info("资源下载完成 - {}: {} 字节, 续传: {}, 制品: {}", uri, artifact.size(), resumed,
+                            artifact.hash());
+                    return DownloadResult.ok(url, artifact, resumed);
+                }
+                lastError = result.error();
+                if (result.fatal()) {
+                    discard(part, validator);
+                    return DownloadResult.failed(url, lastError);
+                }
+                log.warn("资源下载中断，准备续传 - {} (第{}次): {}", uri, attempt, lastError);
+            }
+            long kept = Files.exists(part) ? Files.size(part) : 0;
+            return DownloadResult.failed(url, lastError + "，已保留 " + kept + " 字节，再次下载时续传");
+        } catch (IOException e) {
+            log.warn("保存资源失败: {}", uri, e);
+            return DownloadResult.failed(url, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Path partialDir() {
+        return partialDir;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 一次请求：有未完成的部分时带 Range 续传，服务端不支持或资源已变化时从头下载
+     */
+    private Attempt fetch(URI uri, Path part, Path validatorFile) {
+        long offset = 0;
+        String validator = null;
+        try {
+            if (Files.exists(part) && Files.exists(validatorFile)) {
+                offset = Files.size(part);
+                validator = Files.readString(validatorFile).strip();
+            }
+        } catch (IOException e) {
+            offset = 0;
+        }
+        if (offset <= 0 || validator.isEmpty()) {
+            offset = 0;
+        }
+
+        try (HttpResponse response = open(uri, offset, validator)) {
+            int status = response.getStatus();
+            if (status == 416 && offset > 0) {
+                discard(part, validatorFile);
+                return Attempt.interrupted("range not satisfiable, restarting");
+            }
+            if (status != 200 && status != 206) {
+                return Attempt.fatal("HTTP " + status);
+            }
+            String contentType = acceptedType(response.header("Content-Type"), uri);
+            if (contentType == null) {
+                return Attempt.fatal("unsupported content type: " + response.header("Content-Type"));
+            }
+            long start = 0;
+            long expected = response.contentLength();
+            if (status == 206) {
+                long[] range = contentRange(response.header("Content-Range"));
+                if (range == null || range[0] != offset) {
+                    discard(part, validatorFile);
+                    return Attempt.interrupted("unexpected Content-Range, restarting");
+                }
+                start = offset;
+                expected = range[1];
+            }
+            if (expected > maxBytes) {
+                return Attempt.fatal("file too large: " + expected + " bytes (limit " + maxBytes + ")");
+            }
+            saveValidator(validatorFile, response.header("ETag"), response.header("Last-Modified"));
+
+            long position = start;
+            try (FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = Channels.newChannel(response.bodyStream())) {
+                out.truncate(start);
+                while (true) {
+                    // 多读 1 字节以发现超出上限
+                    long count = Math.min(CHUNK_BYTES, maxBytes + 1 - position);
+                    long transferred = out.transferFrom(in, position, count);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    if (position > maxBytes) {
+                        return Attempt.fatal("file too large: exceeds " + maxBytes + " bytes");
+                    }
+                }
+            } catch (IOException e) {
+                return Attempt.interrupted(e.getMessage(), start > 0);
+            }
+            if (expected >= 0 && position < expected) {
+                return Attempt.interrupted("connection closed at " + position + "/" + expected, start > 0);
+            }
+            return Attempt.complete(contentType, start > 0);
+        } catch (BlockedUrlException e) {
+            return Attempt.fatal(e.getMessage());
+        } catch (Exception e) {
+            // 连接失败、超时等，已下载的部分保留
+            return Attempt.interrupted(e.getMessage());
+        }
+    }
+
+    /**
+     * 发出请求并手动跟随重定向，每一跳都重新校验地址并连到校验过的地址；返回最终的非重定向响应
+     */
+    private HttpResponse open(URI uri, long offset, String validator) throws IOException {
+        URI current = uri;
+        for (int hop = 0; ; hop++) {
+            HttpRequest request = HttpRequest.get(current.toString())
+                    .setProxy(urlGuard.route(current))
+                    .header("User-Agent", USER_AGENT)
+                    // 不要压缩，续传时的偏移必须是原始字节
+                    .header("Accept-Encoding", "identity")
+                    .setConnectionTimeout(CONNECT_TIMEOUT_MILLIS)
+                    .setReadTimeout(READ_TIMEOUT_MILLIS)
+                    .setMaxRedirectCount(0);
+            if (offset > 0) {
+                request.header("Range", "bytes=" + offset + "-").header("If-Range", validator);
+            }
+            HttpResponse response = request.executeAsync();
+            int status = response.getStatus();
+            if (status < 300 || status >= 400 || status == 304) {
+                return response;
+            }
+            String location = response.header("Location");
+            response.close();
+            if (hop >= OutboundUrlGuard.MAX_REDIRECTS) {
+                throw new BlockedUrlException("too many redirects");
+            }
+            current = urlGuard.redirect(current, location);
+        }
+    }
+
+    /**
+     * 规范化后的内容类型，不接受时返回 null
+     */
+    static String acceptedType(String header, URI uri) {
+        String type = header != null ? header.split(";", 2)[0].strip().toLowerCase(Locale.ROOT) : "";
+        if (type.equals("image/jpg")) {
+            type = "image/jpeg";
+        }
+        if (ACCEPTED_TYPES.containsKey(type)) {
+            return type;
+        }
+        if (type.isEmpty() || GENERIC_TYPES.contains(type)) {
+            return EXTENSION_TYPES.get(extension(uri.getPath()));
+        }
+        return null;
+    }
+
+    /**
+     * 解析 {@code bytes start-end/total}，返回 [start, total]，total 未知时为 -1
+     */
+    static long[] contentRange(String header) {
+        if (header == null || !header.startsWith("bytes ")) {
+            return null;
+        }
+        try {
+            String spec = header.substring("bytes ".length()).strip();
+            int dash = spec.indexOf('-');
+            int slash = spec.indexOf('/');
+            if (dash < 0 || slash < dash) {
+                return null;
+            }
+            long start = Long.parseLong(spec.substring(0, dash).strip());
+            String total = spec.substring(slash + 1).strip();
+            return new long[]{start, total.equals("*") ? -1 : Long.parseLong(total)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 下载文件名：取地址最后一段，缺少扩展名时按内容类型补上
+     */
+    static String fileName(URI uri, String contentType) {
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        String last = path.substring(path.lastIndexOf('/') + 1);
+        String name = URLDecoder.decode(last, StandardCharsets.UTF_8).replaceAll("[\\\\/:*?\"<>|\\s]+", "_");
+        if (name.isEmpty()) {
+            name = "resource";
+        }
+        if (!EXTENSION_TYPES.containsKey(extension(name))) {
+            name += ACCEPTED_TYPES.getOrDefault(contentType, "");
+        }
+        return name;
+    }
+
+    private static String extension(String path) {
+        if (path == null) {
+            return "";
+        }
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        return dot > slash ? path.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static URI httpUri(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.strip());
+            boolean http = "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+            return http && uri.getHost() != null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 只有拿到强校验值时才允许续传，否则无法确认两次请求的是同一份内容
+     */
+    private static void saveValidator(Path file, String etag, String lastModified) throws IOException {
+        String validator = etag != null && !etag.startsWith("W/") ? etag : lastModified;
+        if (validator != null && !validator.isBlank()) {
+            Files.writeString(file, validator);
+        } else {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void discard(Path part, Path validator) {
+        try {
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(validator);
+        } catch (IOException e) {
+            log.debug("删除未完成的下载失败: {}", part, e);
+        }
+    }
+
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 一次请求的结果：完成（contentType 非空）、可续传的中断，或不应重试的失败
+     */
+    private record Attempt(String contentType, boolean resumed, boolean fatal, String error) {
+
+        static Attempt complete(String contentType, boolean resumed) {
+            return new Attempt(contentType, resumed, false, null);
+        }
+
+        static Attempt interrupted(String error) {
+            return interrupted(error, false);
+        }
+
+        static Attempt interrupted(String error, boolean resumed) {
+            return new Attempt(null, resumed, false, error != null ? error : "connection failed");
+        }
+
+        static Attempt fatal(String error) {
+            return new Attempt(null, false, true, error);
+        }
+    }
+}
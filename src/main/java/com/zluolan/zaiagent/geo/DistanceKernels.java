@@ -0,0 +1,110 @@
+package com.zluolan.zaiagent.geo;
+
+/**
+ * 批量大圆距离计算内核
+ * 先把经纬度转换为单位球面上的三维坐标（每个点只算一次三角函数），
+ * 一对多距离分两趟计算：第一趟求弦长的一半，只有乘加和开方；
+ * 第二趟用 asin 的奇次幂级数把半弦长换算成距离，约 1270 公里以内相对误差小于 1e-11，超出时逐个改用 Math.asin。
+ * 两趟都是对原始数组的直线循环，没有分支和对象分配，HotSpot C2 可自动向量化（SuperWord）。
+ * 结果与 {@link GeoMath#distanceMeters} 的 Haversine 公式在数学上等价。
+ */
+public final class DistanceKernels {
+
+    /**
+     * 使用级数近似的半弦长上限（约对应 1270 公里）
+     */
+    private static final double SERIES_LIMIT = 0.1;
+
+    private static final double TWO_RADIUS = 2 * GeoMath.EARTH_RADIUS_METERS;
+
+    private DistanceKernels() {
+    }
+
+    /**
+     * 单位球面坐标，按列存储
+     */
+    public record UnitVectors(double[] x, double[] y, double[] z) {
+
+        public int size() {
+            return x.length;
+        }
+    }
+
+    /**
+     * 把经纬度数组转换为单位球面坐标
+     */
+    public static UnitVectors toUnitVectors(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("经纬度数量不一致");
+        }
+        int n = latitudes.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            double cosLat = Math.cos(lat);
+            x[i] = cosLat * Math.cos(lon);
+            y[i] = cosLat * Math.sin(lon);
+            z[i] = Math.sin(lat);
+        }
+        return new UnitVectors(x, y, z);
+    }
+
+    /**
+     * 计算第 source 个点到全部点的距离（米），写入 out[offset, offset + n)
+     */
+    public static void distancesFrom(UnitVectors points, int source, double[] out, int offset) {
+        distancesFrom(points.x()[source], points.y()[source], points.z()[source], points, out, offset);
+    }
+
+    /**
+     * 计算任意一点到全部点的距离（米），写入 out[0, n)
+     */
+    public static void distancesFrom(double latitude, double longitude, UnitVectors points, double[] out) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        distancesFrom(cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat), points, out, 0);
+    }
+
+    private static void distancesFrom(double sx, double sy, double sz, UnitVectors points, double[] out, int offset) {
+        double[] x = points.x();
+        double[] y = points.y();
+        double[] z = points.z();
+        int n = x.length;
+        if (out.length - offset < n) {
+            throw new IllegalArgumentException("输出数组长度不足");
+        }
+        // 第一趟：半弦长，并求最大值决定第二趟是否可全部走级数
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = x[i] - sx;
+            double dy = y[i] - sy;
+            double dz = z[i] - sz;
+            double half = 0.5 * Math.sqrt(dx * dx + dy * dy + dz * dz);
+            out[offset + i] = half;
+            max = Math.max(max, half);
+        }
+        // 第二趟：distance = 2R * asin(half)
+        if (max < SERIES_LIMIT) {
+            for (int i = 0; i < n; i++) {
+                out[offset + i] = TWO_RADIUS * asinSeries(out[offset + i]);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                double half = out[offset + i];
+                out[offset + i] = TWO_RADIUS * (half < SERIES_LIMIT ? asinSeries(half) : Math.asin(Math.min(1.0, half)));
+            }
+        }
+    }
+
+    /**
+     * asin 的泰勒级数前五项，|h| < 0.1 时误差小于 1e-11
+     */
+    private static double asinSeries(double h) {
+        double h2 = h * h;
+        return h * (1 + h2 * (1.0 / 6 + h2 * (3.0 / 40 + h2 * (15.0 / 336 + h2 * (105.0 / 3456)))));
+    }
+}
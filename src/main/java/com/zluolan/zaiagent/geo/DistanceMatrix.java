@@ -0,0 +1,75 @@
+package com.zluolan.zaiagent.geo;
+
+/**
+ * 两两距离矩阵（米），按行存储在一个原始数组中
+ * 构建后只读，可在多线程间共享
+ */
+public final class DistanceMatrix {
+
+    /**
+     * 单个矩阵允许的最大单元数，受 Java 数组长度限制
+     */
+    public static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final int size;
+    private final double[] meters;
+
+    private DistanceMatrix(int size, double[] meters) {
+        this.size = size;
+        this.meters = meters;
+    }
+
+    /**
+     * 用批量内核逐行计算全部点之间的距离
+     */
+    public static DistanceMatrix compute(double[] latitudes, double[] longitudes) {
+        DistanceKernels.UnitVectors points = DistanceKernels.toUnitVectors(latitudes, longitudes);
+        int n = points.size();
+        double[] meters = new double[checkedCells(n)];
+        for (int i = 0; i < n; i++) {
+            DistanceKernels.distancesFrom(points, i, meters, i * n);
+        }
+        return new DistanceMatrix(n, meters);
+    }
+
+    /**
+     * 从已有矩阵中按行号取子矩阵，rows[i] 为新矩阵第 i 行对应的原行号
+     */
+    public DistanceMatrix subMatrix(int[] rows) {
+        int n = rows.length;
+        double[] sub = new double[checkedCells(n)];
+        for (int i = 0; i < n; i++) {
+            int base = rows[i] * size;
+            for (int j = 0; j < n; j++) {
+                sub[i * n + j] = meters[base + rows[j]];
+            }
+        }
+        return new DistanceMatrix(n, sub);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 矩阵单元数 size²
+     */
+    public long cells() {
+        return (long) size * size;
+    }
+
+    /**
+     * n 个点的矩阵单元数，超过 {@link #MAX_CELLS} 时抛出异常，避免 n*n 按 int 溢出
+     */
+    private static int checkedCells(int n) {
+        long cells = (long) n * n;
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("距离矩阵过大: " + n + " 个点");
+        }
+        return (int) cells;
+    }
+
+    public double meters(int from, int to) {
+        return meters[from * size + to];
+    }
+}
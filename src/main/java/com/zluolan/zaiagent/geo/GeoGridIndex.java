@@ -0,0 +1,191 @@
+package com.zluolan.zaiagent.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 网格空间索引
+ * 按固定经纬度步长把点划入网格（类似定长 geohash），网格键按“纬度行 × 经度列”编码后排序存储，
+ * 同一纬度行内相邻网格的键连续，半径查询时每行只需一次二分查找即可顺序扫描。
+ * 点坐标按网格分组拷贝为原始数组，扫描时内存连续。
+ * 构建后只读，可在多线程间共享。不处理跨越 180° 经线的查询。
+ */
+public final class GeoGridIndex {
+
+    /**
+     * 默认网格步长 0.01°，约 1.1km
+     */
+    public static final double DEFAULT_CELL_DEGREES = 0.01;
+
+    /**
+     * 最近邻查询的最大搜索半径（约半个地球周长）
+     */
+    private static final double MAX_SEARCH_METERS = 20_000_000;
+
+    private final double cellDegrees;
+    private final long lonCells;
+    private final long[] cellKeys;
+    private final int[] cellOffsets;
+    private final int[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    /**
+     * @param latitudes   纬度数组
+     * @param longitudes  经度数组
+     * @param pointIds    点编号数组，与坐标一一对应
+     * @param cellDegrees 网格步长（度）
+     */
+    public GeoGridIndex(double[] latitudes, double[] longitudes, int[] pointIds, double cellDegrees) {
+        if (latitudes.length != longitudes.length || latitudes.length != pointIds.length) {
+            throw new IllegalArgumentException("坐标与编号数量不一致");
+        }
+        if (!(cellDegrees > 0 && cellDegrees <= 10)) {
+            throw new IllegalArgumentException("网格步长应在(0, 10]度之间: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (long) Math.ceil(360.0 / cellDegrees) + 1;
+
+        int n = pointIds.length;
+        long[] keys = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = cellKey(latIndex(latitudes[i]), lonIndex(longitudes[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> keys[i]));
+
+        this.ids = new int[n];
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+        long[] uniqueKeys = new long[n];
+        int[] offsets = new int[n + 1];
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            int source = order[i];
+            ids[i] = pointIds[source];
+            this.latitudes[i] = latitudes[source];
+            this.longitudes[i] = longitudes[source];
+            if (cells == 0 || uniqueKeys[cells - 1] != keys[source]) {
+                uniqueKeys[cells] = keys[source];
+                offsets[cells] = i;
+                cells++;
+            }
+        }
+        offsets[cells] = n;
+        this.cellKeys = Arrays.copyOf(uniqueKeys, cells);
+        this.cellOffsets = Arrays.copyOf(offsets, cells + 1);
+    }
+
+    public GeoGridIndex(double[] latitudes, double[] longitudes, int[] pointIds) {
+        this(latitudes, longitudes, pointIds, DEFAULT_CELL_DEGREES);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 半径查询，结果按距离升序
+     *
+     * @param filter 点编号过滤条件，可为 null
+     */
+    public List<GeoHit> withinRadius(double latitude, double longitude, double radiusMeters, IntPredicate filter) {
+        List<GeoHit> hits = new ArrayList<>();
+        collect(latitude, longitude, radiusMeters, filter, hits);
+        hits.sort(Comparator.comparingDouble(GeoHit::distanceMeters));
+        return hits;
+    }
+
+    /**
+     * k 近邻查询：以一个网格大小为初始半径，逐次翻倍直到半径内的点不少于 k 个。
+     * 半径内的点已全部找到，因此其中最近的 k 个即为全局最近的 k 个。
+     *
+     * @param maxRadiusMeters 最大搜索半径，超出后返回已找到的点
+     * @param filter          点编号过滤条件，可为 null
+     */
+    public List<GeoHit> nearest(double latitude, double longitude, int k, double maxRadiusMeters, IntPredicate filter) {
+        if (k <= 0 || ids.length == 0) {
+            return List.of();
+        }
+        double limit = Math.min(maxRadiusMeters, MAX_SEARCH_METERS);
+        double radius = Math.min(limit, cellDegrees * GeoMath.METERS_PER_DEGREE);
+        List<GeoHit> hits = new ArrayList<>();
+        while (true) {
+            hits.clear();
+            collect(latitude, longitude, radius, filter, hits);
+            if (hits.size() >= k || radius >= limit) {
+                break;
+            }
+            radius = Math.min(limit, radius * 2);
+        }
+        hits.sort(Comparator.comparingDouble(GeoHit::distanceMeters));
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    private void collect(double latitude, double longitude, double radiusMeters, IntPredicate filter, List<GeoHit> hits) {
+        double dLat = radiusMeters / GeoMath.METERS_PER_DEGREE;
+        double maxAbsLat = Math.min(90, Math.abs(latitude) + dLat);
+        double dLon = radiusMeters / GeoMath.metersPerLongitudeDegree(maxAbsLat);
+        double minLat = latitude - dLat;
+        double maxLat = latitude + dLat;
+        double minLon = longitude - dLon;
+        double maxLon = longitude + dLon;
+
+        long firstRow = latIndex(Math.max(-90, minLat));
+        long lastRow = latIndex(Math.min(90, maxLat));
+        long firstCol = lonIndex(Math.max(-180, minLon));
+        long lastCol = lonIndex(Math.min(180, maxLon));
+        for (long row = firstRow; row <= lastRow; row++) {
+            long fromKey = cellKey(row, firstCol);
+            long toKey = cellKey(row, lastCol);
+            int cell = lowerBound(fromKey);
+            for (; cell < cellKeys.length && cellKeys[cell] <= toKey; cell++) {
+                for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                    double lat = latitudes[i];
+                    double lon = longitudes[i];
+                    // 先用外接矩形粗筛，再计算大圆距离
+                    if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+                        continue;
+                    }
+                    if (filter != null && !filter.test(ids[i])) {
+                        continue;
+                    }
+                    double distance = GeoMath.distanceMeters(latitude, longitude, lat, lon);
+                    if (distance <= radiusMeters) {
+                        hits.add(new GeoHit(ids[i], distance));
+                    }
+                }
+            }
+        }
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = cellKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellKeys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long latIndex(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private long lonIndex(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private long cellKey(long row, long col) {
+        return row * lonCells + col;
+    }
+}
@@ -0,0 +1,10 @@
+package com.zluolan.zaiagent.geo;
+
+/**
+ * 空间查询命中结果
+ *
+ * @param id             点编号（由建索引方定义）
+ * @param distanceMeters 与查询点的大圆距离（米）
+ */
+public record GeoHit(int id, double distanceMeters) {
+}
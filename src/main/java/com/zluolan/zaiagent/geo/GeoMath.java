@@ -0,0 +1,62 @@
+package com.zluolan.zaiagent.geo;
+
+/**
+ * 地理计算工具
+ */
+public final class GeoMath {
+
+    /**
+     * 地球平均半径（米）
+     */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /**
+     * 每纬度对应的距离（米）
+     */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    /**
+     * 步行速度（米/分钟），约 4.8km/h
+     */
+    private static final double WALKING_METERS_PER_MINUTE = 80.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * 计算两点间的大圆距离（Haversine 公式）
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * 指定纬度上每经度对应的距离（米），高纬度下限制最小值避免除零
+     */
+    public static double metersPerLongitudeDegree(double latitude) {
+        return METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+    }
+
+    /**
+     * 估算步行时间（分钟，至少 1 分钟）
+     */
+    public static int walkingMinutes(double distanceMeters) {
+        return (int) Math.max(1, Math.round(distanceMeters / WALKING_METERS_PER_MINUTE));
+    }
+
+    /**
+     * 距离文本，如：850米、1.2公里
+     */
+    public static String formatDistance(double distanceMeters) {
+        if (distanceMeters < 1000) {
+            return Math.round(distanceMeters) + "米";
+        }
+        return String.format("%.1f公里", distanceMeters / 1000);
+    }
+}
@@ -0,0 +1,90 @@
+package com.zluolan.zaiagent.guide;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 攻略语料读取
+ * 每行一篇攻略，Tab 分隔：编号、城市、类型、标题、作者、正文、标签（逗号分隔）、发布日期、点赞、收藏、评论、关联 POI（无则为 -），
+ * # 开头为注释。
+ */
+public final class GuideCorpus {
+
+    private static final int COLUMNS = 12;
+
+    private GuideCorpus() {
+    }
+
+    /**
+     * 从类路径读取语料
+     */
+    public static List<GuidePost> loadResource(String resource) {
+        try (InputStream in = GuideCorpus.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("攻略语料文件不存在: " + resource);
+            }
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取攻略语料失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 读取语料，格式错误时抛出带行号的 {@link IllegalArgumentException}
+     */
+    public static List<GuidePost> load(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        List<GuidePost> posts = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                posts.add(parse(line.split("\t", -1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("攻略语料第" + lineNumber + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return posts;
+    }
+
+    private static GuidePost parse(String[] fields) {
+        if (fields.length < COLUMNS) {
+            throw new IllegalArgumentException("字段数不足" + COLUMNS + "列");
+        }
+        GuideType type = GuideType.fromLabel(fields[2].trim());
+        if (type == null) {
+            throw new IllegalArgumentException("未知的攻略类型: " + fields[2]);
+        }
+        List<String> tags = fields[6].isBlank() ? List.of() : Arrays.stream(fields[6].split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .toList();
+        String poiName = fields[11].trim();
+        return new GuidePost(
+                Integer.parseInt(fields[0].trim()),
+                fields[1].trim(),
+                type,
+                fields[3].trim(),
+                fields[4].trim(),
+                fields[5].trim(),
+                tags,
+                LocalDate.parse(fields[7].trim()),
+                Integer.parseInt(fields[8].trim()),
+                Integer.parseInt(fields[9].trim()),
+                Integer.parseInt(fields[10].trim()),
+                poiName.isEmpty() || "-".equals(poiName) ? null : poiName);
+    }
+}
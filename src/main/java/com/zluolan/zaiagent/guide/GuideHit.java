@@ -0,0 +1,10 @@
+package com.zluolan.zaiagent.guide;
+
+/**
+ * 攻略检索结果
+ *
+ * @param relevance BM25 相关度，无关键词时为 0
+ * @param hotness   当前时刻的衰减热度
+ */
+public record GuideHit(GuidePost post, double relevance, double hotness) {
+}
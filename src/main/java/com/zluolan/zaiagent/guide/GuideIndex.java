@@ -0,0 +1,291 @@
+package com.zluolan.zaiagent.guide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * 攻略倒排索引
+ * 词典把词映射为编号，倒排表按词编号连续存放（CSR）：postingOffsets[t] 到 postingOffsets[t + 1] 之间是
+ * 包含词 t 的文档号及词频，文档号升序。标题在建索引时计入两次以提高权重。
+ * 构建后只读，可在多线程间共享。
+ */
+final class GuideIndex {
+
+    /**
+     * BM25 词频饱和参数
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * BM25 文档长度归一化参数
+     */
+    private static final double B = 0.75;
+
+    /**
+     * 查询词数量上限，超出部分忽略
+     */
+    private static final int MAX_QUERY_TERMS = 64;
+
+    private final GuidePost[] posts;
+    private final int[] cityIds;
+    private final long[] publishedDays;
+    private final int[] docLengths;
+    private final double averageLength;
+    private final Map<Integer, Integer> docsByPostId;
+    private final Map<String, Integer> termIds;
+    private final int[] postingOffsets;
+    private final int[] postingDocs;
+    private final int[] postingFreqs;
+
+    /**
+     * @param cityResolver 城市名称到城市编号的映射，未知城市返回 -1
+     */
+    GuideIndex(List<GuidePost> source, ToIntFunction<String> cityResolver) {
+        int n = source.size();
+        this.posts = source.toArray(new GuidePost[0]);
+        this.cityIds = new int[n];
+        this.publishedDays = new long[n];
+        this.docLengths = new int[n];
+        this.docsByPostId = new HashMap<>(n * 2);
+        this.termIds = new HashMap<>();
+
+        // 第一遍：分词，统计每个文档的词频
+        List<Map<Integer, Integer>> docTerms = new ArrayList<>(n);
+        List<Integer> documentFrequencies = new ArrayList<>();
+        long totalLength = 0;
+        for (int doc = 0; doc < n; doc++) {
+            GuidePost post = posts[doc];
+            cityIds[doc] = cityResolver.applyAsInt(post.city());
+            publishedDays[doc] = post.publishedDate().toEpochDay();
+            docsByPostId.put(post.id(), doc);
+            List<String> tokens = new ArrayList<>(GuideTokenizer.tokenize(post.title()));
+            tokens.addAll(GuideTokenizer.tokenize(post.title()));
+            tokens.addAll(GuideTokenizer.tokenize(post.content()));
+            tokens.addAll(GuideTokenizer.tokenize(String.join(" ", post.tags())));
+            Map<Integer, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                int termId = termIds.computeIfAbsent(token, key -> {
+                    documentFrequencies.add(0);
+                    return documentFrequencies.size() - 1;
+                });
+                if (frequencies.merge(termId, 1, Integer::sum) == 1) {
+                    documentFrequencies.set(termId, documentFrequencies.get(termId) + 1);
+                }
+            }
+            docTerms.add(frequencies);
+            docLengths[doc] = tokens.size();
+            totalLength += tokens.size();
+        }
+        this.averageLength = n > 0 ? Math.max(1.0, (double) totalLength / n) : 1.0;
+
+        // 第二遍：按词编号写入倒排表，文档号按遍历顺序自然升序
+        int terms = documentFrequencies.size();
+        this.postingOffsets = new int[terms + 1];
+        for (int t = 0; t < terms; t++) {
+            postingOffsets[t + 1] = postingOffsets[t] + documentFrequencies.get(t);
+        }
+        this.postingDocs = new int[postingOffsets[terms]];
+        this.postingFreqs = new int[postingDocs.length];
+        int[] cursor = Arrays.copyOf(postingOffsets, terms);
+        for (int doc = 0; doc < n; doc++) {
+            for (Map.Entry<Integer, Integer> entry : docTerms.get(doc).entrySet()) {
+                int position = cursor[entry.getKey()]++;
+                postingDocs[position] = doc;
+                postingFreqs[position] = entry.getValue();
+            }
+        }
+    }
+
+    int size() {
+        return posts.length;
+    }
+
+    int termCount() {
+        return postingOffsets.length - 1;
+    }
+
+    GuidePost post(int doc) {
+        return posts[doc];
+    }
+
+    /**
+     * 攻略编号对应的文档号，不存在返回 -1
+     */
+    int docOf(int postId) {
+        return docsByPostId.getOrDefault(postId, -1);
+    }
+
+    /**
+     * 检索并按排序方式取前 limit 条
+     * 有关键词时，查询词不超过两个须全部命中，否则至少命中三分之二（词典中不存在的查询词不计），
+     * 关键词全部不在词典中时结果为空。
+     *
+     * @param today 当前时刻（自 1970-01-01 起的天数），用于计算展示热度
+     */
+    GuideSearchResult search(GuideQuery query, PopularityCounters counters, double today) {
+        int n = posts.length;
+        int[] terms = queryTerms(query.keywords());
+        boolean keyword = !query.keywords().isEmpty();
+        if (keyword && terms.length == 0) {
+            return new GuideSearchResult(List.of(), 0, false);
+        }
+
+        double[] scores = null;
+        int[] candidates;
+        int count = 0;
+        if (keyword) {
+            scores = new double[n];
+            byte[] matchedTerms = new byte[n];
+            int[] touched = new int[n];
+            int touchedCount = 0;
+            for (int term : terms) {
+                int from = postingOffsets[term];
+                int to = postingOffsets[term + 1];
+                double idf = Math.log(1 + (n - (to - from) + 0.5) / ((to - from) + 0.5));
+                for (int p = from; p < to; p++) {
+                    int doc = postingDocs[p];
+                    if (!accepts(query, doc)) {
+                        continue;
+                    }
+                    int tf = postingFreqs[p];
+                    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    if (matchedTerms[doc]++ == 0) {
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            int required = terms.length <= 2 ? terms.length : (terms.length * 2 + 2) / 3;
+            candidates = new int[touchedCount];
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if ((matchedTerms[doc] & 0xFF) >= required) {
+                    candidates[count++] = doc;
+                }
+            }
+        } else {
+            candidates = new int[n];
+            for (int doc = 0; doc < n; doc++) {
+                if (accepts(query, doc)) {
+                    candidates[count++] = doc;
+                }
+            }
+        }
+
+        int limit = query.limit() > 0 ? query.limit() : count;
+        TopK top = new TopK(Math.min(limit, Math.max(1, count)));
+        for (int i = 0; i < count; i++) {
+            int doc = candidates[i];
+            double relevance = scores != null ? scores[doc] : 0;
+            top.offer(sortKey(query.sort(), doc, relevance, keyword, counters), doc);
+        }
+        int[] docs = top.drainDescending();
+        List<GuideHit> hits = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            hits.add(new GuideHit(posts[doc], scores != null ? scores[doc] : 0, counters.valueAt(doc, today)));
+        }
+        return new GuideSearchResult(hits, count, false);
+    }
+
+    private boolean accepts(GuideQuery query, int doc) {
+        return (query.cityId() < 0 || cityIds[doc] == query.cityId()) && query.acceptsType(posts[doc].type());
+    }
+
+    private double sortKey(GuideSort sort, int doc, double relevance, boolean keyword, PopularityCounters counters) {
+        return switch (sort) {
+            case RELEVANCE -> keyword ? relevance : counters.rank(doc);
+            case HOT -> counters.rank(doc);
+            // 同一天发布的按相关度排列，relevance / (1 + relevance) 落在 [0, 1) 内，不会越过日期
+            case LATEST -> publishedDays[doc] + relevance / (1 + relevance);
+        };
+    }
+
+    /**
+     * 查询词去重后的词编号，忽略词典中不存在的词
+     */
+    private int[] queryTerms(String keywords) {
+        return GuideTokenizer.tokenize(keywords).stream()
+                .distinct()
+                .map(termIds::get)
+                .filter(Objects::nonNull)
+                .limit(MAX_QUERY_TERMS)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * 固定容量的最小堆，保留键值最大的 k 个文档
+     */
+    private static final class TopK {
+        private final double[] keys;
+        private final int[] docs;
+        private int size;
+
+        TopK(int capacity) {
+            keys = new double[capacity];
+            docs = new int[capacity];
+        }
+
+        void offer(double key, int doc) {
+            if (size < keys.length) {
+                siftUp(size++, key, doc);
+            } else if (key > keys[0]) {
+                siftDown(0, key, doc);
+            }
+        }
+
+        /**
+         * 按键值降序取出全部文档
+         */
+        int[] drainDescending() {
+            int[] result = new int[size];
+            while (size > 0) {
+                result[size - 1] = docs[0];
+                size--;
+                if (size > 0) {
+                    siftDown(0, keys[size], docs[size]);
+                }
+            }
+            return result;
+        }
+
+        private void siftUp(int i, double key, int doc) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                docs[i] = docs[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            docs[i] = doc;
+        }
+
+        private void siftDown(int i, double key, int doc) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                docs[i] = docs[child];
+                i = child;
+            }
+            keys[i] = key;
+            docs[i] = doc;
+        }
+    }
+}
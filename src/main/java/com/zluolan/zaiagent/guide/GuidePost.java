@@ -0,0 +1,33 @@
+package com.zluolan.zaiagent.guide;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 一篇用户分享的攻略
+ *
+ * @param poiName 关联的 POI 名称，没有时为 null
+ */
+public record GuidePost(int id,
+                        String city,
+                        GuideType type,
+                        String title,
+                        String author,
+                        String content,
+                        List<String> tags,
+                        LocalDate publishedDate,
+                        int likes,
+                        int collects,
+                        int comments,
+                        String poiName) {
+
+    /**
+     * 正文摘要，超出长度时截断并加省略号
+     */
+    public String summary(int maxChars) {
+        if (content.length() <= maxChars) {
+            return content;
+        }
+        return content.substring(0, maxChars) + "…";
+    }
+}
@@ -0,0 +1,82 @@
+package com.zluolan.zaiagent.guide;
+
+/**
+ * 攻略检索条件
+ * 城市使用 {@link com.zluolan.zaiagent.poi.PoiCatalog} 解析后的编号，编号为 -1 表示不过滤；未指定类型时不过滤类型。
+ */
+public final class GuideQuery {
+
+    private final String keywords;
+    private int cityId = -1;
+    private int typeMask;
+    private GuideSort sort = GuideSort.RELEVANCE;
+    private int limit = 5;
+
+    private GuideQuery(String keywords) {
+        this.keywords = keywords != null ? keywords.trim() : "";
+    }
+
+    /**
+     * @param keywords 检索关键词，为空时只按城市、类型过滤
+     */
+    public static GuideQuery of(String keywords) {
+        return new GuideQuery(keywords);
+    }
+
+    public GuideQuery city(int cityId) {
+        this.cityId = cityId;
+        return this;
+    }
+
+    /**
+     * 限定攻略类型，多次调用为“或”关系
+     */
+    public GuideQuery types(GuideType... types) {
+        for (GuideType type : types) {
+            this.typeMask |= 1 << type.ordinal();
+        }
+        return this;
+    }
+
+    public GuideQuery sort(GuideSort sort) {
+        this.sort = sort != null ? sort : GuideSort.RELEVANCE;
+        return this;
+    }
+
+    public GuideQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * 去掉关键词、保留其余条件的副本，用于关键词无结果时放宽检索
+     */
+    GuideQuery withoutKeywords() {
+        GuideQuery copy = new GuideQuery("");
+        copy.cityId = cityId;
+        copy.typeMask = typeMask;
+        copy.sort = sort;
+        copy.limit = limit;
+        return copy;
+    }
+
+    String keywords() {
+        return keywords;
+    }
+
+    int cityId() {
+        return cityId;
+    }
+
+    boolean acceptsType(GuideType type) {
+        return typeMask == 0 || (typeMask & (1 << type.ordinal())) != 0;
+    }
+
+    GuideSort sort() {
+        return sort;
+    }
+
+    int limit() {
+        return limit;
+    }
+}
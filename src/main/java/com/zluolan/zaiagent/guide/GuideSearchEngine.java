@@ -0,0 +1,158 @@
+package com.zluolan.zaiagent.guide;
+
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 攻略检索引擎
+ * 倒排索引与热度计数器组成一个不可变状态保存在 volatile 字段中，查询不加锁；
+ * 导入新语料时重建索引并一次性替换状态，已有攻略的热度原样保留（导入过程中记录的互动可能不计入新状态）。
+ * 热度由发布时的点赞、收藏、评论和之后记录的互动累加，按 {@link #HALF_LIFE_DAYS} 天半衰期衰减，
+ * 因此“最热”偏向近期仍有互动的内容，而不是历史累计最多的内容。
+ */
+@Slf4j
+public final class GuideSearchEngine {
+
+    public static final String DEFAULT_RESOURCE = "guide/guide-corpus.tsv";
+
+    /**
+     * 热度半衰期（天）
+     */
+    public static final double HALF_LIFE_DAYS = 30;
+
+    private static final double LIKE_WEIGHT = 1;
+    private static final double COLLECT_WEIGHT = 2;
+    private static final double COMMENT_WEIGHT = 3;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    private final PoiCatalog poiCatalog;
+    private final Clock clock;
+    private final double referenceDay;
+    private final Object writeLock = new Object();
+    private volatile State state;
+
+    /**
+     * 索引与对应的热度计数器，计数器槽位即文档号
+     */
+    private record State(GuideIndex index, PopularityCounters counters) {
+    }
+
+    public GuideSearchEngine(List<GuidePost> posts, PoiCatalog poiCatalog, Clock clock) {
+        this.poiCatalog = poiCatalog;
+        this.clock = clock;
+        this.referenceDay = today();
+        this.state = build(posts, null);
+    }
+
+    private static final class DefaultHolder {
+        private static final GuideSearchEngine INSTANCE = loadDefault();
+
+        private static GuideSearchEngine loadDefault() {
+            GuideSearchEngine engine = new GuideSearchEngine(GuideCorpus.loadResource(DEFAULT_RESOURCE),
+                    PoiCatalog.getDefault(), Clock.systemDefaultZone());
+            log.info("攻略索引加载完成 - 来源: {}, 攻略: {}, 词项: {}",
+                    DEFAULT_RESOURCE, engine.size(), engine.state.index().termCount());
+            return engine;
+        }
+    }
+
+    /**
+     * 获取基于内置语料的共享实例（首次调用时加载）
+     */
+    public static GuideSearchEngine getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 检索攻略；关键词没有命中时放宽为同城同类型的内容，并在结果中标记
+     */
+    public GuideSearchResult search(GuideQuery query) {
+        State current = state;
+        double today = today();
+        GuideSearchResult result = current.index().search(query, current.counters(), today);
+        if (result.hits().isEmpty() && !query.keywords().isEmpty()) {
+            GuideSearchResult relaxed = current.index().search(query.withoutKeywords(), current.counters(), today);
+            return new GuideSearchResult(relaxed.hits(), relaxed.matches(), true);
+        }
+        return result;
+    }
+
+    /**
+     * 记录一次对攻略的互动（如点赞为 1、收藏为 2、评论为 3），计入当前时刻的热度
+     *
+     * @return 攻略不存在时返回 false
+     */
+    public boolean recordEngagement(int postId, double weight) {
+        State current = state;
+        int doc = current.index().docOf(postId);
+        if (doc < 0) {
+            return false;
+        }
+        current.counters().add(doc, weight, today());
+        return true;
+    }
+
+    /**
+     * 导入语料文件：编号已存在的攻略被替换并按文件中的互动数重新计算热度，其余攻略追加
+     *
+     * @return 导入的攻略数
+     */
+    public int importCorpus(Path file) throws IOException {
+        List<GuidePost> imported;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            imported = GuideCorpus.load(reader);
+        }
+        synchronized (writeLock) {
+            State base = state;
+            Map<Integer, GuidePost> merged = new LinkedHashMap<>();
+            for (int doc = 0; doc < base.index().size(); doc++) {
+                GuidePost post = base.index().post(doc);
+                merged.put(post.id(), post);
+            }
+            for (GuidePost post : imported) {
+                merged.put(post.id(), post);
+            }
+            state = build(List.copyOf(merged.values()), base);
+        }
+        log.info("攻略语料导入完成 - 文件: {}, 导入: {}, 总数: {}", file, imported.size(), size());
+        return imported.size();
+    }
+
+    public int size() {
+        return state.index().size();
+    }
+
+    /**
+     * 构建索引和计数器；previous 不为空时未被替换的攻略沿用原有热度
+     */
+    private State build(List<GuidePost> posts, State previous) {
+        GuideIndex index = new GuideIndex(posts, poiCatalog::cityId);
+        PopularityCounters counters = new PopularityCounters(index.size(), HALF_LIFE_DAYS, referenceDay);
+        for (int doc = 0; doc < index.size(); doc++) {
+            GuidePost post = index.post(doc);
+            int previousDoc = previous != null ? previous.index().docOf(post.id()) : -1;
+            if (previousDoc >= 0 && previous.index().post(previousDoc) == post) {
+                previous.counters().copyTo(previousDoc, counters, doc);
+            } else {
+                double weight = post.likes() * LIKE_WEIGHT + post.collects() * COLLECT_WEIGHT
+                        + post.comments() * COMMENT_WEIGHT;
+                counters.add(doc, weight, post.publishedDate().toEpochDay());
+            }
+        }
+        return new State(index, counters);
+    }
+
+    private double today() {
+        return clock.millis() / MILLIS_PER_DAY;
+    }
+}
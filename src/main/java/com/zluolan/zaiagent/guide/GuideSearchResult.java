@@ -0,0 +1,12 @@
+package com.zluolan.zaiagent.guide;
+
+import java.util.List;
+
+/**
+ * 一次攻略检索的结果
+ *
+ * @param matches 满足条件的攻略总数（排序截断前）
+ * @param relaxed 关键词没有命中任何攻略，结果为放宽关键词后的热门内容
+ */
+public record GuideSearchResult(List<GuideHit> hits, int matches, boolean relaxed) {
+}
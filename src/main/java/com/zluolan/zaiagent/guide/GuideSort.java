@@ -0,0 +1,51 @@
+package com.zluolan.zaiagent.guide;
+
+import java.util.Locale;
+
+/**
+ * 攻略排序方式
+ */
+public enum GuideSort {
+
+    /**
+     * 按 BM25 相关度，无关键词时按热度
+     */
+    RELEVANCE("最相关"),
+    /**
+     * 按随时间衰减的互动热度
+     */
+    HOT("最热"),
+    /**
+     * 按发布日期由新到旧
+     */
+    LATEST("最新");
+
+    private final String label;
+
+    GuideSort(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 根据用户描述解析排序方式，无法识别时按相关度
+     */
+    public static GuideSort fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return RELEVANCE;
+        }
+        String normalized = text.trim().toLowerCase(Locale.ROOT);
+        if (normalized.contains("热") || normalized.contains("火") || normalized.contains("hot")
+                || normalized.contains("popular")) {
+            return HOT;
+        }
+        if (normalized.contains("新") || normalized.contains("近") || normalized.contains("latest")
+                || normalized.contains("recent")) {
+            return LATEST;
+        }
+        return RELEVANCE;
+    }
+}
@@ -0,0 +1,33 @@
+package com.zluolan.zaiagent.guide;
+
+/**
+ * 攻略类型
+ */
+public enum GuideType {
+
+    GUIDE("攻略"),
+    FOOD("美食"),
+    CHECKIN("打卡");
+
+    private final String label;
+
+    GuideType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 按语料中的类型名称解析，无法识别返回 null
+     */
+    public static GuideType fromLabel(String label) {
+        for (GuideType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.zluolan.zaiagent.guide;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按半衰期指数衰减的热度计数器
+ * 每次互动按 weight × 2^((t - t0) / 半衰期) 累加到固定参考时刻 t0 的尺度上，
+ * 所有计数器在任一时刻的真实值只差同一个公共衰减因子，因此排序时直接比较存储值即可，
+ * 不需要定时扫描衰减。计数值以 double 的位模式存放在 {@link AtomicLongArray} 中，累加无锁。
+ */
+final class PopularityCounters {
+
+    private final double halfLifeDays;
+    private final double referenceDay;
+    private final AtomicLongArray values;
+
+    /**
+     * @param referenceDay 参考时刻 t0（自 1970-01-01 起的天数）
+     */
+    PopularityCounters(int capacity, double halfLifeDays, double referenceDay) {
+        if (!(halfLifeDays > 0)) {
+            throw new IllegalArgumentException("半衰期必须为正数: " + halfLifeDays);
+        }
+        this.halfLifeDays = halfLifeDays;
+        this.referenceDay = referenceDay;
+        this.values = new AtomicLongArray(capacity);
+    }
+
+    int capacity() {
+        return values.length();
+    }
+
+    /**
+     * 在 day 时刻为计数器累加一次互动
+     */
+    void add(int slot, double weight, double day) {
+        double scaled = weight * Math.pow(2, (day - referenceDay) / halfLifeDays);
+        long current;
+        long next;
+        do {
+            current = values.get(slot);
+            next = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + scaled);
+        } while (!values.compareAndSet(slot, current, next));
+    }
+
+    /**
+     * 排序用的热度值，不同计数器之间可直接比较
+     */
+    double rank(int slot) {
+        return Double.longBitsToDouble(values.get(slot));
+    }
+
+    /**
+     * day 时刻的实际热度
+     */
+    double valueAt(int slot, double day) {
+        return rank(slot) * Math.pow(2, (referenceDay - day) / halfLifeDays);
+    }
+
+    /**
+     * 把本计数器的某个槽位原样复制到另一个参考时刻相同的计数器
+     */
+    void copyTo(int slot, PopularityCounters target, int targetSlot) {
+        if (target.referenceDay != referenceDay || target.halfLifeDays != halfLifeDays) {
+            throw new IllegalArgumentException("计数器参数不一致");
+        }
+        target.values.set(targetSlot, values.get(slot));
+    }
+}
@@ -0,0 +1,14 @@
+package com.zluolan.zaiagent.inventory;
+
+import java.util.List;
+
+/**
+ * 可订酒店查询结果
+ *
+ * @param offers      可预订的报价
+ * @param soldOut     区间内有满房或不开放日期的候选酒店数
+ * @param overBudget  有房但超出房价上限的候选酒店数
+ * @param outOfRange  入住区间超出房态日历范围或没有房态数据的候选酒店数
+ */
+public record AvailabilityResult(List<RoomOffer> offers, int soldOut, int overBudget, int outOfRange) {
+}
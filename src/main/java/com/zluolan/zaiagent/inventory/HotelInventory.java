@@ -0,0 +1,144 @@
+package com.zluolan.zaiagent.inventory;
+
+import com.zluolan.zaiagent.poi.Poi;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 酒店房态快照
+ * 每家酒店一行紧凑日历：按天排列的房价数组（int）和剩余房间数组（short），下标为距日历起始日的天数，
+ * 行按 POI 编号直接寻址。查询某个入住区间只需顺序扫描该行的一小段连续内存。
+ * 快照不可变，由 {@link InventoryStore} 写时复制发布：更新只复制被修改的行，未修改的行在新旧快照间共享。
+ */
+public final class HotelInventory {
+
+    private final long firstEpochDay;
+    private final int days;
+    private final int[][] prices;
+    private final short[][] rooms;
+    private final long version;
+
+    HotelInventory(long firstEpochDay, int days, int[][] prices, short[][] rooms, long version) {
+        this.firstEpochDay = firstEpochDay;
+        this.days = days;
+        this.prices = prices;
+        this.rooms = rooms;
+        this.version = version;
+    }
+
+    /**
+     * 查询候选酒店在入住区间内的可订报价
+     *
+     * @param candidates 候选酒店，通常为按城市、档次、类型从 POI 目录查出的列表
+     */
+    public AvailabilityResult search(List<Poi> candidates, StayQuery query) {
+        int start = (int) (query.checkIn().toEpochDay() - firstEpochDay);
+        int nights = query.nights();
+        int needRooms = query.rooms();
+        List<RoomOffer> offers = new ArrayList<>();
+        int soldOut = 0;
+        int overBudget = 0;
+        int outOfRange = 0;
+        for (Poi hotel : candidates) {
+            int id = hotel.id();
+            if (start < 0 || start + nights > days || id >= prices.length || prices[id] == null) {
+                outOfRange++;
+                continue;
+            }
+            int[] rowPrices = prices[id];
+            short[] rowRooms = rooms[id];
+            int total = 0;
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            int left = Integer.MAX_VALUE;
+            boolean available = true;
+            for (int d = start, end = start + nights; d < end; d++) {
+                int price = rowPrices[d];
+                int count = rowRooms[d];
+                if (price <= 0 || count < needRooms) {
+                    available = false;
+                    break;
+                }
+                total += price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+                left = Math.min(left, count);
+            }
+            if (!available) {
+                soldOut++;
+            } else if (query.maxNightly() > 0 && max > query.maxNightly()) {
+                overBudget++;
+            } else {
+                offers.add(new RoomOffer(hotel, nights, needRooms, total, min, max, left));
+            }
+        }
+        if (query.sortByPrice()) {
+            offers.sort(Comparator.comparingInt(RoomOffer::totalPrice));
+        }
+        if (query.limit() > 0 && offers.size() > query.limit()) {
+            offers = new ArrayList<>(offers.subList(0, query.limit()));
+        }
+        return new AvailabilityResult(offers, soldOut, overBudget, outOfRange);
+    }
+
+    /**
+     * 入住区间是否完全落在日历范围内
+     */
+    public boolean covers(StayQuery query) {
+        long start = query.checkIn().toEpochDay() - firstEpochDay;
+        return start >= 0 && start + query.nights() <= days;
+    }
+
+    /**
+     * 日历第一天
+     */
+    public LocalDate firstDate() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    /**
+     * 日历最后一天（含）
+     */
+    public LocalDate lastDate() {
+        return LocalDate.ofEpochDay(firstEpochDay + days - 1);
+    }
+
+    public int days() {
+        return days;
+    }
+
+    /**
+     * 快照版本号，每次发布新快照加一
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 有房态数据的酒店数
+     */
+    public int hotelCount() {
+        int count = 0;
+        for (int[] row : prices) {
+            if (row != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    long firstEpochDay() {
+        return firstEpochDay;
+    }
+
+    int[][] prices() {
+        return prices;
+    }
+
+    short[][] rooms() {
+        return rooms;
+    }
+}
@@ -0,0 +1,160 @@
+package com.zluolan.zaiagent.inventory;
+
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 房态快照导入器
+ * 流式读取 Tab 分隔的快照文件（酒店名称或编号、日期、房价、剩余房间数，# 开头为注释），
+ * 每累积一批就写入 {@link InventoryStore} 并发布一次快照，大文件导入期间查询可以看到逐批生效的数据。
+ * 格式错误的行记录警告后跳过，不中断导入。
+ */
+@Slf4j
+public final class InventoryLoader {
+
+    public static final int DEFAULT_BATCH_SIZE = 2000;
+
+    /**
+     * 导入统计
+     *
+     * @param lines   读取的数据行数（不含空行和注释）
+     * @param applied 写入的记录数
+     * @param skipped 跳过的行数（格式错误、未知酒店或超出日历范围）
+     * @param batches 发布的快照批次数
+     */
+    public record LoadReport(int lines, int applied, int skipped, int batches) {
+    }
+
+    private final InventoryStore store;
+    private final PoiCatalog poiCatalog;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryLoader(InventoryStore store, PoiCatalog poiCatalog, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必须为正数: " + batchSize);
+        }
+        this.store = store;
+        this.poiCatalog = poiCatalog;
+        this.batchSize = batchSize;
+    }
+
+    public InventoryLoader(InventoryStore store, PoiCatalog poiCatalog) {
+        this(store, poiCatalog, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 在后台线程导入快照文件，多次调用按提交顺序依次执行
+     */
+    public CompletableFuture<LoadReport> loadAsync(Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                LoadReport report = load(reader);
+                log.info("房态快照导入完成 - 文件: {}, {}", file, report);
+                return report;
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取房态快照失败: " + file, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 在当前线程导入快照
+     */
+    public LoadReport load(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        Map<String, Integer> hotelIds = new HashMap<>();
+        List<InventoryRecord> batch = new ArrayList<>(batchSize);
+        int lines = 0;
+        int applied = 0;
+        int skipped = 0;
+        int batches = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            lines++;
+            InventoryRecord record = parse(line, hotelIds, lineNumber);
+            if (record == null) {
+                skipped++;
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+                int written = store.apply(batch);
+                applied += written;
+                skipped += batch.size() - written;
+                batches++;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int written = store.apply(batch);
+            applied += written;
+            skipped += batch.size() - written;
+            batches++;
+        }
+        return new LoadReport(lines, applied, skipped, batches);
+    }
+
+    private InventoryRecord parse(String line, Map<String, Integer> hotelIds, int lineNumber) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4) {
+            log.warn("房态快照第{}行字段数应为4，实际为{}，已跳过", lineNumber, fields.length);
+            return null;
+        }
+        int poiId = hotelIds.computeIfAbsent(fields[0].trim(), this::resolveHotel);
+        if (poiId < 0) {
+            log.warn("房态快照第{}行酒店未收录: {}，已跳过", lineNumber, fields[0]);
+            return null;
+        }
+        try {
+            return new InventoryRecord(poiId, LocalDate.parse(fields[1].trim()),
+                    Integer.parseInt(fields[2].trim()), Integer.parseInt(fields[3].trim()));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            log.warn("房态快照第{}行格式错误: {}，已跳过", lineNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 纯数字按 POI 编号处理，否则按名称精确匹配，且必须是酒店
+     */
+    private int resolveHotel(String key) {
+        int id = -1;
+        if (!key.isEmpty() && key.length() <= 9 && key.chars().allMatch(Character::isDigit)) {
+            id = Integer.parseInt(key);
+            if (id >= poiCatalog.size()) {
+                return -1;
+            }
+        } else {
+            id = poiCatalog.idOfName(key);
+        }
+        return id >= 0 && poiCatalog.kindOf(id) == PoiKind.HOTEL ? id : -1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.zluolan.zaiagent.inventory;
+
+import java.time.LocalDate;
+
+/**
+ * 一家酒店某一晚的房价和房态
+ *
+ * @param poiId 酒店在 POI 目录中的编号
+ * @param price 当晚房价（元），0 表示不开放预订
+ * @param rooms 剩余房间数
+ */
+public record InventoryRecord(int poiId, LocalDate date, int price, int rooms) {
+}
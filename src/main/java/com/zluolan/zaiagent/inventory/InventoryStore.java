@@ -0,0 +1,242 @@
+package com.zluolan.zaiagent.inventory;
+
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 酒店房态存储
+ * 当前快照保存在 volatile 字段中，读操作直接取快照、不加锁；
+ * 写操作串行执行，每批更新只复制被修改酒店的日历行，构建完成后一次性发布新快照，
+ * 因此批量导入期间查询始终能看到某个完整批次之后的一致状态，不会被阻塞。
+ * 按 {@link #rolling} 创建的日历随日期滚动：跨天后的第一次读写把起始日移到当天，
+ * 丢弃已过去的日期，末尾新增的日期按模拟规则补齐，已导入的未来日期保留。
+ */
+@Slf4j
+public final class InventoryStore {
+
+    /**
+     * 默认日历天数
+     */
+    public static final int DEFAULT_DAYS = 180;
+
+    /**
+     * 周五、周六晚房价上浮比例
+     */
+    private static final double WEEKEND_MARKUP = 1.2;
+
+    /**
+     * 模拟房态中每家酒店的最大剩余房间数
+     */
+    private static final int SEED_MAX_ROOMS = 12;
+
+    private final Object writeLock = new Object();
+    private volatile HotelInventory current;
+
+    /**
+     * 滚动日历的时钟和用于补齐新日期的酒店，固定日历时为 null
+     */
+    private final Clock clock;
+    private final List<Poi> seedHotels;
+
+    /**
+     * 下一次滚动的时间（毫秒），固定日历为 Long.MAX_VALUE
+     */
+    private volatile long nextRollMillis = Long.MAX_VALUE;
+
+    /**
+     * 创建空日历
+     *
+     * @param poiCount POI 总数，日历行按 POI 编号寻址
+     */
+    public InventoryStore(int poiCount, LocalDate firstDate, int days) {
+        this(poiCount, firstDate, days, null, List.of());
+    }
+
+    private InventoryStore(int poiCount, LocalDate firstDate, int days, Clock clock, List<Poi> seedHotels) {
+        if (days <= 0 || days > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("日历天数应在1-" + Short.MAX_VALUE + "之间: " + days);
+        }
+        this.current = new HotelInventory(firstDate.toEpochDay(), days,
+                new int[poiCount][], new short[poiCount][], 0);
+        this.clock = clock;
+        this.seedHotels = seedHotels;
+        if (clock != null) {
+            this.nextRollMillis = nextMidnightMillis(clock);
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final InventoryStore INSTANCE =
+                rolling(PoiCatalog.getDefault(), Clock.systemDefaultZone(), DEFAULT_DAYS);
+    }
+
+    /**
+     * 获取以内置 POI 目录生成模拟房态的共享实例，日历始终从当天开始
+     */
+    public static InventoryStore getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 按 POI 目录中的价格区间生成确定性的模拟房态：
+     * 房价在区间内按酒店和日期散列取值，周末上浮，少量日期满房
+     */
+    public static InventoryStore seeded(PoiCatalog catalog, LocalDate firstDate, int days) {
+        return seeded(catalog, firstDate, days, null);
+    }
+
+    /**
+     * 生成从当天开始、随日期滚动的模拟房态
+     *
+     * @param clock 判断“当天”所用的时钟及时区
+     */
+    public static InventoryStore rolling(PoiCatalog catalog, Clock clock, int days) {
+        return seeded(catalog, LocalDate.now(clock), days, clock);
+    }
+
+    private static InventoryStore seeded(PoiCatalog catalog, LocalDate firstDate, int days, Clock clock) {
+        List<Poi> hotels = catalog.query(PoiQuery.of(PoiKind.HOTEL).limit(0));
+        InventoryStore store = new InventoryStore(catalog.size(), firstDate, days, clock, hotels);
+        HotelInventory empty = store.current;
+        int[][] prices = empty.prices().clone();
+        short[][] rooms = empty.rooms().clone();
+        long firstEpochDay = firstDate.toEpochDay();
+        for (Poi hotel : hotels) {
+            int[] rowPrices = new int[days];
+            short[] rowRooms = new short[days];
+            seed(hotel, firstEpochDay, 0, rowPrices, rowRooms);
+            prices[hotel.id()] = rowPrices;
+            rooms[hotel.id()] = rowRooms;
+        }
+        store.current = new HotelInventory(firstEpochDay, days, prices, rooms, 1);
+        log.info("酒店房态初始化完成 - 酒店: {}, 日历: {} 至 {}",
+                store.current.hotelCount(), store.current.firstDate(), store.current.lastDate());
+        return store;
+    }
+
+    /**
+     * 当前快照，可在不加锁的情况下反复查询
+     */
+    public HotelInventory snapshot() {
+        if (clock != null && clock.millis() >= nextRollMillis) {
+            roll();
+        }
+        return current;
+    }
+
+    /**
+     * 应用一批房态更新并发布新快照
+     *
+     * @return 实际写入的记录数，日期超出日历范围或编号无效的记录会被忽略
+     */
+    public int apply(Collection<InventoryRecord> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        synchronized (writeLock) {
+            HotelInventory base = snapshot();
+            int[][] prices = base.prices().clone();
+            short[][] rooms = base.rooms().clone();
+            // 每行在本批次中只复制一次
+            boolean[] copied = new boolean[prices.length];
+            int applied = 0;
+            for (InventoryRecord record : batch) {
+                int id = record.poiId();
+                int day = (int) (record.date().toEpochDay() - base.firstEpochDay());
+                if (id < 0 || id >= prices.length || day < 0 || day >= base.days()
+                        || record.price() < 0 || record.rooms() < 0) {
+                    continue;
+                }
+                if (!copied[id]) {
+                    prices[id] = prices[id] != null ? prices[id].clone() : new int[base.days()];
+                    rooms[id] = rooms[id] != null ? rooms[id].clone() : new short[base.days()];
+                    copied[id] = true;
+                }
+                prices[id][day] = record.price();
+                rooms[id][day] = (short) Math.min(record.rooms(), Short.MAX_VALUE);
+                applied++;
+            }
+            if (applied > 0) {
+                current = new HotelInventory(base.firstEpochDay(), base.days(), prices, rooms, base.version() + 1);
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * 把日历起始日移到当天：保留仍在范围内的日期，末尾新增的日期按模拟规则补齐
+     */
+    private void roll() {
+        synchronized (writeLock) {
+            if (clock.millis() < nextRollMillis) {
+                return;
+            }
+            HotelInventory base = current;
+            long today = LocalDate.now(clock).toEpochDay();
+            int shift = (int) Math.min(Math.max(today - base.firstEpochDay(), 0), base.days());
+            if (shift > 0) {
+                int days = base.days();
+                int keep = days - shift;
+                int[][] prices = new int[base.prices().length][];
+                short[][] rooms = new short[prices.length][];
+                for (int id = 0; id < prices.length; id++) {
+                    if (base.prices()[id] != null) {
+                        prices[id] = new int[days];
+                        rooms[id] = new short[days];
+                        System.arraycopy(base.prices()[id], shift, prices[id], 0, keep);
+                        System.arraycopy(base.rooms()[id], shift, rooms[id], 0, keep);
+                    }
+                }
+                for (Poi hotel : seedHotels) {
+                    seed(hotel, today, keep, prices[hotel.id()], rooms[hotel.id()]);
+                }
+                current = new HotelInventory(today, days, prices, rooms, base.version() + 1);
+                log.info("酒店房态日历滚动 - 日历: {} 至 {}", current.firstDate(), current.lastDate());
+            }
+            nextRollMillis = nextMidnightMillis(clock);
+        }
+    }
+
+    /**
+     * 按模拟规则填充一行日历中从 from 开始的日期
+     */
+    private static void seed(Poi hotel, long firstEpochDay, int from, int[] rowPrices, short[] rowRooms) {
+        int low = Math.max(1, hotel.priceLow());
+        int span = Math.max(0, hotel.priceHigh() - low);
+        for (int d = from; d < rowPrices.length; d++) {
+            long epochDay = firstEpochDay + d;
+            long hash = mix(hotel.id() * 1_000_003L + epochDay);
+            int price = low + (int) Math.floorMod(hash, (long) span + 1);
+            DayOfWeek day = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+            if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+                price = (int) Math.round(price * WEEKEND_MARKUP);
+            }
+            rowPrices[d] = price;
+            // 约 8% 的日期满房
+            rowRooms[d] = (short) (Math.floorMod(hash >>> 20, 100) < 8 ? 0 : 1 + Math.floorMod(hash >>> 32, SEED_MAX_ROOMS));
+        }
+    }
+
+    private static long nextMidnightMillis(Clock clock) {
+        return LocalDate.now(clock).plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * SplitMix64 散列，保证模拟数据在不同运行间一致
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,29 @@
+package com.zluolan.zaiagent.inventory;
+
+import com.zluolan.zaiagent.poi.Poi;
+
+/**
+ * 指定入住区间内可预订的酒店报价
+ *
+ * @param totalPrice 每间房的总价（元）
+ * @param minNightly 区间内最低一晚的房价
+ * @param maxNightly 区间内最高一晚的房价
+ * @param roomsLeft  区间内剩余房间数的最小值
+ */
+public record RoomOffer(Poi hotel, int nights, int rooms, int totalPrice, int minNightly, int maxNightly, int roomsLeft) {
+
+    public int averageNightly() {
+        return nights > 0 ? Math.round((float) totalPrice / nights) : 0;
+    }
+
+    /**
+     * 报价文本，如：2晚×1间共¥1160（均价¥580/晚，剩余3间）
+     */
+    public String priceText() {
+        String text = nights + "晚×" + rooms + "间共¥" + (long) totalPrice * rooms + "（均价¥" + averageNightly() + "/晚";
+        if (roomsLeft <= 3) {
+            text += "，仅剩" + roomsLeft + "间";
+        }
+        return text + "）";
+    }
+}
@@ -0,0 +1,144 @@
+package com.zluolan.zaiagent.inventory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按入住区间查询可订酒店的条件
+ * 通过 {@link #of} 创建后链式设置，未设置的条件不参与过滤
+ */
+public final class StayQuery {
+
+    /**
+     * 每间房默认入住人数
+     */
+    private static final int GUESTS_PER_ROOM = 2;
+
+    private static final Pattern AMOUNT = Pattern.compile("(\\d{2,6})");
+
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private int guests = GUESTS_PER_ROOM;
+    private int maxNightly;
+    private boolean sortByPrice;
+    private int limit = 10;
+
+    private StayQuery(LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("退房日期必须晚于入住日期");
+        }
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    public static StayQuery of(LocalDate checkIn, LocalDate checkOut) {
+        return new StayQuery(checkIn, checkOut);
+    }
+
+    /**
+     * 从工具参数解析入住区间（格式 YYYY-MM-DD）
+     *
+     * @return 查询条件，任一日期缺失、格式错误或退房不晚于入住时返回 null
+     */
+    public static StayQuery parse(String checkIn, String checkOut) {
+        if (checkIn == null || checkOut == null || checkIn.isBlank() || checkOut.isBlank()) {
+            return null;
+        }
+        try {
+            LocalDate in = LocalDate.parse(checkIn.trim());
+            LocalDate out = LocalDate.parse(checkOut.trim());
+            return out.isAfter(in) ? new StayQuery(in, out) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 从价格描述中提取每晚房价上限，如“500以下”“300-600”取最后一个金额，没有金额返回 0
+     */
+    public static int maxNightlyIn(String priceRange) {
+        if (priceRange == null) {
+            return 0;
+        }
+        Matcher matcher = AMOUNT.matcher(priceRange);
+        int amount = 0;
+        while (matcher.find()) {
+            amount = Integer.parseInt(matcher.group(1));
+        }
+        return amount;
+    }
+
+    /**
+     * 描述中是否要求按价格从低到高排序
+     */
+    public static boolean prefersLowPrice(String text) {
+        return text != null && (text.contains("便宜") || text.contains("最低") || text.contains("低价")
+                || text.contains("性价比") || text.contains("省钱"));
+    }
+
+    public StayQuery guests(int guests) {
+        this.guests = Math.max(1, guests);
+        return this;
+    }
+
+    /**
+     * 每晚房价上限（元），0 表示不限
+     */
+    public StayQuery maxNightly(int maxNightly) {
+        this.maxNightly = Math.max(0, maxNightly);
+        return this;
+    }
+
+    /**
+     * 按总价升序，默认保持候选酒店的原有顺序（评分或距离）
+     */
+    public StayQuery sortByPrice(boolean sortByPrice) {
+        this.sortByPrice = sortByPrice;
+        return this;
+    }
+
+    /**
+     * 最多返回条数，0 表示不限
+     */
+    public StayQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public LocalDate checkIn() {
+        return checkIn;
+    }
+
+    public LocalDate checkOut() {
+        return checkOut;
+    }
+
+    public int guests() {
+        return guests;
+    }
+
+    public int nights() {
+        return (int) (checkOut.toEpochDay() - checkIn.toEpochDay());
+    }
+
+    /**
+     * 需要的房间数，按每间 2 人计
+     */
+    public int rooms() {
+        return (guests + GUESTS_PER_ROOM - 1) / GUESTS_PER_ROOM;
+    }
+
+    int maxNightly() {
+        return maxNightly;
+    }
+
+    boolean sortByPrice() {
+        return sortByPrice;
+    }
+
+    int limit() {
+        return limit;
+    }
+}
@@ -0,0 +1,221 @@
+package com.zluolan.zaiagent.location;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 地点规范化服务
+ * 把工具参数中的自由文本地点映射为规范地点：“北京”“北京市”“Beijing”“beijing ”都解析为同一个 {@link Place}，
+ * 工具先规范化参数再查询目录、交通网络和外部接口，同一地点的不同写法共用缓存和索引。
+ * <ul>
+ *     <li>别名表来自 location/locations.tsv，含简称、拼音和英文名，“名称+市”自动登记</li>
+ *     <li>先整段精确匹配，再用前缀树在文本中找最长的已知名称（如“我想去成都玩”）</li>
+ *     <li>文本中的匹配只认规范名称、拼音和英文名；中文简称和别称（京、长安、山城、首都）只参与整段精确匹配，
+ *     避免“长安街”“山城步道”之类的文本被误判为城市</li>
+ *     <li>后面紧跟“路”“街”等的名称是街道而不是城市，如“南京路”“北京东路”，不参与文本匹配</li>
+ * </ul>
+ * 实例构建后只读，可在多线程间共享。
+ */
+@Slf4j
+public final class LocationNormalizer {
+
+    public static final String DEFAULT_RESOURCE = "location/locations.tsv";
+
+    private static final int MIN_MATCH_LENGTH = 2;
+    private static final Pattern IGNORED = Pattern.compile("['’‘`·.\\-]");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern STREET_SUFFIX = Pattern.compile("(?:[东西南北中]?[路街道巷]|大街|大道)");
+
+    private final String[] names;
+    private final LocationTrie trie;
+    private final LocationTrie textTrie;
+
+    /**
+     * @param trie     全部名称和别名，用于整段精确匹配
+     * @param textTrie 规范名称、拼音和英文名，用于在文本中查找
+     */
+    private LocationNormalizer(List<String> names, LocationTrie trie, LocationTrie textTrie) {
+        this.names = names.toArray(new String[0]);
+        this.trie = trie;
+        this.textTrie = textTrie;
+    }
+
+    private static final class DefaultHolder {
+        private static final LocationNormalizer INSTANCE = loadResource(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * 获取基于内置别名表的共享实例（首次调用时加载）
+     */
+    public static LocationNormalizer getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 从类路径加载别名表
+     */
+    public static LocationNormalizer loadResource(String resource) {
+        try (InputStream in = LocationNormalizer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("地点别名表不存在: " + resource);
+            }
+            LocationNormalizer normalizer = load(in);
+            log.info("地点别名表加载完成 - 来源: {}, 地点: {}, 前缀树节点: {}",
+                    resource, normalizer.size(), normalizer.trie.nodeCount());
+            return normalizer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取地点别名表失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 从输入流加载别名表，格式错误或别名冲突时抛出带行号的 {@link IllegalArgumentException}
+     */
+    public static LocationNormalizer load(InputStream in) throws IOException {
+        List<String> names = new ArrayList<>();
+        LocationTrie.Builder builder = new LocationTrie.Builder();
+        LocationTrie.Builder textBuilder = new LocationTrie.Builder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                String[] fields = line.split("\t", -1);
+                if (!"@place".equals(fields[0]) || fields.length != 3 || fields[1].isBlank()) {
+                    throw new IllegalArgumentException("应为“@place\t名称\t别名”");
+                }
+                int id = names.size();
+                String name = fields[1].strip();
+                names.add(name);
+                register(builder, names, name, id);
+                register(builder, names, name + "市", id);
+                textBuilder.put(compactKey(name), id);
+                textBuilder.put(compactKey(name + "市"), id);
+                for (String alias : fields[2].split(",")) {
+                    if (!alias.isBlank()) {
+                        register(builder, names, alias, id);
+                        // 中文别名多是“长安”“山城”这类也会出现在普通文本里的词，只用于精确匹配
+                        if (isLatin(compactKey(alias))) {
+                            textBuilder.put(compactKey(alias), id);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("地点别名表第" + lineNumber + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return new LocationNormalizer(names, builder.build(), textBuilder.build());
+    }
+
+    private static void register(LocationTrie.Builder builder, List<String> names, String alias, int id) {
+        int previous = builder.put(compactKey(alias), id);
+        if (previous != LocationTrie.NONE) {
+            throw new IllegalArgumentException("别名「" + alias + "」同时属于" + names.get(previous) + "和" + names.get(id));
+        }
+    }
+
+    /**
+     * 解析地点：先整段精确匹配，再在文本中找最长的已知名称
+     *
+     * @return 规范地点，无法识别返回 null
+     */
+    public Place resolve(String text) {
+        Place exact = resolveExact(text);
+        if (exact != null || text == null) {
+            return exact;
+        }
+        String normalized = normalize(text);
+        LocationTrie.Match match = textTrie.longestMatch(normalized, MIN_MATCH_LENGTH,
+                end -> !STREET_SUFFIX.matcher(normalized).region(end, normalized.length()).lookingAt());
+        return match != null ? place(match.value()) : null;
+    }
+
+    /**
+     * 文本 [start, end) 是否落在某个已知名称（规范名称、名称+市、拼音和英文名）之内，
+     * 用来区分连接词和地名中的同一个字，如“呼和浩特还是成都”里的“和”
+     */
+    public boolean withinName(String text, int start, int end) {
+        return text != null && textTrie.overlaps(text.toLowerCase(Locale.ROOT), start, end, MIN_MATCH_LENGTH);
+    }
+
+    /**
+     * 整段精确匹配（忽略大小写、全半角、空白和撇号）
+     *
+     * @return 规范地点，不是已知名称或别名时返回 null
+     */
+    public Place resolveExact(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        int id = trie.get(compactKey(text));
+        return id != LocationTrie.NONE ? place(id) : null;
+    }
+
+    /**
+     * 规范化城市类参数（目的地、所在城市）：能识别的返回规范名称，否则返回去掉首尾空白的原文
+     */
+    public String canonicalCity(String text) {
+        Place place = resolve(text);
+        return place != null ? place.name() : strip(text);
+    }
+
+    /**
+     * 规范化地点类参数（出发地、参照地点，可能是景点或酒店名）：只有整段是城市名或别名时才替换，
+     * “北京故宫”这类更具体的地点保持原文
+     */
+    public String canonicalPlace(String text) {
+        Place place = resolveExact(text);
+        return place != null ? place.name() : strip(text);
+    }
+
+    /**
+     * 缓存键：已知地点用规范名称，未知地点用规范化后的文本，同一地点的不同写法得到同一个键
+     */
+    public String cacheKey(String text) {
+        Place place = resolve(text);
+        return place != null ? place.name() : compactKey(text == null ? "" : text);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private Place place(int id) {
+        return new Place(id, names[id]);
+    }
+
+    private static String strip(String text) {
+        return text != null ? text.strip() : null;
+    }
+
+    /**
+     * 统一全半角和大小写，去掉撇号、连字符等，连续空白合并为一个空格
+     */
+    static String normalize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return SPACES.matcher(IGNORED.matcher(folded).replaceAll("")).replaceAll(" ").strip();
+    }
+
+    private static boolean isLatin(String key) {
+        return key.chars().allMatch(c -> c < 0x80);
+    }
+
+    private static String compactKey(String text) {
+        return normalize(text).replace(" ", "");
+    }
+}
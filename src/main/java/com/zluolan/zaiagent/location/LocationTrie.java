@@ -0,0 +1,192 @@
+package com.zluolan.zaiagent.location;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * 地点别名前缀树
+ * 构建时用有序映射插入，完成后压平为数组：每个节点的子边在 labels/targets 中连续且按字符有序，
+ * 查找子节点用二分，整棵树只有几个原始数组，可在多线程间共享。
+ */
+final class LocationTrie {
+
+    static final int NONE = -1;
+
+    private final int[] edgeStart;
+    private final int[] edgeCount;
+    private final int[] values;
+    private final char[] labels;
+    private final int[] targets;
+
+    private LocationTrie(int[] edgeStart, int[] edgeCount, int[] values, char[] labels, int[] targets) {
+        this.edgeStart = edgeStart;
+        this.edgeCount = edgeCount;
+        this.values = values;
+        this.labels = labels;
+        this.targets = targets;
+    }
+
+    /**
+     * 精确查找
+     *
+     * @return 键对应的值，不存在返回 {@link #NONE}
+     */
+    int get(CharSequence key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node != NONE ? values[node] : NONE;
+    }
+
+    /**
+     * 在文本中查找最长的键，同样长时取出现最早的。
+     * 由字母数字组成的键必须落在单词边界上，避免“xian”匹配到“xianyang”。
+     *
+     * @param minLength 参与匹配的最短键长
+     * @param acceptEnd 按匹配的结束位置（不含）决定是否接受，如排除后面紧跟“路”“街”的匹配
+     * @return 匹配结果，没有匹配返回 null
+     */
+    Match longestMatch(CharSequence text, int minLength, IntPredicate acceptEnd) {
+        Match best = null;
+        for (int start = 0; start < text.length(); start++) {
+            if (start > 0 && isWordChar(text.charAt(start)) && isWordChar(text.charAt(start - 1))) {
+                continue;
+            }
+            int node = 0;
+            for (int end = start; end < text.length(); end++) {
+                node = child(node, text.charAt(end));
+                if (node == NONE) {
+                    break;
+                }
+                int length = end - start + 1;
+                if (values[node] != NONE && length >= minLength
+                        && (best == null || length > best.end() - best.start())
+                        && !(end + 1 < text.length() && isWordChar(text.charAt(end)) && isWordChar(text.charAt(end + 1)))
+                        && acceptEnd.test(end + 1)) {
+                    best = new Match(start, end + 1, values[node]);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 文本中是否有键与区间 [from, to) 重叠，用于判断一段文字是不是某个名称的一部分
+     *
+     * @param minLength 参与匹配的最短键长
+     */
+    boolean overlaps(CharSequence text, int from, int to, int minLength) {
+        for (int start = 0; start < to; start++) {
+            int node = 0;
+            for (int end = start; end < text.length(); end++) {
+                node = child(node, text.charAt(end));
+                if (node == NONE) {
+                    break;
+                }
+                if (values[node] != NONE && end - start + 1 >= minLength && end + 1 > from) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    int nodeCount() {
+        return values.length;
+    }
+
+    private int child(int node, char label) {
+        int low = edgeStart[node];
+        int high = low + edgeCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char current = labels[mid];
+            if (current < label) {
+                low = mid + 1;
+            } else if (current > label) {
+                high = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 文本中的一次匹配，区间为 [start, end)
+     */
+    record Match(int start, int end, int value) {
+    }
+
+    /**
+     * 构建器，键重复时保留先登记的值
+     */
+    static final class Builder {
+
+        private final BuildNode root = new BuildNode();
+
+        /**
+         * 登记键
+         *
+         * @return 键已存在且值不同时返回已有的值，否则返回 {@link #NONE}
+         */
+        int put(String key, int value) {
+            BuildNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+            }
+            if (node.value != NONE) {
+                return node.value != value ? node.value : NONE;
+            }
+            node.value = value;
+            return NONE;
+        }
+
+        LocationTrie build() {
+            // 广度优先编号，同一节点的子边天然连续
+            List<BuildNode> order = new ArrayList<>();
+            Deque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                node.id = order.size();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+            int nodes = order.size();
+            int[] edgeStart = new int[nodes];
+            int[] edgeCount = new int[nodes];
+            int[] values = new int[nodes];
+            char[] labels = new char[nodes - 1];
+            int[] targets = new int[nodes - 1];
+            int edge = 0;
+            for (BuildNode node : order) {
+                edgeStart[node.id] = edge;
+                edgeCount[node.id] = node.children.size();
+                values[node.id] = node.value;
+                for (Map.Entry<Character, BuildNode> entry : node.children.entrySet()) {
+                    labels[edge] = entry.getKey();
+                    targets[edge] = entry.getValue().id;
+                    edge++;
+                }
+            }
+            return new LocationTrie(edgeStart, edgeCount, values, labels, targets);
+        }
+    }
+
+    private static final class BuildNode {
+        private final Map<Character, BuildNode> children = new TreeMap<>();
+        private int value = NONE;
+        private int id;
+    }
+}
@@ -0,0 +1,10 @@
+package com.zluolan.zaiagent.location;
+
+/**
+ * 规范地点
+ *
+ * @param id   规范编号，按数据文件中的登记顺序分配
+ * @param name 规范名称，如“北京”，工具之间传递和缓存键都使用该名称
+ */
+public record Place(int id, String name) {
+}
@@ -1,9 +1,31 @@
 package com.zluolan.zaiagent.mcp;
 
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.inventory.AvailabilityResult;
+import com.zluolan.zaiagent.inventory.HotelInventory;
+import com.zluolan.zaiagent.inventory.InventoryStore;
+import com.zluolan.zaiagent.inventory.RoomOffer;
+import com.zluolan.zaiagent.inventory.StayQuery;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import com.zluolan.zaiagent.poi.PriceTier;
+import com.zluolan.zaiagent.routing.LocalTransport;
+import com.zluolan.zaiagent.routing.Route;
+import com.zluolan.zaiagent.routing.RouteMetric;
+import com.zluolan.zaiagent.routing.RoutingEngine;
+import com.zluolan.zaiagent.routing.TransportMode;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 高德地图MCP工具包装器
  * 封装高德地图MCP服务的各种功能
@@ -11,6 +33,24 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 public class AmapMcpToolWrapper {
+
+    private static final int DEFAULT_LIMIT = 5;
+
+    private final PoiCatalog poiCatalog;
+    private final RoutingEngine routingEngine;
+    private final TravelMatrixService travelMatrixService;
+    private final InventoryStore inventoryStore;
+    private final LocationNormalizer locationNormalizer;
+
+    public AmapMcpToolWrapper(PoiCatalog poiCatalog, RoutingEngine routingEngine,
+                              TravelMatrixService travelMatrixService, InventoryStore inventoryStore,
+                              LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.routingEngine = routingEngine;
+        this.travelMatrixService = travelMatrixService;
+        this.inventoryStore = inventoryStore;
+        this.locationNormalizer = locationNormalizer;
+    }
     
     /**
      * 搜索景点信息
@@ -21,7 +61,7 @@ public class AmapMcpToolWrapper {
             log.info("搜索景点信息 - 目的地: {}, 类型: {}, 限制: {}", destination, category, limit);
             
             // 模拟高德地图API调用（实际项目中应该调用真实API）
-            return generateAttractionData(destination, category, limit);
+            return generateAttractionData(locationNormalizer.canonicalCity(destination), category, limit);
             
         } catch (Exception e) {
             log.error("搜索景点失败", e);
@@ -40,7 +80,8 @@ public class AmapMcpToolWrapper {
                     destination, checkInDate, checkOutDate, guests, priceRange, hotelType);
             
             // 模拟高德地图API调用
-            return generateHotelData(destination, priceRange, hotelType);
+            return generateHotelData(locationNormalizer.canonicalCity(destination), checkInDate, checkOutDate,
+                    guests, priceRange, hotelType);
             
         } catch (Exception e) {
             log.error("搜索酒店失败", e);
@@ -59,7 +100,8 @@ public class AmapMcpToolWrapper {
                     startLocation, endLocation, waypoints, transportMode, travelDate, preferences);
             
             // 模拟高德地图API调用
-            return generateRouteData(startLocation, endLocation, waypoints, transportMode, preferences);
+            return generateRouteData(locationNormalizer.canonicalPlace(startLocation),
+                    locationNormalizer.canonicalPlace(endLocation), waypoints, transportMode, preferences);
             
         } catch (Exception e) {
             log.error("路线规划失败", e);
@@ -76,7 +118,7 @@ public class AmapMcpToolWrapper {
             log.info("查询天气信息 - 地点: {}, 日期: {}, 天数: {}", location, date, days);
             
             // 模拟高德地图API调用
-            return generateWeatherData(location, date, days);
+            return generateWeatherData(locationNormalizer.canonicalCity(location), date, days);
             
         } catch (Exception e) {
             log.error("天气查询失败", e);
@@ -85,78 +127,109 @@ public class AmapMcpToolWrapper {
     }
     
     /**
-     * 生成景点数据
+     * 从 POI 目录生成景点数据
      */
     private String generateAttractionData(String destination, String category, Integer limit) {
         StringBuilder result = new StringBuilder();
         result.append("🏛️ ").append(destination).append(" 景点推荐\n");
         result.append("搜索类型: ").append(category != null ? category : "全部").append("\n\n");
         
-        if (destination.contains("北京")) {
-            result.append("=== 北京热门景点 ===\n");
-            result.append("1. 故宫博物院 - 明清皇家宫殿，世界文化遗产\n");
-            result.append("2. 天安门广场 - 世界最大的城市广场\n");
-            result.append("3. 长城（八达岭段） - 世界七大奇迹之一\n");
-            result.append("4. 颐和园 - 清朝皇家园林\n");
-            result.append("5. 天坛公园 - 明清皇帝祭天的场所\n");
-        } else if (destination.contains("上海")) {
-            result.append("=== 上海热门景点 ===\n");
-            result.append("1. 外滩 - 上海标志性景观带\n");
-            result.append("2. 东方明珠塔 - 上海地标建筑\n");
-            result.append("3. 豫园 - 明代私人花园\n");
-            result.append("4. 南京路步行街 - 中华商业第一街\n");
-            result.append("5. 田子坊 - 文艺创意园区\n");
-        } else {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0) {
             result.append("=== ").append(destination).append(" 景点推荐 ===\n");
             result.append("1. ").append(destination).append("市中心/老城区 - 体验当地文化和历史\n");
             result.append("2. ").append(destination).append("博物馆 - 了解当地历史文化\n");
             result.append("3. ").append(destination).append("公园/广场 - 休闲散步的好去处\n");
             result.append("4. 当地特色街区 - 购物和品尝美食\n");
             result.append("5. ").append(destination).append("地标建筑 - 拍照留念\n");
+            return result.toString();
+        }
+        
+        int size = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        int categoryId = poiCatalog.categoryId(PoiKind.ATTRACTION, category);
+        List<Poi> pois = poiCatalog.query(PoiQuery.of(PoiKind.ATTRACTION)
+                .city(cityId).category(categoryId).limit(size));
+        if (pois.isEmpty()) {
+            pois = poiCatalog.query(PoiQuery.of(PoiKind.ATTRACTION).city(cityId).limit(size));
         }
+        result.append("=== ").append(poiCatalog.cityName(cityId)).append("热门景点 ===\n");
+        appendPoiLines(result, pois, "");
         
         return result.toString();
     }
     
     /**
-     * 生成酒店数据
+     * 从 POI 目录生成酒店数据
      */
-    private String generateHotelData(String destination, String priceRange, String hotelType) {
+    private String generateHotelData(String destination, String checkInDate, String checkOutDate,
+                                     Integer guests, String priceRange, String hotelType) {
         StringBuilder result = new StringBuilder();
         result.append("🏨 ").append(destination).append(" 酒店推荐\n");
         result.append("价格档次: ").append(priceRange != null ? priceRange : "全部").append("\n\n");
         
-        if (destination.contains("北京")) {
-            result.append("=== 北京酒店推荐 ===\n");
-            if ("豪华型".equals(priceRange)) {
-                result.append("1. 北京王府井希尔顿酒店 - 五星级豪华酒店\n");
-                result.append("2. 北京饭店 - 历史悠久的奢华酒店\n");
-            } else if ("舒适型".equals(priceRange)) {
-                result.append("1. 如家酒店（王府井店） - 连锁商务酒店\n");
-                result.append("2. 汉庭酒店（前门店） - 经济型连锁酒店\n");
-            } else {
-                result.append("1. 7天连锁酒店 - 经济型住宿\n");
-                result.append("2. 青年旅社 - 适合背包客\n");
-            }
-        } else if (destination.contains("上海")) {
-            result.append("=== 上海酒店推荐 ===\n");
-            if ("豪华型".equals(priceRange)) {
-                result.append("1. 上海外滩华尔道夫酒店 - 奢华地标酒店\n");
-                result.append("2. 上海浦东丽思卡尔顿酒店 - 国际奢华品牌\n");
-            } else {
-                result.append("1. 锦江之星（南京路店） - 知名连锁酒店\n");
-                result.append("2. 如家酒店（人民广场店） - 经济型连锁酒店\n");
-            }
-        } else {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0) {
             result.append("=== ").append(destination).append(" 酒店推荐 ===\n");
             result.append("1. 国际连锁酒店 - 希尔顿、万豪、洲际等\n");
             result.append("2. 当地知名酒店 - 提供优质服务\n");
             result.append("3. 经济型酒店 - 性价比高的选择\n");
+            return result.toString();
         }
         
+        // 有入住日期且在房态日历范围内时，先取全部候选再按房态筛选
+        StayQuery stay = StayQuery.parse(checkInDate, checkOutDate);
+        HotelInventory inventory = inventoryStore.snapshot();
+        if (stay != null && !inventory.covers(stay)) {
+            stay = null;
+        }
+        int limit = stay != null ? 0 : DEFAULT_LIMIT;
+        PriceTier tier = PriceTier.fromText(priceRange);
+        int categoryId = poiCatalog.categoryId(PoiKind.HOTEL, hotelType);
+        List<Poi> pois = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL)
+                .city(cityId).tier(tier).category(categoryId).limit(limit));
+        if (pois.isEmpty()) {
+            pois = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier).limit(limit));
+        }
+        if (pois.isEmpty()) {
+            pois = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId).limit(limit));
+        }
+        result.append("=== ").append(poiCatalog.cityName(cityId)).append("酒店推荐 ===\n");
+        if (stay == null) {
+            appendPoiLines(result, pois, "/晚");
+            return result.toString();
+        }
+        
+        stay.guests(guests != null && guests > 0 ? guests : 2)
+                .maxNightly(StayQuery.maxNightlyIn(priceRange))
+                .sortByPrice(StayQuery.prefersLowPrice(priceRange))
+                .limit(DEFAULT_LIMIT);
+        AvailabilityResult availability = inventory.search(pois, stay);
+        result.append("入住: ").append(stay.checkIn()).append(" 至 ").append(stay.checkOut())
+                .append("（").append(stay.nights()).append("晚，").append(stay.rooms()).append("间）\n");
+        int index = 1;
+        for (RoomOffer offer : availability.offers()) {
+            Poi poi = offer.hotel();
+            result.append(index++).append(". ").append(poi.name())
+                    .append(" - ").append(poi.description())
+                    .append("（").append(offer.priceText())
+                    .append("，评分").append(poi.rating()).append("）\n");
+        }
+        if (availability.offers().isEmpty()) {
+            result.append("所选日期暂无可订酒店\n");
+        }
         return result.toString();
     }
     
+    private void appendPoiLines(StringBuilder result, List<Poi> pois, String priceUnit) {
+        int index = 1;
+        for (Poi poi : pois) {
+            result.append(index++).append(". ").append(poi.name())
+                    .append(" - ").append(poi.description())
+                    .append("（").append(poi.priceText()).append(priceUnit)
+                    .append("，评分").append(poi.rating()).append("）\n");
+        }
+    }
+    
     /**
      * 生成路线数据
      */
@@ -168,6 +241,10 @@ public class AmapMcpToolWrapper {
         result.append("交通方式: ").append(transportMode != null ? transportMode : "自动选择").append("\n\n");
         
         result.append("=== 推荐路线 ===\n");
+        if (appendIntercityRoute(result, start, end, waypoints, transportMode, preferences)
+                || appendLocalRoute(result, start, end, transportMode)) {
+            return result.toString();
+        }
         if ("驾车".equals(transportMode)) {
             result.append("🚗 自驾路线：\n");
             result.append("• 预计时间：根据距离和路况而定\n");
@@ -188,6 +265,65 @@ public class AmapMcpToolWrapper {
         return result.toString();
     }
     
+    /**
+     * 起终点位于不同城市时，用离线路线引擎按偏好给出城际方案
+     *
+     * @return 是否已写入方案
+     */
+    private boolean appendIntercityRoute(StringBuilder result, String start, String end, String waypoints,
+                                         String transportMode, String preferences) {
+        int from = routingEngine.resolveNode(start);
+        int to = routingEngine.resolveNode(end);
+        if (from < 0 || to < 0 || from == to) {
+            return false;
+        }
+        List<Integer> stops = new ArrayList<>();
+        stops.add(from);
+        if (waypoints != null && !waypoints.isBlank()) {
+            for (String waypoint : waypoints.split("[,，、]")) {
+                int node = routingEngine.resolveNode(waypoint);
+                if (node >= 0) {
+                    stops.add(node);
+                }
+            }
+        }
+        stops.add(to);
+        RouteMetric metric = RouteMetric.fromText(preferences);
+        if (metric == null) {
+            metric = RouteMetric.FASTEST;
+        }
+        Route route = routingEngine.route(stops, TransportMode.fromText(transportMode), metric);
+        if (route == null) {
+            route = routingEngine.route(stops, TransportMode.fromText(null), metric);
+            if (route == null) {
+                return false;
+            }
+            result.append("⚠️ 所选交通方式无法完成该行程，以下为不限交通方式的方案\n");
+        }
+        result.append(metric.getIcon()).append(" ").append(metric.getLabel()).append("路线：")
+                .append(route.summary()).append("\n");
+        result.append(route.describe("  "));
+        return true;
+    }
+
+    /**
+     * 起终点都能定位到具体地点且在同一城市时，按直线距离估算同城耗时
+     *
+     * @return 是否已写入方案
+     */
+    private boolean appendLocalRoute(StringBuilder result, String start, String end, String transportMode) {
+        PoiAnchor from = poiCatalog.resolveAnchor(start, -1);
+        PoiAnchor to = poiCatalog.resolveAnchor(end, from != null ? from.cityId() : -1);
+        if (from == null || to == null || from.poiId() < 0 || to.poiId() < 0 || from.cityId() != to.cityId()) {
+            return false;
+        }
+        double meters = travelMatrixService.distanceMeters(from, to);
+        result.append("📍 ").append(from.label()).append(" → ").append(to.label())
+                .append("，直线距离").append(GeoMath.formatDistance(meters)).append("\n");
+        result.append(LocalTransport.describeOptions(meters, LocalTransport.fromText(transportMode)));
+        return true;
+    }
+
     /**
      * 生成天气数据
      */
@@ -0,0 +1,321 @@
+package com.zluolan.zaiagent.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个 MCP 服务的异步连接池
+ * <ul>
+ *     <li>常驻 size 个服务进程，每个进程上最多 maxInFlight 个并发请求，调用分给在途最少的进程</li>
+ *     <li>全部占满时请求进入有界队列，有名额释放时按先后顺序发出；队列已满直接拒绝，不无限堆积</li>
+ *     <li>工具列表缓存 {@link #TOOLS_TTL}，服务通知列表变化时立即更新</li>
+ *     <li>进程崩溃或启动失败时在途请求立即失败，按指数退避重启，重启成功后继续处理排队的请求</li>
+ * </ul>
+ * 所有方法线程安全，调用方只拿到 {@link CompletableFuture}，不占用线程等待。
+ */
+@Slf4j
+public final class McpClientPool implements AutoCloseable {
+
+    /**
+     * 工具列表缓存时间
+     */
+    public static final Duration TOOLS_TTL = Duration.ofMinutes(5);
+
+    private static final long MIN_RESTART_DELAY_MILLIS = 500;
+    private static final long MAX_RESTART_DELAY_MILLIS = 30_000;
+
+    /**
+     * 排队中的调用
+     */
+    private record Call(String tool, Map<String, Object> arguments,
+                        CompletableFuture<McpSchema.CallToolResult> future) {
+    }
+
+    /**
+     * 工具列表缓存
+     */
+    private record CachedTools(List<McpSchema.Tool> tools, long loadedAt) {
+    }
+
+    private final McpServerSpec spec;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final Duration requestTimeout;
+    private final List<McpConnection> connections;
+    private final Queue<Call> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ScheduledExecutorService restarter;
+    private final AtomicInteger[] failures;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private volatile CachedTools cachedTools;
+    private volatile boolean closed;
+
+    /**
+     * 创建连接池并立即异步启动全部服务进程
+     *
+     * @param size           服务进程数
+     * @param maxInFlight    每个进程的最大在途请求数
+     * @param maxQueued      全部占满时最多排队的请求数
+     * @param requestTimeout 初始化、单次调用和排队等待的超时时间
+     */
+    public McpClientPool(McpServerSpec spec, int size, int maxInFlight, int maxQueued, Duration requestTimeout) {
+        if (size < 1 || maxInFlight < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("连接池大小和在途请求数至少为1，排队数不能为负数");
+        }
+        this.spec = spec;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.requestTimeout = requestTimeout;
+        this.restarter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("mcp-restart-" + spec.name()).daemon().factory());
+        List<McpConnection> created = new ArrayList<>(size);
+        this.failures = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            created.add(new McpConnection(spec, i, requestTimeout, this::onToolsChanged, this::onStateChanged));
+            failures[i] = new AtomicInteger();
+        }
+        this.connections = List.copyOf(created);
+        connections.forEach(McpConnection::start);
+    }
+
+    /**
+     * 异步调用工具
+     * 返回的 future 在服务返回结果时完成；超时、服务进程退出、排队已满（{@link RejectedExecutionException}）时以异常完成。
+     * 服务返回的业务错误不算异常，见 {@link McpSchema.CallToolResult#isError()}。
+     */
+    public CompletableFuture<McpSchema.CallToolResult> callTool(String tool, Map<String, Object> arguments) {
+        calls.incrementAndGet();
+        CompletableFuture<McpSchema.CallToolResult> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                failed.incrementAndGet();
+            }
+        });
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("MCP连接池已关闭: " + spec.name()));
+            return future;
+        }
+        Call call = new Call(tool, arguments != null ? arguments : Map.of(), future);
+        McpConnection connection = acquire();
+        if (connection != null) {
+            dispatch(connection, call);
+            return future;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                    "MCP服务繁忙，排队请求已达上限" + maxQueued + ": " + spec.name()));
+            return future;
+        }
+        future.orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        queue.add(call);
+        // 排队超时的请求立即让出排队名额
+        future.whenComplete((result, error) -> {
+            if (error != null && queue.remove(call)) {
+                queued.decrementAndGet();
+            }
+        });
+        // 入队后再尝试一次，避免与刚释放名额的线程错过
+        drain();
+        return future;
+    }
+
+    /**
+     * 服务提供的工具（带缓存），服务暂不可用时返回上一次的列表，从未成功获取时返回空列表
+     */
+    public List<McpSchema.Tool> listTools() {
+        CachedTools cached = cachedTools;
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < TOOLS_TTL.toMillis()) {
+            return cached.tools();
+        }
+        McpConnection connection = awaitReadyConnection(requestTimeout);
+        if (connection != null) {
+            try {
+                List<McpSchema.Tool> tools = connection.listTools().block(requestTimeout);
+                if (tools != null) {
+                    onToolsChanged(tools);
+                    return tools;
+                }
+            } catch (RuntimeException e) {
+                log.warn("获取MCP工具列表失败 - 服务: {}, 原因: {}", spec.name(), e.getMessage());
+            }
+        } else {
+            log.warn("获取MCP工具列表失败 - 服务: {}, 原因: {}内没有可用的服务进程", spec.name(), requestTimeout);
+        }
+        return cached != null ? cached.tools() : List.of();
+    }
+
+    /**
+     * 等待至少一个服务进程可用
+     */
+    public boolean awaitReady(Duration timeout) {
+        return awaitReadyConnection(timeout) != null;
+    }
+
+    public String name() {
+        return spec.name();
+    }
+
+    public McpPoolStats stats() {
+        int ready = 0;
+        int inFlight = 0;
+        for (McpConnection connection : connections) {
+            if (connection.state() == McpConnection.State.READY) {
+                ready++;
+            }
+            inFlight += Math.max(connection.inFlight(), 0);
+        }
+        CachedTools cached = cachedTools;
+        return new McpPoolStats(spec.name(), connections.size(), ready, inFlight, queued.get(), calls.get(),
+                failed.get(), rejected.get(), restarts.get(), cached != null ? cached.tools().size() : 0);
+    }
+
+    /**
+     * 关闭全部服务进程，排队中的请求以异常完成
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        restarter.shutdownNow();
+        for (Call call; (call = queue.poll()) != null; ) {
+            queued.decrementAndGet();
+            call.future().completeExceptionally(new IllegalStateException("MCP连接池已关闭: " + spec.name()));
+        }
+        connections.forEach(McpConnection::close);
+        log.info("MCP连接池已关闭 - 服务: {}", spec.name());
+    }
+
+    /**
+     * 占用在途最少的可用进程的一个名额，全部占满或不可用时返回 null
+     */
+    private McpConnection acquire() {
+        while (true) {
+            McpConnection best = null;
+            for (McpConnection connection : connections) {
+                if (connection.state() == McpConnection.State.READY && connection.inFlight() < maxInFlight
+                        && (best == null || connection.inFlight() < best.inFlight())) {
+                    best = connection;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.tryAcquire(maxInFlight)) {
+                return best;
+            }
+        }
+    }
+
+    private void dispatch(McpConnection connection, Call call) {
+        connection.callTool(call.tool(), call.arguments()).whenComplete((result, error) -> {
+            if (error != null) {
+                call.future().completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                call.future().complete(result);
+            }
+            drain();
+        });
+    }
+
+    /**
+     * 把排队的请求分给空出的名额，已超时的请求直接丢弃
+     */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            McpConnection connection = acquire();
+            if (connection == null) {
+                return;
+            }
+            Call call = queue.poll();
+            if (call == null) {
+                connection.release();
+                return;
+            }
+            queued.decrementAndGet();
+            if (call.future().isDone()) {
+                connection.release();
+                continue;
+            }
+            dispatch(connection, call);
+        }
+    }
+
+    private void onToolsChanged(List<McpSchema.Tool> tools) {
+        cachedTools = new CachedTools(List.copyOf(tools), System.currentTimeMillis());
+    }
+
+    private void onStateChanged(McpConnection connection) {
+        switch (connection.state()) {
+            case READY -> {
+                failures[connection.index()].set(0);
+                drain();
+            }
+            case DEAD -> scheduleRestart(connection);
+            default -> {
+            }
+        }
+    }
+
+    private void scheduleRestart(McpConnection connection) {
+        if (closed) {
+            return;
+        }
+        int attempt = failures[connection.index()].getAndIncrement();
+        long delay = Math.min(MAX_RESTART_DELAY_MILLIS, MIN_RESTART_DELAY_MILLIS << Math.min(attempt, 16));
+        log.info("MCP服务将在{}ms后重启 - 服务: {}#{}", delay, spec.name(), connection.index());
+        try {
+            restarter.schedule(() -> {
+                if (!closed) {
+                    restarts.incrementAndGet();
+                    connection.start();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 连接池已关闭
+        }
+    }
+
+    private McpConnection awaitReadyConnection(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!closed) {
+            for (McpConnection connection : connections) {
+                if (connection.state() == McpConnection.State.READY) {
+                    return connection;
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                return null;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+}
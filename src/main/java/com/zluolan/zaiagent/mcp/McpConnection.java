@@ -0,0 +1,232 @@
+package com.zluolan.zaiagent.mcp;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 连接池中的一个 MCP 服务进程及其异步客户端
+ * 同一个客户端在一条 stdio 管道上按 JSON-RPC id 复用多个并发请求，在途数量由连接池通过
+ * {@link #tryAcquire(int)} 控制。进程退出时立即让在途请求失败，而不是等到请求超时，何时重启由连接池决定。
+ */
+@Slf4j
+final class McpConnection {
+
+    enum State {
+        STARTING, READY, DEAD, CLOSED
+    }
+
+    /**
+     * 一次启动对应的客户端，重启后旧会话的退出通知会被忽略
+     */
+    private record Session(McpAsyncClient client, Set<CompletableFuture<?>> pending) {
+    }
+
+    private final McpServerSpec spec;
+    private final int index;
+    private final Duration requestTimeout;
+    private final Consumer<List<McpSchema.Tool>> toolsListener;
+    private final Consumer<McpConnection> stateListener;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile State state = State.DEAD;
+    private volatile Session session;
+
+    /**
+     * @param toolsListener 服务通知工具列表变化时调用
+     * @param stateListener 连接变为可用或不可用时调用
+     */
+    McpConnection(McpServerSpec spec, int index, Duration requestTimeout,
+                  Consumer<List<McpSchema.Tool>> toolsListener, Consumer<McpConnection> stateListener) {
+        this.spec = spec;
+        this.index = index;
+        this.requestTimeout = requestTimeout;
+        this.toolsListener = toolsListener;
+        this.stateListener = stateListener;
+    }
+
+    /**
+     * 启动服务进程并完成 MCP 初始化握手，已在启动或可用时不做任何事
+     */
+    synchronized void start() {
+        if (state != State.DEAD) {
+            return;
+        }
+        state = State.STARTING;
+        StdioClientTransport transport = new StdioClientTransport(spec.toServerParameters());
+        transport.setStdErrorHandler(line -> log.debug("[{}#{}] {}", spec.name(), index, line));
+        McpAsyncClient client = McpClient.async(transport)
+                .requestTimeout(requestTimeout)
+                .initializationTimeout(requestTimeout)
+                .clientInfo(new McpSchema.Implementation("travel-planner", "1.0.0"))
+                .toolsChangeConsumer(tools -> Mono.fromRunnable(() -> toolsListener.accept(tools)))
+                .build();
+        Session started = new Session(client, ConcurrentHashMap.newKeySet());
+        session = started;
+        client.initialize().subscribe(result -> onReady(started, transport), error -> onStartFailed(started, error));
+    }
+
+    private void onReady(Session started, StdioClientTransport transport) {
+        synchronized (this) {
+            if (session != started || state != State.STARTING) {
+                return;
+            }
+            state = State.READY;
+        }
+        log.info("MCP服务已就绪 - 服务: {}#{}", spec.name(), index);
+        Thread.ofVirtual().name("mcp-exit-" + spec.name() + "-" + index).start(() -> {
+            try {
+                transport.awaitForExit();
+            } catch (RuntimeException e) {
+                log.debug("等待MCP服务进程退出失败 - 服务: {}#{}", spec.name(), index, e);
+            }
+            onExit(started);
+        });
+        stateListener.accept(this);
+    }
+
+    private void onStartFailed(Session started, Throwable error) {
+        synchronized (this) {
+            if (session != started || state != State.STARTING) {
+                return;
+            }
+            state = State.DEAD;
+        }
+        log.warn("MCP服务启动失败 - 服务: {}#{}, 原因: {}", spec.name(), index, error.getMessage());
+        started.client().close();
+        stateListener.accept(this);
+    }
+
+    private void onExit(Session exited) {
+        synchronized (this) {
+            if (session != exited || state == State.CLOSED) {
+                return;
+            }
+            state = State.DEAD;
+        }
+        log.warn("MCP服务进程已退出 - 服务: {}#{}, 在途请求: {}", spec.name(), index, exited.pending().size());
+        failPending(exited, "MCP服务进程已退出: " + spec.name());
+        exited.client().close();
+        stateListener.accept(this);
+    }
+
+    /**
+     * 可用且在途请求少于 maxInFlight 时占用一个名额
+     */
+    boolean tryAcquire(int maxInFlight) {
+        while (state == State.READY) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 释放未使用的名额
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 在已占用的名额上发起调用
+     * 返回的 future 在名额释放之后才完成，调用方在回调里可以立即复用这个名额
+     */
+    CompletableFuture<McpSchema.CallToolResult> callTool(String tool, Map<String, Object> arguments) {
+        CompletableFuture<McpSchema.CallToolResult> future = new CompletableFuture<>();
+        Session current = session;
+        if (current == null || state != State.READY) {
+            future.completeExceptionally(new IllegalStateException("MCP服务不可用: " + spec.name()));
+            return future.whenComplete((result, error) -> inFlight.decrementAndGet());
+        }
+        current.pending().add(future);
+        CompletableFuture<McpSchema.CallToolResult> released = future.whenComplete((result, error) -> {
+            current.pending().remove(future);
+            inFlight.decrementAndGet();
+        });
+        current.client().callTool(new McpSchema.CallToolRequest(tool, arguments)).subscribe(
+                future::complete,
+                future::completeExceptionally,
+                () -> future.completeExceptionally(new IllegalStateException("MCP服务没有返回结果: " + tool)));
+        return released;
+    }
+
+    /**
+     * 读取完整的工具列表（处理分页）
+     */
+    Mono<List<McpSchema.Tool>> listTools() {
+        Session current = session;
+        if (current == null || state != State.READY) {
+            return Mono.error(new IllegalStateException("MCP服务不可用: " + spec.name()));
+        }
+        return listTools(current.client(), null, List.of());
+    }
+
+    private static Mono<List<McpSchema.Tool>> listTools(McpAsyncClient client, String cursor,
+                                                        List<McpSchema.Tool> collected) {
+        return client.listTools(cursor).flatMap(page -> {
+            List<McpSchema.Tool> tools = new ArrayList<>(collected);
+            tools.addAll(page.tools());
+            return page.nextCursor() == null ? Mono.just(List.copyOf(tools))
+                    : listTools(client, page.nextCursor(), tools);
+        });
+    }
+
+    /**
+     * 关闭客户端并结束服务进程，之后不再重启
+     */
+    void close() {
+        Session closing;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            state = State.CLOSED;
+            closing = session;
+        }
+        if (closing != null) {
+            failPending(closing, "MCP连接池已关闭: " + spec.name());
+            try {
+                closing.client().closeGracefully().block(Duration.ofSeconds(5));
+            } catch (RuntimeException e) {
+                log.debug("关闭MCP客户端失败 - 服务: {}#{}", spec.name(), index, e);
+                closing.client().close();
+            }
+        }
+    }
+
+    private static void failPending(Session session, String message) {
+        for (CompletableFuture<?> future : List.copyOf(session.pending())) {
+            future.completeExceptionally(new IllegalStateException(message));
+        }
+    }
+
+    State state() {
+        return state;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int index() {
+        return index;
+    }
+}
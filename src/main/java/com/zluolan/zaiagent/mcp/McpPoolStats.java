@@ -0,0 +1,19 @@
+package com.zluolan.zaiagent.mcp;
+
+/**
+ * MCP 连接池的运行状态
+ *
+ * @param server      服务名称
+ * @param connections 服务进程数
+ * @param ready       可用的进程数
+ * @param inFlight    在途请求数
+ * @param queued      排队中的请求数
+ * @param calls       累计调用次数
+ * @param failures    累计失败次数（超时、进程退出、被拒绝等，不含服务返回的业务错误）
+ * @param rejected    因排队已满被拒绝的次数
+ * @param restarts    累计重启次数
+ * @param tools       缓存的工具数量
+ */
+public record McpPoolStats(String server, int connections, int ready, int inFlight, int queued, long calls,
+                           long failures, long rejected, long restarts, int tools) {
+}
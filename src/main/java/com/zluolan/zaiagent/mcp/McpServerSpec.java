@@ -0,0 +1,94 @@
+package com.zluolan.zaiagent.mcp;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一个 stdio MCP 服务的启动配置，对应 mcp-servers.json 中 mcpServers 下的一项
+ * command、args、env 中的 ${系统属性} 在加载时替换，如 ${java.home}、${java.class.path}，
+ * 便于用当前 JVM 和类路径启动内置的 {@link StandInMcpServer}。
+ *
+ * @param name    服务名称，同时作为工具名前缀
+ * @param command 启动命令
+ * @param args    命令参数
+ * @param env     额外的环境变量
+ */
+public record McpServerSpec(String name, String command, List<String> args, Map<String, String> env) {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    public McpServerSpec {
+        if (name == null || name.isBlank() || command == null || command.isBlank()) {
+            throw new IllegalArgumentException("MCP服务的名称和启动命令不能为空");
+        }
+        args = List.copyOf(args);
+        env = Map.copyOf(env);
+    }
+
+    /**
+     * 以当前 JVM 和类路径启动的 {@link StandInMcpServer}，用于离线测试和压测
+     */
+    public static McpServerSpec standIn(String name) {
+        return new McpServerSpec(name, Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                List.of("-cp", System.getProperty("java.class.path"), StandInMcpServer.class.getName()), Map.of());
+    }
+
+    /**
+     * 读取 mcp-servers.json 格式的配置，格式错误时抛出 {@link IllegalArgumentException}
+     */
+    public static List<McpServerSpec> load(InputStream in) throws IOException {
+        JSONObject root = JSONUtil.parseObj(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        JSONObject servers = root.getJSONObject("mcpServers");
+        if (servers == null) {
+            throw new IllegalArgumentException("MCP服务配置缺少 mcpServers");
+        }
+        List<McpServerSpec> specs = new ArrayList<>();
+        for (String name : servers.keySet()) {
+            JSONObject server = servers.getJSONObject(name);
+            if (server == null) {
+                throw new IllegalArgumentException("MCP服务「" + name + "」的配置应为对象");
+            }
+            List<String> args = new ArrayList<>();
+            if (server.getJSONArray("args") != null) {
+                for (Object arg : server.getJSONArray("args")) {
+                    args.add(expand(String.valueOf(arg)));
+                }
+            }
+            Map<String, String> env = new LinkedHashMap<>();
+            if (server.getJSONObject("env") != null) {
+                server.getJSONObject("env").forEach((key, value) -> env.put(key, expand(String.valueOf(value))));
+            }
+            specs.add(new McpServerSpec(name, expand(server.getStr("command")), args, env));
+        }
+        return specs;
+    }
+
+    ServerParameters toServerParameters() {
+        return ServerParameters.builder(command).args(args).env(env).build();
+    }
+
+    private static String expand(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            String value = System.getProperty(matcher.group(1));
+            matcher.appendReplacement(out, Matcher.quoteReplacement(value != null ? value : matcher.group()));
+        }
+        return matcher.appendTail(out).toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.zluolan.zaiagent.mcp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.util.json.JsonParser;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 经由 {@link McpClientPool} 调用的 MCP 工具
+ * 工具名为“服务名_工具名”（非字母数字替换为下划线），结果与本地工具一样以 [TOOL_EXECUTION_RESULT] 开头，
+ * 超时、服务不可用和服务返回的错误都转成失败信息返回给模型，不抛出异常。
+ */
+@Slf4j
+public class McpToolCallback implements ToolCallback {
+
+    private final McpClientPool pool;
+    private final McpSchema.Tool tool;
+    private final ToolDefinition toolDefinition;
+    private final Duration timeout;
+
+    public McpToolCallback(McpClientPool pool, McpSchema.Tool tool, Duration timeout) {
+        this.pool = pool;
+        this.tool = tool;
+        this.timeout = timeout;
+        this.toolDefinition = ToolDefinition.builder()
+                .name(toolName(pool.name(), tool.name()))
+                .description(tool.description() != null ? tool.description() : tool.name())
+                .inputSchema(JsonParser.toJson(tool.inputSchema()))
+                .build();
+    }
+
+    /**
+     * 带服务名前缀的工具名，避免不同服务的同名工具冲突
+     */
+    public static String toolName(String server, String tool) {
+        return (server + "_" + tool).replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return toolDefinition;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        try {
+            Map<String, Object> arguments = toolInput == null || toolInput.isBlank() ? Map.of()
+                    : JsonParser.fromJson(toolInput, new TypeReference<>() {
+            });
+            McpSchema.CallToolResult result = pool.callTool(tool.name(), arguments)
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            String text = result.content() == null ? "" : result.content().stream()
+                    .map(content -> content instanceof McpSchema.TextContent textContent
+                            ? textContent.text() : JsonParser.toJson(content))
+                    .collect(Collectors.joining("\n"));
+            if (Boolean.TRUE.equals(result.isError())) {
+                return JsonParser.toJson("[TOOL_EXECUTION_RESULT] MCP工具调用失败: " + text);
+            }
+            return JsonParser.toJson("[TOOL_EXECUTION_RESULT] " + text);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return JsonParser.toJson("[TOOL_EXECUTION_RESULT] MCP工具调用失败: 调用被中断");
+        } catch (TimeoutException e) {
+            log.warn("MCP工具调用超时 - 工具: {}, 超时: {}", toolDefinition.name(), timeout);
+            return JsonParser.toJson("[TOOL_EXECUTION_RESULT] MCP工具调用失败: 调用超时");
+        } catch (ExecutionException e) {
+            log.warn("MCP工具调用失败 - 工具: {}, 原因: {}", toolDefinition.name(), e.getCause().getMessage());
+            return JsonParser.toJson("[TOOL_EXECUTION_RESULT] MCP工具调用失败: " + e.getCause().getMessage());
+        } catch (RuntimeException e) {
+            log.warn("MCP工具调用失败 - 工具: {}, 原因: {}", toolDefinition.name(), e.getMessage());
+            return JsonParser.toJson("[TOOL_EXECUTION_RESULT] MCP工具调用失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "McpToolCallback[" + toolDefinition.name() + "]";
+    }
+}
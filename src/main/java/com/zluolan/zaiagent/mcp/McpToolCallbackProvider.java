@@ -0,0 +1,47 @@
+package com.zluolan.zaiagent.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 所有 MCP 服务的工具回调，每个服务一个 {@link McpClientPool}
+ * 工具列表取自连接池的缓存，工具注册表重新加载时即可拿到服务新增的工具。
+ */
+public class McpToolCallbackProvider implements ToolCallbackProvider, AutoCloseable {
+
+    private final List<McpClientPool> pools;
+    private final Duration timeout;
+
+    /**
+     * @param timeout 单次工具调用（含排队）的最长等待时间
+     */
+    public McpToolCallbackProvider(List<McpClientPool> pools, Duration timeout) {
+        this.pools = List.copyOf(pools);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public ToolCallback[] getToolCallbacks() {
+        List<ToolCallback> callbacks = new ArrayList<>();
+        for (McpClientPool pool : pools) {
+            for (McpSchema.Tool tool : pool.listTools()) {
+                callbacks.add(new McpToolCallback(pool, tool, timeout));
+            }
+        }
+        return callbacks.toArray(ToolCallback[]::new);
+    }
+
+    public List<McpPoolStats> stats() {
+        return pools.stream().map(McpClientPool::stats).toList();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(McpClientPool::close);
+    }
+}
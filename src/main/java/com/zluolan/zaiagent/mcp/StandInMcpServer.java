@@ -0,0 +1,149 @@
+package com.zluolan.zaiagent.mcp;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import com.zluolan.zaiagent.weather.DailyWeather;
+import com.zluolan.zaiagent.weather.WeatherEstimator;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.transport.StdioServerTransportProvider;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 内置的 MCP 替身服务（stdio）
+ * 用本地 POI 目录和天气估算实现与高德 MCP 同名的 maps_text_search、maps_weather，
+ * 另有 echo（可指定延迟，用于压测连接池的并发复用）和 exit（立即结束进程，用于测试崩溃重启）。
+ * 不依赖网络和 npx，测试和压测可以完全离线运行，启动配置见 mcp/standin-servers.json 或 {@link McpServerSpec#standIn}。
+ */
+public final class StandInMcpServer {
+
+    private static final int MAX_DELAY_MILLIS = 60_000;
+    private static final int SEARCH_LIMIT = 10;
+    private static final int WEATHER_DAYS = 4;
+
+    private StandInMcpServer() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // 标准输出只用于协议，日志等其他输出改到标准错误
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        if (LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME) instanceof Logger root) {
+            root.setLevel(Level.WARN);
+        }
+
+        PoiCatalog catalog = PoiCatalog.getDefault();
+        StdioServerTransportProvider transport = new StdioServerTransportProvider(new ObjectMapper(), System.in, protocol);
+        McpServer.async(transport)
+                .serverInfo("travel-standin", "1.0.0")
+                .capabilities(McpSchema.ServerCapabilities.builder().tools(false).build())
+                .tools(textSearch(catalog), weather(), echo(), exit())
+                .build();
+
+        // 父进程退出时随之退出，避免遗留孤儿进程
+        ProcessHandle.current().parent().ifPresent(parent -> parent.onExit().thenRun(() -> System.exit(0)));
+        new CountDownLatch(1).await();
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification textSearch(PoiCatalog catalog) {
+        McpSchema.Tool tool = new McpSchema.Tool("maps_text_search", "关键词搜索城市中的景点、酒店、美食", """
+                {"type":"object","properties":{
+                  "keywords":{"type":"string","description":"搜索关键词，如：景点、酒店、火锅"},
+                  "city":{"type":"string","description":"城市"}},
+                 "required":["keywords","city"]}
+                """);
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) -> Mono.fromSupplier(() -> {
+            String keywords = text(arguments, "keywords");
+            String city = text(arguments, "city");
+            int cityId = catalog.cityId(city);
+            if (cityId < 0) {
+                return error("不支持的城市: " + city);
+            }
+            PoiKind kind = PoiKind.fromText(keywords, PoiKind.ATTRACTION);
+            PoiQuery query = PoiQuery.of(kind).city(cityId).limit(SEARCH_LIMIT);
+            int categoryId = catalog.categoryId(kind, keywords);
+            if (categoryId >= 0) {
+                query.category(categoryId);
+            }
+            StringBuilder out = new StringBuilder();
+            out.append(catalog.cityName(cityId)).append(kind.getLabel()).append("搜索结果:\n");
+            for (Poi poi : catalog.query(query)) {
+                out.append("- ").append(poi.name()).append(" | ").append(poi.category()).append(" | 评分")
+                        .append(poi.rating()).append(" | ").append(poi.priceText()).append('\n');
+            }
+            return new McpSchema.CallToolResult(out.toString(), false);
+        }));
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification weather() {
+        McpSchema.Tool tool = new McpSchema.Tool("maps_weather", "查询城市未来几天的天气", """
+                {"type":"object","properties":{
+                  "city":{"type":"string","description":"城市名称"}},
+                 "required":["city"]}
+                """);
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) -> Mono.fromSupplier(() -> {
+            String city = text(arguments, "city");
+            if (city.isBlank()) {
+                return error("请提供城市名称");
+            }
+            StringBuilder out = new StringBuilder(city).append("天气预报:\n");
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < WEATHER_DAYS; i++) {
+                DailyWeather day = WeatherEstimator.estimate(city, today.plusDays(i));
+                out.append(day.date()).append(' ').append(day.weatherText()).append(' ')
+                        .append(day.temperatureText()).append(' ').append(day.wind()).append('\n');
+            }
+            return new McpSchema.CallToolResult(out.toString(), false);
+        }));
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification echo() {
+        McpSchema.Tool tool = new McpSchema.Tool("echo", "原样返回文本，可指定延迟毫秒数，用于测试并发", """
+                {"type":"object","properties":{
+                  "text":{"type":"string"},
+                  "delayMs":{"type":"integer"}},
+                 "required":["text"]}
+                """);
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) -> {
+            Object delay = arguments.get("delayMs");
+            long millis = delay instanceof Number number ? Math.clamp(number.longValue(), 0, MAX_DELAY_MILLIS) : 0;
+            McpSchema.CallToolResult result = new McpSchema.CallToolResult(text(arguments, "text"), false);
+            // 延迟不占线程，多个请求在同一进程内并发等待
+            return millis > 0 ? Mono.delay(Duration.ofMillis(millis)).thenReturn(result) : Mono.just(result);
+        });
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification exit() {
+        McpSchema.Tool tool = new McpSchema.Tool("exit", "立即结束服务进程（不返回结果），用于测试崩溃重启", """
+                {"type":"object","properties":{"code":{"type":"integer"}}}
+                """);
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) -> Mono.fromSupplier(() -> {
+            Object code = arguments.get("code");
+            Runtime.getRuntime().halt(code instanceof Number number ? number.intValue() : 1);
+            return error("unreachable");
+        }));
+    }
+
+    private static String text(Map<String, Object> arguments, String name) {
+        Object value = arguments.get(name);
+        return value != null ? String.valueOf(value).strip() : "";
+    }
+
+    private static McpSchema.CallToolResult error(String message) {
+        return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(message)), true);
+    }
+}
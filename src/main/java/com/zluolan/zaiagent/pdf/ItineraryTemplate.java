@@ -0,0 +1,103 @@
+package com.zluolan.zaiagent.pdf;
+
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.Leading;
+import com.itextpdf.layout.properties.Property;
+import com.zluolan.zaiagent.app.TravelApp.TravelPlan;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 行程单版式
+ * 各级样式在创建时编好，不含字体等属于单个文档的对象，可在所有渲染线程间共享；
+ * 渲染时只按计划内容逐段追加，段落追加后即可排版落盘。
+ */
+public final class ItineraryTemplate {
+
+    private static final Color ACCENT = new DeviceRgb(0x1F, 0x6F, 0xB2);
+    private static final Color MUTED = new DeviceRgb(0x66, 0x66, 0x66);
+    private static final Leading LEADING = new Leading(Leading.MULTIPLIED, 1.4f);
+    private static final Pattern DAY_HEADING = Pattern.compile("^(第[0-9一二三四五六七八九十]+天|Day\\s*\\d+).*");
+    private static final DateTimeFormatter GENERATED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final ItineraryTemplate DEFAULT = new ItineraryTemplate();
+
+    private final Style title = new Style().setFontSize(22).simulateBold().setFontColor(ACCENT).setMarginBottom(4);
+    private final Style meta = new Style().setFontSize(10).setFontColor(MUTED).setMarginBottom(12);
+    private final Style section = new Style().setFontSize(15).simulateBold().setFontColor(ACCENT)
+            .setMarginTop(14).setMarginBottom(6).setBorderBottom(new SolidBorder(ACCENT, 0.8f));
+    private final Style day = new Style().setFontSize(12).simulateBold().setMarginTop(8).setMarginBottom(2);
+    private final Style body = withLeading(new Style().setFontSize(10.5f).setMarginTop(0).setMarginBottom(2));
+    private final Style item = withLeading(new Style().setFontSize(10.5f).setMarginTop(0).setMarginBottom(2)
+            .setPaddingLeft(12));
+    private final Style footer = new Style().setFontSize(9).setFontColor(MUTED).setMarginTop(18);
+
+    public static ItineraryTemplate getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 把旅游计划写入文档
+     */
+    public void render(TravelPlan plan, Document document) {
+        document.add(new Paragraph(plan.destination() + "旅行计划").addStyle(title));
+        StringBuilder summary = new StringBuilder();
+        if (hasText(plan.duration())) {
+            summary.append("行程时长: ").append(plan.duration().strip());
+        }
+        if (hasText(plan.budget())) {
+            summary.append(summary.isEmpty() ? "" : "    ").append("预算: ").append(plan.budget().strip());
+        }
+        if (!summary.isEmpty()) {
+            document.add(new Paragraph(summary.toString()).addStyle(meta));
+        }
+
+        if (!isEmpty(plan.itinerary())) {
+            document.add(new Paragraph("行程安排").addStyle(section));
+            for (String line : plan.itinerary()) {
+                if (!hasText(line)) {
+                    continue;
+                }
+                String text = line.strip();
+                document.add(new Paragraph(text).addStyle(DAY_HEADING.matcher(text).matches() ? day : body));
+            }
+        }
+        addList(document, "推荐景点", plan.attractions());
+        addList(document, "旅行建议", plan.recommendations());
+
+        document.add(new Paragraph("生成时间: " + LocalDateTime.now().format(GENERATED_AT)).addStyle(footer));
+    }
+
+    private void addList(Document document, String heading, List<String> lines) {
+        if (isEmpty(lines)) {
+            return;
+        }
+        document.add(new Paragraph(heading).addStyle(section));
+        for (String line : lines) {
+            if (hasText(line)) {
+                document.add(new Paragraph("• " + line.strip()).addStyle(item));
+            }
+        }
+    }
+
+    private static Style withLeading(Style style) {
+        style.setProperty(Property.LEADING, LEADING);
+        return style;
+    }
+
+    private static boolean isEmpty(List<String> lines) {
+        return lines == null || lines.stream().noneMatch(ItineraryTemplate::hasText);
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && !text.isBlank();
+    }
+}
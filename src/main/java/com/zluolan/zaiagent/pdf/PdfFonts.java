@@ -0,0 +1,63 @@
+package com.zluolan.zaiagent.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PDF 字体缓存
+ * 解析中文字体（font-asian 中的 CMap 和字体度量）是渲染中最慢的一步，解析结果 {@link FontProgram} 只读，
+ * 在进程内缓存并由所有文档共享；{@link PdfFont} 属于单个文档，每次渲染基于缓存的字体程序重新创建，开销很小。
+ */
+public final class PdfFonts {
+
+    /**
+     * 简体中文字体，不嵌入文件，由阅读器提供
+     */
+    public static final String CJK_FONT = "STSongStd-Light";
+
+    /**
+     * iText 对 UniGB-UCS2-H、UniGB-UTF16-H 使用进程内共享且非线程安全的字符编码器，多个文档并发渲染时会互相破坏；
+     * UTF32 版本按只读的 CMap 表查找编码，可以并发使用
+     */
+    public static final String CJK_ENCODING = "UniGB-UTF32-H";
+
+    private static final PdfFonts DEFAULT = new PdfFonts();
+
+    private final Map<String, FontProgram> programs = new ConcurrentHashMap<>();
+
+    public static PdfFonts getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 为一个文档创建中文字体
+     */
+    public PdfFont cjk() {
+        return PdfFontFactory.createFont(program(CJK_FONT), CJK_ENCODING,
+                PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
+    }
+
+    /**
+     * 缓存的字体程序，首次使用时解析
+     */
+    public FontProgram program(String name) {
+        return programs.computeIfAbsent(name, key -> {
+            try {
+                return FontProgramFactory.createFont(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException("加载字体失败: " + key, e);
+            }
+        });
+    }
+
+    public int size() {
+        return programs.size();
+    }
+}
@@ -0,0 +1,54 @@
+package com.zluolan.zaiagent.pdf;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.zluolan.zaiagent.artifact.Artifact;
+
+/**
+ * PDF 渲染任务的状态快照
+ *
+ * @param id          任务ID
+ * @param destination 目的地
+ * @param status      任务状态
+ * @param artifact    生成的制品（内容摘要），完成后才有值
+ * @param path        制品文件路径，完成后才有值，只在服务端使用，不出现在接口响应中
+ * @param pages       页数，完成后才有值
+ * @param error       失败原因
+ * @param submittedAt 提交时间（毫秒时间戳）
+ * @param finishedAt  完成或失败时间（毫秒时间戳），未结束时为 0
+ */
+public record PdfJob(String id, String destination, Status status, String artifact, @JsonIgnore String path, int pages,
+                     String error, long submittedAt, long finishedAt) {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    static PdfJob queued(String id, String destination) {
+        return new PdfJob(id, destination, Status.QUEUED, null, null, 0, null, System.currentTimeMillis(), 0);
+    }
+
+    PdfJob running() {
+        return new PdfJob(id, destination, Status.RUNNING, null, null, 0, null, submittedAt, 0);
+    }
+
+    PdfJob done(Artifact stored, int pages) {
+        return new PdfJob(id, destination, Status.DONE, stored.hash(), stored.path(), pages, null, submittedAt,
+                System.currentTimeMillis());
+    }
+
+    PdfJob failed(String error) {
+        return new PdfJob(id, destination, Status.FAILED, null, null, 0, error, submittedAt,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 下载时使用的文件名，如：成都行程单.pdf
+     */
+    public String downloadName() {
+        return destination + "行程单.pdf";
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,330 @@
+package com.zluolan.zaiagent.pdf;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.layout.Document;
+import com.zluolan.zaiagent.app.TravelApp.TravelPlan;
+import com.zluolan.zaiagent.artifact.Artifact;
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDF 行程单渲染服务
+ * <ul>
+ *     <li>提交后立即返回任务，渲染在有界工作线程池中进行，不占用请求线程和智能体步骤</li>
+ *     <li>中文字体解析结果和版式样式在进程内缓存，见 {@link PdfFonts}、{@link ItineraryTemplate}</li>
+ *     <li>排好的页面随即写入磁盘上的临时文件，不在内存中保留整份文档，完成后原子移入 {@link ArtifactStore}</li>
+ *     <li>同一计划（按内容摘要）已有行程单时直接复用，正在渲染时返回同一个任务，不重复渲染</li>
+ *     <li>队列已满时任务直接标记为失败，不阻塞调用方；只保留最近 {@link #MAX_RETAINED_JOBS} 个任务的状态</li>
+ * </ul>
+ */
+@Slf4j
+public final class PdfRenderService implements AutoCloseable {
+
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final int MAX_RETAINED_JOBS = 256;
+
+    private static volatile PdfRenderService defaultInstance;
+
+    /**
+     * 任务状态和完成通知
+     */
+    private static final class Tracked {
+        private volatile PdfJob job;
+        private final String planKey;
+        private final CompletableFuture<PdfJob> completion = new CompletableFuture<>();
+
+        private Tracked(PdfJob job, String planKey) {
+            this.job = job;
+            this.planKey = planKey;
+        }
+    }
+
+    private final ArtifactStore artifacts;
+    private final PdfFonts fonts;
+    private final ItineraryTemplate template;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Tracked> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+    /**
+     * 计划摘要 -> 未结束的任务
+     */
+    private final Map<String, Tracked> pending = new ConcurrentHashMap<>();
+
+    public PdfRenderService(ArtifactStore artifacts, int workers, int queueCapacity) {
+        this(artifacts, workers, queueCapacity, PdfFonts.getDefault(), ItineraryTemplate.getDefault());
+    }
+
+    public PdfRenderService(ArtifactStore artifacts, int workers, int queueCapacity, PdfFonts fonts,
+                            ItineraryTemplate template) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("渲染线程数和队列长度至少为1");
+        }
+        this.artifacts = artifacts;
+        this.fonts = fonts;
+        this.template = template;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 写入默认制品存储的默认实例，首次使用时创建
+     */
+    public static PdfRenderService getDefault() {
+        PdfRenderService instance = defaultInstance;
+        if (instance == null) {
+            synchronized (PdfRenderService.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new PdfRenderService(ArtifactStore.getDefault(), DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 提交渲染任务，立即返回任务状态
+     * 同一计划已有行程单时返回已完成的任务，同一计划正在渲染时返回该任务
+     *
+     * @throws IllegalArgumentException 计划为空或缺少目的地
+     */
+    public PdfJob submit(TravelPlan plan) {
+        if (plan == null || plan.destination() == null || plan.destination().isBlank()) {
+            throw new IllegalArgumentException("旅游计划缺少目的地");
+        }
+        String planKey = planKey(plan);
+        Tracked inFlight = pending.get(planKey);
+        if (inFlight != null) {
+            return inFlight.job;
+        }
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Tracked tracked = new Tracked(PdfJob.queued(id, plan.destination().strip()), planKey);
+        jobs.put(id, tracked);
+        order.add(id);
+        evict();
+
+        Artifact rendered = artifacts.findBySource(planKey);
+        if (rendered != null) {
+            try {
+                finish(tracked, tracked.job.done(rendered, countPages(Path.of(rendered.path()))));
+                log.info("复用已生成的行程单 - 任务: {}, 制品: {}", id, rendered.hash());
+                return tracked.job;
+            } catch (IOException e) {
+                log.warn("读取已生成的行程单失败，重新渲染 - {}", rendered.hash(), e);
+            }
+        }
+        Tracked raced = pending.putIfAbsent(planKey, tracked);
+        if (raced != null) {
+            jobs.remove(id, tracked);
+            order.remove(id);
+            return raced.job;
+        }
+        try {
+            executor.execute(() -> render(tracked, plan));
+        } catch (RejectedExecutionException e) {
+            log.warn("PDF渲染队列已满 - 任务: {}, 目的地: {}", id, plan.destination());
+            finish(tracked, tracked.job.failed("渲染队列已满，请稍后再试"));
+        }
+        return tracked.job;
+    }
+
+    /**
+     * 任务状态，未知或已淘汰的任务返回 null
+     */
+    public PdfJob get(String id) {
+        Tracked tracked = id != null ? jobs.get(id) : null;
+        return tracked != null ? tracked.job : null;
+    }
+
+    /**
+     * 任务结束（完成或失败）时完成的 future，未知任务返回 null
+     */
+    public CompletableFuture<PdfJob> completion(String id) {
+        Tracked tracked = id != null ? jobs.get(id) : null;
+        return tracked != null ? tracked.completion : null;
+    }
+
+    /**
+     * 保留的任务，按提交时间从新到旧
+     */
+    public List<PdfJob> jobs() {
+        return jobs.values().stream().map(tracked -> tracked.job)
+                .sorted(Comparator.comparingLong(PdfJob::submittedAt).reversed())
+                .toList();
+    }
+
+    public ArtifactStore artifacts() {
+        return artifacts;
+    }
+
+    /**
+     * 等待中的任务数
+     */
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void render(Tracked tracked, TravelPlan plan) {
+        tracked.job = tracked.job.running();
+        long start = System.nanoTime();
+        Path temp = null;
+        try {
+            temp = artifacts.createIncomingFile(".pdf");
+            int pages;
+            // 逐层放进 try-with-resources，任一层构造失败时已打开的文件句柄也会关闭
+            // immediateFlush：每段排版后即写出，已排满的页面落盘后释放
+            try (PdfWriter writer = new PdfWriter(new BufferedOutputStream(Files.newOutputStream(temp)),
+                         new WriterProperties().setFullCompressionMode(true));
+                 PdfDocument pdf = new PdfDocument(writer);
+                 Document document = new Document(pdf, PageSize.A4, true)) {
+                document.setFont(fonts.cjk());
+                template.render(plan, document);
+                pages = pdf.getNumberOfPages();
+            }
+            Artifact stored = artifacts.moveIn(temp, tracked.job.downloadName(), "application/pdf", tracked.planKey);
+            finish(tracked, tracked.job.done(stored, pages));
+            log.info("PDF渲染完成 - 任务: {}, 页数: {}, 耗时: {}ms, 制品: {}", tracked.job.id(), pages,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), stored.hash());
+        } catch (Exception e) {
+            log.error("PDF渲染失败 - 任务: {}", tracked.job.id(), e);
+            deleteQuietly(temp);
+            finish(tracked, tracked.job.failed(e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private void finish(Tracked tracked, PdfJob job) {
+        tracked.job = job;
+        pending.remove(tracked.planKey, tracked);
+        tracked.completion.complete(job);
+    }
+
+    /**
+     * 计划内容摘要，作为行程单制品的来源键
+     * 逐个字段按长度前缀写入摘要，不依赖 record 的 toString 格式，字段内容含分隔符时也不会与其他计划混淆
+     */
+    static String planKey(TravelPlan plan) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+        update(digest, plan.destination());
+        update(digest, plan.duration());
+        update(digest, plan.budget());
+        update(digest, plan.attractions());
+        update(digest, plan.recommendations());
+        update(digest, plan.itinerary());
+        return "itinerary:" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, List<String> values) {
+        if (values == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        digest.update(intBytes(values.size()));
+        for (String value : values) {
+            update(digest, value);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(intBytes(bytes.length));
+        digest.update(bytes);
+    }
+
+    private static byte[] intBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static int countPages(Path file) throws IOException {
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(file.toFile()))) {
+            return pdf.getNumberOfPages();
+        }
+    }
+
+    /**
+     * 超出保留数量时淘汰最早的已结束任务，未结束的任务保留
+     */
+    private void evict() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS;
+        for (String id : order) {
+            if (excess <= 0) {
+                return;
+            }
+            Tracked tracked = jobs.get(id);
+            if (tracked == null || tracked.job.isFinished()) {
+                order.remove(id);
+                if (tracked != null && jobs.remove(id, tracked)) {
+                    excess--;
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("删除临时文件失败: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.zluolan.zaiagent.poi;
+
+import com.zluolan.zaiagent.geo.GeoMath;
+
+/**
+ * 带距离的 POI 查询结果
+ *
+ * @param distanceMeters 与锚点的大圆距离（米）
+ */
+public record NearbyPoi(Poi poi, double distanceMeters) {
+
+    /**
+     * 距离文本，如：850米（步行约11分钟）
+     */
+    public String distanceText() {
+        String text = GeoMath.formatDistance(distanceMeters);
+        if (distanceMeters <= 3000) {
+            text += "（步行约" + GeoMath.walkingMinutes(distanceMeters) + "分钟）";
+        }
+        return text;
+    }
+}
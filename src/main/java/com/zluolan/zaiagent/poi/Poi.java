@@ -0,0 +1,75 @@
+package com.zluolan.zaiagent.poi;
+
+import java.util.List;
+
+/**
+ * POI 视图对象
+ * 由 {@link PoiCatalog} 按需从列式存储中物化，仅用于结果展示。
+ *
+ * @param openMinute  开门时间（当天分钟数），无开放时间时为 -1
+ * @param closeMinute 关门时间（当天分钟数），无开放时间时为 -1
+ * @param author      分享者昵称，无则为 null
+ * @param note        分享内容，无则为 null
+ */
+public record Poi(int id,
+                  PoiKind kind,
+                  String city,
+                  String category,
+                  String name,
+                  String description,
+                  double latitude,
+                  double longitude,
+                  PriceTier tier,
+                  int priceLow,
+                  int priceHigh,
+                  double rating,
+                  List<String> tags,
+                  int openMinute,
+                  int closeMinute,
+                  int durationMinutes,
+                  String author,
+                  String note) {
+
+    /**
+     * 价格文本，如：免费、¥60、¥800-1200
+     */
+    public String priceText() {
+        if (priceHigh <= 0) {
+            return "免费";
+        }
+        if (priceLow == priceHigh) {
+            return "¥" + priceLow;
+        }
+        return "¥" + priceLow + "-" + priceHigh;
+    }
+
+    /**
+     * 开放时间文本，如：08:30-17:00，无开放时间返回 null
+     */
+    public String openingHours() {
+        if (openMinute < 0) {
+            return null;
+        }
+        return formatMinute(openMinute) + "-" + formatMinute(closeMinute);
+    }
+
+    /**
+     * 建议游玩时长文本，如：3小时、1.5小时、45分钟
+     */
+    public String durationText() {
+        if (durationMinutes <= 0) {
+            return null;
+        }
+        if (durationMinutes < 60) {
+            return durationMinutes + "分钟";
+        }
+        if (durationMinutes % 60 == 0) {
+            return durationMinutes / 60 + "小时";
+        }
+        return String.format("%.1f小时", durationMinutes / 60.0);
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+}
@@ -0,0 +1,11 @@
+package com.zluolan.zaiagent.poi;
+
+/**
+ * 空间查询的锚点，可以是某个 POI、城市中心或直接给出的坐标
+ *
+ * @param label  锚点名称
+ * @param cityId 所在城市编号，未知为 -1
+ * @param poiId  锚点对应的 POI 编号，不是 POI 时为 -1
+ */
+public record PoiAnchor(String label, double latitude, double longitude, int cityId, int poiId) {
+}
@@ -0,0 +1,834 @@
+package com.zluolan.zaiagent.poi;
+
+import com.zluolan.zaiagent.geo.GeoGridIndex;
+import com.zluolan.zaiagent.geo.GeoHit;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * POI 目录
+ * 从打包的紧凑数据文件（poi/poi-catalog.tsv）加载景点、酒店、美食数据，
+ * 以列式原始数组存储，并按城市、分类、价格档次和标签建立倒排索引。
+ * 所有倒排列表均按评分降序排列，查询时选取最短的列表驱动过滤，取前 N 条即为排序结果。
+ * 每种 POI 类型另建一个 {@link GeoGridIndex}，支持“某地附近”的半径和最近邻查询。
+ * 名称、城市和分类的模糊匹配也走加载时预建的哈希表：“文本包含名称”枚举文本子串查表，
+ * “名称包含文本”先用二元组倒排列表缩小候选，不再逐条扫描全部 POI。
+ * 实例构建后只读，可在多线程间共享。
+ */
+@Slf4j
+public final class PoiCatalog {
+
+    public static final String DEFAULT_RESOURCE = "poi/poi-catalog.tsv";
+
+    private static final int KIND_COUNT = PoiKind.values().length;
+    private static final int TIER_COUNT = PriceTier.values().length;
+    private static final int MAX_TAGS = Long.SIZE;
+    private static final int NO_TIME = -1;
+    private static final Pattern COORDINATE = Pattern.compile("^\\s*(-?\\d+(?:\\.\\d+)?)\\s*[,，]\\s*(-?\\d+(?:\\.\\d+)?)\\s*$");
+    private static final String[] NEARBY_SUFFIXES = {"附近", "周边", "旁边", "一带", "边上"};
+    private static final int[] EMPTY = new int[0];
+
+    // 城市字典
+    private final String[] cityNames;
+    private final double[] cityLatitudes;
+    private final double[] cityLongitudes;
+    private final Map<String, Integer> cityLookup;
+    private final int maxCityKeyLength;
+
+    // 分类字典
+    private final String[] categoryNames;
+    private final Map<String, Integer> categoryLookup;
+    private final int maxCategoryAliasLength;
+
+    // 标签字典
+    private final String[] tagNames;
+    private final Map<String, Integer> tagLookup;
+
+    // POI 列
+    private final int size;
+    private final byte[] kinds;
+    private final int[] cities;
+    private final short[] categories;
+    private final byte[] tiers;
+    private final int[] priceLows;
+    private final int[] priceHighs;
+    private final short[] ratings;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] tagMasks;
+    private final short[] openMinutes;
+    private final short[] closeMinutes;
+    private final short[] durations;
+    private final String[] names;
+    private final String[] descriptions;
+    private final String[] authors;
+    private final String[] notes;
+
+    // 倒排索引（按评分降序）
+    private final int[][] byKind;
+    private final int[][] byCityKind;
+    private final int[][] byCategory;
+    private final int[][] byTierKind;
+    private final int[][] byTag;
+
+    // 名称索引与空间索引
+    private final Map<String, Integer> nameLookup;
+    private final String[] normalizedNames;
+    private final Map<String, int[]> idsByName;
+    private final Map<String, int[]> idsByBigram;
+    private final int maxNameLength;
+    private final GeoGridIndex[] geoByKind;
+
+    private PoiCatalog(Loader loader) {
+        this.cityNames = loader.cityNames.toArray(new String[0]);
+        this.cityLatitudes = toDoubleArray(loader.cityLatitudes);
+        this.cityLongitudes = toDoubleArray(loader.cityLongitudes);
+        this.cityLookup = Map.copyOf(loader.cityLookup);
+        this.maxCityKeyLength = maxKeyLength(cityLookup.keySet());
+
+        this.categoryNames = loader.categoryNames.toArray(new String[0]);
+        this.categoryLookup = Map.copyOf(loader.categoryLookup);
+        int aliasLength = 0;
+        for (String[] aliases : loader.categoryAliases) {
+            aliasLength = Math.max(aliasLength, maxKeyLength(List.of(aliases)));
+        }
+        this.maxCategoryAliasLength = aliasLength;
+
+        this.tagNames = loader.tagNames.toArray(new String[0]);
+        this.tagLookup = Map.copyOf(loader.tagLookup);
+
+        List<String[]> rows = loader.poiRows;
+        this.size = rows.size();
+        this.kinds = new byte[size];
+        this.cities = new int[size];
+        this.categories = new short[size];
+        this.tiers = new byte[size];
+        this.priceLows = new int[size];
+        this.priceHighs = new int[size];
+        this.ratings = new short[size];
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.tagMasks = new long[size];
+        this.openMinutes = new short[size];
+        this.closeMinutes = new short[size];
+        this.durations = new short[size];
+        this.names = new String[size];
+        this.descriptions = new String[size];
+        this.authors = new String[size];
+        this.notes = new String[size];
+        for (int i = 0; i < size; i++) {
+            fillRow(i, rows.get(i), loader);
+        }
+
+        // 全局评分序，所有倒排列表都按该顺序追加，天然有序
+        int[] order = ratingOrder();
+        this.byKind = buildIndex(order, KIND_COUNT, id -> kinds[id]);
+        this.byCityKind = buildIndex(order, cityNames.length * KIND_COUNT, id -> cities[id] * KIND_COUNT + kinds[id]);
+        this.byCategory = buildIndex(order, categoryNames.length, id -> categories[id]);
+        this.byTierKind = buildIndex(order, TIER_COUNT * KIND_COUNT, id -> tiers[id] * KIND_COUNT + kinds[id]);
+        this.byTag = buildTagIndex(order);
+
+        this.normalizedNames = new String[size];
+        Map<String, Integer> names = new HashMap<>();
+        Map<String, List<Integer>> byName = new HashMap<>();
+        Map<String, List<Integer>> byBigram = new HashMap<>();
+        for (int id : order) {
+            String name = normalize(this.names[id]);
+            normalizedNames[id] = name;
+            names.putIfAbsent(name, id);
+            if (name.length() >= 2) {
+                byName.computeIfAbsent(name, key -> new ArrayList<>()).add(id);
+            }
+            for (String bigram : bigrams(name)) {
+                byBigram.computeIfAbsent(bigram, key -> new ArrayList<>()).add(id);
+            }
+        }
+        this.nameLookup = Map.copyOf(names);
+        this.idsByName = toPostings(byName);
+        this.idsByBigram = toPostings(byBigram);
+        this.maxNameLength = maxKeyLength(byName.keySet());
+        this.geoByKind = new GeoGridIndex[KIND_COUNT];
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            int[] ids = byKind[kind];
+            double[] lats = new double[ids.length];
+            double[] lons = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                lats[i] = latitudes[ids[i]];
+                lons[i] = longitudes[ids[i]];
+            }
+            geoByKind[kind] = new GeoGridIndex(lats, lons, ids);
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final PoiCatalog INSTANCE = loadResource(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * 获取基于内置数据文件的共享目录实例（首次调用时加载）
+     */
+    public static PoiCatalog getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 从类路径加载目录
+     */
+    public static PoiCatalog loadResource(String resource) {
+        try (InputStream in = PoiCatalog.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("POI数据文件不存在: " + resource);
+            }
+            PoiCatalog catalog = load(in);
+            log.info("POI目录加载完成 - 来源: {}, 城市: {}, POI: {}, 标签: {}",
+                    resource, catalog.cityCount(), catalog.size(), catalog.tagNames.length);
+            return catalog;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取POI数据文件失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 从输入流加载目录，格式错误时抛出带行号的 {@link IllegalArgumentException}
+     */
+    public static PoiCatalog load(InputStream in) throws IOException {
+        Loader loader = new Loader();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                loader.accept(line.split("\t", -1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("POI数据第" + lineNumber + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return new PoiCatalog(loader);
+    }
+
+    /**
+     * 执行查询，结果按评分降序
+     */
+    public List<Poi> query(PoiQuery query) {
+        int kind = query.kind().ordinal();
+        int[] driver = byKind[kind];
+        if (query.cityId() >= 0) {
+            driver = shorter(driver, posting(byCityKind, query.cityId() * KIND_COUNT + kind));
+        }
+        if (query.categoryId() >= 0) {
+            driver = shorter(driver, posting(byCategory, query.categoryId()));
+        }
+        if (query.tier() != null) {
+            driver = shorter(driver, byTierKind[query.tier().ordinal() * KIND_COUNT + kind]);
+        }
+        long tagMask = query.tagMask();
+        for (long bits = tagMask; bits != 0; bits &= bits - 1) {
+            driver = shorter(driver, byTag[Long.numberOfTrailingZeros(bits)]);
+        }
+
+        int limit = query.limit() > 0 ? query.limit() : Integer.MAX_VALUE;
+        List<Poi> result = new ArrayList<>(Math.min(limit, driver.length));
+        for (int id : driver) {
+            if (matches(id, query)) {
+                result.add(get(id));
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 半径查询：返回锚点周围满足条件的 POI，按距离升序，数量受 query.limit 限制
+     */
+    public List<NearbyPoi> nearby(PoiQuery query, double latitude, double longitude, double radiusMeters) {
+        List<GeoHit> hits = geoByKind[query.kind().ordinal()]
+                .withinRadius(latitude, longitude, radiusMeters, id -> matches(id, query));
+        return toNearby(hits, query.limit());
+    }
+
+    /**
+     * 最近邻查询：返回距锚点最近的 query.limit 个满足条件的 POI，按距离升序
+     *
+     * @param maxRadiusMeters 最大搜索半径
+     */
+    public List<NearbyPoi> nearest(PoiQuery query, double latitude, double longitude, double maxRadiusMeters) {
+        int k = query.limit() > 0 ? query.limit() : 10;
+        List<GeoHit> hits = geoByKind[query.kind().ordinal()]
+                .nearest(latitude, longitude, k, maxRadiusMeters, id -> matches(id, query));
+        return toNearby(hits, k);
+    }
+
+    /**
+     * 解析空间查询的锚点，依次尝试：坐标（“纬度,经度”或高德的“经度,纬度”）、POI 名称、城市名。
+     * 会去掉“附近”“周边”等后缀，如“故宫附近”解析为故宫博物院。
+     *
+     * @param cityHint 优先匹配的城市编号，-1 表示不限
+     * @return 锚点，无法识别返回 null
+     */
+    public PoiAnchor resolveAnchor(String text, int cityHint) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Matcher matcher = COORDINATE.matcher(text);
+        if (matcher.matches()) {
+            double first = Double.parseDouble(matcher.group(1));
+            double second = Double.parseDouble(matcher.group(2));
+            boolean lonFirst = Math.abs(first) > 90;
+            double lat = lonFirst ? second : first;
+            double lon = lonFirst ? first : second;
+            if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180) {
+                return new PoiAnchor(text.trim(), lat, lon, -1, -1);
+            }
+            return null;
+        }
+        String key = stripNearbySuffix(normalize(text));
+        if (key.isEmpty()) {
+            return null;
+        }
+        // 精确名称优先于模糊匹配，避免“北京”被解析成“北京饭店”
+        Integer exact = nameLookup.get(key);
+        if (exact != null && (cityHint < 0 || cities[exact] == cityHint)) {
+            return poiAnchor(exact);
+        }
+        Integer exactCity = cityLookup.get(key);
+        if (exactCity != null) {
+            return cityAnchor(exactCity);
+        }
+        int poiId = cityHint >= 0 ? findPoiIdIn(key, cityHint) : -1;
+        if (poiId < 0) {
+            poiId = exact != null ? exact : findPoiIdIn(key, -1);
+        }
+        if (poiId >= 0) {
+            return poiAnchor(poiId);
+        }
+        int cityId = cityId(key);
+        return cityId >= 0 ? cityAnchor(cityId) : null;
+    }
+
+    private PoiAnchor poiAnchor(int poiId) {
+        return new PoiAnchor(names[poiId], latitudes[poiId], longitudes[poiId], cities[poiId], poiId);
+    }
+
+    private PoiAnchor cityAnchor(int cityId) {
+        return new PoiAnchor(cityNames[cityId] + "市中心", cityLatitudes[cityId], cityLongitudes[cityId], cityId, -1);
+    }
+
+    /**
+     * 在城市内（cityId 为 -1 时在全部数据中）模糊查找名称，名称包含关键词或关键词包含名称，取评分最高者
+     */
+    private int findPoiIdIn(String key, int cityId) {
+        if (key.length() < 2) {
+            return -1;
+        }
+        int best = -1;
+        // 名称包含关键词：候选只取关键词中最少见的二元组的倒排列表，列表按评分降序，第一个命中即最优
+        int[] candidates = null;
+        for (String bigram : bigrams(key)) {
+            int[] posting = idsByBigram.getOrDefault(bigram, EMPTY);
+            if (candidates == null || posting.length < candidates.length) {
+                candidates = posting;
+            }
+        }
+        for (int id : candidates) {
+            if ((cityId < 0 || cities[id] == cityId) && normalizedNames[id].contains(key)) {
+                best = id;
+                break;
+            }
+        }
+        // 关键词包含名称：枚举关键词的子串查名称表
+        for (int length = Math.min(key.length(), maxNameLength); length >= 2; length--) {
+            for (int start = 0; start + length <= key.length(); start++) {
+                int[] ids = idsByName.get(key.substring(start, start + length));
+                if (ids == null) {
+                    continue;
+                }
+                for (int id : ids) {
+                    if (cityId < 0 || cities[id] == cityId) {
+                        if (best < 0 || ratings[id] > ratings[best] || (ratings[id] == ratings[best] && id < best)) {
+                            best = id;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String stripNearbySuffix(String key) {
+        for (String suffix : NEARBY_SUFFIXES) {
+            if (key.endsWith(suffix)) {
+                return key.substring(0, key.length() - suffix.length()).trim();
+            }
+        }
+        return key;
+    }
+
+    private boolean matches(int id, PoiQuery query) {
+        long tagMask = query.tagMask();
+        return kinds[id] == query.kind().ordinal()
+                && (query.cityId() < 0 || cities[id] == query.cityId())
+                && (query.categoryId() < 0 || categories[id] == query.categoryId())
+                && (query.tier() == null || tiers[id] == query.tier().ordinal())
+                && (tagMasks[id] & tagMask) == tagMask
+                && priceLows[id] <= query.maxPrice();
+    }
+
+    private List<NearbyPoi> toNearby(List<GeoHit> hits, int limit) {
+        int size = limit > 0 ? Math.min(limit, hits.size()) : hits.size();
+        List<NearbyPoi> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            GeoHit hit = hits.get(i);
+            result.add(new NearbyPoi(get(hit.id()), hit.distanceMeters()));
+        }
+        return result;
+    }
+
+    /**
+     * 按名称精确查找 POI（忽略大小写和首尾空白），同名时取评分最高者
+     *
+     * @return POI 编号，未找到返回 -1
+     */
+    public int idOfName(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = nameLookup.get(normalize(name));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * POI 类型
+     */
+    public PoiKind kindOf(int id) {
+        return PoiKind.values()[kinds[id]];
+    }
+
+    /**
+     * 按编号物化 POI
+     */
+    public Poi get(int id) {
+        return new Poi(id,
+                PoiKind.values()[kinds[id]],
+                cityNames[cities[id]],
+                categoryNames[categories[id]],
+                names[id],
+                descriptions[id],
+                latitudes[id],
+                longitudes[id],
+                PriceTier.fromLevel(tiers[id]),
+                priceLows[id],
+                priceHighs[id],
+                ratings[id] / 10.0,
+                tagList(tagMasks[id]),
+                openMinutes[id],
+                closeMinutes[id],
+                durations[id],
+                authors[id],
+                notes[id]);
+    }
+
+    /**
+     * 解析城市：先按名称/别名精确查找，再在文本中查找最长的已知城市名（如“我想去北京玩”）
+     *
+     * @return 城市编号，未识别返回 -1
+     */
+    public int cityId(String text) {
+        if (text == null || text.isBlank()) {
+            return -1;
+        }
+        String key = normalize(text);
+        Integer id = cityLookup.get(key);
+        if (id != null) {
+            return id;
+        }
+        // 优先最长的名称，避免“南京”被“京”之类的短别名截获
+        return longestContained(cityLookup, "", key, maxCityKeyLength, 2);
+    }
+
+    /**
+     * 解析分类：先精确匹配分类名或别名，再在文本中查找最长的别名（如“文化历史”匹配“文化古迹”）
+     *
+     * @return 分类编号，未识别返回 -1
+     */
+    public int categoryId(PoiKind kind, String text) {
+        if (kind == null || text == null || text.isBlank()) {
+            return -1;
+        }
+        String key = normalize(text);
+        String prefix = kind.getCode() + ":";
+        Integer id = categoryLookup.get(prefix + key);
+        if (id != null) {
+            return id;
+        }
+        return longestContained(categoryLookup, prefix, key, maxCategoryAliasLength, 1);
+    }
+
+    /**
+     * 按名称精确查找标签
+     *
+     * @return 标签编号，不存在返回 -1
+     */
+    public int tagId(String tag) {
+        if (tag == null) {
+            return -1;
+        }
+        Integer id = tagLookup.get(tag.trim());
+        return id != null ? id : -1;
+    }
+
+    /**
+     * 返回文本中出现的所有已知标签的掩码（如“景点打卡”包含“打卡”）
+     */
+    public long tagMaskIn(String text) {
+        if (text == null || text.isBlank()) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (int i = 0; i < tagNames.length; i++) {
+            if (text.contains(tagNames[i])) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    public String cityName(int cityId) {
+        return cityNames[cityId];
+    }
+
+    public double cityLatitude(int cityId) {
+        return cityLatitudes[cityId];
+    }
+
+    public double cityLongitude(int cityId) {
+        return cityLongitudes[cityId];
+    }
+
+    public String categoryName(int categoryId) {
+        return categoryNames[categoryId];
+    }
+
+    public List<String> cityNames() {
+        return List.of(cityNames);
+    }
+
+    public int cityCount() {
+        return cityNames.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void fillRow(int i, String[] row, Loader loader) {
+        // row: 类型 城市 分类 名称 简介 纬度 经度 档次 最低价 最高价 评分 标签 开放时间 游玩分钟 分享者 分享内容
+        PoiKind kind = PoiKind.fromCode(row[0]);
+        kinds[i] = (byte) kind.ordinal();
+        cities[i] = loader.cityLookup.get(normalize(row[1]));
+        categories[i] = loader.categoryLookup.get(kind.getCode() + ":" + normalize(row[2])).shortValue();
+        names[i] = row[3];
+        descriptions[i] = row[4];
+        latitudes[i] = Double.parseDouble(row[5]);
+        longitudes[i] = Double.parseDouble(row[6]);
+        tiers[i] = (byte) PriceTier.fromLevel(Integer.parseInt(row[7])).ordinal();
+        priceLows[i] = Integer.parseInt(row[8]);
+        priceHighs[i] = Integer.parseInt(row[9]);
+        ratings[i] = (short) Math.round(Double.parseDouble(row[10]) * 10);
+        tagMasks[i] = loader.tagMasks.get(i);
+        int[] hours = parseHours(row[12]);
+        openMinutes[i] = (short) hours[0];
+        closeMinutes[i] = (short) hours[1];
+        durations[i] = Short.parseShort(row[13]);
+        authors[i] = emptyToNull(row[14]);
+        notes[i] = emptyToNull(row[15]);
+    }
+
+    private int[] ratingOrder() {
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> ratings[a] != ratings[b] ? ratings[b] - ratings[a] : a - b);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /**
+     * 两遍构建倒排索引：先计数再填充，保持 order 的相对顺序
+     */
+    private static int[][] buildIndex(int[] order, int keyCount, IntUnaryOperator keyOf) {
+        int[] counts = new int[keyCount];
+        for (int id : order) {
+            counts[keyOf.applyAsInt(id)]++;
+        }
+        int[][] index = new int[keyCount][];
+        for (int key = 0; key < keyCount; key++) {
+            index[key] = new int[counts[key]];
+        }
+        int[] cursor = new int[keyCount];
+        for (int id : order) {
+            int key = keyOf.applyAsInt(id);
+            index[key][cursor[key]++] = id;
+        }
+        return index;
+    }
+
+    private int[][] buildTagIndex(int[] order) {
+        int[] counts = new int[tagNames.length];
+        for (int id : order) {
+            for (long bits = tagMasks[id]; bits != 0; bits &= bits - 1) {
+                counts[Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        int[][] index = new int[tagNames.length][];
+        for (int tag = 0; tag < tagNames.length; tag++) {
+            index[tag] = new int[counts[tag]];
+        }
+        int[] cursor = new int[tagNames.length];
+        for (int id : order) {
+            for (long bits = tagMasks[id]; bits != 0; bits &= bits - 1) {
+                int tag = Long.numberOfTrailingZeros(bits);
+                index[tag][cursor[tag]++] = id;
+            }
+        }
+        return index;
+    }
+
+    private List<String> tagList(long mask) {
+        if (mask == 0) {
+            return Collections.emptyList();
+        }
+        List<String> tags = new ArrayList<>(Long.bitCount(mask));
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            tags.add(tagNames[Long.numberOfTrailingZeros(bits)]);
+        }
+        return Collections.unmodifiableList(tags);
+    }
+
+    /**
+     * 在文本中查找最长的已登记名称：从长到短枚举子串查表，同样长度时取编号最小的
+     *
+     * @param prefix 查表键的前缀，如分类表的“类型:”
+     */
+    private static int longestContained(Map<String, Integer> lookup, String prefix, String text,
+                                        int maxLength, int minLength) {
+        for (int length = Math.min(text.length(), maxLength); length >= minLength; length--) {
+            int best = -1;
+            for (int start = 0; start + length <= text.length(); start++) {
+                Integer id = lookup.get(prefix + text.substring(start, start + length));
+                if (id != null && (best < 0 || id < best)) {
+                    best = id;
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    private static int maxKeyLength(Iterable<String> keys) {
+        int max = 0;
+        for (String key : keys) {
+            max = Math.max(max, key.length());
+        }
+        return max;
+    }
+
+    private static List<String> bigrams(String text) {
+        List<String> bigrams = new ArrayList<>();
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            String bigram = text.substring(i, i + 2);
+            if (!bigrams.contains(bigram)) {
+                bigrams.add(bigram);
+            }
+        }
+        return bigrams;
+    }
+
+    private static Map<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, ids) -> postings.put(key, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return Map.copyOf(postings);
+    }
+
+    private static int[] posting(int[][] index, int key) {
+        return key < index.length ? index[key] : new int[0];
+    }
+
+    private static int[] shorter(int[] a, int[] b) {
+        return b.length < a.length ? b : a;
+    }
+
+    private static int[] parseHours(String text) {
+        if (text == null || text.isBlank() || "-".equals(text)) {
+            return new int[]{NO_TIME, NO_TIME};
+        }
+        String[] parts = text.split("-");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("开放时间格式应为HH:mm-HH:mm: " + text);
+        }
+        return new int[]{parseMinute(parts[0]), parseMinute(parts[1])};
+    }
+
+    private static int parseMinute(String text) {
+        String[] parts = text.trim().split(":");
+        int minute = Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        if (minute < 0 || minute >= 24 * 60) {
+            throw new IllegalArgumentException("时间超出范围: " + text);
+        }
+        return minute;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() || "-".equals(value) ? null : value;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double[] toDoubleArray(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * 解析期的可变暂存结构，构建完成后即丢弃
+     */
+    private static final class Loader {
+        private final List<String> cityNames = new ArrayList<>();
+        private final List<Double> cityLatitudes = new ArrayList<>();
+        private final List<Double> cityLongitudes = new ArrayList<>();
+        private final Map<String, Integer> cityLookup = new HashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private final List<String[]> categoryAliases = new ArrayList<>();
+        private final Map<String, Integer> categoryLookup = new HashMap<>();
+        private final List<String> tagNames = new ArrayList<>();
+        private final Map<String, Integer> tagLookup = new HashMap<>();
+        private final List<String[]> poiRows = new ArrayList<>();
+        private final List<Long> tagMasks = new ArrayList<>();
+
+        void accept(String[] fields) {
+            switch (fields[0]) {
+                case "@city" -> acceptCity(fields);
+                case "@category" -> acceptCategory(fields);
+                case "@poi" -> acceptPoi(fields);
+                default -> throw new IllegalArgumentException("未知的记录类型: " + fields[0]);
+            }
+        }
+
+        private void acceptCity(String[] fields) {
+            requireLength(fields, 5);
+            int id = cityNames.size();
+            cityNames.add(fields[1]);
+            cityLatitudes.add(Double.parseDouble(fields[3]));
+            cityLongitudes.add(Double.parseDouble(fields[4]));
+            register(cityLookup, normalize(fields[1]), id, "城市");
+            for (String alias : splitList(fields[2])) {
+                register(cityLookup, normalize(alias), id, "城市");
+            }
+        }
+
+        private void acceptCategory(String[] fields) {
+            requireLength(fields, 4);
+            PoiKind kind = PoiKind.fromCode(fields[1]);
+            int id = categoryNames.size();
+            if (id > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("分类数量超出上限");
+            }
+            List<String> aliases = new ArrayList<>();
+            aliases.add(normalize(fields[2]));
+            for (String alias : splitList(fields[3])) {
+                aliases.add(normalize(alias));
+            }
+            categoryNames.add(fields[2]);
+            categoryAliases.add(aliases.toArray(new String[0]));
+            for (String alias : aliases) {
+                register(categoryLookup, kind.getCode() + ":" + alias, id, "分类");
+            }
+        }
+
+        private void acceptPoi(String[] fields) {
+            requireLength(fields, 17);
+            String[] row = Arrays.copyOfRange(fields, 1, fields.length);
+            PoiKind kind = PoiKind.fromCode(row[0]);
+            if (!cityLookup.containsKey(normalize(row[1]))) {
+                throw new IllegalArgumentException("未声明的城市: " + row[1]);
+            }
+            if (!categoryLookup.containsKey(kind.getCode() + ":" + normalize(row[2]))) {
+                throw new IllegalArgumentException("未声明的分类: " + row[2]);
+            }
+            long mask = 0L;
+            for (String tag : splitList(row[11])) {
+                Integer tagId = tagLookup.get(tag);
+                if (tagId == null) {
+                    if (tagNames.size() >= MAX_TAGS) {
+                        throw new IllegalArgumentException("标签数量超出上限" + MAX_TAGS + ": " + tag);
+                    }
+                    tagId = tagNames.size();
+                    tagNames.add(tag);
+                    tagLookup.put(tag, tagId);
+                }
+                mask |= 1L << tagId;
+            }
+            poiRows.add(row);
+            tagMasks.add(mask);
+        }
+
+        private static void register(Map<String, Integer> lookup, String key, int id, String what) {
+            Integer previous = lookup.putIfAbsent(key, id);
+            if (previous != null && previous != id) {
+                throw new IllegalArgumentException(what + "名称重复: " + key);
+            }
+        }
+
+        private static List<String> splitList(String value) {
+            if (value == null || value.isBlank() || "-".equals(value)) {
+                return List.of();
+            }
+            List<String> items = new ArrayList<>();
+            for (String item : value.split(",")) {
+                if (!item.isBlank()) {
+                    items.add(item.trim());
+                }
+            }
+            return items;
+        }
+
+        private static void requireLength(String[] fields, int expected) {
+            if (fields.length != expected) {
+                throw new IllegalArgumentException("字段数应为" + expected + "，实际为" + fields.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.zluolan.zaiagent.poi;
+
+/**
+ * POI 类型
+ */
+public enum PoiKind {
+
+    ATTRACTION('A', "景点"),
+    HOTEL('H', "酒店"),
+    FOOD('F', "美食");
+
+    private final char code;
+    private final String label;
+
+    PoiKind(char code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 按数据文件中的单字符编码解析
+     */
+    public static PoiKind fromCode(String code) {
+        if (code != null && code.length() == 1) {
+            for (PoiKind kind : values()) {
+                if (kind.code == code.charAt(0)) {
+                    return kind;
+                }
+            }
+        }
+        throw new IllegalArgumentException("未知的POI类型编码: " + code);
+    }
+
+    /**
+     * 从用户描述中识别 POI 类型（如：酒店、景点、美食），无法识别时返回默认值
+     */
+    public static PoiKind fromText(String text, PoiKind defaultKind) {
+        if (text == null || text.isBlank()) {
+            return defaultKind;
+        }
+        if (text.contains("酒店") || text.contains("住宿") || text.contains("民宿") || text.contains("宾馆")) {
+            return HOTEL;
+        }
+        if (text.contains("美食") || text.contains("餐") || text.contains("吃") || text.contains("小吃")) {
+            return FOOD;
+        }
+        if (text.contains("景点") || text.contains("景区") || text.contains("玩")) {
+            return ATTRACTION;
+        }
+        return defaultKind;
+    }
+}
@@ -0,0 +1,101 @@
+package com.zluolan.zaiagent.poi;
+
+/**
+ * POI 查询条件
+ * 城市、分类、标签均使用 {@link PoiCatalog} 解析后的编号，编号为 -1 表示不过滤。
+ */
+public final class PoiQuery {
+
+    private final PoiKind kind;
+    private int cityId = -1;
+    private int categoryId = -1;
+    private PriceTier tier;
+    private long tagMask;
+    private int maxPrice = Integer.MAX_VALUE;
+    private int limit = 10;
+
+    private PoiQuery(PoiKind kind) {
+        if (kind == null) {
+            throw new IllegalArgumentException("POI类型不能为空");
+        }
+        this.kind = kind;
+    }
+
+    public static PoiQuery of(PoiKind kind) {
+        return new PoiQuery(kind);
+    }
+
+    public PoiQuery city(int cityId) {
+        this.cityId = cityId;
+        return this;
+    }
+
+    public PoiQuery category(int categoryId) {
+        this.categoryId = categoryId;
+        return this;
+    }
+
+    public PoiQuery tier(PriceTier tier) {
+        this.tier = tier;
+        return this;
+    }
+
+    /**
+     * 要求包含指定标签，多次调用为“且”关系
+     */
+    public PoiQuery tag(int tagId) {
+        if (tagId >= 0) {
+            this.tagMask |= 1L << tagId;
+        }
+        return this;
+    }
+
+    /**
+     * 要求包含掩码中的全部标签
+     */
+    public PoiQuery tags(long tagMask) {
+        this.tagMask |= tagMask;
+        return this;
+    }
+
+    /**
+     * 最低价不高于指定金额
+     */
+    public PoiQuery maxPrice(int maxPrice) {
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    public PoiQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    PoiKind kind() {
+        return kind;
+    }
+
+    int cityId() {
+        return cityId;
+    }
+
+    int categoryId() {
+        return categoryId;
+    }
+
+    PriceTier tier() {
+        return tier;
+    }
+
+    long tagMask() {
+        return tagMask;
+    }
+
+    int maxPrice() {
+        return maxPrice;
+    }
+
+    int limit() {
+        return limit;
+    }
+}
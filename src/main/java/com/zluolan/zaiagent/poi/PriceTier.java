@@ -0,0 +1,51 @@
+package com.zluolan.zaiagent.poi;
+
+/**
+ * 价格档次
+ */
+public enum PriceTier {
+
+    ECONOMY("经济型"),
+    COMFORT("舒适型"),
+    PREMIUM("豪华型"),
+    LUXURY("奢华型");
+
+    private final String label;
+
+    PriceTier(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PriceTier fromLevel(int level) {
+        if (level < 0 || level >= values().length) {
+            throw new IllegalArgumentException("价格档次超出范围: " + level);
+        }
+        return values()[level];
+    }
+
+    /**
+     * 从用户描述中识别价格档次（如：经济型、中等、高端），无法识别时返回 null
+     */
+    public static PriceTier fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        if (text.contains("奢华")) {
+            return LUXURY;
+        }
+        if (text.contains("豪华") || text.contains("高端") || text.contains("高档")) {
+            return PREMIUM;
+        }
+        if (text.contains("舒适") || text.contains("中等") || text.contains("中档")) {
+            return COMFORT;
+        }
+        if (text.contains("经济") || text.contains("便宜") || text.contains("穷游") || text.contains("低价")) {
+            return ECONOMY;
+        }
+        return null;
+    }
+}
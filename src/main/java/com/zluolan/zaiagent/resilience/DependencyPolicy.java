@@ -0,0 +1,24 @@
+package com.zluolan.zaiagent.resilience;
+
+/**
+ * 外部依赖的隔离与熔断参数
+ *
+ * @param name             依赖名称，如 amap、search-api
+ * @param maxConcurrent    舱壁：同时在途的最大调用数
+ * @param maxWaitMillis    舱壁已满时最多等待的毫秒数，0 表示立即降级
+ * @param timeoutMillis    单次调用超时，实际超时还受当前步骤剩余时间限制
+ * @param failureThreshold 连续失败多少次后熔断
+ * @param openMillis       熔断持续时间，到期后放行一次半开探测
+ */
+public record DependencyPolicy(String name, int maxConcurrent, long maxWaitMillis, long timeoutMillis,
+                               int failureThreshold, long openMillis) {
+
+    public DependencyPolicy {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("依赖名称不能为空");
+        }
+        if (maxConcurrent <= 0 || timeoutMillis <= 0 || failureThreshold <= 0 || openMillis <= 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("无效的依赖策略: " + name);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.zluolan.zaiagent.resilience;
+
+/**
+ * 单个外部依赖的运行状态
+ *
+ * @param inFlight 当前在途调用数（含已超时但上游尚未返回的调用）
+ * @param rejected 因熔断或舱壁已满被拒绝的次数
+ * @param degraded 返回降级结果的总次数
+ */
+public record DependencyStats(String name, CircuitBreaker.State state, int inFlight, int maxConcurrent,
+                              long calls, long failures, long timeouts, long rejected, long degraded) {
+}
@@ -0,0 +1,19 @@
+package com.zluolan.zaiagent.resilience;
+
+/**
+ * 一次受保护调用的结果
+ *
+ * @param value    正常结果，或降级时回退函数给出的结果
+ * @param degraded 是否为降级结果
+ * @param reason   降级原因，正常时为 null
+ */
+public record GuardedResult<T>(T value, boolean degraded, String reason) {
+
+    public static <T> GuardedResult<T> ok(T value) {
+        return new GuardedResult<>(value, false, null);
+    }
+
+    public static <T> GuardedResult<T> degraded(T value, String reason) {
+        return new GuardedResult<>(value, true, reason);
+    }
+}
@@ -0,0 +1,22 @@
+package com.zluolan.zaiagent.resilience;
+
+/**
+ * 单个端点的对冲请求统计
+ *
+ * @param hedged           发出第二次请求的次数
+ * @param hedgeWins        第二次请求先返回的次数
+ * @param hedgeRate        对冲比例，受对冲预算限制
+ * @param thresholdMillis  当前触发对冲的等待阈值
+ * @param p99Millis        调用方实际感受到的 p99 耗时
+ * @param primaryP99Millis 首次请求自身的 p99 耗时，即不对冲时的近似 p99（被取消且未完成的请求不计入）
+ */
+public record HedgeStats(String endpoint, long requests, long hedged, long hedgeWins, double hedgeRate,
+                         long thresholdMillis, long p50Millis, long p99Millis, long primaryP99Millis) {
+
+    /**
+     * 对冲带来的 p99 改善（毫秒），样本不足时为 0
+     */
+    public long p99ImprovementMillis() {
+        return p99Millis >= 0 && primaryP99Millis >= 0 ? primaryP99Millis - p99Millis : 0;
+    }
+}
@@ -0,0 +1,269 @@
+package com.zluolan.zaiagent.resilience;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲请求
+ * 首次请求超过自适应阈值（该端点最近请求耗时的分位数）仍未返回时，再发一次相同请求，
+ * 取先返回的结果并取消另一个。对冲预算按请求数的固定比例累积，限制额外增加的上游负载。
+ * 只用于幂等的读请求，如高德地理编码和天气查询。
+ * 取消只能中断等待，不能中断阻塞中的 HTTP 读取，因此每次请求都按总预算的剩余时间设置连接和读取超时，
+ * 落后的请求最迟在预算耗尽时自行结束。请求在虚拟线程上执行，并发度由上游的 {@link ToolGuard} 限制，
+ * 不占用固定大小的平台线程池。
+ */
+@Slf4j
+public final class HedgedRequester {
+
+    /**
+     * 样本不足时使用的固定等待阈值
+     */
+    private static final long INITIAL_DELAY_MILLIS = 400;
+    private static final long MIN_DELAY_MILLIS = 20;
+    private static final int WARMUP_SAMPLES = 20;
+    private static final int WINDOW_SIZE = 256;
+
+    private final double quantile;
+    private final double budgetRatio;
+    private final double maxBurst;
+    private final ExecutorService executor;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    /**
+     * @param quantile    触发对冲的耗时分位数，如 0.95
+     * @param budgetRatio 对冲预算占请求数的比例，如 0.1 表示最多增加约 10% 的请求
+     * @param maxBurst    预算最多累积的次数，限制突发对冲
+     */
+    public HedgedRequester(boolean enabled, double quantile, double budgetRatio, double maxBurst) {
+        this(enabled, quantile, budgetRatio, maxBurst,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hedged-request-", 1).factory()));
+    }
+
+    /**
+     * @param executor 执行单次请求的线程池，由本实例负责关闭
+     */
+    public HedgedRequester(boolean enabled, double quantile, double budgetRatio, double maxBurst,
+                           ExecutorService executor) {
+        if (quantile <= 0 || quantile >= 1 || budgetRatio < 0 || maxBurst < 1) {
+            throw new IllegalArgumentException("无效的对冲参数");
+        }
+        this.enabled = enabled;
+        this.quantile = quantile;
+        this.budgetRatio = budgetRatio;
+        this.maxBurst = maxBurst;
+        this.executor = executor;
+    }
+
+    private static final class DefaultHolder {
+        private static final HedgedRequester INSTANCE = withDefaults(true);
+    }
+
+    /**
+     * 共享实例，供不经 Spring 创建的客户端使用；不交给容器管理，容器中另建实例
+     */
+    public static HedgedRequester getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 使用内置参数（p95 触发、10% 预算、最多累积 5 次）新建独立实例
+     */
+    public static HedgedRequester withDefaults(boolean enabled) {
+        return new HedgedRequester(enabled, 0.95, 0.1, 5);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 单次请求
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+
+        /**
+         * @param timeoutMillis 本次请求应使用的连接和读取超时，为总预算的剩余时间
+         */
+        T call(int timeoutMillis) throws Exception;
+    }
+
+    /**
+     * 在 budgetMillis 毫秒内执行一次可对冲的请求，两次请求都失败时抛出首次请求的异常，
+     * 预算耗尽仍无结果时抛出 {@link TimeoutException}
+     *
+     * @param endpoint 端点名称，耗时分布和预算按端点分别统计
+     * @param attempt  单次请求，必须幂等
+     */
+    public <T> T call(String endpoint, long budgetMillis, Attempt<T> attempt) throws Exception {
+        Endpoint ep = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        long start = System.nanoTime();
+        ep.requests.increment();
+        if (!enabled) {
+            T value = attempt.call(timeoutOf(budgetMillis));
+            long millis = elapsedMillis(start);
+            ep.attempts.record(millis);
+            ep.primary.record(millis);
+            ep.observed.record(millis);
+            return value;
+        }
+        ep.earn(budgetRatio, maxBurst);
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        Future<T> primary;
+        try {
+            primary = completion.submit(() -> timed(ep, attempt, budgetMillis, true));
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭时直接在调用线程执行，不对冲
+            T value = attempt.call(timeoutOf(budgetMillis));
+            ep.observed.record(elapsedMillis(start));
+            return value;
+        }
+        futures.add(primary);
+        Future<T> hedge = null;
+        try {
+            Future<T> done = completion.poll(Math.min(ep.threshold(quantile), budgetMillis), TimeUnit.MILLISECONDS);
+            long remaining = budgetMillis - elapsedMillis(start);
+            // 剩余时间不足以完成一次请求时不再对冲
+            if (done == null && remaining >= MIN_DELAY_MILLIS && ep.trySpend()) {
+                try {
+                    hedge = completion.submit(() -> timed(ep, attempt, remaining, false));
+                    futures.add(hedge);
+                    ep.hedged.increment();
+                } catch (RejectedExecutionException e) {
+                    ep.refund();
+                }
+            }
+            Exception firstError = null;
+            for (int pending = futures.size(); pending > 0; pending--) {
+                if (done == null) {
+                    done = completion.poll(Math.max(0, budgetMillis - elapsedMillis(start)), TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        ep.observed.record(elapsedMillis(start));
+                        throw new TimeoutException(endpoint + " 请求超时（" + budgetMillis + "ms）");
+                    }
+                }
+                try {
+                    T value = done.get();
+                    if (done == hedge) {
+                        ep.hedgeWins.increment();
+                    }
+                    ep.observed.record(elapsedMillis(start));
+                    return value;
+                } catch (ExecutionException e) {
+                    if (firstError == null || done == primary) {
+                        firstError = e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                }
+                done = null;
+            }
+            ep.observed.record(elapsedMillis(start));
+            throw firstError;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    public List<HedgeStats> snapshot() {
+        List<HedgeStats> stats = new ArrayList<>();
+        endpoints.forEach((name, ep) -> stats.add(ep.stats(name, quantile)));
+        stats.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 执行单次请求并记录其自身耗时；被取消的请求若仍正常完成同样记录，保证分位数不被对冲拉低
+     */
+    private static <T> T timed(Endpoint ep, Attempt<T> attempt, long timeoutMillis, boolean primary) throws Exception {
+        long start = System.nanoTime();
+        T value = attempt.call(timeoutOf(timeoutMillis));
+        long millis = elapsedMillis(start);
+        ep.attempts.record(millis);
+        if (primary) {
+            ep.primary.record(millis);
+        }
+        return value;
+    }
+
+    /**
+     * 换算为 HTTP 客户端的超时参数，至少 1ms，避免 0 被当作不限时
+     */
+    private static int timeoutOf(long millis) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, millis));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 单个端点的耗时窗口、对冲预算和计数
+     */
+    private static final class Endpoint {
+
+        private final LatencyWindow attempts = new LatencyWindow(WINDOW_SIZE);
+        private final LatencyWindow primary = new LatencyWindow(WINDOW_SIZE);
+        private final LatencyWindow observed = new LatencyWindow(WINDOW_SIZE);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private double credits;
+
+        long threshold(double quantile) {
+            if (attempts.size() < WARMUP_SAMPLES) {
+                return INITIAL_DELAY_MILLIS;
+            }
+            return Math.max(MIN_DELAY_MILLIS, attempts.percentile(quantile));
+        }
+
+        synchronized void earn(double ratio, double maxBurst) {
+            credits = Math.min(maxBurst, credits + ratio);
+        }
+
+        synchronized boolean trySpend() {
+            if (credits < 1) {
+                return false;
+            }
+            credits -= 1;
+            return true;
+        }
+
+        synchronized void refund() {
+            credits += 1;
+        }
+
+        HedgeStats stats(String name, double quantile) {
+            long total = requests.sum();
+            long hedgedCount = hedged.sum();
+            return new HedgeStats(name, total, hedgedCount, hedgeWins.sum(),
+                    total > 0 ? (double) hedgedCount / total : 0, threshold(quantile),
+                    observed.percentile(0.5), observed.percentile(0.99), primary.percentile(0.99));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.zluolan.zaiagent.resilience;
+
+import java.util.Arrays;
+
+/**
+ * 最近 N 次耗时的滑动窗口，用于估算分位数
+ * 新样本覆盖最旧的样本，分位数按窗口内样本排序后取值，窗口较小时开销可以忽略
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 窗口内的分位数（毫秒），没有样本时返回 -1
+     *
+     * @param quantile 0~1，如 0.99
+     */
+    synchronized long percentile(double quantile) {
+        if (size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
@@ -0,0 +1,76 @@
+package com.zluolan.zaiagent.resilience;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 当前线程上的步骤截止时间
+ * 智能体执行每一步前按剩余预算设置截止时间，步骤内的外部调用超时不会超过剩余时间；
+ * 嵌套设置时取更早的截止时间，未设置时不限制。
+ * 截止时间只在设置它的线程上可见，交给线程池执行的子任务需用 {@link #wrap} 包装后提交。
+ */
+public final class StepDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private StepDeadline() {
+    }
+
+    /**
+     * 在 budgetMillis 毫秒的截止时间内执行 action，结束后恢复外层截止时间
+     */
+    public static <T> T within(long budgetMillis, Supplier<T> action) {
+        Long outer = DEADLINE.get();
+        DEADLINE.set(earlier(outer, deadlineAfter(budgetMillis)));
+        try {
+            return action.get();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * 包装要提交到其他线程的任务：提交时捕获当前线程的截止时间，且不晚于 budgetMillis 毫秒之后，
+     * 任务在执行线程上按该截止时间运行，结束后恢复执行线程原有的截止时间
+     */
+    public static <T> Callable<T> wrap(Callable<T> task, long budgetMillis) {
+        long deadline = earlier(DEADLINE.get(), deadlineAfter(budgetMillis));
+        return () -> {
+            Long outer = DEADLINE.get();
+            DEADLINE.set(earlier(outer, deadline));
+            try {
+                return task.call();
+            } finally {
+                restore(outer);
+            }
+        };
+    }
+
+    /**
+     * 剩余毫秒数，未设置截止时间时返回 Long.MAX_VALUE，已过期返回 0
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private static long deadlineAfter(long budgetMillis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+    }
+
+    private static long earlier(Long outer, long deadline) {
+        return outer != null && outer - deadline < 0 ? outer : deadline;
+    }
+
+    private static void restore(Long outer) {
+        if (outer != null) {
+            DEADLINE.set(outer);
+        } else {
+            DEADLINE.remove();
+        }
+    }
+}
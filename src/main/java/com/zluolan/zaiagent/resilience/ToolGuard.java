@@ -0,0 +1,262 @@
+package com.zluolan.zaiagent.resilience;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 外部依赖调用保护
+ * 每个依赖（高德、SearchAPI 等）独立一套舱壁、熔断器和线程池，一个上游变慢或故障
+ * 只会占满它自己的并发额度，不会拖住其他工具。每次调用依次检查：
+ * <ol>
+ *     <li>熔断器：OPEN 时直接降级，到期后放行一次半开探测</li>
+ *     <li>舱壁：在途调用已满且等待超时则降级</li>
+ *     <li>截止时间：取依赖超时与当前步骤剩余时间的较小值，超时取消并计为失败</li>
+ * </ol>
+ * 降级时调用回退函数生成结果，并在 {@link GuardedResult} 中标明降级原因，由工具在输出中注明。
+ */
+@Slf4j
+public final class ToolGuard {
+
+    public static final String AMAP = "amap";
+    public static final String SEARCH_API = "search-api";
+
+    /**
+     * 剩余时间不足该值时不再发起调用
+     */
+    private static final long MIN_CALL_MILLIS = 50;
+
+    private static final ToolGuard DEFAULT = new ToolGuard(defaultPolicies());
+
+    private final Map<String, Dependency> dependencies = new ConcurrentHashMap<>();
+
+    public ToolGuard(List<DependencyPolicy> policies) {
+        policies.forEach(this::register);
+    }
+
+    /**
+     * 内置高德与 SearchAPI 策略的共享实例，供不经 Spring 创建的工具和客户端使用。
+     * 共享实例不交给容器管理，容器中另建实例，容器关闭时只关闭自己的线程池
+     */
+    public static ToolGuard getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 内置的高德与 SearchAPI 策略
+     */
+    public static List<DependencyPolicy> defaultPolicies() {
+        return List.of(
+                new DependencyPolicy(AMAP, 8, 200, 3000, 5, 30_000),
+                new DependencyPolicy(SEARCH_API, 4, 200, 8000, 3, 60_000));
+    }
+
+    /**
+     * 注册或替换依赖策略，替换时原依赖上的在途调用继续在原线程池中完成
+     */
+    public void register(DependencyPolicy policy) {
+        Dependency previous = dependencies.put(policy.name(), new Dependency(policy));
+        if (previous != null) {
+            previous.executor.shutdown();
+        }
+    }
+
+    public DependencyPolicy policy(String dependency) {
+        return dependency(dependency).policy;
+    }
+
+    /**
+     * 在依赖的保护下执行调用
+     *
+     * @param task     实际调用，抛出异常即视为失败
+     * @param fallback 降级结果，参数为降级原因
+     */
+    public <T> GuardedResult<T> call(String dependency, Callable<T> task, Function<String, T> fallback) {
+        Dependency dep = dependency(dependency);
+        dep.calls.increment();
+        if (!dep.breaker.tryAcquire()) {
+            dep.rejected.increment();
+            return degrade(dep, fallback, "熔断中");
+        }
+        long timeoutMillis = Math.min(dep.policy.timeoutMillis(), StepDeadline.remainingMillis());
+        if (timeoutMillis < MIN_CALL_MILLIS) {
+            dep.breaker.release();
+            return degrade(dep, fallback, "步骤剩余时间不足");
+        }
+        if (!dep.tryEnter(Math.min(dep.policy.maxWaitMillis(), timeoutMillis))) {
+            dep.breaker.release();
+            dep.rejected.increment();
+            return degrade(dep, fallback, "并发已满");
+        }
+
+        // 任务开始执行或被取消时各自尝试认领，保证额度只归还一次
+        AtomicBoolean claimed = new AtomicBoolean();
+        // 调用在依赖线程池中执行，按本次超时设置该线程上的步骤截止时间
+        Callable<T> bounded = StepDeadline.wrap(task, timeoutMillis);
+        Future<T> future;
+        try {
+            future = dep.executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return bounded.call();
+                } finally {
+                    dep.exit();
+                }
+            });
+        } catch (RuntimeException e) {
+            dep.exit();
+            dep.breaker.release();
+            return degrade(dep, fallback, "调用提交失败");
+        }
+        try {
+            T value = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            dep.breaker.onSuccess();
+            return GuardedResult.ok(value);
+        } catch (TimeoutException e) {
+            cancel(dep, future, claimed);
+            dep.timeouts.increment();
+            onFailure(dep);
+            return degrade(dep, fallback, "超时（" + timeoutMillis + "ms）");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(dep, future, claimed);
+            dep.breaker.release();
+            return degrade(dep, fallback, "调用被中断");
+        } catch (ExecutionException e) {
+            onFailure(dep);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return degrade(dep, fallback, "调用失败: " + cause.getMessage());
+        }
+    }
+
+    public List<DependencyStats> snapshot() {
+        List<DependencyStats> stats = new ArrayList<>();
+        dependencies.values().forEach(dep -> stats.add(dep.stats()));
+        stats.sort((a, b) -> a.name().compareTo(b.name()));
+        return stats;
+    }
+
+    public DependencyStats stats(String dependency) {
+        return dependency(dependency).stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dependencies.values().forEach(dep -> dep.executor.shutdownNow());
+    }
+
+    private Dependency dependency(String name) {
+        Dependency dep = dependencies.get(name);
+        if (dep == null) {
+            throw new IllegalArgumentException("未注册的外部依赖: " + name);
+        }
+        return dep;
+    }
+
+    private static void cancel(Dependency dep, Future<?> future, AtomicBoolean claimed) {
+        future.cancel(true);
+        if (claimed.compareAndSet(false, true)) {
+            dep.exit();
+        }
+    }
+
+    private static void onFailure(Dependency dep) {
+        dep.failures.increment();
+        CircuitBreaker.State before = dep.breaker.getState();
+        dep.breaker.onFailure();
+        if (before != CircuitBreaker.State.OPEN && dep.breaker.getState() == CircuitBreaker.State.OPEN) {
+            log.warn("外部依赖熔断 - 依赖: {}, 连续失败: {}, 熔断 {}ms", dep.policy.name(),
+                    dep.breaker.getConsecutiveFailures(), dep.policy.openMillis());
+        }
+    }
+
+    private static <T> GuardedResult<T> degrade(Dependency dep, Function<String, T> fallback, String reason) {
+        dep.degraded.increment();
+        log.warn("外部依赖降级 - 依赖: {}, 原因: {}", dep.policy.name(), reason);
+        return GuardedResult.degraded(fallback != null ? fallback.apply(reason) : null, reason);
+    }
+
+    /**
+     * 单个依赖的舱壁、熔断器、线程池和计数
+     */
+    private static final class Dependency {
+
+        private final DependencyPolicy policy;
+        private final CircuitBreaker breaker;
+        private final Semaphore permits;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder degraded = new LongAdder();
+
+        Dependency(DependencyPolicy policy) {
+            this.policy = policy;
+            this.breaker = new CircuitBreaker(policy.failureThreshold(), policy.openMillis());
+            this.permits = new Semaphore(policy.maxConcurrent());
+            // 舱壁限制了在途调用数，线程数不会超过 maxConcurrent，队列只用于线程交接
+            this.executor = new ThreadPoolExecutor(policy.maxConcurrent(), policy.maxConcurrent(),
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new GuardThreadFactory(policy.name()));
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        boolean tryEnter(long waitMillis) {
+            try {
+                return permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * 调用真正结束（而不是调用方等待超时）时才归还额度，卡住的上游会一直占用自己的舱壁
+         */
+        void exit() {
+            permits.release();
+        }
+
+        DependencyStats stats() {
+            return new DependencyStats(policy.name(), breaker.getState(),
+                    policy.maxConcurrent() - permits.availablePermits(), policy.maxConcurrent(),
+                    calls.sum(), failures.sum(), timeouts.sum(), rejected.sum(), degraded.sum());
+        }
+    }
+
+    private static final class GuardThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        GuardThreadFactory(String dependency) {
+            this.prefix = "guard-" + dependency + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
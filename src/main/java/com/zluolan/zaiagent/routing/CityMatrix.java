@@ -0,0 +1,26 @@
+package com.zluolan.zaiagent.routing;
+
+import com.zluolan.zaiagent.geo.DistanceMatrix;
+
+import java.util.Arrays;
+
+/**
+ * 城市内全部 POI 的两两距离矩阵
+ *
+ * @param poiIds    按升序排列的 POI 编号，下标即矩阵行号
+ * @param distances 距离矩阵（米）
+ */
+public record CityMatrix(int cityId, int[] poiIds, DistanceMatrix distances) {
+
+    /**
+     * POI 在矩阵中的行号，不在本城市返回 -1
+     */
+    public int indexOf(int poiId) {
+        int index = Arrays.binarySearch(poiIds, poiId);
+        return index >= 0 ? index : -1;
+    }
+
+    public double meters(int fromPoiId, int toPoiId) {
+        return distances.meters(indexOf(fromPoiId), indexOf(toPoiId));
+    }
+}
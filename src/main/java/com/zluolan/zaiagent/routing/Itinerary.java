@@ -0,0 +1,44 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.List;
+
+/**
+ * 多日行程编排结果
+ *
+ * @param days            每天的安排，天数与问题一致，可能有空闲的一天
+ * @param unscheduled     在每日时段和开放时间内排不下的站点编号
+ * @param travelMinutes   全部天数的交通耗时合计（含往返住处）
+ * @param budgetExhausted 是否因求解步数预算耗尽而提前结束
+ */
+public record Itinerary(List<Day> days,
+                        int[] unscheduled,
+                        int travelMinutes,
+                        boolean budgetExhausted) {
+
+    /**
+     * 已安排的站点数量
+     */
+    public int scheduledCount() {
+        return days.stream().mapToInt(day -> day.stops().length).sum();
+    }
+
+    /**
+     * 一天的安排
+     *
+     * @param stops         当天按顺序游览的站点编号，不含住处
+     * @param arriveMinutes 按 stops 顺序的到达时间（当天分钟数）
+     * @param startMinutes  按 stops 顺序的开始游玩时间，早于开门时会等待
+     * @param travelMinutes 当天交通耗时（含往返住处）
+     * @param finishMinute  回到住处的时间，当天没有安排时为每日开始时间
+     */
+    public record Day(int[] stops,
+                      int[] arriveMinutes,
+                      int[] startMinutes,
+                      int travelMinutes,
+                      int finishMinute) {
+
+        public boolean isEmpty() {
+            return stops.length == 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.Arrays;
+
+/**
+ * 多日行程编排问题
+ * 站点 0 为住处，每天从住处出发、最后回到住处；其余站点各游览一次，分配到若干天中。
+ * 没有住处时可以把站点 0 的交通耗时全部设为 0，相当于每天从第一个景点开始、在最后一个景点结束。
+ * 时间均为当天分钟数，可选为每个站点设置游玩时长和开放时间窗。
+ */
+public final class ItineraryProblem {
+
+    private final int size;
+    private final int[][] travelMinutes;
+    private int[] serviceMinutes;
+    private int[] openMinutes;
+    private int[] closeMinutes;
+    private int days = 1;
+    private int dayStartMinute = 9 * 60;
+    private int dayEndMinute = 21 * 60;
+
+    private ItineraryProblem(int[][] travelMinutes) {
+        this.size = travelMinutes.length;
+        if (size == 0) {
+            throw new IllegalArgumentException("交通耗时矩阵至少要包含住处");
+        }
+        for (int[] row : travelMinutes) {
+            if (row.length != size) {
+                throw new IllegalArgumentException("交通耗时矩阵必须为方阵");
+            }
+        }
+        this.travelMinutes = travelMinutes;
+        this.serviceMinutes = new int[size];
+        this.openMinutes = new int[size];
+        this.closeMinutes = new int[size];
+        Arrays.fill(openMinutes, -1);
+        Arrays.fill(closeMinutes, -1);
+    }
+
+    /**
+     * @param travelMinutes 站点间交通耗时（分钟），travelMinutes[i][j] 为 i 到 j，站点 0 为住处
+     */
+    public static ItineraryProblem of(int[][] travelMinutes) {
+        return new ItineraryProblem(travelMinutes);
+    }
+
+    /**
+     * 各站点游玩时长（分钟）
+     */
+    public ItineraryProblem service(int[] serviceMinutes) {
+        this.serviceMinutes = requireSize(serviceMinutes);
+        return this;
+    }
+
+    /**
+     * 各站点开放时间窗，-1 表示不限
+     */
+    public ItineraryProblem windows(int[] openMinutes, int[] closeMinutes) {
+        this.openMinutes = requireSize(openMinutes);
+        this.closeMinutes = requireSize(closeMinutes);
+        return this;
+    }
+
+    /**
+     * 行程天数，默认 1 天
+     */
+    public ItineraryProblem days(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("行程天数至少为1天");
+        }
+        this.days = days;
+        return this;
+    }
+
+    /**
+     * 每天的活动时段（当天分钟数），默认 09:00-21:00，须在结束前回到住处
+     */
+    public ItineraryProblem dayWindow(int startMinute, int endMinute) {
+        if (startMinute >= endMinute) {
+            throw new IllegalArgumentException("每日开始时间必须早于结束时间");
+        }
+        this.dayStartMinute = startMinute;
+        this.dayEndMinute = endMinute;
+        return this;
+    }
+
+    private int[] requireSize(int[] values) {
+        if (values.length != size) {
+            throw new IllegalArgumentException("数组长度应为" + size + "，实际为" + values.length);
+        }
+        return values;
+    }
+
+    /**
+     * 站点数量（含住处）
+     */
+    public int size() {
+        return size;
+    }
+
+    public int travel(int from, int to) {
+        return travelMinutes[from][to];
+    }
+
+    public int service(int stop) {
+        return serviceMinutes[stop];
+    }
+
+    public int open(int stop) {
+        return openMinutes[stop];
+    }
+
+    public int close(int stop) {
+        return closeMinutes[stop];
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public int dayStartMinute() {
+        return dayStartMinute;
+    }
+
+    public int dayEndMinute() {
+        return dayEndMinute;
+    }
+}
@@ -0,0 +1,364 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 多日行程编排求解器
+ * 先按“时间窗越紧、游玩越久越先排”的顺序逐个做最省代价的插入（约束感知贪心），
+ * 排不下的站点留待后续；再反复执行跨天挪动、跨天交换、单日翻转和补排，直到无法改进或步数预算耗尽。
+ * 每天的代价为“交通 + 等待开门 + 当天时长² / 1440”，平方项让各天松紧均衡，不会全部挤在前几天；
+ * 排不下的站点每个计很高的代价，因此优先保证排进更多站点。
+ * 预算按评估过的候选移动数计而不按耗时计，全程不使用随机数，
+ * 因此无论是否耗尽预算、机器负载如何，同样的输入总是得到同样的行程。
+ */
+public final class ItinerarySolver {
+
+    /**
+     * 默认步数预算（评估的候选移动数）。40 个站点、14 天的规模通常不到两万步就收敛，
+     * 最坏情况下用完预算约需一两百毫秒
+     */
+    public static final long DEFAULT_MAX_MOVES = 200_000;
+
+    /**
+     * 每个排不下的站点折算的代价（分钟）
+     */
+    private static final long UNSCHEDULED_PENALTY = 100_000;
+
+    /**
+     * 均衡项的缩放系数：一天时长 t 分钟额外计 t² / BALANCE_SCALE
+     */
+    private static final long BALANCE_SCALE = 1440;
+
+    private static final long INFEASIBLE = Long.MAX_VALUE;
+
+    private ItinerarySolver() {
+    }
+
+    /**
+     * 编排行程
+     *
+     * @param maxMoves 局部搜索最多评估的候选移动数，耗尽时返回当前最优解
+     */
+    public static Itinerary solve(ItineraryProblem problem, long maxMoves) {
+        Search search = new Search(problem, Math.max(0, maxMoves));
+        search.construct();
+        search.improve();
+        return search.result();
+    }
+
+    /**
+     * 搜索状态：每天的站点顺序、每天的代价和尚未排入的站点
+     */
+    private static final class Search {
+        private final ItineraryProblem problem;
+        private final long maxMoves;
+        private long moves;
+        private final int[][] routes;
+        private final long[] costs;
+        private final List<Integer> unscheduled = new ArrayList<>();
+        private boolean exhausted;
+
+        Search(ItineraryProblem problem, long maxMoves) {
+            this.problem = problem;
+            this.maxMoves = maxMoves;
+            this.routes = new int[problem.days()][0];
+            this.costs = new long[problem.days()];
+        }
+
+        /**
+         * 约束感知贪心：时间窗余量小的先排，其次游玩时长长的先排，每个站点插到代价增量最小的位置
+         */
+        void construct() {
+            List<Integer> order = new ArrayList<>();
+            for (int stop = 1; stop < problem.size(); stop++) {
+                order.add(stop);
+            }
+            order.sort(Comparator.<Integer>comparingInt(this::slack)
+                    .thenComparing(stop -> -problem.service(stop))
+                    .thenComparing(stop -> stop));
+            for (int stop : order) {
+                if (!insertBest(stop)) {
+                    unscheduled.add(stop);
+                }
+            }
+        }
+
+        /**
+         * 局部搜索，每轮依次尝试补排、挪动、交换和翻转，接受任何改进
+         */
+        void improve() {
+            boolean improved = true;
+            while (improved && !exhausted) {
+                improved = insertUnscheduled();
+                improved |= relocate();
+                improved |= exchange();
+                improved |= reverse();
+            }
+        }
+
+        Itinerary result() {
+            List<Itinerary.Day> days = new ArrayList<>(routes.length);
+            int travel = 0;
+            for (int[] route : routes) {
+                Itinerary.Day day = schedule(problem, route);
+                days.add(day);
+                travel += day.travelMinutes();
+            }
+            int[] left = unscheduled.stream().mapToInt(Integer::intValue).sorted().toArray();
+            return new Itinerary(List.copyOf(days), left, travel, exhausted);
+        }
+
+        private int slack(int stop) {
+            int open = Math.max(problem.open(stop), problem.dayStartMinute());
+            int close = problem.close(stop) >= 0
+                    ? Math.min(problem.close(stop), problem.dayEndMinute()) : problem.dayEndMinute();
+            return close - open - problem.service(stop);
+        }
+
+        private boolean insertBest(int stop) {
+            long bestDelta = INFEASIBLE;
+            int bestDay = -1;
+            int[] bestRoute = null;
+            long bestCost = 0;
+            for (int day = 0; day < routes.length; day++) {
+                for (int position = 0; position <= routes[day].length; position++) {
+                    int[] candidate = inserted(routes[day], position, stop);
+                    long value = dayCost(problem, candidate);
+                    if (value != INFEASIBLE && value - costs[day] < bestDelta) {
+                        bestDelta = value - costs[day];
+                        bestDay = day;
+                        bestRoute = candidate;
+                        bestCost = value;
+                    }
+                }
+            }
+            if (bestRoute == null) {
+                return false;
+            }
+            routes[bestDay] = bestRoute;
+            costs[bestDay] = bestCost;
+            return true;
+        }
+
+        private boolean insertUnscheduled() {
+            boolean improved = false;
+            for (int i = 0; i < unscheduled.size(); ) {
+                if (insertBest(unscheduled.get(i))) {
+                    unscheduled.remove(i);
+                    improved = true;
+                } else {
+                    i++;
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * 把一个站点挪到同一天或另一天的任意位置
+         */
+        private boolean relocate() {
+            boolean improved = false;
+            for (int from = 0; from < routes.length && !exhausted; from++) {
+                for (int i = 0; i < routes[from].length && !exhausted; i++) {
+                    improved |= relocate(from, i);
+                }
+            }
+            return improved;
+        }
+
+        private boolean relocate(int from, int i) {
+            int stop = routes[from][i];
+            int[] removed = removed(routes[from], i);
+            long removedCost = dayCost(problem, removed);
+            for (int to = 0; to < routes.length; to++) {
+                // 交通耗时不满足三角不等式时，去掉一站也可能让当天变得不可行
+                if (to != from && removedCost == INFEASIBLE) {
+                    continue;
+                }
+                int[] base = to == from ? removed : routes[to];
+                for (int position = 0; position <= base.length; position++) {
+                    if (tick()) {
+                        return false;
+                    }
+                    if (to == from && position == i) {
+                        continue;
+                    }
+                    int[] candidate = inserted(base, position, stop);
+                    long value = dayCost(problem, candidate);
+                    if (value == INFEASIBLE) {
+                        continue;
+                    }
+                    long delta = to == from
+                            ? value - costs[from]
+                            : removedCost + value - costs[from] - costs[to];
+                    if (delta < 0) {
+                        if (to != from) {
+                            routes[from] = removed;
+                            costs[from] = removedCost;
+                        }
+                        routes[to] = candidate;
+                        costs[to] = value;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 交换不同两天中的各一个站点
+         */
+        private boolean exchange() {
+            boolean improved = false;
+            for (int a = 0; a < routes.length; a++) {
+                for (int b = a + 1; b < routes.length; b++) {
+                    for (int i = 0; i < routes[a].length; i++) {
+                        for (int j = 0; j < routes[b].length; j++) {
+                            if (tick()) {
+                                return improved;
+                            }
+                            int[] first = routes[a].clone();
+                            int[] second = routes[b].clone();
+                            first[i] = routes[b][j];
+                            second[j] = routes[a][i];
+                            long firstCost = dayCost(problem, first);
+                            long secondCost = dayCost(problem, second);
+                            if (firstCost == INFEASIBLE || secondCost == INFEASIBLE) {
+                                continue;
+                            }
+                            if (firstCost + secondCost < costs[a] + costs[b]) {
+                                routes[a] = first;
+                                routes[b] = second;
+                                costs[a] = firstCost;
+                                costs[b] = secondCost;
+                                improved = true;
+                            }
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * 单日 2-opt：翻转一段连续站点
+         */
+        private boolean reverse() {
+            boolean improved = false;
+            for (int day = 0; day < routes.length; day++) {
+                for (int i = 0; i < routes[day].length - 1; i++) {
+                    for (int j = i + 1; j < routes[day].length; j++) {
+                        if (tick()) {
+                            return improved;
+                        }
+                        int[] candidate = routes[day].clone();
+                        for (int low = i, high = j; low < high; low++, high--) {
+                            int swap = candidate[low];
+                            candidate[low] = candidate[high];
+                            candidate[high] = swap;
+                        }
+                        long value = dayCost(problem, candidate);
+                        if (value != INFEASIBLE && value < costs[day]) {
+                            routes[day] = candidate;
+                            costs[day] = value;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+
+        private boolean tick() {
+            if (!exhausted && ++moves > maxMoves) {
+                exhausted = true;
+            }
+            return exhausted;
+        }
+    }
+
+    /**
+     * 行程总代价：各天代价之和 + 排不下的站点惩罚
+     */
+    static long cost(ItineraryProblem problem, Itinerary itinerary) {
+        long total = UNSCHEDULED_PENALTY * itinerary.unscheduled().length;
+        for (Itinerary.Day day : itinerary.days()) {
+            total += dayCost(problem, day.stops());
+        }
+        return total;
+    }
+
+    /**
+     * 一天的代价，赶不上关门或无法在每日结束前回到住处时返回 {@link #INFEASIBLE}。
+     * 第一站开门较晚时推迟出发，不计在住处的等待。
+     */
+    static long dayCost(ItineraryProblem problem, int[] route) {
+        if (route.length == 0) {
+            return 0;
+        }
+        long depart = Math.max(problem.dayStartMinute(), problem.open(route[0]) - problem.travel(0, route[0]));
+        long time = depart;
+        long travel = 0;
+        long wait = 0;
+        int previous = 0;
+        for (int stop : route) {
+            int leg = problem.travel(previous, stop);
+            long arrive = time + leg;
+            long start = Math.max(arrive, problem.open(stop));
+            if (problem.close(stop) >= 0 && start + problem.service(stop) > problem.close(stop)) {
+                return INFEASIBLE;
+            }
+            travel += leg;
+            wait += start - arrive;
+            time = start + problem.service(stop);
+            previous = stop;
+        }
+        int back = problem.travel(previous, 0);
+        travel += back;
+        time += back;
+        if (time > problem.dayEndMinute()) {
+            return INFEASIBLE;
+        }
+        long elapsed = time - depart;
+        return travel + wait + elapsed * elapsed / BALANCE_SCALE;
+    }
+
+    private static Itinerary.Day schedule(ItineraryProblem problem, int[] route) {
+        int n = route.length;
+        int[] arrive = new int[n];
+        int[] start = new int[n];
+        if (n == 0) {
+            return new Itinerary.Day(route, arrive, start, 0, problem.dayStartMinute());
+        }
+        int time = Math.max(problem.dayStartMinute(), problem.open(route[0]) - problem.travel(0, route[0]));
+        int travel = 0;
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            int leg = problem.travel(previous, route[i]);
+            travel += leg;
+            arrive[i] = time + leg;
+            start[i] = Math.max(arrive[i], problem.open(route[i]));
+            time = start[i] + problem.service(route[i]);
+            previous = route[i];
+        }
+        int back = problem.travel(previous, 0);
+        return new Itinerary.Day(route.clone(), arrive, start, travel + back, time + back);
+    }
+
+    private static int[] inserted(int[] route, int position, int stop) {
+        int[] result = new int[route.length + 1];
+        System.arraycopy(route, 0, result, 0, position);
+        result[position] = stop;
+        System.arraycopy(route, position, result, position + 1, route.length - position);
+        return result;
+    }
+
+    private static int[] removed(int[] route, int position) {
+        int[] result = Arrays.copyOf(route, route.length - 1);
+        System.arraycopy(route, position + 1, result, position, route.length - position - 1);
+        return result;
+    }
+}
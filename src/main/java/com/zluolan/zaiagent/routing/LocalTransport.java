@@ -0,0 +1,79 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.Locale;
+
+/**
+ * 同城出行方式，按直线距离估算耗时
+ * 实际道路距离按直线距离的 1.3 倍计，另加候车、取车等固定耗时
+ */
+public enum LocalTransport {
+
+    WALK("步行", 80, 0),
+    CYCLE("骑行", 200, 3),
+    TRANSIT("地铁/公交", 400, 12),
+    DRIVE("驾车/打车", 500, 8);
+
+    private static final double DETOUR_FACTOR = 1.3;
+
+    private final String label;
+    private final double metersPerMinute;
+    private final int fixedMinutes;
+
+    LocalTransport(String label, double metersPerMinute, int fixedMinutes) {
+        this.label = label;
+        this.metersPerMinute = metersPerMinute;
+        this.fixedMinutes = fixedMinutes;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 估算耗时（分钟），至少 1 分钟
+     */
+    public int minutes(double straightMeters) {
+        return Math.max(1, (int) Math.round(straightMeters * DETOUR_FACTOR / metersPerMinute) + fixedMinutes);
+    }
+
+    /**
+     * 各出行方式的耗时估算，一行一种，偏好方式用 👉 标出；超过 3 公里且未指定步行时不列步行
+     */
+    public static String describeOptions(double straightMeters, LocalTransport preferred) {
+        StringBuilder text = new StringBuilder();
+        for (LocalTransport transport : values()) {
+            if (transport == WALK && straightMeters > 3000 && preferred != WALK) {
+                continue;
+            }
+            text.append(transport == preferred ? "👉 " : "• ")
+                    .append(transport.label).append("：约")
+                    .append(Route.formatMinutes(transport.minutes(straightMeters))).append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * 根据用户描述解析出行方式，无法识别返回 null
+     */
+    public static LocalTransport fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String key = text.toLowerCase(Locale.ROOT);
+        if (key.contains("步行") || key.contains("walk")) {
+            return WALK;
+        }
+        if (key.contains("骑行") || key.contains("自行车") || key.contains("单车") || key.contains("cycl") || key.contains("bike")) {
+            return CYCLE;
+        }
+        if (key.contains("公交") || key.contains("地铁") || key.contains("公共交通") || key.contains("bus")
+                || key.contains("metro") || key.contains("subway") || key.contains("public")) {
+            return TRANSIT;
+        }
+        if (key.contains("驾") || key.contains("打车") || key.contains("出租") || key.contains("汽车")
+                || key.contains("car") || key.contains("taxi") || key.contains("driving")) {
+            return DRIVE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.List;
+
+/**
+ * 由若干城际交通段组成的完整路线
+ */
+public record Route(RouteMetric metric, List<RouteLeg> legs) {
+
+    public Route {
+        legs = List.copyOf(legs);
+    }
+
+    public int totalMinutes() {
+        return legs.stream().mapToInt(RouteLeg::minutes).sum();
+    }
+
+    public int totalCost() {
+        return legs.stream().mapToInt(RouteLeg::cost).sum();
+    }
+
+    public int totalKm() {
+        return legs.stream().mapToInt(RouteLeg::km).sum();
+    }
+
+    /**
+     * 按里程加权的平均风景评分
+     */
+    public double scenicScore() {
+        int km = totalKm();
+        if (km == 0) {
+            return 0;
+        }
+        return legs.stream().mapToDouble(leg -> (double) leg.scenic() * leg.km()).sum() / km;
+    }
+
+    /**
+     * 两条路线的交通段完全相同（不比较优化目标）
+     */
+    public boolean sameLegs(Route other) {
+        return other != null && legs.equals(other.legs);
+    }
+
+    /**
+     * 一行一段的路线明细
+     */
+    public String describe(String indent) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < legs.size(); i++) {
+            RouteLeg leg = legs.get(i);
+            text.append(indent).append(i + 1).append(". ")
+                    .append(leg.from()).append(" → ").append(leg.to())
+                    .append("｜").append(leg.mode().getLabel())
+                    .append("｜").append(formatMinutes(leg.minutes()))
+                    .append("｜¥").append(leg.cost())
+                    .append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * 一行汇总：总耗时、费用、里程
+     */
+    public String summary() {
+        return "总耗时" + formatMinutes(totalMinutes()) + " | 费用约¥" + totalCost() + " | 全程约" + totalKm() + "公里";
+    }
+
+    public static String formatMinutes(int minutes) {
+        if (minutes < 60) {
+            return minutes + "分钟";
+        }
+        int hours = minutes / 60;
+        int rest = minutes % 60;
+        return rest == 0 ? hours + "小时" : hours + "小时" + rest + "分钟";
+    }
+}
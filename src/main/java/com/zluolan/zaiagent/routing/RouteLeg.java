@@ -0,0 +1,11 @@
+package com.zluolan.zaiagent.routing;
+
+/**
+ * 路线中的一段城际交通
+ *
+ * @param minutes 耗时（分钟，含候车、值机等）
+ * @param cost    参考费用（元）
+ * @param scenic  沿途风景评分 0-10
+ */
+public record RouteLeg(String from, String to, TransportMode mode, int minutes, int cost, int km, int scenic) {
+}
@@ -0,0 +1,74 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路线优化目标
+ */
+public enum RouteMetric {
+
+    FASTEST("最快", "⚡"),
+    CHEAPEST("最省钱", "💰"),
+    SCENIC("风景优美", "🌄");
+
+    private final String label;
+    private final String icon;
+
+    RouteMetric(String label, String icon) {
+        this.label = label;
+        this.icon = icon;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    /**
+     * 单条边的权重，均不小于对应的耗时或费用，保证 A* 启发函数可采纳
+     * 省钱方案以耗时作次要因素，风景方案对风景评分低的边按耗时加罚
+     */
+    double weight(int minutes, int cost, int scenic) {
+        return switch (this) {
+            case FASTEST -> minutes;
+            case CHEAPEST -> cost + minutes / 100.0;
+            case SCENIC -> minutes * (2.0 - scenic / 10.0);
+        };
+    }
+
+    /**
+     * 根据偏好描述返回优化目标，偏好的目标排在最前，其余按默认顺序跟随
+     */
+    public static List<RouteMetric> ordered(String preferences) {
+        List<RouteMetric> metrics = new ArrayList<>(List.of(values()));
+        RouteMetric preferred = fromText(preferences);
+        if (preferred != null) {
+            metrics.remove(preferred);
+            metrics.add(0, preferred);
+        }
+        return metrics;
+    }
+
+    /**
+     * 解析偏好描述，无法识别返回 null
+     */
+    public static RouteMetric fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        if (text.contains("快") || text.contains("时间")) {
+            return FASTEST;
+        }
+        if (text.contains("省") || text.contains("便宜") || text.contains("经济")) {
+            return CHEAPEST;
+        }
+        if (text.contains("风景") || text.contains("景色") || text.contains("风光")) {
+            return SCENIC;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,270 @@
+package com.zluolan.zaiagent.routing;
+
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 离线城际路线引擎
+ * 在 {@link TransportNetwork} 上用 A* 搜索按最快、最省钱、风景优美三种目标求最优路线，不依赖任何外部接口。
+ * 启发函数为“到终点的大圆距离 × 允许交通方式中每米最小权重”，每米最小权重在构建时按边的大圆距离预先算好，
+ * 由三角不等式可知启发值不超过真实代价，因此结果与 Dijkstra 完全一致。
+ * 起终点可以是城市名、车站别名，也可以是 POI 名称（通过 {@link PoiCatalog} 映射到所在城市）。
+ * 网络规模较小，单次查询的暂存数组按需分配，实例无状态，可在多线程间共享。
+ */
+public final class RoutingEngine {
+
+    private static final int MODE_COUNT = TransportMode.values().length;
+
+    private final TransportNetwork network;
+    private final PoiCatalog poiCatalog;
+
+    /**
+     * 每种目标、每种交通方式下“边权重 / 起终点大圆距离”的最小值
+     */
+    private final double[][] minWeightPerMeter;
+
+    public RoutingEngine(TransportNetwork network, PoiCatalog poiCatalog) {
+        this.network = network;
+        this.poiCatalog = poiCatalog;
+        RouteMetric[] metrics = RouteMetric.values();
+        this.minWeightPerMeter = new double[metrics.length][MODE_COUNT];
+        for (double[] row : minWeightPerMeter) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int e = 0; e < network.edgeCount(); e++) {
+            double meters = nodeDistance(network.edgeFrom(e), network.edgeTo(e));
+            if (meters <= 0) {
+                continue;
+            }
+            for (RouteMetric metric : metrics) {
+                double perMeter = weight(e, metric) / meters;
+                int mode = network.edgeMode(e);
+                minWeightPerMeter[metric.ordinal()][mode] = Math.min(minWeightPerMeter[metric.ordinal()][mode], perMeter);
+            }
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final RoutingEngine INSTANCE =
+                new RoutingEngine(TransportNetwork.getDefault(), PoiCatalog.getDefault());
+    }
+
+    /**
+     * 获取基于内置交通网络和 POI 目录的共享实例
+     */
+    public static RoutingEngine getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public TransportNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * 把地点描述解析为网络节点：POI 名称映射到所在城市，其次按城市名和车站别名匹配
+     *
+     * @return 节点编号，无法识别返回 -1
+     */
+    public int resolveNode(String text) {
+        if (text == null || text.isBlank()) {
+            return -1;
+        }
+        PoiAnchor anchor = poiCatalog != null ? poiCatalog.resolveAnchor(text, -1) : null;
+        if (anchor != null && anchor.poiId() >= 0) {
+            int node = network.nodeId(poiCatalog.cityName(anchor.cityId()));
+            if (node >= 0) {
+                return node;
+            }
+        }
+        int node = network.nodeId(text);
+        if (node < 0 && anchor != null && anchor.cityId() >= 0) {
+            node = network.nodeId(poiCatalog.cityName(anchor.cityId()));
+        }
+        return node;
+    }
+
+    /**
+     * 依次经过各站点的路线，相邻重复站点会被合并
+     *
+     * @param stops 节点编号序列，至少两个
+     * @return 路线，任一段不可达时返回 null
+     */
+    public Route route(List<Integer> stops, Set<TransportMode> modes, RouteMetric metric) {
+        int modeMask = modeMask(modes);
+        List<RouteLeg> legs = new ArrayList<>();
+        for (int i = 1; i < stops.size(); i++) {
+            int from = stops.get(i - 1);
+            int to = stops.get(i);
+            if (from == to) {
+                continue;
+            }
+            List<RouteLeg> segment = search(from, to, modeMask, metric, true);
+            if (segment == null) {
+                return null;
+            }
+            legs.addAll(segment);
+        }
+        return new Route(metric, legs);
+    }
+
+    /**
+     * 两点间的最优路线，不可达时返回 null
+     */
+    public Route route(int from, int to, Set<TransportMode> modes, RouteMetric metric) {
+        return route(List.of(from, to), modes, metric);
+    }
+
+    /**
+     * A* 搜索（useHeuristic 为 false 时退化为 Dijkstra，供测试对照）
+     *
+     * @return 交通段列表，不可达时返回 null
+     */
+    List<RouteLeg> search(int source, int target, int modeMask, RouteMetric metric, boolean useHeuristic) {
+        int n = network.nodeCount();
+        double[] best = new double[n];
+        int[] viaEdge = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        Arrays.fill(viaEdge, -1);
+        double factor = useHeuristic ? heuristicFactor(metric, modeMask) : 0;
+
+        MinHeap heap = new MinHeap(n);
+        best[source] = 0;
+        heap.push(factor * nodeDistance(source, target), source);
+        while (!heap.isEmpty()) {
+            int node = heap.pop();
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            if (node == target) {
+                break;
+            }
+            for (int e = network.firstEdge(node), end = network.edgeEnd(node); e < end; e++) {
+                if ((modeMask & (1 << network.edgeMode(e))) == 0) {
+                    continue;
+                }
+                int next = network.edgeTo(e);
+                if (settled[next]) {
+                    continue;
+                }
+                double distance = best[node] + weight(e, metric);
+                if (distance < best[next]) {
+                    best[next] = distance;
+                    viaEdge[next] = e;
+                    heap.push(distance + factor * nodeDistance(next, target), next);
+                }
+            }
+        }
+        if (!settled[target]) {
+            return null;
+        }
+
+        List<RouteLeg> legs = new ArrayList<>();
+        for (int node = target; node != source; node = network.edgeFrom(viaEdge[node])) {
+            int e = viaEdge[node];
+            legs.add(new RouteLeg(network.nodeName(network.edgeFrom(e)), network.nodeName(network.edgeTo(e)),
+                    TransportMode.values()[network.edgeMode(e)], network.edgeMinutes(e),
+                    network.edgeCost(e), network.edgeKm(e), network.edgeScenic(e)));
+        }
+        Collections.reverse(legs);
+        return legs;
+    }
+
+    static int modeMask(Set<TransportMode> modes) {
+        int mask = 0;
+        for (TransportMode mode : modes) {
+            mask |= 1 << mode.ordinal();
+        }
+        return mask;
+    }
+
+    private double heuristicFactor(RouteMetric metric, int modeMask) {
+        double factor = Double.POSITIVE_INFINITY;
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            if ((modeMask & (1 << mode)) != 0) {
+                factor = Math.min(factor, minWeightPerMeter[metric.ordinal()][mode]);
+            }
+        }
+        return Double.isInfinite(factor) ? 0 : factor;
+    }
+
+    private double weight(int edge, RouteMetric metric) {
+        return metric.weight(network.edgeMinutes(edge), network.edgeCost(edge), network.edgeScenic(edge));
+    }
+
+    private double nodeDistance(int a, int b) {
+        return GeoMath.distanceMeters(network.latitude(a), network.longitude(a),
+                network.latitude(b), network.longitude(b));
+    }
+
+    /**
+     * 以原始数组实现的二叉最小堆，允许同一节点重复入堆（出堆时按已确定跳过）
+     */
+    private static final class MinHeap {
+        private double[] keys;
+        private int[] nodes;
+        private int size;
+
+        MinHeap(int capacity) {
+            keys = new double[Math.max(4, capacity)];
+            nodes = new int[keys.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(double key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            double key = keys[size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            return top;
+        }
+    }
+}
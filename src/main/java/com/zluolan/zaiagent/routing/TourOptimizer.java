@@ -0,0 +1,274 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 多点游览排序求解器
+ * 先用最近邻法构造初始顺序（考虑等待开门和错过关门的代价），
+ * 再交替执行 2-opt（翻转一段）和 Or-opt（把 1-3 个连续站点正向或反向挪到别处）局部改进；
+ * 到达局部最优后用双桥扰动重新出发（迭代局部搜索），直到连续多次无改进或时间预算耗尽。
+ * 目标为“全程耗时 + 迟到分钟数 × 惩罚系数”，即优先保证赶得上开放时间，其次让全程最短。
+ * 每次候选移动都整体重算一遍日程，时间窗下仍然准确，几十个站点时单轮改进也只需毫秒级。
+ */
+public final class TourOptimizer {
+
+    /**
+     * 默认求解时间预算
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 200;
+
+    /**
+     * 每迟到一分钟折算的代价（分钟）
+     */
+    private static final long LATE_PENALTY = 1000;
+
+    /**
+     * Or-opt 一次移动的最大连续站点数
+     */
+    private static final int MAX_SEGMENT = 3;
+
+    /**
+     * 连续无改进的扰动次数上限
+     */
+    private static final int MAX_IDLE_KICKS = 30;
+
+    private TourOptimizer() {
+    }
+
+    /**
+     * 求解访问顺序
+     *
+     * @param budgetMillis 求解时间预算，耗尽时返回当前最优解
+     */
+    public static TourPlan solve(TourProblem problem, long budgetMillis) {
+        int n = problem.size();
+        if (n == 0) {
+            return new TourPlan(new int[0], new int[0], new int[0], 0, problem.startMinute(), 0, false);
+        }
+        Search search = new Search(problem, System.nanoTime() + Math.max(0, budgetMillis) * 1_000_000L);
+        int[] best = search.improve(nearestNeighbour(problem));
+        long bestCost = cost(problem, best);
+        // 局部最优后用双桥扰动跳出，连续若干次无改进即停止，不必耗尽预算
+        Random random = new Random(n);
+        int idle = 0;
+        while (!search.exhausted && search.last >= 4 && idle < MAX_IDLE_KICKS) {
+            int[] tour = search.improve(doubleBridge(best, search.last, random));
+            long value = cost(problem, tour);
+            if (value < bestCost) {
+                best = tour;
+                bestCost = value;
+                idle = 0;
+            } else {
+                idle++;
+            }
+        }
+        return schedule(problem, best, search.exhausted);
+    }
+
+    /**
+     * 局部搜索状态：时间预算与可调整的位置范围 [1, last]
+     */
+    private static final class Search {
+        private final TourProblem problem;
+        private final long deadline;
+        private final int last;
+        private boolean exhausted;
+
+        Search(TourProblem problem, long deadline) {
+            this.problem = problem;
+            this.deadline = deadline;
+            int n = problem.size();
+            this.last = problem.fixedEnd() && n > 1 ? n - 2 : n - 1;
+        }
+
+        /**
+         * 交替执行 2-opt 和 Or-opt，接受任何改进，直到无法改进或预算耗尽
+         */
+        int[] improve(int[] start) {
+            int n = start.length;
+            int[] tour = start.clone();
+            int[] candidate = new int[n];
+            long best = cost(problem, tour);
+            boolean improved = true;
+            while (improved && !exhausted) {
+                improved = false;
+                for (int i = 1; i < last && !exhausted; i++) {
+                    for (int j = i + 1; j <= last; j++) {
+                        if (System.nanoTime() > deadline) {
+                            exhausted = true;
+                            break;
+                        }
+                        reverse(tour, candidate, i, j);
+                        long value = cost(problem, candidate);
+                        if (value < best) {
+                            best = value;
+                            int[] swap = tour;
+                            tour = candidate;
+                            candidate = swap;
+                            improved = true;
+                        }
+                    }
+                }
+                for (int length = 1; length <= MAX_SEGMENT && !exhausted; length++) {
+                    for (int i = 1; i + length - 1 <= last && !exhausted; i++) {
+                        for (int k = 1; k <= last - length + 1 && !exhausted; k++) {
+                            if (k == i) {
+                                continue;
+                            }
+                            for (int flip = 0; flip < 2; flip++) {
+                                if (System.nanoTime() > deadline) {
+                                    exhausted = true;
+                                    break;
+                                }
+                                move(tour, candidate, i, length, k, flip == 1);
+                                long value = cost(problem, candidate);
+                                if (value < best) {
+                                    best = value;
+                                    int[] swap = tour;
+                                    tour = candidate;
+                                    candidate = swap;
+                                    improved = true;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return tour;
+        }
+    }
+
+    /**
+     * 双桥扰动：把 [1, last] 切成 A B C D 四段后重排为 A C B D
+     */
+    private static int[] doubleBridge(int[] tour, int last, Random random) {
+        int[] cuts = new int[3];
+        for (int i = 0; i < 3; i++) {
+            cuts[i] = 2 + random.nextInt(last - 1);
+        }
+        Arrays.sort(cuts);
+        int p1 = cuts[0];
+        int p2 = Math.max(cuts[1], p1);
+        int p3 = Math.max(cuts[2], p2);
+        int[] result = tour.clone();
+        int write = p1;
+        for (int i = p2; i < p3; i++) {
+            result[write++] = tour[i];
+        }
+        for (int i = p1; i < p2; i++) {
+            result[write++] = tour[i];
+        }
+        return result;
+    }
+
+    /**
+     * 最近邻构造：每一步选“交通 + 等待 + 迟到惩罚”最小的下一站
+     */
+    static int[] nearestNeighbour(TourProblem problem) {
+        int n = problem.size();
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        int movableEnd = problem.fixedEnd() && n > 1 ? n - 1 : n;
+        if (movableEnd < n) {
+            tour[n - 1] = n - 1;
+            visited[n - 1] = true;
+        }
+        visited[0] = true;
+        int current = 0;
+        long time = problem.startMinute() + problem.service(0);
+        for (int position = 1; position < movableEnd; position++) {
+            int next = -1;
+            long nextScore = Long.MAX_VALUE;
+            long nextDeparture = 0;
+            for (int stop = 0; stop < n; stop++) {
+                if (visited[stop]) {
+                    continue;
+                }
+                long start = Math.max(time + problem.travel(current, stop), problem.open(stop));
+                long score = start - time + LATE_PENALTY * late(problem, stop, start);
+                if (score < nextScore) {
+                    next = stop;
+                    nextScore = score;
+                    nextDeparture = start + problem.service(stop);
+                }
+            }
+            tour[position] = next;
+            visited[next] = true;
+            current = next;
+            time = nextDeparture;
+        }
+        return tour;
+    }
+
+    /**
+     * 目标函数：全程耗时 + 迟到惩罚
+     */
+    static long cost(TourProblem problem, int[] tour) {
+        long time = problem.startMinute() + problem.service(tour[0]);
+        long late = 0;
+        for (int i = 1; i < tour.length; i++) {
+            long start = Math.max(time + problem.travel(tour[i - 1], tour[i]), problem.open(tour[i]));
+            late += late(problem, tour[i], start);
+            time = start + problem.service(tour[i]);
+        }
+        return time - problem.startMinute() + LATE_PENALTY * late;
+    }
+
+    private static long late(TourProblem problem, int stop, long start) {
+        int close = problem.close(stop);
+        return close < 0 ? 0 : Math.max(0, start + problem.service(stop) - close);
+    }
+
+    private static TourPlan schedule(TourProblem problem, int[] tour, boolean exhausted) {
+        int n = tour.length;
+        int[] arrive = new int[n];
+        int[] start = new int[n];
+        int travel = 0;
+        int late = 0;
+        arrive[0] = problem.startMinute();
+        start[0] = problem.startMinute();
+        int time = start[0] + problem.service(tour[0]);
+        for (int i = 1; i < n; i++) {
+            int leg = problem.travel(tour[i - 1], tour[i]);
+            travel += leg;
+            arrive[i] = time + leg;
+            start[i] = Math.max(arrive[i], problem.open(tour[i]));
+            late += (int) late(problem, tour[i], start[i]);
+            time = start[i] + problem.service(tour[i]);
+        }
+        return new TourPlan(tour.clone(), arrive, start, travel, time, late, exhausted);
+    }
+
+    /**
+     * 把 tour 中 [i, j] 段翻转后写入 target
+     */
+    private static void reverse(int[] tour, int[] target, int i, int j) {
+        System.arraycopy(tour, 0, target, 0, tour.length);
+        for (int a = i, b = j; a < b; a++, b--) {
+            target[a] = tour[b];
+            target[b] = tour[a];
+        }
+    }
+
+    /**
+     * 把 tour 中从 i 开始的 length 个站点移出，插入剩余序列的第 k 个位置，结果写入 target
+     */
+    private static void move(int[] tour, int[] target, int i, int length, int k, boolean flip) {
+        int n = tour.length;
+        int write = 0;
+        int read = 0;
+        while (write < n) {
+            if (write == k) {
+                for (int s = 0; s < length; s++) {
+                    target[write++] = tour[flip ? i + length - 1 - s : i + s];
+                }
+                continue;
+            }
+            if (read == i) {
+                read += length;
+            }
+            target[write++] = tour[read++];
+        }
+    }
+}
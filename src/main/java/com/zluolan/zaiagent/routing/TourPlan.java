@@ -0,0 +1,29 @@
+package com.zluolan.zaiagent.routing;
+
+/**
+ * 游览排序结果
+ *
+ * @param order           访问顺序（站点编号）
+ * @param arriveMinutes   按 order 顺序的到达时间（当天分钟数）
+ * @param startMinutes    按 order 顺序的开始游玩时间，早于开门时会等待
+ * @param travelMinutes   总交通耗时
+ * @param finishMinute    最后一站游玩结束的时间
+ * @param lateMinutes     超出关门时间的分钟数合计，0 表示全部赶得上
+ * @param budgetExhausted 是否因求解时间预算耗尽而提前结束
+ */
+public record TourPlan(int[] order,
+                       int[] arriveMinutes,
+                       int[] startMinutes,
+                       int travelMinutes,
+                       int finishMinute,
+                       int lateMinutes,
+                       boolean budgetExhausted) {
+
+    /**
+     * 第 position 个访问的站点是否晚于关门时间结束
+     */
+    public boolean isLate(TourProblem problem, int position) {
+        int stop = order[position];
+        return problem.close(stop) >= 0 && startMinutes[position] + problem.service(stop) > problem.close(stop);
+    }
+}
@@ -0,0 +1,109 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.Arrays;
+
+/**
+ * 多点游览排序问题
+ * 站点 0 为固定起点；fixedEnd 为 true 时最后一个站点为固定终点，其余站点顺序可调整。
+ * 时间均为当天分钟数，可选为每个站点设置游玩时长和开放时间窗。
+ */
+public final class TourProblem {
+
+    private final int size;
+    private final int[][] travelMinutes;
+    private int[] serviceMinutes;
+    private int[] openMinutes;
+    private int[] closeMinutes;
+    private int startMinute = 9 * 60;
+    private boolean fixedEnd;
+
+    private TourProblem(int[][] travelMinutes) {
+        this.size = travelMinutes.length;
+        for (int[] row : travelMinutes) {
+            if (row.length != size) {
+                throw new IllegalArgumentException("交通耗时矩阵必须为方阵");
+            }
+        }
+        this.travelMinutes = travelMinutes;
+        this.serviceMinutes = new int[size];
+        this.openMinutes = new int[size];
+        this.closeMinutes = new int[size];
+        Arrays.fill(openMinutes, -1);
+        Arrays.fill(closeMinutes, -1);
+    }
+
+    /**
+     * @param travelMinutes 站点间交通耗时（分钟），travelMinutes[i][j] 为 i 到 j
+     */
+    public static TourProblem of(int[][] travelMinutes) {
+        return new TourProblem(travelMinutes);
+    }
+
+    /**
+     * 各站点游玩时长（分钟）
+     */
+    public TourProblem service(int[] serviceMinutes) {
+        this.serviceMinutes = requireSize(serviceMinutes);
+        return this;
+    }
+
+    /**
+     * 各站点开放时间窗，-1 表示不限
+     */
+    public TourProblem windows(int[] openMinutes, int[] closeMinutes) {
+        this.openMinutes = requireSize(openMinutes);
+        this.closeMinutes = requireSize(closeMinutes);
+        return this;
+    }
+
+    /**
+     * 出发时间（当天分钟数），默认 09:00
+     */
+    public TourProblem startMinute(int startMinute) {
+        this.startMinute = startMinute;
+        return this;
+    }
+
+    /**
+     * 最后一个站点是否为固定终点
+     */
+    public TourProblem fixedEnd(boolean fixedEnd) {
+        this.fixedEnd = fixedEnd;
+        return this;
+    }
+
+    private int[] requireSize(int[] values) {
+        if (values.length != size) {
+            throw new IllegalArgumentException("数组长度应为" + size + "，实际为" + values.length);
+        }
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int travel(int from, int to) {
+        return travelMinutes[from][to];
+    }
+
+    public int service(int stop) {
+        return serviceMinutes[stop];
+    }
+
+    public int open(int stop) {
+        return openMinutes[stop];
+    }
+
+    public int close(int stop) {
+        return closeMinutes[stop];
+    }
+
+    public int startMinute() {
+        return startMinute;
+    }
+
+    public boolean fixedEnd() {
+        return fixedEnd;
+    }
+}
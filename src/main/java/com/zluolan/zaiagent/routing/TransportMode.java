@@ -0,0 +1,63 @@
+package com.zluolan.zaiagent.routing;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 城际交通方式
+ */
+public enum TransportMode {
+
+    RAIL("高铁"),
+    FLIGHT("航班"),
+    ROAD("自驾"),
+    BUS("大巴");
+
+    private final String label;
+
+    TransportMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 根据用户描述解析可用的交通方式，无法识别时返回全部方式
+     * 如“飞机”只走航班，“公共交通”可选高铁和大巴
+     */
+    public static Set<TransportMode> fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return EnumSet.allOf(TransportMode.class);
+        }
+        String key = text.toLowerCase(Locale.ROOT);
+        if (key.contains("飞机") || key.contains("航班") || key.contains("flight") || key.contains("airplane")) {
+            return EnumSet.of(FLIGHT);
+        }
+        if (key.contains("高铁") || key.contains("火车") || key.contains("动车")
+                || key.contains("train") || key.contains("railway")) {
+            return EnumSet.of(RAIL);
+        }
+        if (key.contains("自驾") || key.contains("驾车") || key.contains("开车")
+                || key.contains("汽车") || key.contains("car") || key.contains("driving")) {
+            return EnumSet.of(ROAD);
+        }
+        if (key.contains("大巴") || key.contains("客车") || key.contains("巴士")) {
+            return EnumSet.of(BUS);
+        }
+        if (key.contains("公共交通") || key.contains("公交") || key.contains("public") || key.contains("bus")) {
+            return EnumSet.of(RAIL, BUS);
+        }
+        return EnumSet.allOf(TransportMode.class);
+    }
+
+    static TransportMode fromCode(String code) {
+        try {
+            return valueOf(code.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的交通方式: " + code);
+        }
+    }
+}
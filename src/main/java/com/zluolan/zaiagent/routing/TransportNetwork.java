@@ -0,0 +1,318 @@
+package com.zluolan.zaiagent.routing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 城际交通网络
+ * 从打包的数据文件（routing/transport-network.tsv）加载城市节点和高铁、航班、自驾、大巴线路，
+ * 线路按双向边展开后以 CSR（压缩邻接表）形式存入原始数组，同一节点的出边在内存中连续。
+ * 实例构建后只读，可在多线程间共享。
+ */
+@Slf4j
+public final class TransportNetwork {
+
+    public static final String DEFAULT_RESOURCE = "routing/transport-network.tsv";
+
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Map<String, Integer> lookup;
+    private final String[] matchKeys;
+    private final int[] matchIds;
+
+    // CSR：节点 i 的出边为 [firstEdge[i], firstEdge[i + 1])
+    private final int[] firstEdge;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final byte[] edgeModes;
+    private final int[] edgeMinutes;
+    private final int[] edgeCosts;
+    private final int[] edgeKms;
+    private final byte[] edgeScenic;
+
+    private TransportNetwork(Loader loader) {
+        int n = loader.names.size();
+        this.names = loader.names.toArray(new String[0]);
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = loader.latitudes.get(i);
+            longitudes[i] = loader.longitudes.get(i);
+        }
+        this.lookup = Map.copyOf(loader.lookup);
+
+        // 包含匹配时优先最长的名称，避免短别名抢先命中
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(lookup.entrySet());
+        entries.removeIf(entry -> entry.getKey().length() < 2);
+        entries.sort(Comparator.comparingInt((Map.Entry<String, Integer> entry) -> entry.getKey().length()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        this.matchKeys = new String[entries.size()];
+        this.matchIds = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            matchKeys[i] = entries.get(i).getKey();
+            matchIds[i] = entries.get(i).getValue();
+        }
+
+        // 每条线路展开为两条有向边，按起点计数排序
+        List<int[]> lines = loader.lines;
+        int m = lines.size() * 2;
+        this.firstEdge = new int[n + 1];
+        for (int[] line : lines) {
+            firstEdge[line[0] + 1]++;
+            firstEdge[line[1] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        this.edgeFrom = new int[m];
+        this.edgeTo = new int[m];
+        this.edgeModes = new byte[m];
+        this.edgeMinutes = new int[m];
+        this.edgeCosts = new int[m];
+        this.edgeKms = new int[m];
+        this.edgeScenic = new byte[m];
+        int[] cursor = Arrays.copyOf(firstEdge, n);
+        for (int[] line : lines) {
+            addEdge(cursor[line[0]]++, line[0], line[1], line);
+            addEdge(cursor[line[1]]++, line[1], line[0], line);
+        }
+    }
+
+    private void addEdge(int e, int from, int to, int[] line) {
+        edgeFrom[e] = from;
+        edgeTo[e] = to;
+        edgeModes[e] = (byte) line[2];
+        edgeMinutes[e] = line[3];
+        edgeCosts[e] = line[4];
+        edgeKms[e] = line[5];
+        edgeScenic[e] = (byte) line[6];
+    }
+
+    private static final class DefaultHolder {
+        private static final TransportNetwork INSTANCE = loadResource(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * 获取基于内置数据文件的共享实例（首次调用时加载）
+     */
+    public static TransportNetwork getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 从类路径加载交通网络
+     */
+    public static TransportNetwork loadResource(String resource) {
+        try (InputStream in = TransportNetwork.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("交通网络数据文件不存在: " + resource);
+            }
+            TransportNetwork network = load(in);
+            log.info("交通网络加载完成 - 来源: {}, 节点: {}, 有向边: {}",
+                    resource, network.nodeCount(), network.edgeCount());
+            return network;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取交通网络数据文件失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 从输入流加载交通网络，格式错误时抛出带行号的 {@link IllegalArgumentException}
+     */
+    public static TransportNetwork load(InputStream in) throws IOException {
+        Loader loader = new Loader();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                loader.accept(line.split("\t", -1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("交通网络数据第" + lineNumber + "行格式错误: " + e.getMessage(), e);
+            }
+        }
+        return new TransportNetwork(loader);
+    }
+
+    /**
+     * 按名称或别名查找节点，先精确匹配，再找文本中包含的最长名称，如“北京南站”“杭州东”
+     *
+     * @return 节点编号，无法识别返回 -1
+     */
+    public int nodeId(String text) {
+        if (text == null || text.isBlank()) {
+            return -1;
+        }
+        String key = normalize(text);
+        Integer exact = lookup.get(key);
+        if (exact != null) {
+            return exact;
+        }
+        // matchKeys 按长度降序，同长度时取在文本中出现最早的，如“上海南京路”解析为上海
+        int best = -1;
+        int bestIndex = Integer.MAX_VALUE;
+        for (int i = 0; i < matchKeys.length; i++) {
+            if (best >= 0 && matchKeys[i].length() < matchKeys[best].length()) {
+                break;
+            }
+            int index = key.indexOf(matchKeys[i]);
+            if (index >= 0 && index < bestIndex) {
+                best = i;
+                bestIndex = index;
+            }
+        }
+        return best >= 0 ? matchIds[best] : -1;
+    }
+
+    public int nodeCount() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return edgeTo.length;
+    }
+
+    public String nodeName(int node) {
+        return names[node];
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    int edgeEnd(int node) {
+        return firstEdge[node + 1];
+    }
+
+    int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    int edgeMode(int edge) {
+        return edgeModes[edge];
+    }
+
+    int edgeMinutes(int edge) {
+        return edgeMinutes[edge];
+    }
+
+    int edgeCost(int edge) {
+        return edgeCosts[edge];
+    }
+
+    int edgeKm(int edge) {
+        return edgeKms[edge];
+    }
+
+    int edgeScenic(int edge) {
+        return edgeScenic[edge];
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 解析期的可变暂存结构，构建完成后即丢弃
+     */
+    private static final class Loader {
+        private final List<String> names = new ArrayList<>();
+        private final List<Double> latitudes = new ArrayList<>();
+        private final List<Double> longitudes = new ArrayList<>();
+        private final Map<String, Integer> lookup = new HashMap<>();
+        private final List<int[]> lines = new ArrayList<>();
+
+        void accept(String[] fields) {
+            switch (fields[0]) {
+                case "@node" -> acceptNode(fields);
+                case "@edge" -> acceptEdge(fields);
+                default -> throw new IllegalArgumentException("未知的记录类型: " + fields[0]);
+            }
+        }
+
+        private void acceptNode(String[] fields) {
+            requireLength(fields, 5);
+            int id = names.size();
+            names.add(fields[1]);
+            latitudes.add(Double.parseDouble(fields[3]));
+            longitudes.add(Double.parseDouble(fields[4]));
+            register(normalize(fields[1]), id);
+            for (String alias : fields[2].split(",")) {
+                if (!alias.isBlank() && !"-".equals(alias)) {
+                    register(normalize(alias), id);
+                }
+            }
+        }
+
+        private void acceptEdge(String[] fields) {
+            requireLength(fields, 8);
+            int from = requireNode(fields[1]);
+            int to = requireNode(fields[2]);
+            if (from == to) {
+                throw new IllegalArgumentException("线路起终点相同: " + fields[1]);
+            }
+            int minutes = Integer.parseInt(fields[4]);
+            int cost = Integer.parseInt(fields[5]);
+            int km = Integer.parseInt(fields[6]);
+            int scenic = Integer.parseInt(fields[7]);
+            if (minutes <= 0 || cost < 0 || km <= 0) {
+                throw new IllegalArgumentException("耗时和里程应为正数，费用不能为负");
+            }
+            if (scenic < 0 || scenic > 10) {
+                throw new IllegalArgumentException("风景评分应在0-10之间: " + scenic);
+            }
+            lines.add(new int[]{from, to, TransportMode.fromCode(fields[3]).ordinal(), minutes, cost, km, scenic});
+        }
+
+        private int requireNode(String name) {
+            Integer id = lookup.get(normalize(name));
+            if (id == null) {
+                throw new IllegalArgumentException("未声明的节点: " + name);
+            }
+            return id;
+        }
+
+        private void register(String key, int id) {
+            Integer previous = lookup.putIfAbsent(key, id);
+            if (previous != null && previous != id) {
+                throw new IllegalArgumentException("节点名称重复: " + key);
+            }
+        }
+
+        private static void requireLength(String[] fields, int expected) {
+            if (fields.length != expected) {
+                throw new IllegalArgumentException("字段数应为" + expected + "，实际为" + fields.length);
+            }
+        }
+    }
+}
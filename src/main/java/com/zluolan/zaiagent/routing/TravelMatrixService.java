@@ -0,0 +1,195 @@
+package com.zluolan.zaiagent.routing;
+
+import com.zluolan.zaiagent.geo.DistanceMatrix;
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 同城距离 / 耗时矩阵服务
+ * 按城市一次性批量计算全部 POI 的两两距离，缓存最近使用的城市（LRU 淘汰），
+ * 缓存上限按全部矩阵的单元总数计算，POI 多的城市占用更多额度；单个城市超过上限时不缓存。
+ * 行程排序、酒店选址等需要成批距离的场景直接从缓存矩阵中取子矩阵，
+ * 包含坐标、城市中心等非 POI 地点或城市过大时现场批量计算；单对地点直接计算，不构建矩阵。
+ * 耗时由 {@link LocalTransport} 按距离换算。
+ */
+@Slf4j
+public final class TravelMatrixService {
+
+    /**
+     * 默认缓存的矩阵单元总数，约占 32MB
+     */
+    public static final long DEFAULT_MAX_CELLS = 4_000_000;
+
+    private final PoiCatalog poiCatalog;
+    private final long maxCells;
+    private final Map<Integer, CityMatrix> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedCells;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxCells 缓存矩阵的单元总数上限
+     */
+    public TravelMatrixService(PoiCatalog poiCatalog, long maxCells) {
+        if (maxCells <= 0) {
+            throw new IllegalArgumentException("缓存容量必须为正数: " + maxCells);
+        }
+        this.poiCatalog = poiCatalog;
+        this.maxCells = Math.min(maxCells, DistanceMatrix.MAX_CELLS);
+    }
+
+    private static final class DefaultHolder {
+        private static final TravelMatrixService INSTANCE =
+                new TravelMatrixService(PoiCatalog.getDefault(), DEFAULT_MAX_CELLS);
+    }
+
+    /**
+     * 获取基于内置 POI 目录的共享实例
+     */
+    public static TravelMatrixService getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * 城市内全部 POI 的距离矩阵，未命中缓存时计算；超过缓存上限的城市计算后不缓存
+     */
+    public CityMatrix cityMatrix(int cityId) {
+        CityMatrix cached = cached(cityId);
+        return cached != null ? cached : computeCityMatrix(cityId, cityPoiIds(cityId));
+    }
+
+    private CityMatrix cached(int cityId) {
+        synchronized (cache) {
+            CityMatrix cached = cache.get(cityId);
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return cached;
+        }
+    }
+
+    private int[] cityPoiIds(int cityId) {
+        List<Poi> pois = new ArrayList<>();
+        for (PoiKind kind : PoiKind.values()) {
+            pois.addAll(poiCatalog.query(PoiQuery.of(kind).city(cityId).limit(0)));
+        }
+        return pois.stream().mapToInt(Poi::id).sorted().toArray();
+    }
+
+    private boolean cacheable(int[] ids) {
+        return (long) ids.length * ids.length <= maxCells;
+    }
+
+    /**
+     * 计算城市矩阵，不超过缓存上限时放入缓存并按 LRU 淘汰到总单元数回到上限以内
+     */
+    private CityMatrix computeCityMatrix(int cityId, int[] ids) {
+        long begin = System.nanoTime();
+        double[] latitudes = new double[ids.length];
+        double[] longitudes = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Poi poi = poiCatalog.get(ids[i]);
+            latitudes[i] = poi.latitude();
+            longitudes[i] = poi.longitude();
+        }
+        CityMatrix matrix = new CityMatrix(cityId, ids, DistanceMatrix.compute(latitudes, longitudes));
+        log.info("城市距离矩阵计算完成 - 城市: {}, POI: {}, 耗时: {}µs",
+                poiCatalog.cityName(cityId), ids.length, (System.nanoTime() - begin) / 1000);
+        if (!cacheable(ids)) {
+            return matrix;
+        }
+        // 计算放在锁外，并发未命中时可能重复计算同一城市，结果相同，不影响正确性
+        synchronized (cache) {
+            CityMatrix previous = cache.put(cityId, matrix);
+            cachedCells += matrix.distances().cells() - (previous != null ? previous.distances().cells() : 0);
+            Iterator<CityMatrix> eldest = cache.values().iterator();
+            while (cachedCells > maxCells && eldest.hasNext()) {
+                CityMatrix evicted = eldest.next();
+                if (evicted != matrix) {
+                    eldest.remove();
+                    cachedCells -= evicted.distances().cells();
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * 任意地点之间的距离矩阵：全部是同一城市的 POI 时取缓存矩阵的子矩阵，否则现场批量计算
+     */
+    public DistanceMatrix distances(List<PoiAnchor> anchors) {
+        int n = anchors.size();
+        int cityId = n > 0 ? anchors.get(0).cityId() : -1;
+        boolean samePoiCity = cityId >= 0;
+        for (PoiAnchor anchor : anchors) {
+            samePoiCity &= anchor.poiId() >= 0 && anchor.cityId() == cityId;
+        }
+        CityMatrix city = null;
+        if (samePoiCity) {
+            city = cached(cityId);
+            if (city == null) {
+                int[] ids = cityPoiIds(cityId);
+                // 城市过大时只计算用到的地点
+                city = cacheable(ids) ? computeCityMatrix(cityId, ids) : null;
+            }
+        }
+        if (city != null) {
+            int[] rows = new int[n];
+            for (int i = 0; i < n; i++) {
+                rows[i] = city.indexOf(anchors.get(i).poiId());
+            }
+            return city.distances().subMatrix(rows);
+        }
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = anchors.get(i).latitude();
+            longitudes[i] = anchors.get(i).longitude();
+        }
+        return DistanceMatrix.compute(latitudes, longitudes);
+    }
+
+    /**
+     * 任意地点之间按指定出行方式估算的耗时矩阵（分钟）
+     */
+    public int[][] minutes(List<PoiAnchor> anchors, LocalTransport transport) {
+        DistanceMatrix distances = distances(anchors);
+        int n = distances.size();
+        int[][] minutes = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                minutes[i][j] = i == j ? 0 : transport.minutes(distances.meters(i, j));
+            }
+        }
+        return minutes;
+    }
+
+    /**
+     * 两地之间的距离（米），直接计算，不构建也不查询城市矩阵
+     */
+    public double distanceMeters(PoiAnchor from, PoiAnchor to) {
+        return GeoMath.distanceMeters(from.latitude(), from.longitude(), to.latitude(), to.longitude());
+    }
+
+    /**
+     * 缓存命中率统计，如：命中 12 / 未命中 3 / 缓存城市 3 / 缓存单元 52000
+     */
+    public String stats() {
+        synchronized (cache) {
+            return "命中 " + hits + " / 未命中 " + misses + " / 缓存城市 " + cache.size() + " / 缓存单元 " + cachedCells;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.zluolan.zaiagent.toolcall;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * 对工具输出做编码的 ToolCallback 装饰器，工具定义和元数据原样透传
+ */
+final class EncodingToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final ToolOutputEncoder encoder;
+
+    EncodingToolCallback(ToolCallback delegate, ToolOutputEncoder encoder) {
+        this.delegate = delegate;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return encoder.encode(getToolDefinition().name(), toolInput, delegate.call(toolInput));
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return encoder.encode(getToolDefinition().name(), toolInput, delegate.call(toolInput, toolContext),
+                conversationId(toolContext));
+    }
+
+    private static String conversationId(ToolContext toolContext) {
+        if (toolContext == null || toolContext.getContext() == null) {
+            return null;
+        }
+        Object id = toolContext.getContext().get(ToolPayloadStore.CONVERSATION_ID);
+        return id != null ? id.toString() : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.zluolan.zaiagent.toolcall;
+
+import java.util.Locale;
+
+/**
+ * 工具输出编码模式
+ */
+public enum OutputMode {
+
+    /**
+     * 工具原样输出，带表情、分隔线和执行结果前缀
+     */
+    RICH,
+    /**
+     * 紧凑输出：去掉装饰和重复字段，按工具截断，减少回填到模型上下文的 token
+     */
+    COMPACT;
+
+    /**
+     * 解析配置值，无法识别时返回 null
+     */
+    public static OutputMode fromText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return switch (text.trim().toLowerCase(Locale.ROOT)) {
+            case "rich", "full", "完整" -> RICH;
+            case "compact", "紧凑" -> COMPACT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package com.zluolan.zaiagent.toolcall;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 双通道拆分时留给模型的结构化摘要
+ * 只有列表、表格类的结果才拆分：模型只需要数量和范围就能回答，逐条内容由界面展示。
+ * 摘要从紧凑结果中提取，提取不到关键数据时返回 null，此时不拆分
+ */
+public enum PayloadSummary {
+
+    /**
+     * 酒店列表：家数、每晚价格范围和前几家的名称
+     */
+    HOTELS {
+        @Override
+        String summarize(String compact) {
+            List<String> names = new ArrayList<>();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int count = 0;
+            for (String line : compact.split("\n")) {
+                Matcher item = LIST_ITEM.matcher(line);
+                if (item.matches() && names.size() < MAX_NAMES) {
+                    names.add(item.group(1));
+                }
+                if (!line.contains("/晚")) {
+                    continue;
+                }
+                Matcher price = PRICE.matcher(line);
+                boolean priced = false;
+                while (price.find()) {
+                    priced = true;
+                    min = Math.min(min, Long.parseLong(price.group(1)));
+                    max = Math.max(max, Long.parseLong(price.group(price.group(2) != null ? 2 : 1)));
+                }
+                if (priced) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder("酒店: ").append(count).append("家，每晚¥").append(range(min, max));
+            if (!names.isEmpty()) {
+                text.append("，前").append(names.size()).append("家: ").append(String.join("、", names));
+            }
+            return text.toString();
+        }
+    },
+
+    /**
+     * 天气预报：天数、最低和最高气温、出现的天气
+     */
+    WEATHER {
+        @Override
+        String summarize(String compact) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int days = 0;
+            Set<String> conditions = new LinkedHashSet<>();
+            for (String line : compact.split("\n")) {
+                if (DATE_LINE.matcher(line).find() || TABLE_ROW.matcher(line).matches()) {
+                    days++;
+                }
+                Matcher temperature = TEMPERATURE.matcher(line);
+                while (temperature.find()) {
+                    long value = Long.parseLong(temperature.group(1));
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                Matcher condition = CONDITION.matcher(line);
+                if (condition.find()) {
+                    conditions.add(condition.group(1));
+                }
+            }
+            if (min > max) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder("天气: ");
+            if (days > 0) {
+                text.append(days).append("天，");
+            }
+            text.append("气温").append(min).append("~").append(max).append("°C");
+            if (!conditions.isEmpty()) {
+                text.append("，").append(String.join("、", conditions));
+            }
+            return text.toString();
+        }
+    },
+
+    /**
+     * 路线方案：前几段路线、耗时和费用范围
+     */
+    ROUTE {
+        @Override
+        String summarize(String compact) {
+            List<String> legs = new ArrayList<>();
+            long minMinutes = Long.MAX_VALUE;
+            long maxMinutes = Long.MIN_VALUE;
+            for (String line : compact.split("\n")) {
+                if (line.contains("→") && legs.size() < MAX_NAMES) {
+                    legs.add(line.replaceFirst("^\\d+\\.\\s*", ""));
+                }
+                Matcher duration = DURATION.matcher(line);
+                while (duration.find()) {
+                    long minutes = duration.group(1) != null
+                            ? Long.parseLong(duration.group(1)) * 60
+                            + (duration.group(2) != null ? Long.parseLong(duration.group(2)) : 0)
+                            : Long.parseLong(duration.group(3));
+                    minMinutes = Math.min(minMinutes, minutes);
+                    maxMinutes = Math.max(maxMinutes, minutes);
+                }
+            }
+            if (legs.isEmpty() || minMinutes > maxMinutes) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder("路线: ").append(String.join("；", legs))
+                    .append("\n耗时").append(minutes(minMinutes));
+            if (maxMinutes != minMinutes) {
+                text.append("~").append(minutes(maxMinutes));
+            }
+            long[] prices = numbers(compact, PRICE);
+            if (prices != null) {
+                text.append("，费用¥").append(range(prices[0], prices[1]));
+            }
+            return text.toString();
+        }
+    };
+
+    /**
+     * 默认拆分的工具：酒店列表、天气表格和路线方案。
+     * 行程、网页正文、搜索结果和预算需要模型逐条推理，不在其中
+     */
+    public static final Map<String, PayloadSummary> DEFAULT_TOOLS = Map.of(
+            "searchHotels", HOTELS,
+            "amapSearchHotels", HOTELS,
+            "smartHotelRecommendation", HOTELS,
+            "queryWeather", WEATHER,
+            "amapQueryWeather", WEATHER,
+            "smartWeatherQuery", WEATHER,
+            "queryWeatherBatch", WEATHER,
+            "planRoute", ROUTE,
+            "amapPlanRoute", ROUTE,
+            "smartRoutePlanning", ROUTE);
+
+    private static final int MAX_NAMES = 3;
+    private static final Pattern LIST_ITEM = Pattern.compile("^\\d+\\.\\s*(.+?)(?:\\s+-\\s+.*)?$");
+    private static final Pattern PRICE = Pattern.compile("¥\\s*(\\d+)(?:\\s*[-~]\\s*(\\d+))?");
+    private static final Pattern DATE_LINE = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}\\s*\\(");
+    private static final Pattern TABLE_ROW = Pattern.compile("^\\|(?!\\s*城市\\s*\\|)(?!-).*\\|$");
+    private static final Pattern TEMPERATURE = Pattern.compile("(-?\\d+)\\s*(?=(?:°C|℃|\\s*[~～]\\s*-?\\d+\\s*°C))");
+    private static final Pattern CONDITION = Pattern.compile("天气[：:]\\s*([^\\s|，,]+)");
+    private static final Pattern DURATION = Pattern.compile("(\\d+)小时(?:(\\d+)分钟)?|(\\d+)分钟");
+    private static final Pattern NOTICE = Pattern.compile("^(?:\\[DEGRADED]|ERROR:|说明[：:]|雨雪天[：:]).*");
+
+    /**
+     * 留给模型的摘要：降级、错误等提示行原样保留，后接结构化数据；提取不到关键数据时返回 null
+     */
+    public String summary(String compact) {
+        String digest = summarize(compact);
+        if (digest == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String line : compact.split("\n")) {
+            if (NOTICE.matcher(line).matches()) {
+                text.append(line).append('\n');
+            }
+        }
+        return text.append(digest).toString();
+    }
+
+    abstract String summarize(String compact);
+
+    private static String range(long min, long max) {
+        return min == max ? String.valueOf(min) : min + "-" + max;
+    }
+
+    private static String minutes(long minutes) {
+        if (minutes < 60) {
+            return minutes + "分钟";
+        }
+        return minutes / 60 + "小时" + (minutes % 60 > 0 ? minutes % 60 + "分钟" : "");
+    }
+
+    private static long[] numbers(String text, Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        while (matcher.find()) {
+            min = Math.min(min, Long.parseLong(matcher.group(1)));
+            max = Math.max(max, Long.parseLong(matcher.group(matcher.group(2) != null ? 2 : 1)));
+        }
+        return min <= max ? new long[]{min, max} : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.zluolan.zaiagent.toolcall;
+
+/**
+ * token 数估算
+ * 按常见中文模型分词器的经验值近似：汉字及全角符号约 1 个 token，英文单词和数字约每 4 个字符 1 个 token，
+ * 表情等补充平面字符约 2 个 token，ASCII 标点各 1 个，空白不计。只用于比较编码前后的差异，不追求精确。
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static long estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        long tokens = 0;
+        int wordLength = 0;
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint < 0x80 && Character.isLetterOrDigit(codePoint)) {
+                wordLength++;
+                continue;
+            }
+            tokens += (wordLength + 3) / 4;
+            wordLength = 0;
+            if (Character.isWhitespace(codePoint)) {
+                continue;
+            }
+            tokens += Character.isSupplementaryCodePoint(codePoint) ? 2 : 1;
+        }
+        return tokens + (wordLength + 3) / 4;
+    }
+}
@@ -0,0 +1,359 @@
+package com.zluolan.zaiagent.toolcall;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONNull;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 工具输出编码器
+ * 包装在 ToolCallback 链上，对所有工具的返回文本统一处理。紧凑模式下：
+ * <ul>
+ *     <li>方法工具的返回值会被序列化为 JSON 字符串，先还原为原文</li>
+ *     <li>去掉 [TOOL_EXECUTION_RESULT] 前缀和“xx成功！”提示行，失败信息保留</li>
+ *     <li>JSON 结果展开为“键: 值”，去掉空值、时间戳、状态字段，以及与调用参数相同的回显字段</li>
+ *     <li>去掉表情、分隔线和空行，“=== 标题 ===”改为“标题:”；只合并同一段内紧挨着的重复行，
+ *     多天预报、多段路线中各条记录相同的内容（如两天都是“天气：晴”）保持原样</li>
+ *     <li>按工具限制输出长度，在行边界截断</li>
+ * </ul>
+ * 配置了 {@link ToolPayloadStore} 且调用时带有会话 ID 时启用双通道，只对 {@link PayloadSummary#DEFAULT_TOOLS}
+ * 中的列表、表格类工具生效：紧凑结果仍然较长的，完整原文存入结果通道推送给界面，模型只收到结构化摘要
+ * （数量、价格或气温范围）和结果 ID。行程、网页正文、搜索结果、预算等需要模型逐条推理的结果从不拆分。
+ * 每次调用都按工具累计编码前后的估算 token 数，富文本模式同样统计（此时节省为 0）。
+ */
+@Slf4j
+public final class ToolOutputEncoder {
+
+    /**
+     * 默认单次输出字符上限
+     */
+    public static final int DEFAULT_MAX_CHARS = 2000;
+
+    /**
+     * 网页正文、综合规划等长输出工具的默认上限
+     */
+    private static final Map<String, Integer> DEFAULT_TOOL_MAX_CHARS = Map.of(
+            "readWebPages", 4000,
+            "searchAndReadWebPages", 4000,
+            "comprehensiveTravelPlanning", 3000);
+
+    /**
+     * 紧凑结果超过该 token 数才拆分到结果通道
+     */
+    public static final int DEFAULT_PAYLOAD_MIN_TOKENS = 120;
+
+    private static final Pattern RESULT_PREFIX =
+            Pattern.compile("^\\[TOOL_EXECUTION_RESULT](?:\\[([A-Z_]+)])?[ \\t]*");
+    private static final Pattern SUCCESS_HEADER = Pattern.compile(".*(成功|完成)[！!]?$");
+    private static final Pattern RULE_LINE = Pattern.compile("^[=\\-─━_*·•~]{3,}$");
+    private static final Pattern SECTION_LINE = Pattern.compile("^=+\\s*(.+?)\\s*=+$");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\u3000]+");
+    private static final Set<String> NOISE_KEYS = Set.of("status", "searchTime", "timestamp", "queryTime");
+
+    private final int defaultMaxChars;
+    private final Map<String, Integer> toolMaxChars;
+    private final ToolOutputStats stats = new ToolOutputStats();
+    private final ToolPayloadStore payloadStore;
+    private final int payloadMinTokens;
+    private volatile OutputMode mode;
+
+    /**
+     * @param toolMaxChars 按工具名称覆盖的字符上限，未列出的工具使用内置默认值或 defaultMaxChars
+     */
+    public ToolOutputEncoder(OutputMode mode, int defaultMaxChars, Map<String, Integer> toolMaxChars) {
+        this(mode, defaultMaxChars, toolMaxChars, null, DEFAULT_PAYLOAD_MIN_TOKENS);
+    }
+
+    /**
+     * @param payloadStore     完整结果的旁路通道，为 null 时不拆分
+     * @param payloadMinTokens 紧凑结果超过该 token 数才拆分
+     */
+    public ToolOutputEncoder(OutputMode mode, int defaultMaxChars, Map<String, Integer> toolMaxChars,
+                             ToolPayloadStore payloadStore, int payloadMinTokens) {
+        if (defaultMaxChars <= 0) {
+            throw new IllegalArgumentException("输出字符上限必须为正数: " + defaultMaxChars);
+        }
+        this.mode = mode != null ? mode : OutputMode.COMPACT;
+        this.defaultMaxChars = defaultMaxChars;
+        this.toolMaxChars = new HashMap<>(DEFAULT_TOOL_MAX_CHARS);
+        this.toolMaxChars.putAll(toolMaxChars);
+        this.payloadStore = payloadStore;
+        this.payloadMinTokens = Math.max(0, payloadMinTokens);
+    }
+
+    public ToolOutputEncoder(OutputMode mode) {
+        this(mode, DEFAULT_MAX_CHARS, Map.of());
+    }
+
+    /**
+     * 解析“工具名=字符数”逗号分隔的配置，格式错误的项忽略
+     */
+    public static Map<String, Integer> parseToolMaxChars(String text) {
+        Map<String, Integer> result = new HashMap<>();
+        if (text == null || text.isBlank()) {
+            return result;
+        }
+        for (String item : text.split(",")) {
+            String[] pair = item.split("=", 2);
+            if (pair.length == 2) {
+                try {
+                    int chars = Integer.parseInt(pair[1].trim());
+                    if (chars > 0) {
+                        result.put(pair[0].trim(), chars);
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无效的工具输出上限配置: {}", item);
+                }
+            }
+        }
+        return result;
+    }
+
+    public OutputMode getMode() {
+        return mode;
+    }
+
+    public void setMode(OutputMode mode) {
+        if (mode != null && mode != this.mode) {
+            log.info("工具输出编码模式切换: {} -> {}", this.mode, mode);
+            this.mode = mode;
+        }
+    }
+
+    public ToolOutputStats getStats() {
+        return stats;
+    }
+
+    public ToolPayloadStore getPayloadStore() {
+        return payloadStore;
+    }
+
+    /**
+     * 包装工具回调，已包装过的不重复包装
+     */
+    public ToolCallback wrap(ToolCallback callback) {
+        if (callback instanceof EncodingToolCallback) {
+            return callback;
+        }
+        return new EncodingToolCallback(callback, this);
+    }
+
+    public ToolCallback[] wrapAll(ToolCallback[] callbacks) {
+        return Arrays.stream(callbacks).map(this::wrap).toArray(ToolCallback[]::new);
+    }
+
+    /**
+     * 按当前模式编码一次工具输出并记录统计
+     *
+     * @param toolInput 模型传入的调用参数（JSON），用于识别回显字段
+     */
+    public String encode(String toolName, String toolInput, String raw) {
+        return encode(toolName, toolInput, raw, null);
+    }
+
+    /**
+     * 按当前模式编码一次工具输出并记录统计，带会话 ID 时较长的结果走双通道
+     *
+     * @param conversationId 会话 ID，为 null 时只做单通道编码
+     */
+    public String encode(String toolName, String toolInput, String raw, String conversationId) {
+        if (raw == null) {
+            return null;
+        }
+        String encoded = mode == OutputMode.COMPACT
+                ? compact(toolInput, raw, toolMaxChars.getOrDefault(toolName, defaultMaxChars))
+                : raw;
+        PayloadSummary summary = PayloadSummary.DEFAULT_TOOLS.get(toolName);
+        if (mode == OutputMode.COMPACT && payloadStore != null && conversationId != null && summary != null
+                && TokenEstimator.estimate(encoded) > payloadMinTokens) {
+            String digest = summary.summary(encoded);
+            if (digest != null) {
+                ToolPayload payload = payloadStore.save(conversationId, toolName, unquote(raw.strip()));
+                encoded = reference(digest, payload.id());
+            }
+        }
+        long rawTokens = TokenEstimator.estimate(raw);
+        long encodedTokens = TokenEstimator.estimate(encoded);
+        stats.record(toolName, rawTokens, encodedTokens);
+        log.debug("工具输出编码 - 工具: {}, 模式: {}, token: {} -> {}", toolName, mode, rawTokens, encodedTokens);
+        return encoded;
+    }
+
+    /**
+     * 紧凑编码，与模式和统计无关，便于单独测试
+     */
+    static String compact(String toolInput, String raw, int maxChars) {
+        String body = unquote(raw.strip());
+        String header = null;
+        Matcher prefix = RESULT_PREFIX.matcher(body);
+        if (prefix.find()) {
+            String tag = prefix.group(1);
+            body = body.substring(prefix.end());
+            int newline = body.indexOf('\n');
+            String firstLine = (newline >= 0 ? body.substring(0, newline) : body).strip();
+            body = newline >= 0 ? body.substring(newline + 1) : "";
+            boolean success = tag != null ? tag.endsWith("_SUCCESS") : SUCCESS_HEADER.matcher(firstLine).matches();
+            if (!success && !firstLine.isEmpty()) {
+                header = tag != null && tag.endsWith("_ERROR") ? "ERROR: " + firstLine : firstLine;
+            }
+        }
+
+        Lines out = new Lines();
+        if (header != null) {
+            appendLines(out, header);
+        }
+        String trimmed = body.strip();
+        JSONObject json = trimmed.startsWith("{") ? parseObject(trimmed) : null;
+        if (json != null) {
+            appendJson(out, json, parseObject(toolInput));
+        } else {
+            appendLines(out, body);
+        }
+        return truncate(out.toString().stripTrailing(), maxChars);
+    }
+
+    private static void appendJson(Lines out, JSONObject json, JSONObject arguments) {
+        for (Map.Entry<String, Object> entry : json.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == null || value instanceof JSONNull || NOISE_KEYS.contains(key)) {
+                continue;
+            }
+            String text = value instanceof JSONObject || value instanceof JSONArray
+                    ? JSONUtil.toJsonStr(value) : String.valueOf(value);
+            if (text.isBlank()) {
+                continue;
+            }
+            // 与调用参数相同的字段只是回显，模型已经知道
+            if (arguments != null && arguments.containsKey(key) && text.equals(arguments.getStr(key))) {
+                continue;
+            }
+            // 每个字段单独成段，不与其他字段合并
+            out.boundary();
+            if (text.indexOf('\n') >= 0) {
+                out.add(key + ":");
+                appendLines(out, text);
+            } else {
+                appendLines(out, key + ": " + text);
+            }
+        }
+    }
+
+    /**
+     * 逐行去装饰后追加，跳过空行和分隔线；空行和分隔线同时是段落边界
+     */
+    private static void appendLines(Lines out, String text) {
+        for (String line : text.split("\n")) {
+            String cleaned = cleanLine(line);
+            if (cleaned.isEmpty() || RULE_LINE.matcher(cleaned).matches()) {
+                out.boundary();
+                continue;
+            }
+            Matcher section = SECTION_LINE.matcher(cleaned);
+            if (section.matches()) {
+                cleaned = section.group(1) + ":";
+            }
+            out.add(cleaned);
+        }
+    }
+
+    private static String cleanLine(String line) {
+        StringBuilder text = new StringBuilder(line.length());
+        line.codePoints()
+                .filter(codePoint -> !isDecoration(codePoint))
+                .forEach(text::appendCodePoint);
+        String cleaned = SPACES.matcher(text).replaceAll(" ").strip();
+        if (cleaned.startsWith("• ")) {
+            cleaned = "- " + cleaned.substring(2);
+        }
+        return cleaned;
+    }
+
+    /**
+     * 表情和装饰符号：补充平面的表情、杂项符号与装饰符号区块、变体选择符和零宽连接符
+     */
+    private static boolean isDecoration(int codePoint) {
+        return (codePoint >= 0x1F000 && codePoint <= 0x1FAFF)
+                || (codePoint >= 0x2600 && codePoint <= 0x27BF)
+                || (codePoint >= 0x2B00 && codePoint <= 0x2BFF)
+                || codePoint == 0xFE0F || codePoint == 0x200D;
+    }
+
+    /**
+     * 双通道时留给模型的内容：结构化摘要加结果 ID
+     */
+    static String reference(String summary, String payloadId) {
+        return summary + "\n[结果ID: " + payloadId + "] 完整结果已通过结果通道发送到用户界面，"
+                + "回答时引用结果ID并概括要点，不必逐条复述。";
+    }
+
+    private static String truncate(String text, int maxChars) {
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        int cut = text.lastIndexOf('\n', maxChars);
+        if (cut < maxChars / 2) {
+            cut = maxChars;
+        }
+        return text.substring(0, cut) + "\n…(已截断，原文" + text.length() + "字)";
+    }
+
+    /**
+     * 还原 JSON 字符串字面量（"..."），不是字面量时原样返回
+     */
+    private static String unquote(String text) {
+        if (text.length() < 2 || text.charAt(0) != '"' || text.charAt(text.length() - 1) != '"') {
+            return text;
+        }
+        try {
+            return JSONUtil.parseArray("[" + text + "]").getStr(0).strip();
+        } catch (RuntimeException e) {
+            return text;
+        }
+    }
+
+    /**
+     * 紧凑输出的行缓冲，只跳过同一段内与上一行相同的行
+     */
+    private static final class Lines {
+
+        private final StringBuilder out = new StringBuilder();
+        private String previous;
+
+        void add(String line) {
+            if (!line.equals(previous)) {
+                out.append(line).append('\n');
+            }
+            previous = line;
+        }
+
+        void boundary() {
+            previous = null;
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+    }
+
+    private static JSONObject parseObject(String text) {
+        if (text == null || text.isBlank() || !JSONUtil.isTypeJSONObject(text.strip())) {
+            return null;
+        }
+        try {
+            return JSONUtil.parseObj(text);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.zluolan.zaiagent.toolcall;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按工具统计编码前后的 token 数，多线程累加无锁
+ */
+public final class ToolOutputStats {
+
+    /**
+     * 单个工具的统计
+     *
+     * @param rawTokens     工具原始输出的估算 token 数
+     * @param encodedTokens 实际回填给模型的估算 token 数
+     */
+    public record Entry(String tool, long calls, long rawTokens, long encodedTokens) {
+
+        public long savedTokens() {
+            return rawTokens - encodedTokens;
+        }
+
+        /**
+         * 节省比例（0-1）
+         */
+        public double savedRatio() {
+            return rawTokens > 0 ? (double) savedTokens() / rawTokens : 0;
+        }
+    }
+
+    private static final class Counter {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rawTokens = new LongAdder();
+        private final LongAdder encodedTokens = new LongAdder();
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    void record(String tool, long rawTokens, long encodedTokens) {
+        Counter counter = counters.computeIfAbsent(tool, key -> new Counter());
+        counter.calls.increment();
+        counter.rawTokens.add(rawTokens);
+        counter.encodedTokens.add(encodedTokens);
+    }
+
+    /**
+     * 各工具的统计，按节省的 token 数降序
+     */
+    public List<Entry> snapshot() {
+        return counters.entrySet().stream()
+                .map(entry -> new Entry(entry.getKey(), entry.getValue().calls.sum(),
+                        entry.getValue().rawTokens.sum(), entry.getValue().encodedTokens.sum()))
+                .sorted(Comparator.comparingLong(Entry::savedTokens).reversed())
+                .toList();
+    }
+
+    /**
+     * 统计文本，一行一个工具，如：searchHotels 调用3次，节省412/980 token（42%）
+     */
+    public String report() {
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : snapshot()) {
+            text.append(entry.tool()).append(" 调用").append(entry.calls()).append("次，节省")
+                    .append(entry.savedTokens()).append("/").append(entry.rawTokens()).append(" token（")
+                    .append(Math.round(entry.savedRatio() * 100)).append("%）\n");
+        }
+        return text.toString();
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.zluolan.zaiagent.toolcall;
+
+/**
+ * 直接发给客户端的完整工具结果
+ *
+ * @param id             结果 ID，模型回答中以此引用
+ * @param conversationId 所属会话
+ * @param content        工具原始输出（含表情和排版，供界面展示）
+ * @param createdAt      生成时间（毫秒）
+ */
+public record ToolPayload(String id, String conversationId, String tool, String content, long createdAt) {
+}
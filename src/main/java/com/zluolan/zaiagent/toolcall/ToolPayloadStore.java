@@ -0,0 +1,120 @@
+package com.zluolan.zaiagent.toolcall;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 工具结果旁路通道
+ * 双通道模式下模型只收到摘要和结果 ID，完整结果保存在这里：
+ * 正在进行的流式会话通过 {@link #stream(String)} 实时收到，之后也可以按 ID 取回。
+ * 按最近使用保留固定数量的结果，超出后淘汰最久未访问的。
+ * 结果 ID 是随机生成的，按 ID 取回时还要求会话 ID 一致，拿不到其他会话的结果。
+ */
+@Slf4j
+public final class ToolPayloadStore {
+
+    /**
+     * ToolContext 中会话 ID 的键，调用方放入后该次对话的工具结果走双通道
+     */
+    public static final String CONVERSATION_ID = "toolPayloadConversationId";
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Map<String, ToolPayload> payloads;
+    private final Map<String, List<Consumer<ToolPayload>>> listeners = new ConcurrentHashMap<>();
+
+    public ToolPayloadStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须为正数: " + capacity);
+        }
+        this.capacity = capacity;
+        this.payloads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ToolPayload> eldest) {
+                return size() > ToolPayloadStore.this.capacity;
+            }
+        };
+    }
+
+    public ToolPayloadStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 保存一条完整结果并推送给该会话的订阅者
+     */
+    public ToolPayload save(String conversationId, String tool, String content) {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        ToolPayload payload = new ToolPayload(id, conversationId, tool, content, System.currentTimeMillis());
+        synchronized (payloads) {
+            payloads.put(id, payload);
+        }
+        List<Consumer<ToolPayload>> subscribers = listeners.get(conversationId);
+        if (subscribers != null) {
+            for (Consumer<ToolPayload> subscriber : subscribers) {
+                try {
+                    subscriber.accept(payload);
+                } catch (RuntimeException e) {
+                    log.warn("推送工具结果失败 - 会话: {}, 结果: {}", conversationId, id, e);
+                }
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * 按 ID 取回结果，已淘汰、不存在或不属于该会话时返回 null
+     */
+    public ToolPayload get(String id, String conversationId) {
+        ToolPayload payload;
+        synchronized (payloads) {
+            payload = payloads.get(id);
+        }
+        return payload != null && payload.conversationId().equals(conversationId) ? payload : null;
+    }
+
+    /**
+     * 会话中仍保留的结果，按生成顺序
+     */
+    public List<ToolPayload> list(String conversationId) {
+        List<ToolPayload> result = new ArrayList<>();
+        synchronized (payloads) {
+            for (ToolPayload payload : payloads.values()) {
+                if (payload.conversationId().equals(conversationId)) {
+                    result.add(payload);
+                }
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.createdAt(), b.createdAt()));
+        return result;
+    }
+
+    /**
+     * 订阅会话中之后产生的结果，取消订阅时自动注销
+     */
+    public Flux<ToolPayload> stream(String conversationId) {
+        return Flux.create(sink -> {
+            Consumer<ToolPayload> listener = sink::next;
+            // 在同一次原子操作内登记，避免并发的注销把刚取到的列表从表中移除
+            listeners.compute(conversationId, (key, subscribers) -> {
+                List<Consumer<ToolPayload>> list = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+                list.add(listener);
+                return list;
+            });
+            sink.onDispose(() -> listeners.computeIfPresent(conversationId, (key, subscribers) -> {
+                subscribers.remove(listener);
+                return subscribers.isEmpty() ? null : subscribers;
+            }));
+        });
+    }
+}
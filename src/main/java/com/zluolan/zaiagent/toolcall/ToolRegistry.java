@@ -0,0 +1,263 @@
+package com.zluolan.zaiagent.toolcall;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 工具注册表
+ * 按名称索引全部工具回调，并记录每个工具的启用状态和权重。当前状态是一份不可变快照，
+ * 读取（每次对话取工具列表、按名称查找工具）只读一次原子引用，无锁；
+ * 启停、调权重和重新加载都是写时复制，生成新快照后原子替换，正在进行的对话不受影响。
+ * 提供给模型的工具按权重从高到低排列，同权重保持注册顺序。
+ */
+@Slf4j
+public final class ToolRegistry implements ToolCallbackResolver {
+
+    /**
+     * 未配置权重的工具的默认权重
+     */
+    public static final int DEFAULT_WEIGHT = 0;
+
+    /**
+     * 单个工具的状态
+     *
+     * @param name     工具名称
+     * @param enabled  是否提供给模型
+     * @param weight   权重，越大在工具列表中越靠前
+     * @param callback 工具回调
+     */
+    public record ToolEntry(String name, boolean enabled, int weight, @JsonIgnore ToolCallback callback) {
+
+        private ToolEntry with(boolean enabled, int weight) {
+            return new ToolEntry(name, enabled, weight, callback);
+        }
+    }
+
+    /**
+     * 不可变快照
+     *
+     * @param version 版本号，每次变更加一
+     * @param entries 按注册顺序排列的全部工具
+     * @param enabled 启用的工具回调，按权重排好序
+     */
+    private record Snapshot(long version, Map<String, ToolEntry> entries, List<ToolCallback> enabled) {
+
+        static Snapshot of(long version, List<ToolEntry> entries) {
+            Map<String, ToolEntry> index = new LinkedHashMap<>();
+            for (ToolEntry entry : entries) {
+                index.put(entry.name(), entry);
+            }
+            // List.sort 是稳定排序，同权重保持注册顺序
+            List<ToolEntry> ordered = new ArrayList<>(entries);
+            ordered.sort(Comparator.comparingInt(ToolEntry::weight).reversed());
+            List<ToolCallback> enabled = ordered.stream()
+                    .filter(ToolEntry::enabled)
+                    .map(ToolEntry::callback)
+                    .toList();
+            return new Snapshot(version, Collections.unmodifiableMap(index), enabled);
+        }
+    }
+
+    private final Supplier<? extends List<ToolCallback>> source;
+    private final Set<String> disabledByDefault;
+    private final Map<String, Integer> defaultWeights;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.of(0, List.of()));
+
+    public ToolRegistry(Supplier<? extends List<ToolCallback>> source) {
+        this(source, Set.of(), Map.of());
+    }
+
+    /**
+     * @param source            工具回调来源，创建时和每次 {@link #reload()} 时读取
+     * @param disabledByDefault 首次出现时默认停用的工具名称
+     * @param defaultWeights    首次出现时的权重，未列出的工具为 {@link #DEFAULT_WEIGHT}
+     */
+    public ToolRegistry(Supplier<? extends List<ToolCallback>> source, Set<String> disabledByDefault,
+                        Map<String, Integer> defaultWeights) {
+        this.source = source;
+        this.disabledByDefault = Set.copyOf(disabledByDefault);
+        this.defaultWeights = Map.copyOf(defaultWeights);
+        reload();
+    }
+
+    /**
+     * 当前启用的工具，按权重排序，每次对话开始时读取
+     */
+    public List<ToolCallback> tools() {
+        return current.get().enabled();
+    }
+
+    /**
+     * 按名称查找启用的工具，未注册或已停用时返回 null
+     */
+    @Override
+    public ToolCallback resolve(String toolName) {
+        ToolEntry entry = current.get().entries().get(toolName);
+        return entry != null && entry.enabled() ? entry.callback() : null;
+    }
+
+    /**
+     * 执行工具调用时按名称查找
+     * 工具在模型选择之后、执行之前被停用，或模型给出了未注册的名称时，返回只回报错误的回调，
+     * 模型下一步可以改用其他工具，智能体不会因此进入错误状态
+     */
+    public ToolCallback resolveForExecution(String toolName) {
+        ToolCallback callback = resolve(toolName);
+        if (callback != null) {
+            return callback;
+        }
+        boolean registered = current.get().entries().containsKey(toolName);
+        return new UnavailableTool(toolName, registered ? "已停用" : "未注册");
+    }
+
+    /**
+     * 全部工具的状态（含停用的），按注册顺序
+     */
+    public List<ToolEntry> entries() {
+        return List.copyOf(current.get().entries().values());
+    }
+
+    public ToolEntry get(String name) {
+        return current.get().entries().get(name);
+    }
+
+    /**
+     * 快照版本号，每次启停、调权重或重新加载后加一
+     */
+    public long version() {
+        return current.get().version();
+    }
+
+    /**
+     * 修改工具的启用状态和权重
+     *
+     * @param enabled 为 null 时不修改
+     * @param weight  为 null 时不修改
+     * @return 修改后的状态
+     * @throws IllegalArgumentException 工具未注册时抛出
+     */
+    public ToolEntry update(String name, Boolean enabled, Integer weight) {
+        Snapshot updated = current.updateAndGet(snapshot -> {
+            ToolEntry entry = snapshot.entries().get(name);
+            if (entry == null) {
+                throw new IllegalArgumentException("工具未注册: " + name);
+            }
+            ToolEntry changed = entry.with(enabled != null ? enabled : entry.enabled(),
+                    weight != null ? weight : entry.weight());
+            if (changed.equals(entry)) {
+                return snapshot;
+            }
+            List<ToolEntry> entries = new ArrayList<>(snapshot.entries().values());
+            entries.replaceAll(e -> e.name().equals(name) ? changed : e);
+            return Snapshot.of(snapshot.version() + 1, entries);
+        });
+        ToolEntry entry = updated.entries().get(name);
+        log.info("工具状态更新 - 工具: {}, 启用: {}, 权重: {}, 版本: {}", name, entry.enabled(), entry.weight(),
+                updated.version());
+        return entry;
+    }
+
+    /**
+     * 重新读取工具来源，已有工具保留启用状态和权重，新工具使用默认配置，已移除的工具不再可用
+     *
+     * @return 新快照中的工具数量
+     * @throws IllegalStateException 工具名称重复时抛出，此时保留原快照
+     */
+    public int reload() {
+        List<ToolCallback> callbacks = source.get();
+        Set<String> names = new HashSet<>();
+        for (ToolCallback callback : callbacks) {
+            if (!names.add(callback.getToolDefinition().name())) {
+                throw new IllegalStateException("工具名重复: " + callback.getToolDefinition().name());
+            }
+        }
+        Snapshot reloaded = current.updateAndGet(snapshot -> {
+            List<ToolEntry> entries = new ArrayList<>(callbacks.size());
+            for (ToolCallback callback : callbacks) {
+                String name = callback.getToolDefinition().name();
+                ToolEntry previous = snapshot.entries().get(name);
+                entries.add(previous != null
+                        ? new ToolEntry(name, previous.enabled(), previous.weight(), callback)
+                        : new ToolEntry(name, !disabledByDefault.contains(name),
+                        defaultWeights.getOrDefault(name, DEFAULT_WEIGHT), callback));
+            }
+            return Snapshot.of(snapshot.version() + 1, entries);
+        });
+        log.info("工具注册表加载完成 - 工具: {}, 启用: {}, 版本: {}", reloaded.entries().size(),
+                reloaded.enabled().size(), reloaded.version());
+        return reloaded.entries().size();
+    }
+
+    /**
+     * 不可用工具的占位回调，调用时只返回错误说明
+     */
+    private record UnavailableTool(String name, String reason) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder()
+                    .name(name)
+                    .description("不可用的工具")
+                    .inputSchema("{\"type\":\"object\",\"properties\":{}}")
+                    .build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            log.warn("调用了不可用的工具 - 工具: {}, 原因: {}", name, reason);
+            return "[TOOL_EXECUTION_RESULT] 工具调用失败: 工具 " + name + " " + reason + "，请改用其他可用工具";
+        }
+    }
+
+    /**
+     * 解析逗号分隔的工具名称，如 "webSearch,searchAndReadWebPages"
+     */
+    public static Set<String> parseNames(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null || text.isBlank()) {
+            return result;
+        }
+        for (String item : text.split(",")) {
+            if (!item.isBlank()) {
+                result.add(item.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解析权重配置，格式为 "工具名=权重,工具名=权重"，无效项忽略
+     */
+    public static Map<String, Integer> parseWeights(String text) {
+        Map<String, Integer> result = new HashMap<>();
+        if (text == null || text.isBlank()) {
+            return result;
+        }
+        for (String item : text.split(",")) {
+            String[] pair = item.split("=", 2);
+            if (pair.length == 2) {
+                try {
+                    result.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无效的工具权重配置: {}", item);
+                }
+            }
+        }
+        return result;
+    }
+}
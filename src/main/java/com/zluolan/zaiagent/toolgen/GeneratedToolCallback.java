@@ -0,0 +1,81 @@
+package com.zluolan.zaiagent.toolgen;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.util.json.JsonParser;
+
+/**
+ * 编译期生成的工具回调的基类
+ * 工具定义（含参数的 JSON Schema）由 ToolCallbackProcessor 在编译期算好，子类按参数名直接调用目标方法，
+ * 启动时不再反射扫描 @Tool 方法、生成 Schema，调用时也不经过反射和类型推断。
+ * 参数校验、结果序列化和异常包装与 Spring AI 的 MethodToolCallback 一致，两者可以互换。
+ */
+public abstract class GeneratedToolCallback implements ToolCallback {
+
+    /**
+     * 无返回值的工具方法的调用结果
+     */
+    protected static final Object VOID = new Object();
+
+    private static final String VOID_RESULT = JsonParser.toJson("Done");
+
+    private final ToolDefinition toolDefinition;
+    private final ToolMetadata toolMetadata;
+    private final boolean acceptsToolContext;
+
+    protected GeneratedToolCallback(ToolDefinition toolDefinition, ToolMetadata toolMetadata,
+                                    boolean acceptsToolContext) {
+        this.toolDefinition = toolDefinition;
+        this.toolMetadata = toolMetadata;
+        this.acceptsToolContext = acceptsToolContext;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return toolDefinition;
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return toolMetadata;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        if (toolInput == null || toolInput.isBlank()) {
+            throw new IllegalArgumentException("toolInput cannot be null or empty");
+        }
+        if (acceptsToolContext && (toolContext == null || toolContext.getContext() == null
+                || toolContext.getContext().isEmpty())) {
+            throw new IllegalArgumentException("ToolContext is required by the method as an argument");
+        }
+        ToolArguments arguments = ToolArguments.parse(toolInput);
+        Object result;
+        try {
+            result = invoke(arguments, toolContext);
+        } catch (Exception e) {
+            throw new ToolExecutionException(toolDefinition, e);
+        }
+        return result == VOID ? VOID_RESULT : JsonParser.toJson(result);
+    }
+
+    /**
+     * 取出参数并调用工具方法
+     *
+     * @return 方法返回值，无返回值的方法返回 {@link #VOID}
+     */
+    protected abstract Object invoke(ToolArguments arguments, ToolContext toolContext) throws Exception;
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + toolDefinition.name() + "]";
+    }
+}
@@ -0,0 +1,122 @@
+package com.zluolan.zaiagent.toolgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.ai.util.json.JsonParser;
+
+/**
+ * 工具调用参数
+ * 模型给出的参数只解析一次成 JSON 树，生成的回调按参数名和声明类型直接取值。
+ * 取值规则与 Spring AI 的反射绑定一致：缺失或为 null 时包装类型返回 null，
+ * 数值和布尔值也接受字符串形式（模型常把数字写成 "3"）。
+ */
+public final class ToolArguments {
+
+    private final JsonNode root;
+
+    private ToolArguments(JsonNode root) {
+        this.root = root;
+    }
+
+    /**
+     * 解析模型给出的参数 JSON
+     *
+     * @throws IllegalArgumentException 不是 JSON 对象时抛出
+     */
+    public static ToolArguments parse(String toolInput) {
+        JsonNode root;
+        try {
+            root = JsonParser.getObjectMapper().readTree(toolInput);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("工具参数不是合法的JSON: " + toolInput, e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("工具参数必须是JSON对象: " + toolInput);
+        }
+        return new ToolArguments(root);
+    }
+
+    public boolean has(String name) {
+        return value(name) != null;
+    }
+
+    public String getString(String name) {
+        JsonNode value = value(name);
+        if (value == null) {
+            return null;
+        }
+        return value.isTextual() ? value.asText() : value.toString();
+    }
+
+    public Integer getInteger(String name) {
+        JsonNode value = value(name);
+        if (value == null) {
+            return null;
+        }
+        return value.isNumber() ? Integer.valueOf(value.intValue()) : Integer.valueOf(Integer.parseInt(text(value)));
+    }
+
+    public Long getLong(String name) {
+        JsonNode value = value(name);
+        if (value == null) {
+            return null;
+        }
+        return value.isNumber() ? Long.valueOf(value.longValue()) : Long.valueOf(Long.parseLong(text(value)));
+    }
+
+    public Double getDouble(String name) {
+        JsonNode value = value(name);
+        if (value == null) {
+            return null;
+        }
+        return value.isNumber() ? Double.valueOf(value.doubleValue()) : Double.valueOf(Double.parseDouble(text(value)));
+    }
+
+    public Boolean getBoolean(String name) {
+        JsonNode value = value(name);
+        if (value == null) {
+            return null;
+        }
+        return value.isBoolean() ? Boolean.valueOf(value.booleanValue()) : Boolean.valueOf(Boolean.parseBoolean(text(value)));
+    }
+
+    /**
+     * 基本类型参数不能缺失，缺失时抛出 {@link IllegalArgumentException}
+     */
+    public int getIntValue(String name) {
+        return require(name, getInteger(name));
+    }
+
+    public long getLongValue(String name) {
+        return require(name, getLong(name));
+    }
+
+    public double getDoubleValue(String name) {
+        return require(name, getDouble(name));
+    }
+
+    public boolean getBooleanValue(String name) {
+        return require(name, getBoolean(name));
+    }
+
+    private JsonNode value(String name) {
+        JsonNode value = root.get(name);
+        return value == null || value.isNull() ? null : value;
+    }
+
+    private static String text(JsonNode value) {
+        return value.asText().strip();
+    }
+
+    private static <T> T require(String name, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("缺少参数: " + name);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+}
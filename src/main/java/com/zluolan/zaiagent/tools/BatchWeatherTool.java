@@ -0,0 +1,214 @@
+package com.zluolan.zaiagent.tools;
+
+import cn.hutool.json.JSONObject;
+import com.zluolan.zaiagent.concurrent.FanOutExecutor;
+import com.zluolan.zaiagent.concurrent.FanOutResult;
+import com.zluolan.zaiagent.concurrent.SectionResult;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.resilience.GuardedResult;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import com.zluolan.zaiagent.weather.DailyWeather;
+import com.zluolan.zaiagent.weather.WeatherEstimator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 批量天气查询工具
+ * 多城市行程一次调用：所有城市的编码解析和预报请求并发执行，结果合并为一张紧凑的表格。
+ * 与 {@link WeatherQueryTool} 共用 {@link AmapWeatherClient}，命中的缓存不会重复请求。
+ */
+@Component
+@Slf4j
+public class BatchWeatherTool {
+
+    /**
+     * 所有城市共享的截止时间，超时的城市使用季节估算
+     */
+    private static final long BATCH_DEADLINE_MILLIS = 8000;
+    private static final int MAX_STOPS = 10;
+    private static final int MAX_DAYS_PER_STOP = 7;
+
+    private static final Pattern STOP_SEPARATOR = Pattern.compile("[,;，；、\\n]+");
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{1,2}-\\d{1,2}");
+    private static final String[] WEEKDAYS = {"周一", "周二", "周三", "周四", "周五", "周六", "周日"};
+
+    private final AmapWeatherClient weatherClient;
+    private final FanOutExecutor fanOutExecutor;
+    private final LocationNormalizer locationNormalizer;
+
+    public BatchWeatherTool() {
+        this(AmapWeatherClient.getDefault(), FanOutExecutor.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public BatchWeatherTool(AmapWeatherClient weatherClient, FanOutExecutor fanOutExecutor,
+                            LocationNormalizer locationNormalizer) {
+        this.weatherClient = weatherClient;
+        this.fanOutExecutor = fanOutExecutor;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "queryWeatherBatch", description = """
+            批量查询多城市行程的天气，一次调用返回所有城市，多城市行程不要逐个调用 queryWeather。
+            参数说明：
+            - stops: 行程站点，多个站点用逗号或分号分隔，每个站点为“城市 开始日期~结束日期”，
+              日期格式 YYYY-MM-DD，可只写开始日期或省略（默认今天）。
+              如：北京 2026-10-20~2026-10-22；上海 2026-10-23~2026-10-24；杭州
+            """)
+    public String queryWeatherBatch(String stops) {
+        List<Stop> parsed = parseStops(stops, LocalDate.now()).stream()
+                .map(stop -> new Stop(locationNormalizer.canonicalCity(stop.city()), stop.start(), stop.end()))
+                .toList();
+        if (parsed.isEmpty()) {
+            return "[TOOL_EXECUTION_RESULT] 批量天气查询失败: 未识别到城市，请按“城市 开始日期~结束日期”填写站点";
+        }
+        log.info("批量查询天气 - 站点: {}", parsed);
+
+        // 同一城市只请求一次，行程中多次经过的城市（含“北京”“Beijing”等不同写法）共用预报
+        Map<String, Callable<GuardedResult<JSONObject>>> tasks = new LinkedHashMap<>();
+        for (Stop stop : parsed) {
+            tasks.putIfAbsent(stop.city(), () -> weatherClient.fetch(stop.city(), true));
+        }
+        FanOutResult<GuardedResult<JSONObject>> fetched = fanOutExecutor.invokeAll(tasks, BATCH_DEADLINE_MILLIS);
+
+        StringBuilder table = new StringBuilder();
+        table.append("| 城市 | 日期 | 天气 | 气温 | 风力 | 来源 |\n");
+        table.append("|---|---|---|---|---|---|\n");
+        int forecastRows = 0;
+        int estimatedRows = 0;
+        Set<String> notes = new LinkedHashSet<>();
+        List<String> rainyDays = new ArrayList<>();
+        for (Stop stop : parsed) {
+            CityForecast forecast = toForecast(fetched.get(stop.city()));
+            if (forecast.note() != null) {
+                notes.add(stop.city() + "：" + forecast.note());
+            }
+            for (LocalDate date = stop.start(); !date.isAfter(stop.end()); date = date.plusDays(1)) {
+                DailyWeather day = forecast.days().get(date);
+                String source = "预报";
+                if (day == null) {
+                    day = WeatherEstimator.estimate(stop.city(), date);
+                    source = forecast.degraded() ? "估算（降级）" : "季节估算";
+                    estimatedRows++;
+                } else {
+                    forecastRows++;
+                }
+                table.append("| ").append(stop.city())
+                        .append(" | ").append(date.getMonthValue()).append('-').append(date.getDayOfMonth())
+                        .append(' ').append(WEEKDAYS[date.getDayOfWeek().getValue() - 1])
+                        .append(" | ").append(day.weatherText())
+                        .append(" | ").append(day.temperatureText())
+                        .append(" | ").append(day.wind())
+                        .append(" | ").append(source).append(" |\n");
+                if (day.weatherText().contains("雨") || day.weatherText().contains("雪")) {
+                    rainyDays.add(stop.city() + " " + date.getMonthValue() + "-" + date.getDayOfMonth());
+                }
+            }
+        }
+
+        StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT] 批量天气查询成功！\n");
+        result.append("共 ").append(parsed.size()).append(" 站，预报 ").append(forecastRows)
+                .append(" 天，估算 ").append(estimatedRows).append(" 天（高德只提供近 4 天预报）\n");
+        result.append(table);
+        if (!rainyDays.isEmpty()) {
+            result.append("雨雪天：").append(String.join("、", rainyDays)).append("，建议携带雨具并安排室内备选\n");
+        }
+        notes.forEach(note -> result.append("说明：").append(note).append('\n'));
+        log.info("批量天气查询完成: {}", fetched.timingSummary());
+        return result.toString().stripTrailing();
+    }
+
+    /**
+     * 解析站点列表，无法解析的日期按今天处理，结束日期早于开始日期时只查开始日期
+     */
+    static List<Stop> parseStops(String text, LocalDate today) {
+        List<Stop> stops = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return stops;
+        }
+        for (String item : STOP_SEPARATOR.split(text.strip())) {
+            if (stops.size() >= MAX_STOPS) {
+                break;
+            }
+            Matcher matcher = DATE.matcher(item);
+            List<LocalDate> dates = new ArrayList<>(2);
+            int cityEnd = item.length();
+            while (matcher.find() && dates.size() < 2) {
+                cityEnd = Math.min(cityEnd, matcher.start());
+                LocalDate date = parseDate(matcher.group());
+                if (date != null) {
+                    dates.add(date);
+                }
+            }
+            String city = item.substring(0, cityEnd).replaceAll("[:：~至\\s]+$", "").strip();
+            if (city.isEmpty()) {
+                continue;
+            }
+            LocalDate start = dates.isEmpty() ? today : dates.get(0);
+            LocalDate end = dates.size() < 2 || dates.get(1).isBefore(start) ? start : dates.get(1);
+            if (end.isAfter(start.plusDays(MAX_DAYS_PER_STOP - 1))) {
+                end = start.plusDays(MAX_DAYS_PER_STOP - 1);
+            }
+            stops.add(new Stop(city, start, end));
+        }
+        return stops;
+    }
+
+    private static LocalDate parseDate(String text) {
+        String[] parts = text.split("-");
+        try {
+            return LocalDate.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static CityForecast toForecast(SectionResult<GuardedResult<JSONObject>> section) {
+        if (section == null || !section.isOk()) {
+            return CityForecast.TIMEOUT;
+        }
+        return toForecast(section.value());
+    }
+
+    /**
+     * 把高德预报转换为按日期索引的预报，没有拿到预报时附带原因
+     */
+    static CityForecast toForecast(GuardedResult<JSONObject> guarded) {
+        if (guarded.degraded()) {
+            return new CityForecast(Map.of(), "高德天气服务暂不可用（" + guarded.reason() + "），使用季节估算", true);
+        }
+        if (guarded.value() == null) {
+            return new CityForecast(Map.of(), "无法识别该城市，使用季节估算", false);
+        }
+        Map<LocalDate, DailyWeather> days = new LinkedHashMap<>();
+        AmapWeatherClient.parseForecast(guarded.value()).forEach(day -> days.put(day.date(), day));
+        return new CityForecast(days, null, false);
+    }
+
+    /**
+     * 行程中的一站
+     */
+    record Stop(String city, LocalDate start, LocalDate end) {
+    }
+
+    /**
+     * 单个城市的预报，note 不为空时表示没有拿到预报，degraded 表示原因是高德不可用或超时
+     */
+    record CityForecast(Map<LocalDate, DailyWeather> days, String note, boolean degraded) {
+
+        static final CityForecast TIMEOUT = new CityForecast(Map.of(), "查询超时，使用季节估算", true);
+    }
+}
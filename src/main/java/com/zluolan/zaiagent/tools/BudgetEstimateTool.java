@@ -0,0 +1,186 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.budget.BudgetEstimate;
+import com.zluolan.zaiagent.budget.BudgetTable;
+import com.zluolan.zaiagent.budget.CostItem;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.PriceTier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 旅行预算估算工具
+ * 按城市消费表在本地计算住宿、餐饮、市内交通和门票的分项费用，并给出预算能支撑的档次，
+ * 代替大模型猜测或联网搜索价格
+ */
+@Component
+@Slf4j
+public class BudgetEstimateTool {
+
+    private static final int MAX_DAYS = 30;
+    private static final int MAX_TRAVELERS = 20;
+    private static final int DEFAULT_DAYS = 3;
+    private static final int DEFAULT_TRAVELERS = 2;
+
+    /**
+     * 金额及可选的单位；后面紧跟“天、晚、人”等的数字不是金额
+     */
+    private static final Pattern AMOUNT = Pattern.compile(
+            "(?<![\\d.])(\\d+(?:\\.\\d+)?)(?![\\d.])\\s*(万|千|[wWkK])?(?!\\s*[天晚日夜人位个])");
+
+    private final BudgetTable budgetTable;
+    private final LocationNormalizer locationNormalizer;
+
+    public BudgetEstimateTool() {
+        this(BudgetTable.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public BudgetEstimateTool(BudgetTable budgetTable, LocationNormalizer locationNormalizer) {
+        this.budgetTable = budgetTable;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "estimateBudget", description = """
+            估算旅行预算，返回住宿、餐饮、市内交通、门票娱乐在经济型、舒适型、豪华型、奢华型四档下的分项费用，
+            并判断用户预算适合哪一档、是否够用。涉及花费、预算够不够时优先调用本工具，不要自行估算。
+            参数说明：
+            - destination: 目的地城市
+            - days: 旅行天数（默认3天，住宿按天数减一晚计算）
+            - travelers: 出行人数（默认2人，两人一间房）
+            - budget: 总预算（可选，如“5000元”“1.5万”，“人均3000”“每天800”会自动换算为总额）
+            - level: 期望档次（可选：经济型、舒适型、豪华型、奢华型）
+            """)
+    public String estimateBudget(String destination, Integer days, Integer travelers, String budget, String level) {
+        try {
+            String city = locationNormalizer.canonicalCity(destination);
+            if (city == null || city.isBlank()) {
+                return "[TOOL_EXECUTION_RESULT] 预算估算失败: 请提供目的地城市";
+            }
+            int tripDays = days == null || days <= 0 ? DEFAULT_DAYS : Math.min(days, MAX_DAYS);
+            int people = travelers == null || travelers <= 0 ? DEFAULT_TRAVELERS : Math.min(travelers, MAX_TRAVELERS);
+            long limit = parseBudget(budget, tripDays, people);
+            PriceTier preferred = PriceTier.fromText(level);
+            log.info("预算估算 - 城市: {}, 天数: {}, 人数: {}, 预算: {}, 档次: {}", city, tripDays, people, limit, preferred);
+
+            BudgetEstimate estimate = budgetTable.estimate(city, tripDays, people);
+            return "[TOOL_EXECUTION_RESULT] 预算估算完成！\n" + formatEstimate(estimate, limit, preferred);
+        } catch (Exception e) {
+            log.error("预算估算失败", e);
+            return "[TOOL_EXECUTION_RESULT] 预算估算失败: " + e.getMessage();
+        }
+    }
+
+    private String formatEstimate(BudgetEstimate estimate, long limit, PriceTier preferred) {
+        StringBuilder text = new StringBuilder();
+        text.append("=== ").append(estimate.city()).append(' ').append(estimate.days()).append("天")
+                .append(estimate.nights()).append("晚 · ").append(estimate.travelers()).append("人 预算估算 ===\n");
+        text.append("| 项目 |");
+        for (PriceTier tier : PriceTier.values()) {
+            text.append(' ').append(tier.getLabel()).append(tier == preferred ? "★" : "").append(" |");
+        }
+        text.append("\n|---|---|---|---|---|\n");
+        for (CostItem item : CostItem.values()) {
+            text.append("| ").append(item.getLabel());
+            if (item == CostItem.LODGING) {
+                text.append("（").append(estimate.rooms()).append("间×").append(estimate.nights()).append("晚）");
+            }
+            text.append(" |");
+            for (PriceTier tier : PriceTier.values()) {
+                text.append(' ').append(estimate.amount(tier, item)).append(" |");
+            }
+            text.append('\n');
+        }
+        text.append("| 合计 |");
+        for (PriceTier tier : PriceTier.values()) {
+            text.append(" **").append(estimate.total(tier)).append("** |");
+        }
+        text.append("\n| 人均 |");
+        for (PriceTier tier : PriceTier.values()) {
+            text.append(' ').append(estimate.perPerson(tier)).append(" |");
+        }
+        text.append('\n');
+
+        if (limit > 0) {
+            appendFit(text, estimate, limit, preferred);
+        } else if (preferred != null) {
+            text.append("\n").append(preferred.getLabel()).append("预计共").append(estimate.total(preferred))
+                    .append("元，人均").append(estimate.perPerson(preferred)).append("元\n");
+        }
+        text.append("\n说明：单位为元，不含往返大交通和购物；住宿按两人一间，餐饮、市内交通和门票按人按天计算");
+        if (estimate.reference()) {
+            text.append("；").append(estimate.city()).append("暂无专门的消费数据，按全国参考水平估算");
+        }
+        text.append('\n');
+        return text.toString();
+    }
+
+    private void appendFit(StringBuilder text, BudgetEstimate estimate, long limit, PriceTier preferred) {
+        text.append("\n您的预算：").append(limit).append("元（人均").append((limit + estimate.travelers() - 1) / estimate.travelers())
+                .append("元）\n");
+        PriceTier fit = estimate.fit(limit);
+        if (fit == null) {
+            long economy = estimate.total(PriceTier.ECONOMY);
+            text.append("⚠️ 预算低于经济型所需的").append(economy).append("元，还差").append(economy - limit).append("元");
+            int affordable = affordableDays(estimate, limit);
+            if (affordable > 0) {
+                text.append("；按经济型可以玩").append(affordable).append("天");
+            }
+            text.append('\n');
+            return;
+        }
+        long total = estimate.total(fit);
+        text.append("✅ 适合「").append(fit.getLabel()).append("」：预计花费").append(total).append("元，剩余")
+                .append(limit - total).append("元\n");
+        if (preferred != null && preferred.ordinal() > fit.ordinal()) {
+            text.append("⚠️ 期望的").append(preferred.getLabel()).append("预计").append(estimate.total(preferred))
+                    .append("元，超出预算").append(estimate.total(preferred) - limit).append("元\n");
+        }
+    }
+
+    /**
+     * 同样的人数下，预算按经济型最多能玩几天
+     */
+    private int affordableDays(BudgetEstimate estimate, long limit) {
+        int affordable = 0;
+        for (int days = 1; days < estimate.days(); days++) {
+            if (budgetTable.estimate(estimate.city(), days, estimate.travelers()).total(PriceTier.ECONOMY) <= limit) {
+                affordable = days;
+            }
+        }
+        return affordable;
+    }
+
+    /**
+     * 从预算描述中解析总额（元），“人均”“每天”按人数、天数换算，没有金额返回 0
+     */
+    static long parseBudget(String text, int days, int travelers) {
+        if (text == null || text.isBlank()) {
+            return 0;
+        }
+        Matcher matcher = AMOUNT.matcher(text);
+        if (!matcher.find()) {
+            return 0;
+        }
+        double amount = Double.parseDouble(matcher.group(1));
+        String unit = matcher.group(2);
+        if (unit != null) {
+            amount *= switch (unit) {
+                case "万", "w", "W" -> 10_000;
+                default -> 1_000;
+            };
+        }
+        if (text.contains("人均") || text.contains("每人") || text.contains("/人")) {
+            amount *= travelers;
+        }
+        if (text.contains("每天") || text.contains("日均") || text.contains("每日") || text.contains("/天")) {
+            amount *= days;
+        }
+        return Math.round(amount);
+    }
+}
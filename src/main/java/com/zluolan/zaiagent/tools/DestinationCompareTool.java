@@ -0,0 +1,457 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.concurrent.FanOutExecutor;
+import com.zluolan.zaiagent.concurrent.FanOutResult;
+import com.zluolan.zaiagent.concurrent.SectionResult;
+import com.zluolan.zaiagent.inventory.AvailabilityResult;
+import com.zluolan.zaiagent.inventory.HotelInventory;
+import com.zluolan.zaiagent.inventory.InventoryStore;
+import com.zluolan.zaiagent.inventory.RoomOffer;
+import com.zluolan.zaiagent.inventory.StayQuery;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import com.zluolan.zaiagent.poi.PriceTier;
+import com.zluolan.zaiagent.tools.BatchWeatherTool.CityForecast;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import com.zluolan.zaiagent.weather.DailyWeather;
+import com.zluolan.zaiagent.weather.WeatherEstimator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 目的地对比工具
+ * 一次调用对比多个候选目的地：每个城市的景点、住宿、天气查询并发执行并共享截止时间，
+ * 结果汇总为并排的评分矩阵。景点和住宿与 {@link AttractionSearchTool}、{@link HotelSearchTool}
+ * 使用同一份 POI 目录和房态日历，天气与 {@link BatchWeatherTool} 共用 {@link AmapWeatherClient} 及其缓存。
+ */
+@Component
+@Slf4j
+public class DestinationCompareTool {
+
+    /**
+     * 所有子查询共享的截止时间，超时的天气按季节估算
+     */
+    private static final long COMPARE_DEADLINE_MILLIS = 8000;
+
+    /**
+     * 单次最多对比的城市数，每个城市 3 个子查询，避免一次请求占满并发执行器和高德配额
+     */
+    static final int MAX_DESTINATIONS = 5;
+    private static final int MAX_DAYS = 7;
+    private static final int TOP_ATTRACTIONS = 5;
+    private static final int PREFERENCE_CANDIDATES = 10;
+
+    private static final double ATTRACTION_WEIGHT = 0.4;
+    private static final double HOTEL_WEIGHT = 0.3;
+    private static final double WEATHER_WEIGHT = 0.3;
+
+    private static final Pattern DESTINATION_SEPARATOR = Pattern.compile("[,;，；、/\\s]+");
+    /**
+     * 连接词只在不属于已知地名时才拆分，“呼和浩特”“和田”中的“和”保持原样
+     */
+    private static final Pattern DESTINATION_CONNECTOR = Pattern.compile("还是|或者|和|vs|VS");
+
+    private final PoiCatalog poiCatalog;
+    private final InventoryStore inventoryStore;
+    private final AmapWeatherClient weatherClient;
+    private final FanOutExecutor fanOutExecutor;
+    private final LocationNormalizer locationNormalizer;
+
+    public DestinationCompareTool() {
+        this(PoiCatalog.getDefault(), InventoryStore.getDefault(), AmapWeatherClient.getDefault(),
+                FanOutExecutor.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public DestinationCompareTool(PoiCatalog poiCatalog, InventoryStore inventoryStore,
+                                  AmapWeatherClient weatherClient, FanOutExecutor fanOutExecutor,
+                                  LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.inventoryStore = inventoryStore;
+        this.weatherClient = weatherClient;
+        this.fanOutExecutor = fanOutExecutor;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "compareDestinations", description = """
+            对比多个候选目的地（如“杭州还是成都”），一次调用并发查询各城市的景点、住宿和天气，
+            返回并排的评分矩阵和推荐结果，不要逐个城市调用景点、酒店、天气工具。
+            参数说明：
+            - destinations: 候选目的地，用逗号分隔（如：杭州,成都），最多5个
+            - startDate: 出发日期（格式：YYYY-MM-DD，可选，默认今天）
+            - days: 旅行天数（默认3天，最多7天）
+            - budget: 住宿预算（经济型、舒适型、豪华型、奢华型，或每晚价格上限如“500以下”）
+            - preferences: 偏好（可选，如：自然风光、美食、亲子、历史）
+            """)
+    public String compareDestinations(String destinations, String startDate, Integer days,
+                                      String budget, String preferences) {
+        List<String> cities = parseDestinations(destinations, locationNormalizer).stream()
+                .map(locationNormalizer::canonicalCity)
+                .distinct()
+                .toList();
+        if (cities.size() < 2) {
+            return "[TOOL_EXECUTION_RESULT] 目的地对比失败: 请至少提供两个目的地，用逗号分隔（如：杭州,成都）";
+        }
+        LocalDate start = parseDate(startDate);
+        int tripDays = days == null || days <= 0 ? 3 : Math.min(days, MAX_DAYS);
+        log.info("目的地对比 - 城市: {}, 出发: {}, 天数: {}, 预算: {}, 偏好: {}",
+                cities, start, tripDays, budget, preferences);
+
+        // 每个城市的三个子查询互不依赖，全部并发执行
+        Map<String, Callable<Object>> tasks = new LinkedHashMap<>();
+        for (String city : cities) {
+            tasks.put(city + "/景点", () -> attractions(city, preferences));
+            tasks.put(city + "/住宿", () -> hotels(city, start, tripDays, budget));
+            tasks.put(city + "/天气", () -> BatchWeatherTool.toForecast(weatherClient.fetch(city, true)));
+        }
+        FanOutResult<Object> sections = fanOutExecutor.invokeAll(tasks, COMPARE_DEADLINE_MILLIS);
+
+        List<DestinationScore> scores = new ArrayList<>(cities.size());
+        Set<String> notes = new LinkedHashSet<>();
+        for (String city : cities) {
+            AttractionSummary attraction = valueOf(sections, city + "/景点", AttractionSummary.class);
+            HotelSummary hotel = valueOf(sections, city + "/住宿", HotelSummary.class);
+            CityForecast forecast = valueOf(sections, city + "/天气", CityForecast.class);
+            if (forecast == null) {
+                forecast = CityForecast.TIMEOUT;
+            }
+            if (attraction == null || hotel == null) {
+                notes.add(city + "：景点或住宿查询未完成，相应维度按 0 分计");
+            } else if (!attraction.known()) {
+                notes.add(city + "：目录中暂无该城市数据，景点和住宿无法评分");
+            }
+            if (forecast.note() != null) {
+                notes.add(city + "：天气" + forecast.note());
+            }
+            scores.add(new DestinationScore(city, attraction, hotel, weather(city, forecast, start, tripDays)));
+        }
+        rankAndScore(scores);
+
+        StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT] 目的地对比完成！\n");
+        result.append("对比 ").append(String.join("、", cities)).append("：").append(start)
+                .append(" 起 ").append(tripDays).append(" 天");
+        if (budget != null && !budget.isBlank()) {
+            result.append("，预算 ").append(budget.strip());
+        }
+        if (preferences != null && !preferences.isBlank()) {
+            result.append("，偏好 ").append(preferences.strip());
+        }
+        result.append('\n');
+        appendMatrix(result, scores);
+
+        List<DestinationScore> ranked = scores.stream()
+                .sorted((a, b) -> Integer.compare(a.rank, b.rank))
+                .toList();
+        DestinationScore best = ranked.get(0);
+        result.append("推荐：").append(best.city).append("（综合 ").append(format(best.total)).append("）");
+        for (int i = 1; i < ranked.size(); i++) {
+            result.append(i == 1 ? "，其次 " : "、").append(ranked.get(i).city)
+                    .append("（").append(format(ranked.get(i).total)).append("）");
+        }
+        result.append('\n');
+        result.append("评分说明：各维度 0~10 分，综合 = 景点×40% + 住宿×30% + 天气×30%，住宿按各城市最低房价相对计分\n");
+        notes.forEach(note -> result.append("说明：").append(note).append('\n'));
+        log.info("目的地对比完成: {}", sections.timingSummary());
+        return result.toString().stripTrailing();
+    }
+
+    /**
+     * 解析候选目的地，去重并限制数量
+     */
+    static List<String> parseDestinations(String text, LocationNormalizer locationNormalizer) {
+        Set<String> cities = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        for (String item : DESTINATION_SEPARATOR.split(text.strip())) {
+            String chunk = item.replaceAll("[?？。!！]", "");
+            int from = 0;
+            Matcher connector = DESTINATION_CONNECTOR.matcher(chunk);
+            while (connector.find()) {
+                if (!locationNormalizer.withinName(chunk, connector.start(), connector.end())) {
+                    addDestination(cities, chunk.substring(from, connector.start()));
+                    from = connector.end();
+                }
+            }
+            addDestination(cities, chunk.substring(from));
+        }
+        return List.copyOf(cities);
+    }
+
+    private static void addDestination(Set<String> cities, String text) {
+        String city = text.strip();
+        if (!city.isEmpty() && cities.size() < MAX_DESTINATIONS) {
+            cities.add(city);
+        }
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(text.strip());
+        } catch (DateTimeParseException e) {
+            return LocalDate.now();
+        }
+    }
+
+    /**
+     * 城市热门景点概况；有偏好时统计前 {@link #PREFERENCE_CANDIDATES} 个景点中符合偏好类型或标签的数量
+     */
+    private AttractionSummary attractions(String city, String preferences) {
+        int cityId = poiCatalog.cityId(city);
+        if (cityId < 0) {
+            return AttractionSummary.UNKNOWN;
+        }
+        List<Poi> candidates = poiCatalog.query(PoiQuery.of(PoiKind.ATTRACTION).city(cityId)
+                .limit(PREFERENCE_CANDIDATES));
+        List<Poi> top = candidates.subList(0, Math.min(TOP_ATTRACTIONS, candidates.size()));
+        double averageRating = top.stream().mapToDouble(Poi::rating).average().orElse(0);
+        int total = poiCatalog.query(PoiQuery.of(PoiKind.ATTRACTION).city(cityId)).size();
+
+        int matched = -1;
+        if (preferences != null && !preferences.isBlank()) {
+            int categoryId = poiCatalog.categoryId(PoiKind.ATTRACTION, preferences);
+            String categoryName = categoryId >= 0 ? poiCatalog.categoryName(categoryId) : null;
+            matched = (int) candidates.stream()
+                    .filter(poi -> poi.category().equals(categoryName)
+                            || poi.tags().stream().anyMatch(preferences::contains))
+                    .count();
+        }
+        return new AttractionSummary(true, total, averageRating, matched,
+                top.stream().limit(2).map(Poi::name).toList());
+    }
+
+    /**
+     * 住宿概况：入住区间在房态日历内时按可订房价统计，否则按目录参考价；所选档次没有酒店时放宽档次
+     */
+    private HotelSummary hotels(String city, LocalDate start, int tripDays, String budget) {
+        int cityId = poiCatalog.cityId(city);
+        if (cityId < 0) {
+            return HotelSummary.UNKNOWN;
+        }
+        PriceTier tier = PriceTier.fromText(budget);
+        List<Poi> candidates = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier));
+        if (candidates.isEmpty() && tier != null) {
+            candidates = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId));
+        }
+        if (candidates.isEmpty()) {
+            return new HotelSummary(true, 0, 0, false);
+        }
+
+        StayQuery stay = StayQuery.of(start, start.plusDays(Math.max(1, tripDays - 1)))
+                .maxNightly(StayQuery.maxNightlyIn(budget))
+                .sortByPrice(true)
+                .limit(0);
+        HotelInventory inventory = inventoryStore.snapshot();
+        if (inventory.covers(stay)) {
+            AvailabilityResult availability = inventory.search(candidates, stay);
+            int lowest = availability.offers().stream().mapToInt(RoomOffer::averageNightly).min().orElse(0);
+            return new HotelSummary(true, availability.offers().size(), lowest, true);
+        }
+        int lowest = candidates.stream().mapToInt(Poi::priceLow).filter(price -> price > 0).min().orElse(0);
+        return new HotelSummary(true, candidates.size(), lowest, false);
+    }
+
+    /**
+     * 行程期间的天气：有预报用预报，其余按季节估算；雨雪天 0 分，气温舒适 1 分，过冷过热酌情扣分
+     */
+    private static WeatherSummary weather(String city, CityForecast forecast, LocalDate start, int tripDays) {
+        int rainy = 0;
+        int estimated = 0;
+        int minTemp = Integer.MAX_VALUE;
+        int maxTemp = Integer.MIN_VALUE;
+        double comfort = 0;
+        for (int i = 0; i < tripDays; i++) {
+            LocalDate date = start.plusDays(i);
+            DailyWeather day = forecast.days().get(date);
+            if (day == null) {
+                day = WeatherEstimator.estimate(city, date);
+                estimated++;
+            }
+            minTemp = Math.min(minTemp, day.minTemp());
+            maxTemp = Math.max(maxTemp, day.maxTemp());
+            String text = day.weatherText();
+            if (text.contains("雨") || text.contains("雪")) {
+                rainy++;
+            } else if (day.maxTemp() > 33 || day.minTemp() < 0) {
+                comfort += 0.3;
+            } else if (day.maxTemp() >= 15 && day.maxTemp() <= 30) {
+                comfort += 1;
+            } else {
+                comfort += 0.6;
+            }
+        }
+        return new WeatherSummary(10 * comfort / tripDays, tripDays - rainy, rainy, minTemp, maxTemp, estimated);
+    }
+
+    /**
+     * 计算住宿相对分和综合分并排名，分数相同时保持输入顺序
+     */
+    private static void rankAndScore(List<DestinationScore> scores) {
+        int cheapest = scores.stream()
+                .filter(score -> score.hotel != null && score.hotel.bookable() > 0 && score.hotel.lowestNightly() > 0)
+                .mapToInt(score -> score.hotel.lowestNightly())
+                .min().orElse(0);
+        for (DestinationScore score : scores) {
+            score.attractionScore = score.attraction != null ? score.attraction.score() : 0;
+            score.hotelScore = score.hotel != null && score.hotel.bookable() > 0 && score.hotel.lowestNightly() > 0
+                    ? 10.0 * cheapest / score.hotel.lowestNightly() : 0;
+            score.total = ATTRACTION_WEIGHT * score.attractionScore + HOTEL_WEIGHT * score.hotelScore
+                    + WEATHER_WEIGHT * score.weather.score();
+        }
+        List<DestinationScore> ordered = new ArrayList<>(scores);
+        ordered.sort((a, b) -> Double.compare(b.total, a.total));
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).rank = i + 1;
+        }
+    }
+
+    private static void appendMatrix(StringBuilder result, List<DestinationScore> scores) {
+        result.append("| 维度 |");
+        scores.forEach(score -> result.append(' ').append(score.city).append(" |"));
+        result.append("\n|---|");
+        scores.forEach(score -> result.append("---|"));
+        result.append("\n| 景点 |");
+        for (DestinationScore score : scores) {
+            result.append(' ').append(format(score.attractionScore)).append(' ')
+                    .append(score.attraction != null ? score.attraction.text() : "查询未完成").append(" |");
+        }
+        result.append("\n| 住宿 |");
+        for (DestinationScore score : scores) {
+            result.append(' ').append(format(score.hotelScore)).append(' ')
+                    .append(score.hotel != null ? score.hotel.text() : "查询未完成").append(" |");
+        }
+        result.append("\n| 天气 |");
+        for (DestinationScore score : scores) {
+            result.append(' ').append(format(score.weather.score())).append(' ')
+                    .append(score.weather.text()).append(" |");
+        }
+        result.append("\n| 综合 |");
+        for (DestinationScore score : scores) {
+            result.append(' ').append(format(score.total)).append("（第").append(score.rank).append("）|");
+        }
+        result.append('\n');
+    }
+
+    private static String format(double score) {
+        return String.format("%.1f", score);
+    }
+
+    private static <T> T valueOf(FanOutResult<Object> sections, String name, Class<T> type) {
+        SectionResult<Object> section = sections.get(name);
+        return section != null && section.isOk() ? type.cast(section.value()) : null;
+    }
+
+    /**
+     * 景点概况
+     *
+     * @param total         目录中该城市的景点数
+     * @param averageRating 评分最高的 {@link #TOP_ATTRACTIONS} 个景点的平均分
+     * @param matched       符合偏好的景点数，未指定偏好时为 -1
+     */
+    record AttractionSummary(boolean known, int total, double averageRating, int matched, List<String> highlights) {
+
+        static final AttractionSummary UNKNOWN = new AttractionSummary(false, 0, 0, -1, List.of());
+
+        /**
+         * 评分 4.0 记 0 分、5.0 记 10 分，景点不足 5 个时按比例折算；指定偏好时偏好匹配占 40%
+         */
+        double score() {
+            if (total == 0) {
+                return 0;
+            }
+            double quality = Math.max(0, Math.min(10, (averageRating - 4.0) * 10))
+                    * Math.min(total, TOP_ATTRACTIONS) / TOP_ATTRACTIONS;
+            if (matched < 0) {
+                return quality;
+            }
+            return 0.6 * quality + 0.4 * 10 * Math.min(matched, 3) / 3;
+        }
+
+        String text() {
+            if (!known) {
+                return "暂无数据";
+            }
+            String text = String.join("、", highlights) + "等" + total + "个，前" + TOP_ATTRACTIONS
+                    + "均分" + String.format("%.1f", averageRating);
+            return matched >= 0 ? text + "，符合偏好" + matched + "个" : text;
+        }
+    }
+
+    /**
+     * 住宿概况
+     *
+     * @param bookable      可订（或目录中符合档次）的酒店数
+     * @param lowestNightly 最低每晚房价，没有酒店时为 0
+     * @param live          是否按房态日历的实际房价统计
+     */
+    record HotelSummary(boolean known, int bookable, int lowestNightly, boolean live) {
+
+        static final HotelSummary UNKNOWN = new HotelSummary(false, 0, 0, false);
+
+        String text() {
+            if (!known) {
+                return "暂无数据";
+            }
+            if (bookable == 0) {
+                return live ? "所选日期无可订酒店" : "无符合档次的酒店";
+            }
+            return "最低¥" + lowestNightly + "/晚，" + (live ? "可订" : "参考价，") + bookable + "家";
+        }
+    }
+
+    /**
+     * 行程期间天气概况
+     *
+     * @param estimated 按季节估算的天数
+     */
+    record WeatherSummary(double score, int sunny, int rainy, int minTemp, int maxTemp, int estimated) {
+
+        String text() {
+            String text = "无雨" + sunny + "天/雨雪" + rainy + "天，" + minTemp + "~" + maxTemp + "°C";
+            return estimated > 0 ? text + "（" + estimated + "天估算）" : text;
+        }
+    }
+
+    /**
+     * 单个目的地的各维度结果和得分
+     */
+    private static final class DestinationScore {
+
+        private final String city;
+        private final AttractionSummary attraction;
+        private final HotelSummary hotel;
+        private final WeatherSummary weather;
+        private double attractionScore;
+        private double hotelScore;
+        private double total;
+        private int rank;
+
+        private DestinationScore(String city, AttractionSummary attraction, HotelSummary hotel,
+                                 WeatherSummary weather) {
+            this.city = city;
+            this.attraction = attraction;
+            this.hotel = hotel;
+            this.weather = weather;
+        }
+    }
+}
@@ -1,6 +1,23 @@
 package com.zluolan.zaiagent.tools;
 
+import com.zluolan.zaiagent.budget.BudgetEstimate;
+import com.zluolan.zaiagent.budget.BudgetTable;
+import com.zluolan.zaiagent.budget.CostItem;
+import com.zluolan.zaiagent.concurrent.FanOutExecutor;
+import com.zluolan.zaiagent.concurrent.FanOutResult;
+import com.zluolan.zaiagent.concurrent.SectionResult;
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.location.LocationNormalizer;
 import com.zluolan.zaiagent.mcp.AmapMcpToolWrapper;
+import com.zluolan.zaiagent.poi.NearbyPoi;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import com.zluolan.zaiagent.poi.PriceTier;
+import com.zluolan.zaiagent.routing.CityMatrix;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +25,12 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * 增强的旅游工具类
@@ -17,8 +40,34 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class EnhancedTravelTools {
     
+    // 子查询共享的截止时间，超时的部分以提示代替，其余结果照常返回
+    private static final long SECTION_DEADLINE_MILLIS = 8000;
+
+    // 位置匹配：参考的热门景点数、指定地点周边半径、推荐酒店数
+    private static final int SCENIC_ANCHORS = 5;
+    private static final int ANCHOR_RADIUS_METERS = 3000;
+    private static final int LOCATION_MATCHED_HOTELS = 3;
+
+    // 预算估算按两人出行计算，与酒店查询的入住人数一致
+    private static final int BUDGET_TRAVELERS = 2;
+
     @Autowired
     private AmapMcpToolWrapper amapWrapper;
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Autowired
+    private PoiCatalog poiCatalog;
+
+    @Autowired
+    private TravelMatrixService travelMatrixService;
+
+    @Autowired
+    private LocationNormalizer locationNormalizer;
+
+    @Autowired
+    private BudgetTable budgetTable;
     
     /**
      * 综合旅游规划工具
@@ -38,46 +87,53 @@ public class EnhancedTravelTools {
         try {
             log.info("综合旅游规划 - 目的地: {}, 日期: {}, 预算: {}, 偏好: {}, 天数: {}", 
                     destination, travelDate, budget, preferences, days);
+            String city = locationNormalizer.canonicalCity(destination);
             
             if (days == null || days <= 0) {
                 days = 3;
             }
+            int tripDays = days;
+            
+            // 景点、酒店、路线、天气四个子查询互不依赖，并发执行
+            Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+            tasks.put("attractions", () -> amapWrapper.searchAttractions(city, preferences, 5));
+            tasks.put("hotels", () -> amapWrapper.searchHotels(city, travelDate,
+                    LocalDate.parse(travelDate).plusDays(tripDays - 1).toString(),
+                    2, budget, "商务酒店"));
+            tasks.put("routes", () -> amapWrapper.planRoute("市中心", "主要景点", null, "公交", travelDate, "风景优美"));
+            tasks.put("weather", () -> amapWrapper.queryWeather(city, travelDate, tripDays));
+            FanOutResult<String> sections = fanOutExecutor.invokeAll(tasks, SECTION_DEADLINE_MILLIS);
             
             StringBuilder result = new StringBuilder();
-            result.append("🎯 ").append(destination).append(" 综合旅游规划方案\n");
+            result.append("🎯 ").append(city).append(" 综合旅游规划方案\n");
             result.append("=".repeat(50)).append("\n\n");
             
             // 1. 景点推荐
             result.append("🏛️ 景点推荐\n");
             result.append("-".repeat(20)).append("\n");
-            String attractions = amapWrapper.searchAttractions(destination, preferences, 5);
-            result.append(attractions).append("\n\n");
+            result.append(sectionText(sections, "attractions", "景点信息")).append("\n\n");
             
             // 2. 酒店推荐
             result.append("🏨 住宿推荐\n");
             result.append("-".repeat(20)).append("\n");
-            String hotels = amapWrapper.searchHotels(destination, travelDate, 
-                    LocalDate.parse(travelDate).plusDays(days - 1).toString(), 
-                    2, budget, "商务酒店");
-            result.append(hotels).append("\n\n");
+            result.append(sectionText(sections, "hotels", "住宿信息")).append("\n\n");
             
             // 3. 路线规划
             result.append("🛣️ 路线规划\n");
             result.append("-".repeat(20)).append("\n");
-            String routes = amapWrapper.planRoute("市中心", "主要景点", null, "公交", travelDate, "风景优美");
-            result.append(routes).append("\n\n");
+            result.append(sectionText(sections, "routes", "路线信息")).append("\n\n");
             
             // 4. 天气信息
             result.append("🌤️ 天气信息\n");
             result.append("-".repeat(20)).append("\n");
-            String weather = amapWrapper.queryWeather(destination, travelDate, days);
-            result.append(weather).append("\n\n");
+            result.append(sectionText(sections, "weather", "天气信息")).append("\n\n");
             
             // 5. 旅游建议
             result.append("💡 旅游建议\n");
             result.append("-".repeat(20)).append("\n");
-            result.append(generateTravelAdvice(destination, budget, preferences, days));
+            result.append(generateTravelAdvice(city, budget, preferences, days));
             
+            appendMetadata(result, sections);
             return result.toString();
             
         } catch (Exception e) {
@@ -102,20 +158,23 @@ public class EnhancedTravelTools {
         try {
             log.info("智能景点推荐 - 目的地: {}, 类型: {}, 预算: {}, 时间: {}", 
                     destination, category, budget, timeAvailable);
+            String city = locationNormalizer.canonicalCity(destination);
             
             StringBuilder result = new StringBuilder();
-            result.append("🎯 ").append(destination).append(" 智能景点推荐\n");
+            result.append("🎯 ").append(city).append(" 智能景点推荐\n");
             result.append("=".repeat(40)).append("\n\n");
             
             // 调用高德地图MCP服务搜索景点
-            String attractions = amapWrapper.searchAttractions(destination, category, 8);
-            result.append(attractions).append("\n");
+            FanOutResult<String> sections = fanOutExecutor.invokeAll(Map.of("attractions",
+                    () -> amapWrapper.searchAttractions(city, category, 8)), SECTION_DEADLINE_MILLIS);
+            result.append(sectionText(sections, "attractions", "景点信息")).append("\n");
             
             // 根据预算和时间提供建议
             result.append("💡 个性化建议\n");
             result.append("-".repeat(20)).append("\n");
             result.append(generatePersonalizedAdvice(category, budget, timeAvailable));
             
+            appendMetadata(result, sections);
             return result.toString();
             
         } catch (Exception e) {
@@ -134,28 +193,39 @@ public class EnhancedTravelTools {
             - checkInDate: 入住日期
             - checkOutDate: 退房日期
             - budget: 预算范围
-            - locationPreference: 位置偏好（市中心、景区附近、交通便利等）
+            - locationPreference: 位置偏好（市中心、景区附近、交通便利，或具体地点如：故宫附近）
             """)
     public String smartHotelRecommendation(String destination, String checkInDate, 
                                           String checkOutDate, String budget, String locationPreference) {
         try {
             log.info("智能酒店推荐 - 目的地: {}, 入住: {}, 退房: {}, 预算: {}, 位置: {}", 
                     destination, checkInDate, checkOutDate, budget, locationPreference);
+            String city = locationNormalizer.canonicalCity(destination);
             
             StringBuilder result = new StringBuilder();
-            result.append("🏨 ").append(destination).append(" 智能酒店推荐\n");
+            result.append("🏨 ").append(city).append(" 智能酒店推荐\n");
             result.append("=".repeat(40)).append("\n\n");
             
             // 调用高德地图MCP服务搜索酒店
-            String hotels = amapWrapper.searchHotels(destination, checkInDate, checkOutDate, 
-                    2, budget, "商务酒店");
-            result.append(hotels).append("\n");
+            FanOutResult<String> sections = fanOutExecutor.invokeAll(Map.of("hotels",
+                    () -> amapWrapper.searchHotels(city, checkInDate, checkOutDate,
+                            2, budget, "商务酒店")), SECTION_DEADLINE_MILLIS);
+            result.append(sectionText(sections, "hotels", "住宿信息")).append("\n");
+            
+            // 按位置偏好从空间索引中挑选酒店
+            String matched = locationMatchedHotels(city, budget, locationPreference);
+            if (!matched.isEmpty()) {
+                result.append("📍 位置匹配酒店\n");
+                result.append("-".repeat(20)).append("\n");
+                result.append(matched).append("\n");
+            }
             
             // 根据位置偏好提供建议
             result.append("💡 位置建议\n");
             result.append("-".repeat(20)).append("\n");
-            result.append(generateLocationAdvice(locationPreference, destination));
+            result.append(generateLocationAdvice(locationPreference, city));
             
+            appendMetadata(result, sections);
             return result.toString();
             
         } catch (Exception e) {
@@ -181,21 +251,25 @@ public class EnhancedTravelTools {
         try {
             log.info("智能路线规划 - 起点: {}, 终点: {}, 交通: {}, 偏好: {}, 途经: {}", 
                     startLocation, endLocation, transportMode, preferences, waypoints);
+            String start = locationNormalizer.canonicalPlace(startLocation);
+            String end = locationNormalizer.canonicalPlace(endLocation);
             
             StringBuilder result = new StringBuilder();
             result.append("🛣️ 智能路线规划\n");
             result.append("=".repeat(40)).append("\n\n");
             
             // 调用高德地图MCP服务规划路线
-            String routes = amapWrapper.planRoute(startLocation, endLocation, waypoints, 
-                    transportMode, LocalDate.now().toString(), preferences);
-            result.append(routes).append("\n");
+            FanOutResult<String> sections = fanOutExecutor.invokeAll(Map.of("routes",
+                    () -> amapWrapper.planRoute(start, end, waypoints,
+                            transportMode, LocalDate.now().toString(), preferences)), SECTION_DEADLINE_MILLIS);
+            result.append(sectionText(sections, "routes", "路线信息")).append("\n");
             
             // 根据偏好提供额外建议
             result.append("💡 路线建议\n");
             result.append("-".repeat(20)).append("\n");
             result.append(generateRouteAdvice(transportMode, preferences));
             
+            appendMetadata(result, sections);
             return result.toString();
             
         } catch (Exception e) {
@@ -219,24 +293,28 @@ public class EnhancedTravelTools {
         try {
             log.info("智能天气查询 - 地点: {}, 日期: {}, 天数: {}, 活动: {}", 
                     location, date, days, activityType);
+            String city = locationNormalizer.canonicalCity(location);
             
             if (date == null) {
                 date = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
             }
             
             StringBuilder result = new StringBuilder();
-            result.append("🌤️ ").append(location).append(" 智能天气查询\n");
+            result.append("🌤️ ").append(city).append(" 智能天气查询\n");
             result.append("=".repeat(40)).append("\n\n");
             
             // 调用高德地图MCP服务查询天气
-            String weather = amapWrapper.queryWeather(location, date, days);
-            result.append(weather).append("\n");
+            String queryDate = date;
+            FanOutResult<String> sections = fanOutExecutor.invokeAll(Map.of("weather",
+                    () -> amapWrapper.queryWeather(city, queryDate, days)), SECTION_DEADLINE_MILLIS);
+            result.append(sectionText(sections, "weather", "天气信息")).append("\n");
             
             // 根据活动类型提供建议
             result.append("💡 活动建议\n");
             result.append("-".repeat(20)).append("\n");
-            result.append(generateActivityAdvice(activityType, location));
+            result.append(generateActivityAdvice(activityType, city));
             
+            appendMetadata(result, sections);
             return result.toString();
             
         } catch (Exception e) {
@@ -245,6 +323,29 @@ public class EnhancedTravelTools {
         }
     }
     
+    /**
+     * 取出子查询结果，超时或失败时返回提示，保证其余部分照常输出
+     */
+    private String sectionText(FanOutResult<String> sections, String name, String label) {
+        SectionResult<String> section = sections.get(name);
+        if (section == null) {
+            return "⚠️ " + label + "未查询";
+        }
+        return switch (section.status()) {
+            case OK -> section.value();
+            case TIMEOUT -> "⚠️ " + label + "查询超时，本次结果不完整，可稍后单独查询";
+            case FAILED -> "⚠️ " + label + "查询失败: " + section.error();
+        };
+    }
+    
+    /**
+     * 追加各子查询耗时等元数据
+     */
+    private void appendMetadata(StringBuilder result, FanOutResult<String> sections) {
+        result.append("\n\n[TOOL_METADATA] complete=").append(sections.isComplete())
+                .append("; ").append(sections.timingSummary());
+    }
+    
     /**
      * 生成旅游建议
      */
@@ -257,6 +358,18 @@ public class EnhancedTravelTools {
         advice.append("• 根据天气情况调整户外活动安排\n\n");
         
         advice.append("💰 预算建议：\n");
+        // 费用按消费表在本地计算，档次无法识别时按舒适型给出
+        PriceTier tier = PriceTier.fromText(budget);
+        PriceTier shown = tier != null ? tier : PriceTier.COMFORT;
+        BudgetEstimate estimate = budgetTable.estimate(destination, days, BUDGET_TRAVELERS);
+        advice.append("• 按").append(shown.getLabel()).append("标准，").append(BUDGET_TRAVELERS).append("人")
+                .append(days).append("天约").append(estimate.total(shown)).append("元（人均")
+                .append(estimate.perPerson(shown)).append("元，不含往返大交通）：");
+        for (CostItem item : CostItem.values()) {
+            advice.append(item == CostItem.LODGING ? "" : "、").append(item.getLabel())
+                    .append(estimate.amount(shown, item));
+        }
+        advice.append("\n");
         if ("经济型".equals(budget)) {
             advice.append("• 选择公共交通出行，节省交通费用\n");
             advice.append("• 选择经济型酒店或民宿\n");
@@ -320,6 +433,75 @@ public class EnhancedTravelTools {
         return advice.toString();
     }
     
+    /**
+     * 按位置偏好从 POI 目录挑选酒店：
+     * 景区附近取到各热门景点平均距离最近的酒店，交通便利取地铁沿线酒店，
+     * 其他偏好（市中心、某个景点附近）解析为锚点后按距离排序
+     */
+    private String locationMatchedHotels(String destination, String budget, String locationPreference) {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0 || locationPreference == null || locationPreference.isBlank()) {
+            return "";
+        }
+        PriceTier tier = PriceTier.fromText(budget);
+        StringBuilder text = new StringBuilder();
+        
+        if (locationPreference.contains("景区") || locationPreference.contains("景点")) {
+            // 从城市距离矩阵中取“酒店 × 热门景点”的距离，按到各热门景点的平均距离排序
+            List<Poi> attractions = poiCatalog.query(PoiQuery.of(PoiKind.ATTRACTION).city(cityId).limit(SCENIC_ANCHORS));
+            List<Poi> hotels = poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier).limit(0));
+            if (attractions.isEmpty() || hotels.isEmpty()) {
+                return "";
+            }
+            CityMatrix matrix = travelMatrixService.cityMatrix(cityId);
+            int[] attractionRows = attractions.stream().mapToInt(poi -> matrix.indexOf(poi.id())).toArray();
+            List<HotelProximity> ranked = new ArrayList<>();
+            for (Poi hotel : hotels) {
+                int row = matrix.indexOf(hotel.id());
+                int nearest = 0;
+                double total = 0;
+                for (int i = 0; i < attractionRows.length; i++) {
+                    double meters = matrix.distances().meters(row, attractionRows[i]);
+                    total += meters;
+                    if (meters < matrix.distances().meters(row, attractionRows[nearest])) {
+                        nearest = i;
+                    }
+                }
+                ranked.add(new HotelProximity(hotel, attractions.get(nearest),
+                        matrix.distances().meters(row, attractionRows[nearest]), total / attractionRows.length));
+            }
+            ranked.stream()
+                    .sorted(Comparator.comparingDouble(HotelProximity::averageMeters))
+                    .limit(LOCATION_MATCHED_HOTELS)
+                    .forEach(item -> text.append("• ").append(item.hotel().name())
+                            .append(" - 距").append(item.nearest().name())
+                            .append(new NearbyPoi(item.hotel(), item.nearestMeters()).distanceText())
+                            .append("，到").append(attractions.size()).append("个热门景点平均")
+                            .append(GeoMath.formatDistance(item.averageMeters()))
+                            .append("，").append(item.hotel().priceText()).append("/晚\n"));
+        } else if (locationPreference.contains("交通") || locationPreference.contains("地铁")) {
+            poiCatalog.query(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier)
+                            .tag(poiCatalog.tagId("地铁")).limit(LOCATION_MATCHED_HOTELS))
+                    .forEach(hotel -> text.append("• ").append(hotel.name())
+                            .append(" - 地铁站附近，").append(hotel.priceText()).append("/晚\n"));
+        } else {
+            String place = locationPreference.contains("市中心") ? destination : locationPreference;
+            PoiAnchor anchor = poiCatalog.resolveAnchor(place, cityId);
+            if (anchor != null) {
+                poiCatalog.nearby(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier).limit(LOCATION_MATCHED_HOTELS),
+                                anchor.latitude(), anchor.longitude(), ANCHOR_RADIUS_METERS)
+                        .forEach(hotel -> text.append("• ").append(hotel.poi().name())
+                                .append(" - 距").append(anchor.label()).append(hotel.distanceText())
+                                .append("，").append(hotel.poi().priceText()).append("/晚\n"));
+            }
+        }
+        
+        if (text.isEmpty()) {
+            text.append("• 暂无符合“").append(locationPreference).append("”的酒店，可放宽预算或位置要求\n");
+        }
+        return text.toString();
+    }
+    
     /**
      * 生成位置建议
      */
@@ -387,4 +569,10 @@ public class EnhancedTravelTools {
         
         return advice.toString();
     }
+
+    /**
+     * 酒店与热门景点的距离关系
+     */
+    private record HotelProximity(Poi hotel, Poi nearest, double nearestMeters, double averageMeters) {
+    }
 }
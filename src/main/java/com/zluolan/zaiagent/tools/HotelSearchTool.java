@@ -1,18 +1,57 @@
 package com.zluolan.zaiagent.tools;
 
 import cn.hutool.json.JSONObject;
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.inventory.AvailabilityResult;
+import com.zluolan.zaiagent.inventory.HotelInventory;
+import com.zluolan.zaiagent.inventory.InventoryStore;
+import com.zluolan.zaiagent.inventory.RoomOffer;
+import com.zluolan.zaiagent.inventory.StayQuery;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.NearbyPoi;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import com.zluolan.zaiagent.poi.PriceTier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 酒店搜索工具
- * 用于搜索指定目的地的酒店住宿信息
+ * 用于搜索指定目的地的酒店住宿信息。
+ * 给出入住和退房日期时，按房态日历筛掉满房和超预算的酒店，并给出所选日期的实际房价。
  */
 @Component
 @Slf4j
 public class HotelSearchTool {
 
+    private static final int MAX_HOTELS = 5;
+    private static final int NEAR_RADIUS_METERS = 3000;
+    private static final int FALLBACK_RADIUS_METERS = 50_000;
+
+    private final PoiCatalog poiCatalog;
+    private final InventoryStore inventoryStore;
+    private final LocationNormalizer locationNormalizer;
+
+    public HotelSearchTool() {
+        this(PoiCatalog.getDefault(), InventoryStore.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public HotelSearchTool(PoiCatalog poiCatalog, InventoryStore inventoryStore, LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.inventoryStore = inventoryStore;
+        this.locationNormalizer = locationNormalizer;
+    }
+
     @Tool(name = "searchHotels", description = """
             搜索指定目的地的酒店住宿信息。
             参数说明：
@@ -20,14 +59,17 @@ public class HotelSearchTool {
             - checkInDate: 入住日期（格式：YYYY-MM-DD）
             - checkOutDate: 退房日期（格式：YYYY-MM-DD）
             - guests: 入住人数（默认2人）
-            - priceRange: 价格范围（经济型、舒适型、豪华型、奢华型）
-            - hotelType: 酒店类型（商务酒店、度假酒店、精品酒店、民宿等）
+            - priceRange: 价格范围（经济型、舒适型、豪华型、奢华型，或每晚价格上限如“500以下”，含“便宜”时按价格排序）
+            - hotelType: 酒店类型（商务酒店、度假酒店、精品酒店、民宿、经济连锁、青年旅社）
+            - nearLocation: 靠近的地点（可选，如：故宫、外滩、西湖），按距离筛选周边酒店
             """)
     public String searchHotels(String destination, String checkInDate, String checkOutDate, 
-                              Integer guests, String priceRange, String hotelType) {
+                              Integer guests, String priceRange, String hotelType, String nearLocation) {
         try {
-            log.info("搜索酒店信息 - 目的地: {}, 入住: {}, 退房: {}, 人数: {}, 价格: {}, 类型: {}", 
-                    destination, checkInDate, checkOutDate, guests, priceRange, hotelType);
+            log.info("搜索酒店信息 - 目的地: {}, 入住: {}, 退房: {}, 人数: {}, 价格: {}, 类型: {}, 靠近: {}", 
+                    destination, checkInDate, checkOutDate, guests, priceRange, hotelType, nearLocation);
+            destination = locationNormalizer.canonicalCity(destination);
+            nearLocation = locationNormalizer.canonicalPlace(nearLocation);
             
             if (guests == null || guests <= 0) {
                 guests = 2;
@@ -40,9 +82,11 @@ public class HotelSearchTool {
             result.set("guests", guests);
             result.set("priceRange", priceRange);
             result.set("hotelType", hotelType);
+            result.set("nearLocation", nearLocation);
             
             // 生成酒店推荐数据
-            String hotels = generateHotelData(destination, priceRange, hotelType);
+            String hotels = generateHotelData(destination, checkInDate, checkOutDate, guests,
+                    priceRange, hotelType, nearLocation);
             result.set("hotels", hotels);
             result.set("searchTime", System.currentTimeMillis());
             result.set("status", "success");
@@ -57,64 +101,39 @@ public class HotelSearchTool {
     }
     
     /**
-     * 根据目的地和条件生成酒店数据
+     * 搜索酒店（不限位置）
      */
-    private String generateHotelData(String destination, String priceRange, String hotelType) {
+    public String searchHotels(String destination, String checkInDate, String checkOutDate,
+                              Integer guests, String priceRange, String hotelType) {
+        return searchHotels(destination, checkInDate, checkOutDate, guests, priceRange, hotelType, null);
+    }
+    
+    /**
+     * 根据目的地和条件从 POI 目录查询酒店数据，有入住日期时再按房态筛选，目录中没有的城市返回通用建议
+     */
+    private String generateHotelData(String destination, String checkInDate, String checkOutDate, int guests,
+                                     String priceRange, String hotelType, String nearLocation) {
         StringBuilder hotels = new StringBuilder();
+        PriceTier tier = PriceTier.fromText(priceRange);
         
-        // 根据不同目的地提供不同的酒店信息
-        if (destination.contains("北京")) {
-            if ("豪华型".equals(priceRange) || "奢华型".equals(priceRange)) {
-                hotels.append("1. 北京王府井希尔顿酒店 - 五星级豪华酒店，位置优越\n");
-                hotels.append("   - 价格：¥800-1200/晚\n");
-                hotels.append("   - 设施：健身房、游泳池、商务中心\n");
-                hotels.append("   - 距离天安门：步行10分钟\n\n");
-                
-                hotels.append("2. 北京饭店 - 历史悠久的奢华酒店\n");
-                hotels.append("   - 价格：¥1000-1500/晚\n");
-                hotels.append("   - 设施：中西餐厅、会议室、礼宾服务\n");
-                hotels.append("   - 距离故宫：步行5分钟\n\n");
-            } else if ("舒适型".equals(priceRange)) {
-                hotels.append("1. 如家酒店（王府井店） - 连锁商务酒店\n");
-                hotels.append("   - 价格：¥300-500/晚\n");
-                hotels.append("   - 设施：免费WiFi、24小时前台\n");
-                hotels.append("   - 距离地铁：步行3分钟\n\n");
-                
-                hotels.append("2. 汉庭酒店（前门店） - 经济型连锁酒店\n");
-                hotels.append("   - 价格：¥250-400/晚\n");
-                hotels.append("   - 设施：自助早餐、商务中心\n");
-                hotels.append("   - 距离前门大街：步行2分钟\n\n");
-            } else {
-                hotels.append("1. 7天连锁酒店 - 经济型住宿\n");
-                hotels.append("   - 价格：¥150-250/晚\n");
-                hotels.append("   - 设施：基础设施齐全\n");
-                hotels.append("   - 交通便利，性价比高\n\n");
-            }
-        } else if (destination.contains("上海")) {
-            if ("豪华型".equals(priceRange) || "奢华型".equals(priceRange)) {
-                hotels.append("1. 上海外滩华尔道夫酒店 - 奢华地标酒店\n");
-                hotels.append("   - 价格：¥1500-2500/晚\n");
-                hotels.append("   - 设施：米其林餐厅、SPA、江景客房\n");
-                hotels.append("   - 位置：外滩核心位置\n\n");
-                
-                hotels.append("2. 上海浦东丽思卡尔顿酒店 - 国际奢华品牌\n");
-                hotels.append("   - 价格：¥1200-2000/晚\n");
-                hotels.append("   - 设施：高层江景、行政酒廊\n");
-                hotels.append("   - 距离陆家嘴：步行5分钟\n\n");
-            } else if ("舒适型".equals(priceRange)) {
-                hotels.append("1. 锦江之星（南京路店） - 知名连锁酒店\n");
-                hotels.append("   - 价格：¥400-600/晚\n");
-                hotels.append("   - 设施：商务设施、健身房\n");
-                hotels.append("   - 距离南京路步行街：步行1分钟\n\n");
+        int cityId = poiCatalog.cityId(destination);
+        PoiAnchor anchor = null;
+        if (nearLocation != null && !nearLocation.isBlank()) {
+            anchor = poiCatalog.resolveAnchor(nearLocation, cityId);
+            if (anchor == null) {
+                hotels.append("未识别的位置「").append(nearLocation).append("」，按评分排序\n");
+            } else if (cityId < 0) {
+                cityId = anchor.cityId();
             }
-        } else {
+        }
+        if (cityId < 0) {
             // 通用酒店信息
             hotels.append("推荐酒店类型：\n");
-            if ("豪华型".equals(priceRange) || "奢华型".equals(priceRange)) {
+            if (tier == PriceTier.PREMIUM || tier == PriceTier.LUXURY) {
                 hotels.append("1. 国际连锁五星级酒店 - 希尔顿、万豪、洲际等\n");
                 hotels.append("2. 当地知名豪华酒店 - 提供高端服务和设施\n");
                 hotels.append("3. 精品设计酒店 - 独特设计和个性化服务\n");
-            } else if ("舒适型".equals(priceRange)) {
+            } else if (tier == PriceTier.COMFORT) {
                 hotels.append("1. 商务连锁酒店 - 如家、汉庭、锦江之星\n");
                 hotels.append("2. 当地三四星级酒店 - 性价比较高\n");
                 hotels.append("3. 公寓式酒店 - 适合长期住宿\n");
@@ -123,22 +142,145 @@ public class HotelSearchTool {
                 hotels.append("2. 青年旅社 - 适合背包客\n");
                 hotels.append("3. 民宿客栈 - 体验当地文化\n");
             }
+            return hotels.toString();
+        }
+        
+        StayQuery stay = stayQuery(hotels, checkInDate, checkOutDate, guests, priceRange);
+        
+        // 先按档次和类型同时过滤，无结果时依次放宽类型、档次条件
+        int categoryId = poiCatalog.categoryId(PoiKind.HOTEL, hotelType);
+        HotelSelection found = findHotels(PoiQuery.of(PoiKind.HOTEL)
+                .city(cityId).tier(tier).category(categoryId), anchor, stay);
+        if (found.isEmpty() && categoryId >= 0) {
+            hotels.append("未找到符合条件的").append(poiCatalog.categoryName(categoryId)).append("，已放宽酒店类型\n");
+            found = findHotels(PoiQuery.of(PoiKind.HOTEL).city(cityId).tier(tier), anchor, stay);
+        }
+        if (found.isEmpty() && tier != null) {
+            hotels.append("未找到").append(tier.getLabel()).append("酒店，已放宽价格档次\n");
+            found = findHotels(PoiQuery.of(PoiKind.HOTEL).city(cityId), anchor, stay);
+        }
+        if (found.isEmpty() && anchor != null) {
+            hotels.append(anchor.label()).append("周边").append(GeoMath.formatDistance(NEAR_RADIUS_METERS))
+                    .append("内暂无").append(stay != null ? "可订" : "").append("酒店，以下为距离最近的酒店\n");
+            found = select(poiCatalog.nearest(PoiQuery.of(PoiKind.HOTEL).city(cityId).limit(stay != null ? 0 : MAX_HOTELS),
+                    anchor.latitude(), anchor.longitude(), FALLBACK_RADIUS_METERS), stay);
+        }
+        AvailabilityResult availability = found.availability();
+        if (availability != null && availability.soldOut() + availability.overBudget() > 0) {
+            hotels.append("所选日期已排除");
+            if (availability.soldOut() > 0) {
+                hotels.append(availability.soldOut()).append("家满房");
+            }
+            if (availability.overBudget() > 0) {
+                hotels.append(availability.soldOut() > 0 ? "、" : "")
+                        .append(availability.overBudget()).append("家超出预算");
+            }
+            hotels.append("的酒店\n");
+        }
+        if (found.isEmpty() && stay != null) {
+            hotels.append("所选日期暂无符合条件的可订酒店，建议调整日期或放宽预算\n");
         }
         
-        // 根据酒店类型添加特殊推荐
-        if (hotelType != null && !hotelType.trim().isEmpty()) {
-            hotels.append("\n特别推荐（").append(hotelType).append("）：\n");
-            if (hotelType.contains("度假")) {
-                hotels.append("- 选择带有度假设施的酒店（游泳池、SPA、花园等）\n");
-            } else if (hotelType.contains("商务")) {
-                hotels.append("- 选择交通便利、商务设施完善的酒店\n");
-            } else if (hotelType.contains("民宿")) {
-                hotels.append("- 推荐当地特色民宿，体验本土文化\n");
+        int index = 1;
+        for (HotelMatch match : found.matches()) {
+            NearbyPoi nearby = match.nearby();
+            Poi poi = nearby.poi();
+            hotels.append(index++).append(". ").append(poi.name())
+                    .append(" - ").append(poi.description()).append("\n");
+            hotels.append("   - 类型：").append(poi.category())
+                    .append(" | 档次：").append(poi.tier().getLabel()).append("\n");
+            if (match.offer() != null) {
+                hotels.append("   - 房价：").append(match.offer().priceText());
+            } else {
+                hotels.append("   - 价格：").append(poi.priceText()).append("/晚");
             }
+            hotels.append(" | 评分：").append(poi.rating()).append("\n");
+            if (anchor != null) {
+                hotels.append("   - 距离").append(anchor.label()).append("：").append(nearby.distanceText()).append("\n");
+            }
+            if (!poi.tags().isEmpty()) {
+                hotels.append("   - 特色：").append(String.join("、", poi.tags())).append("\n");
+            }
+            hotels.append("\n");
         }
         
         return hotels.toString();
     }
+    
+    /**
+     * 解析入住区间；日期无效或超出房态日历时给出提示并返回 null（不按日期筛选）
+     */
+    private StayQuery stayQuery(StringBuilder hotels, String checkInDate, String checkOutDate,
+                                int guests, String priceRange) {
+        if ((checkInDate == null || checkInDate.isBlank()) && (checkOutDate == null || checkOutDate.isBlank())) {
+            return null;
+        }
+        StayQuery stay = StayQuery.parse(checkInDate, checkOutDate);
+        if (stay == null) {
+            hotels.append("入住日期无法识别（格式：YYYY-MM-DD，退房需晚于入住），以下未按日期筛选\n");
+            return null;
+        }
+        HotelInventory inventory = inventoryStore.snapshot();
+        if (!inventory.covers(stay)) {
+            hotels.append("可查询房态的日期为").append(inventory.firstDate()).append("至").append(inventory.lastDate())
+                    .append("，所选日期超出范围，以下为参考价格\n");
+            return null;
+        }
+        stay.guests(guests)
+                .maxNightly(StayQuery.maxNightlyIn(priceRange))
+                .sortByPrice(StayQuery.prefersLowPrice(priceRange))
+                .limit(MAX_HOTELS);
+        hotels.append("入住：").append(stay.checkIn()).append(" 至 ").append(stay.checkOut())
+                .append("（").append(stay.nights()).append("晚，").append(stay.guests()).append("人")
+                .append(stay.rooms()).append("间）\n");
+        return stay;
+    }
+    
+    /**
+     * 有参照地点时按距离查询周边酒店，否则按评分查询；有入住区间时取全部候选再按房态筛选
+     */
+    private HotelSelection findHotels(PoiQuery query, PoiAnchor anchor, StayQuery stay) {
+        query.limit(stay != null ? 0 : MAX_HOTELS);
+        if (anchor != null) {
+            return select(poiCatalog.nearby(query, anchor.latitude(), anchor.longitude(), NEAR_RADIUS_METERS), stay);
+        }
+        return select(poiCatalog.query(query).stream()
+                .map(poi -> new NearbyPoi(poi, 0))
+                .toList(), stay);
+    }
+    
+    /**
+     * 按房态筛选候选酒店，保留候选原有顺序（距离或评分），要求便宜时按总价排序
+     */
+    private HotelSelection select(List<NearbyPoi> candidates, StayQuery stay) {
+        if (stay == null) {
+            return new HotelSelection(candidates.stream().map(nearby -> new HotelMatch(nearby, null)).toList(), null);
+        }
+        Map<Integer, NearbyPoi> byId = new HashMap<>();
+        for (NearbyPoi nearby : candidates) {
+            byId.put(nearby.poi().id(), nearby);
+        }
+        AvailabilityResult availability = inventoryStore.snapshot()
+                .search(candidates.stream().map(NearbyPoi::poi).toList(), stay);
+        List<HotelMatch> matches = availability.offers().stream()
+                .map(offer -> new HotelMatch(byId.get(offer.hotel().id()), offer))
+                .toList();
+        return new HotelSelection(matches, availability);
+    }
+    
+    /**
+     * 一家候选酒店及其所选日期的报价（未按日期查询时为 null）
+     */
+    private record HotelMatch(NearbyPoi nearby, RoomOffer offer) {
+    }
+    
+    /**
+     * 一次筛选的结果，availability 为 null 表示未按日期查询
+     */
+    private record HotelSelection(List<HotelMatch> matches, AvailabilityResult availability) {
+        
+        boolean isEmpty() {
+            return matches.isEmpty();
+        }
+    }
 }
-
-
@@ -0,0 +1,337 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.routing.Itinerary;
+import com.zluolan.zaiagent.routing.ItineraryProblem;
+import com.zluolan.zaiagent.routing.ItinerarySolver;
+import com.zluolan.zaiagent.routing.LocalTransport;
+import com.zluolan.zaiagent.routing.Route;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 多日行程编排工具
+ * 把选定的地点按建议游玩时长、开放时间、交通耗时和每日活动时段分配到各天并排好顺序，
+ * 由本地求解器在毫秒级给出确定的日程，大模型只需在此基础上介绍和润色
+ */
+@Component
+@Slf4j
+public class ItineraryPlannerTool {
+
+    private static final int MAX_STOPS = 40;
+    private static final int MAX_DAYS = 14;
+    private static final int DEFAULT_DAYS = 3;
+    private static final int DEFAULT_DAY_START = 9 * 60;
+    private static final int DEFAULT_DAY_END = 21 * 60;
+    private static final String[] WEEKDAYS = {"周一", "周二", "周三", "周四", "周五", "周六", "周日"};
+    private static final Pattern TIME = Pattern.compile("^\\s*(\\d{1,2})[:：](\\d{2})\\s*$");
+
+    private final PoiCatalog poiCatalog;
+    private final TravelMatrixService travelMatrixService;
+    private final LocationNormalizer locationNormalizer;
+
+    public ItineraryPlannerTool() {
+        this(PoiCatalog.getDefault(), TravelMatrixService.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public ItineraryPlannerTool(PoiCatalog poiCatalog, TravelMatrixService travelMatrixService,
+                                LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.travelMatrixService = travelMatrixService;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "planItinerary", description = """
+            把要去的多个地点自动分配到每一天并排好游览顺序，返回逐日行程（每站起止时间、交通耗时、回住处时间）。
+            会考虑建议游玩时长、开放时间、交通耗时和每日活动时段，排不下的地点会单独列出。
+            生成多日行程时优先调用本工具，直接采用返回的日程，不要自行调整时间和顺序。
+            参数说明：
+            - destination: 所在城市（可选，用于区分同名地点）
+            - stops: 要游览的地点，多个地点用逗号分隔（最多40个）
+            - days: 行程天数（默认3天，最多14天）
+            - startDate: 第一天日期（格式：YYYY-MM-DD，可选，默认今天）
+            - hotel: 住处，每天从这里出发并回到这里（可选）
+            - transportMode: 市内交通方式（步行、骑行、公交地铁、打车，默认公交地铁）
+            - startTime: 每天出发时间（格式：HH:mm，默认09:00）
+            - endTime: 每天最晚回到住处的时间（格式：HH:mm，默认21:00）
+            """)
+    public String planItinerary(String destination, String stops, Integer days, String startDate, String hotel,
+                                String transportMode, String startTime, String endTime) {
+        try {
+            return "[TOOL_EXECUTION_RESULT] 行程编排完成！\n"
+                    + plan(destination, stops, days, startDate, hotel, transportMode, startTime, endTime).report();
+        } catch (IllegalArgumentException e) {
+            return "[TOOL_EXECUTION_RESULT] 行程编排失败: " + e.getMessage();
+        } catch (Exception e) {
+            log.error("行程编排失败", e);
+            return "[TOOL_EXECUTION_RESULT] 行程编排失败: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 编排行程，结果中的逐日条目可直接作为结构化旅游计划的 itinerary
+     *
+     * @throws IllegalArgumentException 地点无法识别或参数不合理时抛出，消息可直接展示给用户
+     */
+    public PlannedItinerary plan(String destination, String stops, Integer days, String startDate, String hotel,
+                                 String transportMode, String startTime, String endTime) {
+        log.info("编排行程 - 城市: {}, 地点: {}, 天数: {}, 日期: {}, 住处: {}, 交通: {}, 时段: {}-{}",
+                destination, stops, days, startDate, hotel, transportMode, startTime, endTime);
+        destination = locationNormalizer.canonicalCity(destination);
+        hotel = locationNormalizer.canonicalPlace(hotel);
+
+        int cityHint = poiCatalog.cityId(destination);
+        PoiAnchor base = null;
+        if (hotel != null && !hotel.isBlank()) {
+            base = poiCatalog.resolveAnchor(hotel, cityHint);
+            if (base == null) {
+                throw new IllegalArgumentException("未识别的住处「" + hotel + "」");
+            }
+            cityHint = cityHint >= 0 ? cityHint : base.cityId();
+        }
+        List<PoiAnchor> anchors = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        if (stops != null) {
+            for (String text : stops.split("[,，、;；]")) {
+                if (text.isBlank()) {
+                    continue;
+                }
+                PoiAnchor anchor = poiCatalog.resolveAnchor(text, cityHint);
+                if (anchor == null) {
+                    unknown.add(text.trim());
+                    continue;
+                }
+                if (anchors.stream().noneMatch(existing -> existing.label().equals(anchor.label()))) {
+                    anchors.add(anchor);
+                }
+                cityHint = cityHint >= 0 ? cityHint : anchor.cityId();
+            }
+        }
+        if (anchors.isEmpty()) {
+            throw new IllegalArgumentException("没有可识别的游览地点"
+                    + (unknown.isEmpty() ? "" : "（未识别：" + String.join("、", unknown) + "）"));
+        }
+        if (anchors.size() > MAX_STOPS) {
+            throw new IllegalArgumentException("地点数量超过上限" + MAX_STOPS + "个，请减少地点");
+        }
+        int tripDays = days == null || days <= 0 ? DEFAULT_DAYS : Math.min(days, MAX_DAYS);
+        int dayStart = parseTime(startTime, DEFAULT_DAY_START);
+        int dayEnd = parseTime(endTime, DEFAULT_DAY_END);
+        if (dayEnd <= dayStart) {
+            throw new IllegalArgumentException("每天的结束时间必须晚于出发时间");
+        }
+        LocalTransport transport = LocalTransport.fromText(transportMode);
+        if (transport == null) {
+            transport = LocalTransport.TRANSIT;
+        }
+
+        ItineraryProblem problem = buildProblem(base, anchors, transport)
+                .days(tripDays).dayWindow(dayStart, dayEnd);
+        long begin = System.nanoTime();
+        Itinerary itinerary = ItinerarySolver.solve(problem, ItinerarySolver.DEFAULT_MAX_MOVES);
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+        log.info("行程编排完成 - 地点: {}, 天数: {}, 已安排: {}, 交通耗时: {}分钟, 求解耗时: {}ms",
+                anchors.size(), tripDays, itinerary.scheduledCount(), itinerary.travelMinutes(), elapsedMillis);
+
+        String city = destination != null && !destination.isBlank() ? destination
+                : cityHint >= 0 ? poiCatalog.cityName(cityHint) : "";
+        LocalDate firstDay = parseDate(startDate);
+        List<String> lines = itineraryLines(base, anchors, problem, itinerary, firstDay);
+        String report = formatReport(city, base, anchors, problem, itinerary, transport, firstDay, unknown);
+        return new PlannedItinerary(city, tripDays, lines, report);
+    }
+
+    /**
+     * 站点 0 为住处；没有住处时用一个到各处耗时均为 0 的虚拟起点，
+     * 每天从第一个景点开始、在最后一个景点结束
+     */
+    private ItineraryProblem buildProblem(PoiAnchor base, List<PoiAnchor> anchors, LocalTransport transport) {
+        int n = anchors.size() + 1;
+        int[][] travel;
+        if (base != null) {
+            List<PoiAnchor> all = new ArrayList<>(n);
+            all.add(base);
+            all.addAll(anchors);
+            travel = travelMatrixService.minutes(all, transport);
+        } else {
+            int[][] between = travelMatrixService.minutes(anchors, transport);
+            travel = new int[n][n];
+            for (int i = 1; i < n; i++) {
+                System.arraycopy(between[i - 1], 0, travel[i], 1, n - 1);
+            }
+        }
+        int[] service = new int[n];
+        int[] open = new int[n];
+        int[] close = new int[n];
+        Arrays.fill(open, -1);
+        Arrays.fill(close, -1);
+        for (int i = 1; i < n; i++) {
+            PoiAnchor anchor = anchors.get(i - 1);
+            if (anchor.poiId() < 0) {
+                continue;
+            }
+            Poi poi = poiCatalog.get(anchor.poiId());
+            service[i] = Math.max(0, poi.durationMinutes());
+            open[i] = poi.openMinute();
+            close[i] = poi.closeMinute();
+        }
+        return ItineraryProblem.of(travel).service(service).windows(open, close);
+    }
+
+    /**
+     * 逐日条目，每站一条，格式如“第1天（2025-05-01 周四）09:30-12:30 故宫博物院”
+     */
+    private static List<String> itineraryLines(PoiAnchor base, List<PoiAnchor> anchors, ItineraryProblem problem,
+                                               Itinerary itinerary, LocalDate firstDay) {
+        List<String> lines = new ArrayList<>();
+        for (int d = 0; d < itinerary.days().size(); d++) {
+            Itinerary.Day day = itinerary.days().get(d);
+            String prefix = dayTitle(d, firstDay);
+            if (day.isEmpty()) {
+                lines.add(prefix + " 自由活动");
+                continue;
+            }
+            for (int i = 0; i < day.stops().length; i++) {
+                int stop = day.stops()[i];
+                int start = day.startMinutes()[i];
+                lines.add(prefix + " " + formatMinute(start) + "-" + formatMinute(start + problem.service(stop))
+                        + " " + anchors.get(stop - 1).label());
+            }
+            if (base != null) {
+                lines.add(prefix + " " + formatMinute(day.finishMinute()) + " 回到" + base.label());
+            }
+        }
+        return lines;
+    }
+
+    private String formatReport(String city, PoiAnchor base, List<PoiAnchor> anchors, ItineraryProblem problem,
+                                Itinerary itinerary, LocalTransport transport, LocalDate firstDay,
+                                List<String> unknown) {
+        StringBuilder text = new StringBuilder();
+        text.append("=== ").append(city).append(problem.days()).append("天行程 ===\n");
+        text.append("市内交通：").append(transport.getLabel())
+                .append(" | 每日时段：").append(formatMinute(problem.dayStartMinute()))
+                .append("-").append(formatMinute(problem.dayEndMinute()));
+        if (base != null) {
+            text.append(" | 住处：").append(base.label());
+        }
+        text.append("\n");
+        for (int d = 0; d < itinerary.days().size(); d++) {
+            Itinerary.Day day = itinerary.days().get(d);
+            text.append("\n【").append(dayTitle(d, firstDay)).append("】");
+            if (day.isEmpty()) {
+                text.append("自由活动，可安排购物、休息或临时加入的地点\n");
+                continue;
+            }
+            text.append("\n");
+            int previousEnd = -1;
+            for (int i = 0; i < day.stops().length; i++) {
+                int stop = day.stops()[i];
+                int leg = problem.travel(i == 0 ? 0 : day.stops()[i - 1], stop);
+                if (i == 0 && base != null) {
+                    text.append("   ").append(formatMinute(day.arriveMinutes()[0] - leg))
+                            .append(" 从 ").append(base.label()).append(" 出发\n");
+                }
+                if (i > 0 || base != null) {
+                    text.append("   ↓ ").append(transport.getLabel()).append("约").append(Route.formatMinutes(leg)).append("\n");
+                }
+                int start = day.startMinutes()[i];
+                previousEnd = start + problem.service(stop);
+                text.append(i + 1).append(". ").append(formatMinute(start)).append("-").append(formatMinute(previousEnd))
+                        .append(" ").append(anchors.get(stop - 1).label());
+                if (start > day.arriveMinutes()[i]) {
+                    text.append("（").append(formatMinute(day.arriveMinutes()[i])).append("到达，等待开门）");
+                }
+                PoiAnchor anchor = anchors.get(stop - 1);
+                if (anchor.poiId() >= 0 && poiCatalog.get(anchor.poiId()).openingHours() != null) {
+                    text.append("（开放时间").append(poiCatalog.get(anchor.poiId()).openingHours()).append("）");
+                }
+                text.append("\n");
+            }
+            if (base != null) {
+                int back = day.finishMinute() - previousEnd;
+                text.append("   ↓ ").append(transport.getLabel()).append("约").append(Route.formatMinutes(back)).append("\n");
+                text.append("   ").append(formatMinute(day.finishMinute())).append(" 回到 ").append(base.label()).append("\n");
+            }
+            text.append("   当日交通约").append(Route.formatMinutes(day.travelMinutes())).append("\n");
+        }
+        text.append("\n总交通耗时：").append(Route.formatMinutes(itinerary.travelMinutes()))
+                .append(" | 已安排").append(itinerary.scheduledCount()).append("/").append(anchors.size()).append("个地点\n");
+        if (itinerary.unscheduled().length > 0) {
+            List<String> left = new ArrayList<>();
+            for (int stop : itinerary.unscheduled()) {
+                left.add(anchors.get(stop - 1).label());
+            }
+            text.append("⚠️ 以下地点在每日时段和开放时间内排不下，建议增加天数或放宽时段：")
+                    .append(String.join("、", left)).append("\n");
+        }
+        if (!unknown.isEmpty()) {
+            text.append("⚠️ 未识别的地点已忽略：").append(String.join("、", unknown)).append("\n");
+        }
+        if (itinerary.budgetExhausted()) {
+            text.append("ℹ️ 地点较多，已在求解步数上限内给出当前最优安排\n");
+        }
+        text.append("ℹ️ 以上日程已按开放时间和交通耗时排定，介绍行程时请保持各天的顺序和时间\n");
+        return text.toString();
+    }
+
+    private static String dayTitle(int index, LocalDate firstDay) {
+        LocalDate date = firstDay.plusDays(index);
+        return "第" + (index + 1) + "天（" + date + " " + WEEKDAYS[date.getDayOfWeek().getValue() - 1] + "）";
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(text.strip());
+        } catch (DateTimeParseException e) {
+            return LocalDate.now();
+        }
+    }
+
+    private static int parseTime(String text, int defaultMinute) {
+        if (text == null) {
+            return defaultMinute;
+        }
+        Matcher matcher = TIME.matcher(text);
+        if (!matcher.matches()) {
+            return defaultMinute;
+        }
+        int minute = Integer.parseInt(matcher.group(1)) * 60 + Integer.parseInt(matcher.group(2));
+        return minute <= 24 * 60 ? minute : defaultMinute;
+    }
+
+    private static String formatMinute(int minute) {
+        int dayMinute = Math.floorMod(minute, 24 * 60);
+        String text = String.format("%02d:%02d", dayMinute / 60, dayMinute % 60);
+        return minute >= 24 * 60 ? "次日" + text : text;
+    }
+
+    /**
+     * 编排好的行程
+     *
+     * @param destination 城市
+     * @param days        天数
+     * @param itinerary   逐日条目，对应结构化旅游计划的 itinerary
+     * @param report      展示给模型和用户的完整日程
+     */
+    public record PlannedItinerary(String destination, int days, List<String> itinerary, String report) {
+    }
+}
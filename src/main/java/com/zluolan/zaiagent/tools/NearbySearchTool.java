@@ -0,0 +1,111 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.NearbyPoi;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 附近搜索工具
+ * 基于 POI 目录的空间索引，按距离查找某个地点周边的酒店、景点和美食
+ */
+@Component
+@Slf4j
+public class NearbySearchTool {
+
+    private static final int DEFAULT_RADIUS_METERS = 1000;
+    private static final int MAX_RADIUS_METERS = 50_000;
+    private static final int DEFAULT_LIMIT = 5;
+    private static final int MAX_LIMIT = 20;
+
+    private final PoiCatalog poiCatalog;
+    private final LocationNormalizer locationNormalizer;
+
+    public NearbySearchTool() {
+        this(PoiCatalog.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public NearbySearchTool(PoiCatalog poiCatalog, LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "searchNearby", description = """
+            按距离搜索某个地点附近的酒店、景点或美食，例如“故宫1公里内的酒店”。
+            参数说明：
+            - location: 参照地点（景点名、酒店名、城市名，或“纬度,经度”坐标）
+            - destination: 所在城市（可选，用于区分同名地点）
+            - poiType: 搜索类型（酒店、景点、美食，默认酒店）
+            - radiusMeters: 搜索半径，单位米（默认1000，最大50000）
+            - limit: 返回结果数量（默认5个，最多20个）
+            """)
+    public String searchNearby(String location, String destination, String poiType,
+                               Integer radiusMeters, Integer limit) {
+        try {
+            log.info("附近搜索 - 地点: {}, 城市: {}, 类型: {}, 半径: {}, 限制: {}",
+                    location, destination, poiType, radiusMeters, limit);
+            location = locationNormalizer.canonicalPlace(location);
+            destination = locationNormalizer.canonicalCity(destination);
+
+            PoiAnchor anchor = poiCatalog.resolveAnchor(location, poiCatalog.cityId(destination));
+            if (anchor == null) {
+                return "[TOOL_EXECUTION_RESULT] 附近搜索失败: 未识别的地点「" + location + "」，请提供景点名称、城市名或坐标";
+            }
+            PoiKind kind = PoiKind.fromText(poiType, PoiKind.HOTEL);
+            int radius = radiusMeters == null || radiusMeters <= 0
+                    ? DEFAULT_RADIUS_METERS : Math.min(radiusMeters, MAX_RADIUS_METERS);
+            int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+            StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT] 附近搜索成功！\n");
+            result.append("📍 ").append(anchor.label()).append(" 周边")
+                    .append(GeoMath.formatDistance(radius)).append("内的").append(kind.getLabel()).append("\n\n");
+
+            // 多取一条，以便排除锚点自身
+            PoiQuery query = PoiQuery.of(kind).limit(size + 1);
+            List<NearbyPoi> found = withoutAnchor(
+                    poiCatalog.nearby(query, anchor.latitude(), anchor.longitude(), radius), anchor, size);
+            if (found.isEmpty()) {
+                result.append("半径内没有找到").append(kind.getLabel()).append("，以下为距离最近的结果：\n");
+                found = withoutAnchor(
+                        poiCatalog.nearest(query, anchor.latitude(), anchor.longitude(), MAX_RADIUS_METERS), anchor, size);
+            }
+            if (found.isEmpty()) {
+                result.append(GeoMath.formatDistance(MAX_RADIUS_METERS)).append("范围内暂无").append(kind.getLabel()).append("数据\n");
+                return result.toString();
+            }
+
+            int index = 1;
+            for (NearbyPoi nearby : found) {
+                Poi poi = nearby.poi();
+                result.append(index++).append(". ").append(poi.name())
+                        .append(" - 距离").append(nearby.distanceText()).append("\n");
+                result.append("   - ").append(poi.city()).append(" | ").append(poi.category())
+                        .append(" | 价格：").append(poi.priceText())
+                        .append(" | 评分：").append(poi.rating()).append("\n");
+            }
+            return result.toString();
+
+        } catch (Exception e) {
+            log.error("附近搜索失败", e);
+            return "[TOOL_EXECUTION_RESULT] 附近搜索失败: " + e.getMessage();
+        }
+    }
+
+    private static List<NearbyPoi> withoutAnchor(List<NearbyPoi> found, PoiAnchor anchor, int size) {
+        List<NearbyPoi> filtered = found.stream()
+                .filter(nearby -> nearby.poi().id() != anchor.poiId())
+                .toList();
+        return filtered.size() > size ? filtered.subList(0, size) : filtered;
+    }
+}
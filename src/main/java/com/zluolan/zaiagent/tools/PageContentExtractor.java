@@ -0,0 +1,107 @@
+package com.zluolan.zaiagent.tools;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+/**
+ * 网页正文提取器
+ * 去掉脚本、导航、页脚等噪音节点后，按段落文本密度选出正文所在的容器
+ */
+final class PageContentExtractor {
+
+    private static final String NOISE_SELECTOR =
+            "script, style, noscript, iframe, svg, form, nav, header, footer, aside, "
+                    + "[role=navigation], [role=banner], [role=contentinfo], .comment, .comments, .ad, .ads";
+
+    private static final String BLOCK_SELECTOR = "p, h1, h2, h3, h4, li, pre, blockquote";
+
+    // 文本过短的段落视为按钮、标签等噪音
+    private static final int MIN_BLOCK_CHARS = 8;
+
+    private PageContentExtractor() {
+    }
+
+    /**
+     * 提取正文，结果最多 maxChars 个字符
+     */
+    static String extractMainText(Document document, int maxChars) {
+        Element body = document.body();
+        if (body == null) {
+            return "";
+        }
+        body.select(NOISE_SELECTOR).remove();
+
+        Element container = selectContainer(body);
+        StringBuilder text = new StringBuilder();
+        for (Element block : container.select(BLOCK_SELECTOR)) {
+            // 嵌套块（如 li 中的 p）只取最内层，避免重复
+            if (block.select(BLOCK_SELECTOR).size() > 1) {
+                continue;
+            }
+            String blockText = block.text().trim();
+            if (blockText.length() < MIN_BLOCK_CHARS) {
+                continue;
+            }
+            if (!appendLimited(text, blockText, maxChars)) {
+                break;
+            }
+        }
+        if (text.isEmpty()) {
+            appendLimited(text, container.text().trim(), maxChars);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 优先使用 article/main 语义标签，否则选段落文本最多的容器
+     */
+    private static Element selectContainer(Element body) {
+        Element semantic = body.selectFirst("article, main, [role=main]");
+        if (semantic != null && paragraphTextLength(semantic) > 0) {
+            return semantic;
+        }
+        Element best = body;
+        int bestScore = 0;
+        for (Element candidate : body.select("div, section")) {
+            int score = paragraphTextLength(candidate);
+            // 链接文本占比过高的容器通常是导航或列表页
+            int linkText = candidate.select("a").text().length();
+            score -= linkText;
+            if (score > bestScore) {
+                bestScore = score;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static int paragraphTextLength(Element element) {
+        int length = 0;
+        Elements paragraphs = element.select("p");
+        for (Element p : paragraphs) {
+            length += p.text().length();
+        }
+        return length;
+    }
+
+    /**
+     * 追加一段文本，返回 false 表示已达到上限
+     */
+    private static boolean appendLimited(StringBuilder text, String block, int maxChars) {
+        int remaining = maxChars - text.length();
+        if (remaining <= 0) {
+            return false;
+        }
+        if (!text.isEmpty()) {
+            text.append('\n');
+            remaining--;
+        }
+        if (block.length() > remaining) {
+            text.append(block, 0, Math.max(0, remaining)).append("...");
+            return false;
+        }
+        text.append(block);
+        return true;
+    }
+}
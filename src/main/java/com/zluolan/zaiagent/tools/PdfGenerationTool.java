@@ -0,0 +1,99 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.app.TravelApp.TravelPlan;
+import com.zluolan.zaiagent.pdf.PdfJob;
+import com.zluolan.zaiagent.pdf.PdfRenderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 行程单 PDF 生成工具
+ * 只提交渲染任务并立即返回任务ID，渲染在 {@link PdfRenderService} 的工作线程中完成，不阻塞智能体步骤
+ */
+@Component
+@Slf4j
+public class PdfGenerationTool {
+
+    /**
+     * 结果中的任务标记，智能体据此把任务ID作为最终结果返回
+     */
+    public static final String JOB_MARKER = "PDF job submitted: ";
+
+    /**
+     * 任务ID为 32 位十六进制；结果可能经过 JSON 转义（换行变成反斜杠加 n），不能按空白截取
+     */
+    private static final Pattern JOB_ID = Pattern.compile(Pattern.quote(JOB_MARKER) + "([0-9a-f]{32})");
+
+    private final PdfRenderService pdfRenderService;
+
+    public PdfGenerationTool() {
+        this(PdfRenderService.getDefault());
+    }
+
+    @Autowired
+    public PdfGenerationTool(PdfRenderService pdfRenderService) {
+        this.pdfRenderService = pdfRenderService;
+    }
+
+    @Tool(name = "generateTravelPdf", description = """
+            把最终确定的旅游计划生成 PDF 行程单。任务提交后立即返回任务ID，PDF 在后台生成，用户可凭任务ID查询和下载。
+            行程已经确定、用户需要导出或打印时调用，每个计划只需调用一次。
+            参数说明：
+            - destination: 目的地
+            - duration: 行程时长，如：3天2晚（可选）
+            - budget: 预算说明（可选）
+            - itinerary: 逐日行程，每行一项，可用“第1天”等开头的行分隔各天
+            - attractions: 推荐景点，每行一项（可选）
+            - recommendations: 旅行建议，每行一项（可选）
+            """)
+    public String generateTravelPdf(String destination, String duration, String budget, String itinerary,
+                                    String attractions, String recommendations) {
+        try {
+            PdfJob job = pdfRenderService.submit(new TravelPlan(destination, duration, budget,
+                    lines(attractions), lines(recommendations), lines(itinerary)));
+            if (job.status() == PdfJob.Status.FAILED) {
+                return "[TOOL_EXECUTION_RESULT] PDF生成失败: " + job.error();
+            }
+            return "[TOOL_EXECUTION_RESULT] PDF生成任务已提交，后台生成完成后即可下载\n"
+                    + JOB_MARKER + job.id() + "\n"
+                    + "查询进度: /api/travel/pdf/jobs/" + job.id() + "\n"
+                    + "下载地址: /api/travel/pdf/jobs/" + job.id() + "/file";
+        } catch (IllegalArgumentException e) {
+            return "[TOOL_EXECUTION_RESULT] PDF生成失败: " + e.getMessage();
+        } catch (Exception e) {
+            log.error("提交PDF生成任务失败", e);
+            return "[TOOL_EXECUTION_RESULT] PDF生成失败: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 从工具结果或智能体步骤文本中取出任务ID，没有任务标记时返回 null
+     */
+    public static String findJobId(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = JOB_ID.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 按行拆分，模型常把多项写在一行里用分号隔开，也一并拆开
+     */
+    static List<String> lines(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.split("\\r?\\n|[;；]"))
+                .map(String::strip)
+                .filter(line -> !line.isEmpty())
+                .toList();
+    }
+}
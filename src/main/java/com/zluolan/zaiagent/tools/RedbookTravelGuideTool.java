@@ -1,16 +1,50 @@
 package com.zluolan.zaiagent.tools;
 
+import com.zluolan.zaiagent.guide.GuideHit;
+import com.zluolan.zaiagent.guide.GuidePost;
+import com.zluolan.zaiagent.guide.GuideQuery;
+import com.zluolan.zaiagent.guide.GuideSearchEngine;
+import com.zluolan.zaiagent.guide.GuideSearchResult;
+import com.zluolan.zaiagent.guide.GuideSort;
+import com.zluolan.zaiagent.guide.GuideType;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.PoiCatalog;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * 小红书旅游攻略搜索工具
- * 基于小红书MCP服务，搜索旅游攻略和游记
+ * 基于小红书MCP服务，搜索旅游攻略和游记。
+ * 内容来自本地攻略语料的全文索引，按关键词相关度（BM25）、衰减热度或发布时间排序。
  */
 @Component
 @Slf4j
 public class RedbookTravelGuideTool {
+
+    private static final int DEFAULT_LIMIT = 5;
+    
+    /**
+     * 正文摘要长度
+     */
+    private static final int SUMMARY_CHARS = 60;
+
+    private final PoiCatalog poiCatalog;
+    private final GuideSearchEngine guideSearchEngine;
+    private final LocationNormalizer locationNormalizer;
+
+    public RedbookTravelGuideTool() {
+        this(PoiCatalog.getDefault(), GuideSearchEngine.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public RedbookTravelGuideTool(PoiCatalog poiCatalog, GuideSearchEngine guideSearchEngine,
+                                  LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.guideSearchEngine = guideSearchEngine;
+        this.locationNormalizer = locationNormalizer;
+    }
     
     /**
      * 搜索小红书旅游攻略
@@ -29,7 +63,7 @@ public class RedbookTravelGuideTool {
                     destination, keywords, limit, sortType);
             
             // 模拟小红书MCP服务调用
-            return generateRedbookTravelData(destination, keywords, limit);
+            return generateRedbookTravelData(locationNormalizer.canonicalCity(destination), keywords, limit, sortType);
             
         } catch (Exception e) {
             log.error("搜索小红书旅游攻略失败", e);
@@ -52,7 +86,7 @@ public class RedbookTravelGuideTool {
             log.info("搜索小红书美食推荐 - 目的地: {}, 类型: {}, 限制: {}", destination, foodType, limit);
             
             // 模拟小红书MCP服务调用
-            return generateRedbookFoodData(destination, foodType, limit);
+            return generateRedbookFoodData(locationNormalizer.canonicalCity(destination), foodType, limit);
             
         } catch (Exception e) {
             log.error("搜索小红书美食推荐失败", e);
@@ -75,7 +109,7 @@ public class RedbookTravelGuideTool {
             log.info("搜索小红书景点打卡 - 目的地: {}, 类型: {}, 限制: {}", destination, attractionType, limit);
             
             // 模拟小红书MCP服务调用
-            return generateRedbookAttractionData(destination, attractionType, limit);
+            return generateRedbookAttractionData(locationNormalizer.canonicalCity(destination), attractionType, limit);
             
         } catch (Exception e) {
             log.error("搜索小红书景点打卡失败", e);
@@ -84,34 +118,30 @@ public class RedbookTravelGuideTool {
     }
     
     /**
-     * 生成小红书旅游攻略数据
+     * 生成小红书旅游攻略数据（按关键词检索同城各类攻略）
      */
-    private String generateRedbookTravelData(String destination, String keywords, Integer limit) {
+    private String generateRedbookTravelData(String destination, String keywords, Integer limit, String sortType) {
         StringBuilder result = new StringBuilder();
+        GuideSort sort = GuideSort.fromText(sortType);
         result.append("📱 ").append(destination).append(" 小红书旅游攻略\n");
-        result.append("搜索关键词: ").append(keywords != null ? keywords : "旅游攻略").append("\n\n");
+        result.append("搜索关键词: ").append(keywords != null ? keywords : "旅游攻略").append("\n");
+        result.append("排序: ").append(sort.getLabel()).append("\n\n");
         
         result.append("=== 用户分享内容 ===\n");
-        if (destination.contains("北京")) {
-            result.append("1. @小仙女在北京：故宫拍照攻略，避开人潮的最佳时间\n");
-            result.append("2. @旅行达人：北京3日游完整攻略，吃喝玩乐全包\n");
-            result.append("3. @美食博主：北京胡同里的隐藏美食，本地人才知道\n");
-            result.append("4. @摄影爱好者：北京夜景拍摄地点推荐\n");
-            result.append("5. @亲子游：带娃游北京，这些地方必去\n");
-        } else if (destination.contains("上海")) {
-            result.append("1. @魔都小仙女：上海外滩拍照攻略，最佳机位分享\n");
-            result.append("2. @上海土著：本地人推荐的小众景点\n");
-            result.append("3. @美食探店：上海网红餐厅打卡指南\n");
-            result.append("4. @购物达人：上海购物攻略，哪里最划算\n");
-            result.append("5. @文艺青年：上海文艺打卡地推荐\n");
-        } else {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0) {
             result.append("1. @").append(destination).append("本地人：").append(destination).append("必去景点推荐\n");
             result.append("2. @旅行达人：").append(destination).append("美食攻略，当地特色小吃\n");
             result.append("3. @摄影爱好者：").append(destination).append("拍照打卡地点\n");
             result.append("4. @亲子游：").append(destination).append("适合带娃的景点\n");
             result.append("5. @背包客：").append(destination).append("穷游攻略分享\n");
+            return result.toString();
         }
         
+        GuideSearchResult found = guideSearchEngine.search(GuideQuery.of(keywords)
+                .city(cityId).sort(sort).limit(resolveLimit(limit)));
+        appendPosts(result, found, keywords);
+        
         return result.toString();
     }
     
@@ -124,26 +154,20 @@ public class RedbookTravelGuideTool {
         result.append("美食类型: ").append(foodType != null ? foodType : "全部").append("\n\n");
         
         result.append("=== 美食推荐 ===\n");
-        if (destination.contains("北京")) {
-            result.append("1. @北京吃货：全聚德烤鸭，老字号的味道\n");
-            result.append("2. @美食探店：簋街小龙虾，夜宵首选\n");
-            result.append("3. @胡同美食：豆汁焦圈，老北京传统早餐\n");
-            result.append("4. @甜品控：稻香村糕点，传统京味点心\n");
-            result.append("5. @火锅爱好者：海底捞服务，体验式用餐\n");
-        } else if (destination.contains("上海")) {
-            result.append("1. @上海美食家：小笼包，南翔小笼包最正宗\n");
-            result.append("2. @甜品达人：生煎包，上海人的早餐标配\n");
-            result.append("3. @咖啡控：星巴克烘焙工坊，全球最大门店\n");
-            result.append("4. @海鲜爱好者：外滩海鲜，黄浦江边的美味\n");
-            result.append("5. @网红餐厅：排队也要吃的网红店\n");
-        } else {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0) {
             result.append("1. @").append(destination).append("美食家：").append(destination).append("特色菜推荐\n");
             result.append("2. @甜品控：").append(destination).append("网红甜品店\n");
             result.append("3. @火锅爱好者：").append(destination).append("火锅店推荐\n");
             result.append("4. @咖啡控：").append(destination).append("精品咖啡店\n");
             result.append("5. @夜宵达人：").append(destination).append("夜宵好去处\n");
+            return result.toString();
         }
         
+        GuideSearchResult found = guideSearchEngine.search(GuideQuery.of(foodType)
+                .city(cityId).types(GuideType.FOOD).limit(resolveLimit(limit)));
+        appendPosts(result, found, foodType);
+        
         return result.toString();
     }
     
@@ -156,26 +180,39 @@ public class RedbookTravelGuideTool {
         result.append("景点类型: ").append(attractionType != null ? attractionType : "全部").append("\n\n");
         
         result.append("=== 热门打卡地点 ===\n");
-        if (destination.contains("北京")) {
-            result.append("1. @故宫摄影师：故宫红墙拍照，最佳角度分享\n");
-            result.append("2. @天安门打卡：升旗仪式观看攻略\n");
-            result.append("3. @长城徒步：八达岭长城，不到长城非好汉\n");
-            result.append("4. @颐和园游船：昆明湖划船，皇家园林体验\n");
-            result.append("5. @798艺术区：文艺青年必去，艺术展览打卡\n");
-        } else if (destination.contains("上海")) {
-            result.append("1. @外滩摄影师：外滩夜景，最佳拍摄时间\n");
-            result.append("2. @东方明珠：登塔观光，俯瞰上海全景\n");
-            result.append("3. @豫园古风：江南园林，古装拍照圣地\n");
-            result.append("4. @田子坊文艺：文艺小资聚集地\n");
-            result.append("5. @迪士尼乐园：童话世界，亲子游首选\n");
-        } else {
+        int cityId = poiCatalog.cityId(destination);
+        if (cityId < 0) {
             result.append("1. @").append(destination).append("摄影师：").append(destination).append("地标建筑打卡\n");
             result.append("2. @文艺青年：").append(destination).append("文艺景点推荐\n");
             result.append("3. @自然爱好者：").append(destination).append("自然风光拍摄\n");
             result.append("4. @历史文化：").append(destination).append("历史文化景点\n");
             result.append("5. @网红打卡：").append(destination).append("网红景点推荐\n");
+            return result.toString();
         }
         
+        GuideSearchResult found = guideSearchEngine.search(GuideQuery.of(attractionType)
+                .city(cityId).types(GuideType.CHECKIN).limit(resolveLimit(limit)));
+        appendPosts(result, found, attractionType);
+        
         return result.toString();
     }
+    
+    private void appendPosts(StringBuilder result, GuideSearchResult found, String keywords) {
+        if (found.relaxed()) {
+            result.append("未找到与「").append(keywords.trim()).append("」相关的分享，以下为同城热门内容\n");
+        }
+        int index = 1;
+        for (GuideHit hit : found.hits()) {
+            GuidePost post = hit.post();
+            result.append(index++).append(". @").append(post.author())
+                    .append("：").append(post.title())
+                    .append("（👍").append(post.likes()).append(" ⭐").append(post.collects())
+                    .append(" 💬").append(post.comments()).append(" · ").append(post.publishedDate()).append("）\n");
+            result.append("   ").append(post.summary(SUMMARY_CHARS)).append("\n");
+        }
+    }
+    
+    private static int resolveLimit(Integer limit) {
+        return limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+    }
 }
@@ -0,0 +1,109 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.artifact.Artifact;
+import com.zluolan.zaiagent.download.DownloadResult;
+import com.zluolan.zaiagent.download.ResourceDownloader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 旅游资源下载工具
+ * 图片、PDF、GPX 轨迹等文件由 {@link ResourceDownloader} 直接写入制品存储，返回给模型的只有文件名、大小和下载地址，
+ * 文件内容不进入对话上下文
+ */
+@Component
+@Slf4j
+public class ResourceDownloadTool {
+
+    // 单次最多下载的资源数，整体等待上限
+    private static final int MAX_RESOURCES = 5;
+    private static final Duration TOTAL_TIMEOUT = Duration.ofSeconds(60);
+
+    private final ResourceDownloader resourceDownloader;
+
+    public ResourceDownloadTool() {
+        this(ResourceDownloader.getDefault());
+    }
+
+    @Autowired
+    public ResourceDownloadTool(ResourceDownloader resourceDownloader) {
+        this.resourceDownloader = resourceDownloader;
+    }
+
+    @Tool(name = "downloadTravelResources", description = """
+            下载旅游相关的文件资源（景点图片、官方导览图或门票说明 PDF、徒步 GPX/KML 轨迹）并保存，返回文件的下载地址。
+            只支持图片、PDF、GPX、KML，网页请用 readWebPages 读取。文件内容不会返回，只返回文件名、大小和下载地址。
+            参数说明：
+            - urls: 资源地址，多个地址用逗号或换行分隔（最多5个）
+            """)
+    public String downloadTravelResources(
+            @ToolParam(description = "资源地址，多个地址用逗号或换行分隔") String urls) {
+        List<String> urlList = splitUrls(urls);
+        if (urlList.isEmpty()) {
+            return "[TOOL_EXECUTION_RESULT] 资源下载失败: 没有有效的资源地址";
+        }
+        try {
+            List<DownloadResult> results = resourceDownloader.downloadAll(urlList, TOTAL_TIMEOUT);
+            long succeeded = results.stream().filter(DownloadResult::isOk).count();
+            StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT] 资源下载完成 ")
+                    .append(succeeded).append('/').append(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                DownloadResult download = results.get(i);
+                result.append('\n').append(i + 1).append(". ").append(download.url());
+                if (!download.isOk()) {
+                    result.append("\n   失败: ").append(download.error());
+                    continue;
+                }
+                Artifact artifact = download.artifact();
+                result.append("\n   文件: ").append(artifact.name())
+                        .append(" (").append(formatSize(artifact.size())).append(", ")
+                        .append(artifact.contentType()).append(')');
+                if (download.resumed()) {
+                    result.append("，断点续传");
+                } else if (download.cached()) {
+                    result.append("，已下载过");
+                }
+                result.append("\n   下载地址: ").append(artifact.url());
+            }
+            return result.toString();
+        } catch (Exception e) {
+            log.error("下载旅游资源失败", e);
+            return "[TOOL_EXECUTION_RESULT] 资源下载失败: " + e.getMessage();
+        }
+    }
+
+    private static List<String> splitUrls(String urls) {
+        if (urls == null || urls.isBlank()) {
+            return List.of();
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String url : urls.split("[,，\\s]+")) {
+            if (unique.size() >= MAX_RESOURCES) {
+                break;
+            }
+            if (url.startsWith("http://") || url.startsWith("https://")) {
+                unique.add(url);
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        return String.format("%.1fMB", bytes / (1024.0 * 1024));
+    }
+}
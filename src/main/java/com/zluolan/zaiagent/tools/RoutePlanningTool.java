@@ -1,18 +1,73 @@
 package com.zluolan.zaiagent.tools;
 
 import cn.hutool.json.JSONObject;
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.routing.LocalTransport;
+import com.zluolan.zaiagent.routing.Route;
+import com.zluolan.zaiagent.routing.RouteMetric;
+import com.zluolan.zaiagent.routing.RoutingEngine;
+import com.zluolan.zaiagent.routing.TourOptimizer;
+import com.zluolan.zaiagent.routing.TourPlan;
+import com.zluolan.zaiagent.routing.TourProblem;
+import com.zluolan.zaiagent.routing.TransportMode;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * 路线规划工具
- * 用于规划旅游路线和交通方案
+ * 用于规划旅游路线和交通方案。
+ * 起终点能识别为城市（或城市内的 POI）时，由离线路线引擎给出最快、最省钱、风景优美三套实际方案；
+ * 同城两个已知地点之间按距离矩阵估算各种市内交通的耗时；其余情况退回通用的交通建议。
  */
 @Component
 @Slf4j
 public class RoutePlanningTool {
 
+    /**
+     * 途经点重新排序后至少节省的分钟数，低于该值不提示
+     */
+    private static final int MIN_REORDER_SAVING_MINUTES = 30;
+
+    /**
+     * 途经点排序的求解时间预算
+     */
+    private static final long REORDER_BUDGET_MILLIS = 50;
+
+    /**
+     * 不可达站点之间的耗时占位值
+     */
+    private static final int UNREACHABLE_MINUTES = 100_000;
+
+    private final RoutingEngine routingEngine;
+    private final PoiCatalog poiCatalog;
+    private final TravelMatrixService travelMatrixService;
+    private final LocationNormalizer locationNormalizer;
+
+    public RoutePlanningTool() {
+        this(RoutingEngine.getDefault(), PoiCatalog.getDefault(), TravelMatrixService.getDefault(),
+                LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public RoutePlanningTool(RoutingEngine routingEngine, PoiCatalog poiCatalog,
+                             TravelMatrixService travelMatrixService, LocationNormalizer locationNormalizer) {
+        this.routingEngine = routingEngine;
+        this.poiCatalog = poiCatalog;
+        this.travelMatrixService = travelMatrixService;
+        this.locationNormalizer = locationNormalizer;
+    }
+
     @Tool(name = "planRoute", description = """
             规划旅游路线和交通方案。
             参数说明：
@@ -28,6 +83,8 @@ public class RoutePlanningTool {
         try {
             log.info("规划路线 - 起点: {}, 终点: {}, 途经: {}, 交通: {}, 日期: {}, 偏好: {}", 
                     startLocation, endLocation, waypoints, transportMode, travelDate, preferences);
+            startLocation = locationNormalizer.canonicalPlace(startLocation);
+            endLocation = locationNormalizer.canonicalPlace(endLocation);
             
             JSONObject result = new JSONObject();
             result.set("startLocation", startLocation);
@@ -69,8 +126,14 @@ public class RoutePlanningTool {
         
         plan.append("\n=== 推荐交通方案 ===\n");
         
-        // 根据交通方式提供不同建议
-        if (transportMode != null) {
+        String networkPlan = generateNetworkPlan(startLocation, endLocation, waypoints, transportMode, preferences);
+        String localPlan = networkPlan == null ? generateLocalPlan(startLocation, endLocation, transportMode) : null;
+        if (networkPlan != null) {
+            plan.append(networkPlan);
+        } else if (localPlan != null) {
+            plan.append(localPlan);
+        } else if (transportMode != null) {
+            // 根据交通方式提供不同建议
             switch (transportMode.toLowerCase()) {
                 case "飞机":
                 case "airplane":
@@ -123,6 +186,123 @@ public class RoutePlanningTool {
         return plan.toString();
     }
     
+    /**
+     * 用离线路线引擎生成实际方案，偏好的优化目标排在最前，与前面方案相同的不再重复列出
+     *
+     * @return 方案文本，起终点无法识别或位于同一城市时返回 null
+     */
+    private String generateNetworkPlan(String start, String end, String waypoints,
+                                       String transportMode, String preferences) {
+        int from = routingEngine.resolveNode(start);
+        int to = routingEngine.resolveNode(end);
+        if (from < 0 || to < 0 || from == to) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        List<Integer> stops = new ArrayList<>();
+        stops.add(from);
+        List<String> ignored = new ArrayList<>();
+        if (waypoints != null && !waypoints.isBlank()) {
+            for (String waypoint : waypoints.split("[,，、]")) {
+                if (waypoint.isBlank()) {
+                    continue;
+                }
+                int node = routingEngine.resolveNode(waypoint);
+                if (node >= 0) {
+                    stops.add(node);
+                } else {
+                    ignored.add(waypoint.trim());
+                }
+            }
+        }
+        stops.add(to);
+        if (!ignored.isEmpty()) {
+            text.append("⚠️ 未收录的途经点已忽略：").append(String.join("、", ignored)).append("\n");
+        }
+
+        Set<TransportMode> modes = TransportMode.fromText(transportMode);
+        if (routingEngine.route(stops, modes, RouteMetric.FASTEST) == null) {
+            text.append("⚠️ 仅用").append(transportModeLabel(modes)).append("无法完成该行程，以下方案不限交通方式\n");
+            modes = EnumSet.allOf(TransportMode.class);
+        }
+
+        List<Route> shown = new ArrayList<>();
+        for (RouteMetric metric : RouteMetric.ordered(preferences)) {
+            Route route = routingEngine.route(stops, modes, metric);
+            if (route == null) {
+                continue;
+            }
+            Route same = shown.stream().filter(route::sameLegs).findFirst().orElse(null);
+            text.append(metric.getIcon()).append(" ").append(metric.getLabel()).append("方案：");
+            if (same != null) {
+                text.append("同").append(same.metric().getLabel()).append("方案\n");
+                continue;
+            }
+            text.append(route.summary()).append("\n");
+            text.append(route.describe("   "));
+            shown.add(route);
+        }
+        text.append(waypointOrderTip(stops, modes));
+        text.append("\n");
+        return text.toString();
+    }
+
+    /**
+     * 途经点不少于两个时，求解最快的途经顺序（起终点固定），比原顺序明显更快时给出提示
+     */
+    private String waypointOrderTip(List<Integer> stops, Set<TransportMode> modes) {
+        int n = stops.size();
+        if (n < 4) {
+            return "";
+        }
+        int[][] minutes = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Route route = i == j ? null : routingEngine.route(stops.get(i), stops.get(j), modes, RouteMetric.FASTEST);
+                minutes[i][j] = i == j ? 0 : route != null ? route.totalMinutes() : UNREACHABLE_MINUTES;
+            }
+        }
+        int original = 0;
+        for (int i = 1; i < n; i++) {
+            original += minutes[i - 1][i];
+        }
+        TourPlan plan = TourOptimizer.solve(TourProblem.of(minutes).startMinute(0).fixedEnd(true), REORDER_BUDGET_MILLIS);
+        int saving = original - plan.travelMinutes();
+        if (saving < MIN_REORDER_SAVING_MINUTES) {
+            return "";
+        }
+        List<String> names = new ArrayList<>();
+        for (int stop : plan.order()) {
+            names.add(routingEngine.getNetwork().nodeName(stops.get(stop)));
+        }
+        return "💡 途经顺序建议：按 " + String.join(" → ", names) + " 走可节省约" + Route.formatMinutes(saving) + "\n";
+    }
+
+    /**
+     * 同城两个已知 POI 之间的市内交通估算
+     *
+     * @return 方案文本，任一端不是已知 POI 或不在同一城市时返回 null
+     */
+    private String generateLocalPlan(String start, String end, String transportMode) {
+        PoiAnchor from = poiCatalog.resolveAnchor(start, -1);
+        PoiAnchor to = from != null ? poiCatalog.resolveAnchor(end, from.cityId()) : null;
+        if (from == null || to == null || from.poiId() < 0 || to.poiId() < 0 || from.cityId() != to.cityId()) {
+            return null;
+        }
+        double meters = travelMatrixService.distanceMeters(from, to);
+        return "🏙️ 市内交通：" + from.label() + " → " + to.label()
+                + "，直线距离" + GeoMath.formatDistance(meters) + "\n"
+                + LocalTransport.describeOptions(meters, LocalTransport.fromText(transportMode)) + "\n";
+    }
+
+    private static String transportModeLabel(Set<TransportMode> modes) {
+        List<String> labels = new ArrayList<>();
+        for (TransportMode mode : modes) {
+            labels.add(mode.getLabel());
+        }
+        return String.join("/", labels);
+    }
+    
     private String generateFlightPlan(String start, String end) {
         return String.format("""
                 ✈️ 航班方案：
@@ -0,0 +1,216 @@
+package com.zluolan.zaiagent.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchAPI 响应的流式解析器
+ * 只读取 error 和 organic_results 中的 title/link/snippet 字段，
+ * 拿到前 N 条结果后立即停止解析，并限制读取的最大字节数
+ */
+final class SearchApiResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int maxResults;
+    private final long maxBytes;
+    private final int maxFieldChars;
+
+    SearchApiResponseParser(int maxResults, long maxBytes, int maxFieldChars) {
+        this.maxResults = maxResults;
+        this.maxBytes = maxBytes;
+        this.maxFieldChars = maxFieldChars;
+    }
+
+    /**
+     * 单条搜索结果
+     */
+    record SearchHit(String title, String link, String snippet) {
+    }
+
+    /**
+     * 解析结果：error 不为空表示接口返回了错误；truncated 表示响应超过字节上限被截断
+     */
+    record ParsedResponse(String error, List<SearchHit> hits, boolean truncated) {
+
+        boolean hasError() {
+            return error != null;
+        }
+    }
+
+    /**
+     * 从输入流中解析搜索结果，调用方负责关闭输入流
+     */
+    ParsedResponse parse(InputStream in) {
+        List<SearchHit> hits = new ArrayList<>(maxResults);
+        String error = null;
+        boolean sawResults = false;
+        try (JsonParser parser = JSON_FACTORY.createParser(new LimitedInputStream(in, maxBytes))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new ParsedResponse("Unexpected response format", hits, false);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("error".equals(field)) {
+                    error = readError(parser, value);
+                } else if ("organic_results".equals(field) && value == JsonToken.START_ARRAY) {
+                    sawResults = true;
+                    if (readResults(parser, hits)) {
+                        // 已取够前 N 条，剩余内容不再解析
+                        break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (ResponseTooLargeException e) {
+            // 超过字节上限时保留已解析出的结果
+            return new ParsedResponse(hits.isEmpty() ? e.getMessage() : null, hits, true);
+        } catch (IOException e) {
+            if (!hits.isEmpty()) {
+                return new ParsedResponse(null, hits, true);
+            }
+            return new ParsedResponse("Malformed response", hits, false);
+        }
+        if (error != null) {
+            return new ParsedResponse(truncate(error), hits, false);
+        }
+        if (!sawResults || hits.isEmpty()) {
+            return new ParsedResponse("No search results found.", hits, false);
+        }
+        return new ParsedResponse(null, hits, false);
+    }
+
+    /**
+     * 读取 organic_results 数组，返回 true 表示已取够结果并提前结束
+     */
+    private boolean readResults(JsonParser parser, List<SearchHit> hits) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            hits.add(readHit(parser));
+            if (hits.size() >= maxResults) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SearchHit readHit(JsonParser parser) throws IOException {
+        String title = null;
+        String link = null;
+        String snippet = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING) {
+                switch (field) {
+                    case "title" -> title = truncate(parser.getText());
+                    case "link" -> link = parser.getText();
+                    case "snippet" -> snippet = truncate(parser.getText());
+                    default -> {
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new SearchHit(title, link, snippet);
+    }
+
+    private String readError(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "Search API returned an error";
+        }
+        return parser.getValueAsString("Search API returned an error");
+    }
+
+    private String truncate(String text) {
+        if (text == null || text.length() <= maxFieldChars) {
+            return text;
+        }
+        return text.substring(0, maxFieldChars) + "...";
+    }
+
+    /**
+     * 超过字节上限时抛出的异常
+     */
+    static class ResponseTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResponseTooLargeException(long maxBytes) {
+            super("Search response exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * 限制最大读取字节数的输入流
+     */
+    static class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long readBytes;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (readBytes >= maxBytes) {
+                return checkEnd();
+            }
+            int b = super.read();
+            if (b >= 0) {
+                readBytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (readBytes >= maxBytes) {
+                return checkEnd();
+            }
+            int n = super.read(b, off, (int) Math.min(len, maxBytes - readBytes));
+            if (n > 0) {
+                readBytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, maxBytes - readBytes));
+            readBytes += skipped;
+            return skipped;
+        }
+
+        /**
+         * 已读满上限：恰好到达流末尾则正常结束，否则说明响应过大
+         */
+        private int checkEnd() throws IOException {
+            if (super.read() < 0) {
+                return -1;
+            }
+            throw new ResponseTooLargeException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.routing.LocalTransport;
+import com.zluolan.zaiagent.routing.Route;
+import com.zluolan.zaiagent.routing.TourOptimizer;
+import com.zluolan.zaiagent.routing.TourPlan;
+import com.zluolan.zaiagent.routing.TourProblem;
+import com.zluolan.zaiagent.routing.TravelMatrixService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 游览顺序优化工具
+ * 把一天要去的多个地点交给本地求解器排序，考虑交通耗时、建议游玩时长和开放时间，
+ * 代替大模型逐步推理访问顺序
+ */
+@Component
+@Slf4j
+public class WaypointOptimizerTool {
+
+    private static final int MAX_STOPS = 40;
+    private static final int DEFAULT_START_MINUTE = 9 * 60;
+    private static final Pattern TIME = Pattern.compile("^\\s*(\\d{1,2})[:：](\\d{2})\\s*$");
+
+    private final PoiCatalog poiCatalog;
+    private final TravelMatrixService travelMatrixService;
+    private final LocationNormalizer locationNormalizer;
+
+    public WaypointOptimizerTool() {
+        this(PoiCatalog.getDefault(), TravelMatrixService.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public WaypointOptimizerTool(PoiCatalog poiCatalog, TravelMatrixService travelMatrixService,
+                                 LocationNormalizer locationNormalizer) {
+        this.poiCatalog = poiCatalog;
+        this.travelMatrixService = travelMatrixService;
+        this.locationNormalizer = locationNormalizer;
+    }
+
+    @Tool(name = "optimizeVisitOrder", description = """
+            优化一天内多个地点的游览顺序，返回最佳访问顺序、每站到达时间和总交通耗时。
+            会考虑景点开放时间和建议游玩时长，适合安排每日行程。
+            参数说明：
+            - destination: 所在城市（可选，用于区分同名地点）
+            - stops: 要游览的地点，多个地点用逗号分隔（最多40个）
+            - startLocation: 出发地点，如酒店（可选，默认从第一个地点出发）
+            - endLocation: 结束地点（可选，不填则在最后一个景点结束）
+            - transportMode: 市内交通方式（步行、骑行、公交地铁、打车，默认公交地铁）
+            - startTime: 出发时间（格式：HH:mm，默认09:00）
+            """)
+    public String optimizeVisitOrder(String destination, String stops, String startLocation,
+                                     String endLocation, String transportMode, String startTime) {
+        try {
+            log.info("优化游览顺序 - 城市: {}, 地点: {}, 出发: {}, 结束: {}, 交通: {}, 时间: {}",
+                    destination, stops, startLocation, endLocation, transportMode, startTime);
+            destination = locationNormalizer.canonicalCity(destination);
+            startLocation = locationNormalizer.canonicalPlace(startLocation);
+            endLocation = locationNormalizer.canonicalPlace(endLocation);
+
+            int cityHint = poiCatalog.cityId(destination);
+            List<PoiAnchor> anchors = new ArrayList<>();
+            List<String> unknown = new ArrayList<>();
+            boolean hasStart = startLocation != null && !startLocation.isBlank();
+            boolean hasEnd = endLocation != null && !endLocation.isBlank();
+            if (hasStart) {
+                PoiAnchor start = poiCatalog.resolveAnchor(startLocation, cityHint);
+                if (start == null) {
+                    return "[TOOL_EXECUTION_RESULT] 游览顺序优化失败: 未识别的出发地点「" + startLocation + "」";
+                }
+                anchors.add(start);
+                cityHint = cityHint >= 0 ? cityHint : start.cityId();
+            }
+            if (stops != null) {
+                for (String text : stops.split("[,，、;；]")) {
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    PoiAnchor anchor = poiCatalog.resolveAnchor(text, cityHint);
+                    if (anchor == null) {
+                        unknown.add(text.trim());
+                        continue;
+                    }
+                    anchors.add(anchor);
+                    cityHint = cityHint >= 0 ? cityHint : anchor.cityId();
+                }
+            }
+            if (hasEnd) {
+                PoiAnchor end = poiCatalog.resolveAnchor(endLocation, cityHint);
+                if (end == null) {
+                    return "[TOOL_EXECUTION_RESULT] 游览顺序优化失败: 未识别的结束地点「" + endLocation + "」";
+                }
+                anchors.add(end);
+            }
+            int visits = anchors.size() - (hasStart ? 1 : 0) - (hasEnd ? 1 : 0);
+            if (visits < 1) {
+                return "[TOOL_EXECUTION_RESULT] 游览顺序优化失败: 没有可识别的游览地点"
+                        + (unknown.isEmpty() ? "" : "（未识别：" + String.join("、", unknown) + "）");
+            }
+            if (anchors.size() > MAX_STOPS) {
+                return "[TOOL_EXECUTION_RESULT] 游览顺序优化失败: 地点数量超过上限" + MAX_STOPS + "个，请分天安排";
+            }
+
+            LocalTransport transport = LocalTransport.fromText(transportMode);
+            if (transport == null) {
+                transport = LocalTransport.TRANSIT;
+            }
+            TourProblem problem = buildProblem(anchors, hasStart, hasEnd, transport, parseTime(startTime));
+            long begin = System.nanoTime();
+            TourPlan plan = TourOptimizer.solve(problem, TourOptimizer.DEFAULT_BUDGET_MILLIS);
+            long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+            log.info("游览顺序优化完成 - 地点: {}, 交通耗时: {}分钟, 求解耗时: {}ms", anchors.size(), plan.travelMinutes(), elapsedMillis);
+
+            return "[TOOL_EXECUTION_RESULT] 游览顺序优化完成！\n"
+                    + formatPlan(anchors, problem, plan, transport, hasStart, unknown);
+
+        } catch (Exception e) {
+            log.error("游览顺序优化失败", e);
+            return "[TOOL_EXECUTION_RESULT] 游览顺序优化失败: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 出发、结束地点不计游玩时长和开放时间；景点按目录中的建议时长和开放时间计算
+     */
+    private TourProblem buildProblem(List<PoiAnchor> anchors, boolean hasStart, boolean hasEnd,
+                                     LocalTransport transport, int startMinute) {
+        int n = anchors.size();
+        int[][] travel = travelMatrixService.minutes(anchors, transport);
+        int[] service = new int[n];
+        int[] open = new int[n];
+        int[] close = new int[n];
+        Arrays.fill(open, -1);
+        Arrays.fill(close, -1);
+        for (int i = 0; i < n; i++) {
+            boolean endpoint = (hasStart && i == 0) || (hasEnd && i == n - 1);
+            PoiAnchor anchor = anchors.get(i);
+            if (endpoint || anchor.poiId() < 0) {
+                continue;
+            }
+            Poi poi = poiCatalog.get(anchor.poiId());
+            service[i] = Math.max(0, poi.durationMinutes());
+            open[i] = poi.openMinute();
+            close[i] = poi.closeMinute();
+        }
+        return TourProblem.of(travel).service(service).windows(open, close)
+                .startMinute(startMinute).fixedEnd(hasEnd);
+    }
+
+    private String formatPlan(List<PoiAnchor> anchors, TourProblem problem, TourPlan plan,
+                              LocalTransport transport, boolean hasStart, List<String> unknown) {
+        StringBuilder text = new StringBuilder();
+        text.append("=== 最佳游览顺序 ===\n");
+        text.append("市内交通：").append(transport.getLabel())
+                .append(" | 出发时间：").append(formatMinute(plan.startMinutes()[0])).append("\n\n");
+        List<String> late = new ArrayList<>();
+        int[] order = plan.order();
+        for (int i = 0; i < order.length; i++) {
+            PoiAnchor anchor = anchors.get(order[i]);
+            if (i == 0) {
+                text.append(hasStart ? "🏁 " : "1. ").append(formatMinute(plan.startMinutes()[0]))
+                        .append(" 从 ").append(anchor.label()).append(" 出发");
+            } else {
+                int leg = plan.arriveMinutes()[i] - departure(problem, plan, i - 1);
+                text.append("   ↓ ").append(transport.getLabel()).append("约").append(Route.formatMinutes(leg)).append("\n");
+                text.append(hasStart ? i : i + 1).append(". ").append(formatMinute(plan.arriveMinutes()[i]))
+                        .append(" 到达 ").append(anchor.label());
+                if (plan.startMinutes()[i] > plan.arriveMinutes()[i]) {
+                    text.append("（等待至").append(formatMinute(plan.startMinutes()[i])).append("开门）");
+                }
+            }
+            if (problem.service(order[i]) > 0) {
+                text.append("，游玩约").append(Route.formatMinutes(problem.service(order[i])));
+            }
+            if (anchor.poiId() >= 0) {
+                String hours = poiCatalog.get(anchor.poiId()).openingHours();
+                if (hours != null) {
+                    text.append("（开放时间").append(hours).append("）");
+                }
+            }
+            if (plan.isLate(problem, i)) {
+                text.append(" ⚠️可能赶不上关门");
+                late.add(anchor.label());
+            }
+            text.append("\n");
+        }
+        text.append("\n总交通耗时：").append(Route.formatMinutes(plan.travelMinutes()))
+                .append(" | 预计结束：").append(formatMinute(plan.finishMinute())).append("\n");
+        if (!late.isEmpty()) {
+            text.append("⚠️ 以下地点按当前安排可能赶不上开放时间，建议调整到其他日期：")
+                    .append(String.join("、", late)).append("\n");
+        }
+        if (!unknown.isEmpty()) {
+            text.append("⚠️ 未识别的地点已忽略：").append(String.join("、", unknown)).append("\n");
+        }
+        if (plan.budgetExhausted()) {
+            text.append("ℹ️ 地点较多，已在求解时限内给出当前最优顺序\n");
+        }
+        return text.toString();
+    }
+
+    private static int departure(TourProblem problem, TourPlan plan, int position) {
+        return plan.startMinutes()[position] + problem.service(plan.order()[position]);
+    }
+
+    private static int parseTime(String text) {
+        if (text == null) {
+            return DEFAULT_START_MINUTE;
+        }
+        Matcher matcher = TIME.matcher(text);
+        if (!matcher.matches()) {
+            return DEFAULT_START_MINUTE;
+        }
+        int minute = Integer.parseInt(matcher.group(1)) * 60 + Integer.parseInt(matcher.group(2));
+        return minute < 24 * 60 ? minute : DEFAULT_START_MINUTE;
+    }
+
+    private static String formatMinute(int minute) {
+        int dayMinute = Math.floorMod(minute, 24 * 60);
+        String text = String.format("%02d:%02d", dayMinute / 60, dayMinute % 60);
+        return minute >= 24 * 60 ? "次日" + text : text;
+    }
+}
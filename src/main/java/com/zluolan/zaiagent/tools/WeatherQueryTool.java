@@ -1,27 +1,43 @@
 package com.zluolan.zaiagent.tools;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.resilience.GuardedResult;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import com.zluolan.zaiagent.weather.DailyWeather;
+import com.zluolan.zaiagent.weather.WeatherEstimator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * 天气查询工具
- * 用于查询目的地天气信息，为旅游规划提供参考
+ * 用于查询目的地天气信息，为旅游规划提供参考。
+ * 高德接口经 {@link AmapWeatherClient} 调用（与批量天气工具共用缓存），受 {@link ToolGuard} 保护，
+ * 熔断、并发已满或超时时返回标明降级的估算数据
  */
 @Component
 @Slf4j
 public class WeatherQueryTool {
 
-    @Value("${amap.api.key:c35d3d557f6de34f7ecae355b99d9147}")
-    private String amapApiKey;
+    private final AmapWeatherClient weatherClient;
+    private final LocationNormalizer locationNormalizer;
+
+    public WeatherQueryTool() {
+        this(AmapWeatherClient.getDefault(), LocationNormalizer.getDefault());
+    }
+
+    @Autowired
+    public WeatherQueryTool(AmapWeatherClient weatherClient, LocationNormalizer locationNormalizer) {
+        this.weatherClient = weatherClient;
+        this.locationNormalizer = locationNormalizer;
+    }
 
     @Tool(name = "queryWeather", description = """
             查询指定地点的天气信息。
@@ -33,6 +49,7 @@ public class WeatherQueryTool {
     public String queryWeather(String location, String date, Integer days) {
         try {
             log.info("查询天气信息 - 地点: {}, 日期: {}, 天数: {}", location, date, days);
+            location = locationNormalizer.canonicalCity(location);
             
             if (days == null || days <= 0 || days > 7) {
                 days = 1;
@@ -48,8 +65,12 @@ public class WeatherQueryTool {
             result.set("days", days);
             
             // 使用高德地图API查询天气
-            String weatherInfo = queryWeatherFromAmap(location, date, days);
-            result.set("weatherInfo", weatherInfo);
+            GuardedResult<String> weather = queryWeatherFromAmap(location, date, days);
+            result.set("weatherInfo", weather.value());
+            if (weather.degraded()) {
+                result.set("degraded", true);
+                result.set("degradedReason", weather.reason());
+            }
             result.set("queryTime", System.currentTimeMillis());
             result.set("status", "success");
             
@@ -63,61 +84,19 @@ public class WeatherQueryTool {
     }
     
     /**
-     * 使用高德地图API查询天气
+     * 使用高德地图API查询天气，高德不可用时降级为估算数据
      */
-    private String queryWeatherFromAmap(String location, String date, int days) {
-        try {
-            // 首先获取城市编码
-            String cityCode = getCityCode(location);
-            if (cityCode == null) {
-                log.warn("无法获取城市编码，使用模拟数据: {}", location);
-                return generateWeatherData(location, date, days);
-            }
-
-            // 查询天气信息
-            String weatherUrl = "https://restapi.amap.com/v3/weather/weatherInfo";
-            HttpResponse response = HttpRequest.get(weatherUrl)
-                    .form("key", amapApiKey)
-                    .form("city", cityCode)
-                    .form("extensions", days > 1 ? "all" : "base")
-                    .execute();
-
-            if (response.getStatus() == 200) {
-                JSONObject weatherData = JSONUtil.parseObj(response.body());
-                return formatAmapWeatherData(weatherData, location, date, days);
-            } else {
-                log.warn("高德地图API调用失败，状态码: {}, 使用模拟数据", response.getStatus());
-                return generateWeatherData(location, date, days);
-            }
-        } catch (Exception e) {
-            log.error("调用高德地图API失败，使用模拟数据", e);
-            return generateWeatherData(location, date, days);
+    private GuardedResult<String> queryWeatherFromAmap(String location, String date, int days) {
+        GuardedResult<JSONObject> fetched = weatherClient.fetch(location, days > 1);
+        if (fetched.degraded()) {
+            return GuardedResult.degraded("[DEGRADED] 高德天气服务暂不可用（" + fetched.reason()
+                    + "），以下为估算数据，仅供参考\n" + generateWeatherData(location, date, days), fetched.reason());
         }
-    }
-
-    /**
-     * 获取城市编码
-     */
-    private String getCityCode(String location) {
-        try {
-            String geoUrl = "https://restapi.amap.com/v3/geocode/geo";
-            HttpResponse response = HttpRequest.get(geoUrl)
-                    .form("key", amapApiKey)
-                    .form("address", location)
-                    .execute();
-
-            if (response.getStatus() == 200) {
-                JSONObject geoData = JSONUtil.parseObj(response.body());
-                if (geoData.getJSONArray("geocodes") != null && 
-                    geoData.getJSONArray("geocodes").size() > 0) {
-                    JSONObject geocode = geoData.getJSONArray("geocodes").getJSONObject(0);
-                    return geocode.getStr("adcode");
-                }
-            }
-        } catch (Exception e) {
-            log.error("获取城市编码失败", e);
+        if (fetched.value() == null) {
+            log.warn("无法获取城市编码，使用模拟数据: {}", location);
+            return GuardedResult.ok(generateWeatherData(location, date, days));
         }
-        return null;
+        return GuardedResult.ok(formatAmapWeatherData(fetched.value(), location, date, days));
     }
 
     /**
@@ -131,16 +110,14 @@ public class WeatherQueryTool {
         if (weatherData.getStr("status").equals("1")) {
             if (days > 1 && weatherData.getJSONArray("forecasts") != null) {
                 // 多天预报
-                weatherData.getJSONArray("forecasts").forEach(forecast -> {
-                    JSONObject forecastObj = (JSONObject) forecast;
-                    result.append("📅 ").append(forecastObj.getStr("date")).append("\n");
-                    result.append("🌡️ 温度：").append(forecastObj.getStr("temp")).append("°C\n");
-                    result.append("☁️ 天气：").append(forecastObj.getStr("weather")).append("\n");
-                    result.append("💨 风向：").append(forecastObj.getStr("winddirection")).append("\n");
-                    result.append("💨 风力：").append(forecastObj.getStr("windpower")).append("\n");
-                    result.append("🌅 日出：").append(forecastObj.getStr("sunrise")).append(" | ");
-                    result.append("🌇 日落：").append(forecastObj.getStr("sunset")).append("\n");
-                    result.append("🎒 出行建议：").append(generateTravelAdviceFromWeather(forecastObj.getStr("weather"))).append("\n\n");
+                List<DailyWeather> forecast = AmapWeatherClient.parseForecast(weatherData);
+                forecast.stream().limit(days).forEach(day -> {
+                    result.append("📅 ").append(day.date()).append(" (")
+                            .append(getDayOfWeek(day.date().getDayOfWeek().getValue())).append(")\n");
+                    result.append("🌡️ 温度：").append(day.minTemp()).append("°C - ").append(day.maxTemp()).append("°C\n");
+                    result.append("☁️ 天气：").append(day.weatherText()).append("\n");
+                    result.append("💨 风力：").append(day.wind()).append("\n");
+                    result.append("🎒 出行建议：").append(generateTravelAdviceFromWeather(day.weatherText())).append("\n\n");
                 });
             } else if (weatherData.getJSONArray("lives") != null && weatherData.getJSONArray("lives").size() > 0) {
                 // 实时天气
@@ -201,15 +178,15 @@ public class WeatherQueryTool {
                    .append(" (").append(dayOfWeek).append(")\n");
             
             // 根据地点和季节生成合理的天气数据
-            WeatherData weatherData = generateReasonableWeather(location, currentDate);
+            DailyWeather weatherData = WeatherEstimator.estimate(location, currentDate);
             
-            weather.append("🌡️ 温度：").append(weatherData.minTemp).append("°C - ")
-                   .append(weatherData.maxTemp).append("°C\n");
-            weather.append("☁️ 天气：").append(weatherData.condition).append("\n");
-            weather.append("💨 风力：").append(weatherData.windLevel).append("\n");
-            weather.append("💧 湿度：").append(weatherData.humidity).append("%\n");
-            weather.append("🌅 日出：").append(weatherData.sunrise).append(" | ");
-            weather.append("🌇 日落：").append(weatherData.sunset).append("\n");
+            weather.append("🌡️ 温度：").append(weatherData.minTemp()).append("°C - ")
+                   .append(weatherData.maxTemp()).append("°C\n");
+            weather.append("☁️ 天气：").append(weatherData.weatherText()).append("\n");
+            weather.append("💨 风力：").append(weatherData.wind()).append("\n");
+            weather.append("💧 湿度：").append(weatherData.humidity()).append("%\n");
+            weather.append("🌅 日出：06:30 | ");
+            weather.append("🌇 日落：18:30\n");
             
             // 旅游建议
             weather.append("🎒 出行建议：").append(generateTravelAdvice(weatherData)).append("\n");
@@ -227,78 +204,22 @@ public class WeatherQueryTool {
         return days[dayOfWeek - 1];
     }
     
-    /**
-     * 根据地点和日期生成合理的天气数据
-     */
-    private WeatherData generateReasonableWeather(String location, LocalDate date) {
-        WeatherData data = new WeatherData();
-        
-        // 根据月份确定季节
-        int month = date.getMonthValue();
-        String season = getSeason(month);
-        
-        // 根据地点和季节设置基础温度范围（使用固定值模拟）
-        if (location.contains("北京") || location.contains("天津")) {
-            switch (season) {
-                case "春季" -> { data.minTemp = 8; data.maxTemp = 18; }
-                case "夏季" -> { data.minTemp = 22; data.maxTemp = 32; }
-                case "秋季" -> { data.minTemp = 10; data.maxTemp = 20; }
-                case "冬季" -> { data.minTemp = -2; data.maxTemp = 8; }
-            }
-        } else if (location.contains("上海") || location.contains("杭州")) {
-            switch (season) {
-                case "春季" -> { data.minTemp = 12; data.maxTemp = 22; }
-                case "夏季" -> { data.minTemp = 26; data.maxTemp = 34; }
-                case "秋季" -> { data.minTemp = 18; data.maxTemp = 26; }
-                case "冬季" -> { data.minTemp = 4; data.maxTemp = 12; }
-            }
-        } else {
-            // 通用温度范围
-            data.minTemp = 15;
-            data.maxTemp = 25;
-        }
-        
-        // 天气状况（固定选择）
-        String[] conditions = {"晴", "多云", "阴", "小雨", "中雨", "雷阵雨", "雾", "霾"};
-        data.condition = conditions[Math.abs(location.hashCode()) % conditions.length];
-        
-        // 风力（固定选择）
-        String[] windLevels = {"微风1-2级", "轻风3-4级", "和风5-6级", "强风7-8级"};
-        data.windLevel = windLevels[Math.abs(location.hashCode()) % windLevels.length];
-        
-        // 湿度（固定值）
-        data.humidity = 50 + (Math.abs(location.hashCode()) % 30);
-        
-        // 日出日落时间（固定时间）
-        data.sunrise = "06:30";
-        data.sunset = "18:30";
-        
-        return data;
-    }
-    
-    private String getSeason(int month) {
-        if (month >= 3 && month <= 5) return "春季";
-        if (month >= 6 && month <= 8) return "夏季";
-        if (month >= 9 && month <= 11) return "秋季";
-        return "冬季";
-    }
-    
-    private String generateTravelAdvice(WeatherData data) {
+    private String generateTravelAdvice(DailyWeather data) {
         StringBuilder advice = new StringBuilder();
         
-        if (data.condition.contains("雨")) {
+        if (data.dayWeather().contains("雨")) {
             advice.append("携带雨具，注意防滑；");
         }
-        if (data.maxTemp > 30) {
+        if (data.maxTemp() > 30) {
             advice.append("注意防晒，多补充水分；");
         }
-        if (data.minTemp < 5) {
+        if (data.minTemp() < 5) {
             advice.append("注意保暖，穿着厚衣物；");
         }
-        if (data.condition.contains("雾") || data.condition.contains("霾")) {
+        if (data.dayWeather().contains("雾") || data.dayWeather().contains("霾")) {
             advice.append("能见度较低，注意交通安全；");
         }
-        if (data.condition.equals("晴")) {
+        if (data.dayWeather().equals("晴")) {
             advice.append("天气晴朗，适合户外活动；");
         }
         
@@ -311,19 +232,4 @@ public class WeatherQueryTool {
         
         return advice.toString();
     }
-    
-    /**
-     * 天气数据内部类
-     */
-    private static class WeatherData {
-        int minTemp;
-        int maxTemp;
-        String condition;
-        String windLevel;
-        int humidity;
-        String sunrise;
-        String sunset;
-    }
 }
-
-
@@ -0,0 +1,442 @@
+package com.zluolan.zaiagent.tools;
+
+import com.zluolan.zaiagent.download.OutboundUrlGuard;
+import com.zluolan.zaiagent.download.OutboundUrlGuard.BlockedUrlException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 网页阅读工具
+ * 使用 jsoup 并发抓取网页并提取正文，为智能体提供比搜索摘要更完整的信息；
+ * 地址和每一跳重定向都经 {@link OutboundUrlGuard} 校验，不访问内网地址；http 连接固定到校验过的地址，
+ * https 靠证书校验主机名（见 {@link OutboundUrlGuard}）
+ */
+@Component
+@Slf4j
+public class WebPageReaderTool {
+
+    // 单次最多读取的页面数
+    private static final int MAX_PAGES = 5;
+    // 单页默认/最大正文字符数，以及所有页面合计的最大字符数
+    private static final int DEFAULT_CHARS_PER_PAGE = 1500;
+    private static final int MAX_CHARS_PER_PAGE = 4000;
+    private static final int MAX_TOTAL_CHARS = 8000;
+    // 单页响应体上限 2MB，单页超时 8 秒，整体超时 15 秒
+    private static final int MAX_BODY_BYTES = 2 * 1024 * 1024;
+    private static final int PAGE_TIMEOUT_MILLIS = 8000;
+    private static final long TOTAL_TIMEOUT_MILLIS = 15000;
+    // 同一站点最多 2 个并发请求，相邻请求间隔至少 250 毫秒
+    private static final int MAX_CONCURRENT_PER_HOST = 2;
+    private static final long MIN_HOST_INTERVAL_MILLIS = 250;
+    // 站点限流状态超过这个数量时清理空闲站点
+    private static final int MAX_TRACKED_HOSTS = 64;
+    // 缓存 5 分钟内直接使用，超过后带 ETag/Last-Modified 重新验证
+    private static final long CACHE_FRESH_MILLIS = 5 * 60 * 1000;
+    private static final int CACHE_CAPACITY = 256;
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; zl-ai-agent/1.0)";
+
+    private final ExecutorService fetchExecutor = Executors.newFixedThreadPool(8, new PageReaderThreadFactory());
+
+    /**
+     * 站点 -> 限流状态，没有请求且间隔已过的站点在请求结束时移除
+     */
+    private final Map<String, HostSlot> hostSlots = new ConcurrentHashMap<>();
+
+    private final OutboundUrlGuard urlGuard;
+
+    private final Map<String, CachedPage> pageCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            });
+
+    @Autowired
+    private WebSearchTool webSearchTool;
+
+    public WebPageReaderTool() {
+        this(OutboundUrlGuard.publicOnly());
+    }
+
+    WebPageReaderTool(OutboundUrlGuard urlGuard) {
+        this.urlGuard = urlGuard;
+    }
+
+    @Tool(name = "readWebPages", description = """
+            并发读取网页正文，适合在搜索后获取攻略、游记等页面的详细内容。
+            参数说明：
+            - urls: 网页地址，多个地址用逗号或换行分隔（最多5个）
+            - maxCharsPerPage: 每个页面返回的最大字符数（默认1500，最大4000）
+            """)
+    public String readWebPages(
+            @ToolParam(description = "网页地址，多个地址用逗号或换行分隔") String urls,
+            @ToolParam(description = "每个页面返回的最大字符数", required = false) Integer maxCharsPerPage) {
+        List<String> urlList = splitUrls(urls);
+        if (urlList.isEmpty()) {
+            return "[TOOL_EXECUTION_RESULT][PAGE_READ_ERROR] No valid http(s) URL provided.";
+        }
+        return formatPages(urlList, readPages(urlList, normalizeMaxChars(maxCharsPerPage)));
+    }
+
+    @Tool(name = "searchAndReadWebPages", description = """
+            搜索并读取排名靠前网页的正文，一步获得比搜索摘要更丰富的旅游信息。
+            参数说明：
+            - query: 搜索关键词（如：成都三日游攻略）
+            - pages: 读取的页面数（默认3个，最多5个）
+            """)
+    public String searchAndReadWebPages(
+            @ToolParam(description = "搜索关键词") String query,
+            @ToolParam(description = "读取的页面数", required = false) Integer pages) {
+        if (query == null || query.isBlank()) {
+            return "[TOOL_EXECUTION_RESULT][PAGE_READ_ERROR] Search query must not be empty.";
+        }
+        int pageCount = pages == null || pages <= 0 ? 3 : Math.min(pages, MAX_PAGES);
+        try {
+            SearchApiResponseParser.ParsedResponse searchResult = webSearchTool.search(query);
+            if (searchResult.hasError()) {
+                return "[TOOL_EXECUTION_RESULT][PAGE_READ_ERROR] " + searchResult.error();
+            }
+            List<String> urlList = new ArrayList<>();
+            for (SearchApiResponseParser.SearchHit hit : searchResult.hits()) {
+                if (urlList.size() >= pageCount) {
+                    break;
+                }
+                if (isHttpUrl(hit.link())) {
+                    urlList.add(hit.link());
+                }
+            }
+            if (urlList.isEmpty()) {
+                return "[TOOL_EXECUTION_RESULT][PAGE_READ_ERROR] No readable links in search results.";
+            }
+            return formatPages(urlList, readPages(urlList, DEFAULT_CHARS_PER_PAGE));
+        } catch (Exception e) {
+            log.error("搜索并读取网页失败", e);
+            return "[TOOL_EXECUTION_RESULT][PAGE_READ_ERROR] " + e.getMessage();
+        }
+    }
+
+    /**
+     * 并发抓取所有页面，整体超过截止时间的页面记为超时
+     * 取消任务打断不了阻塞中的 jsoup 请求，所以每个请求的超时都按剩余时间设置，到截止时间自行结束并归还站点名额
+     */
+    List<PageResult> readPages(List<String> urls, int maxChars) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TOTAL_TIMEOUT_MILLIS);
+        List<CompletableFuture<PageResult>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(CompletableFuture.supplyAsync(() -> fetchPage(url, maxChars, deadline), fetchExecutor));
+        }
+        List<PageResult> results = new ArrayList<>(urls.size());
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<PageResult> future = futures.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.add(future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                results.add(PageResult.failed(urls.get(i), "timeout"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(PageResult.failed(urls.get(i), "interrupted"));
+            } catch (Exception e) {
+                results.add(PageResult.failed(urls.get(i), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 抓取单个页面：新鲜缓存直接返回，过期缓存带条件请求头重新验证
+     */
+    private PageResult fetchPage(String url, int maxChars, long deadline) {
+        CachedPage cached = pageCache.get(url);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.validatedAt() < CACHE_FRESH_MILLIS) {
+            return PageResult.of(url, cached, maxChars);
+        }
+        URI uri = URI.create(url);
+        String host = uri.getHost();
+        HostSlot slot = enterHost(host);
+        try {
+            urlGuard.check(uri);
+            slot.acquire(remainingMillis(deadline));
+            try {
+                Connection.Response response = execute(uri, cached, deadline);
+                if (response.statusCode() == 304 && cached != null) {
+                    CachedPage revalidated = cached.revalidated(System.currentTimeMillis());
+                    pageCache.put(url, revalidated);
+                    return PageResult.of(url, revalidated, maxChars);
+                }
+                if (response.statusCode() >= 400) {
+                    return PageResult.failed(url, "HTTP " + response.statusCode());
+                }
+                Document document = response.parse();
+                CachedPage page = new CachedPage(document.title(),
+                        PageContentExtractor.extractMainText(document, MAX_CHARS_PER_PAGE),
+                        response.header("ETag"), response.header("Last-Modified"),
+                        System.currentTimeMillis());
+                pageCache.put(url, page);
+                return PageResult.of(url, page, maxChars);
+            } finally {
+                slot.release();
+            }
+        } catch (BlockedUrlException e) {
+            log.warn("拒绝读取内网地址: {} - {}", url, e.getMessage());
+            return PageResult.failed(url, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PageResult.failed(url, "interrupted");
+        } catch (Exception e) {
+            log.warn("读取网页失败: {} - {}", url, e.getMessage());
+            return PageResult.failed(url, e.getMessage());
+        } finally {
+            leaveHost(host);
+        }
+    }
+
+    /**
+     * 发出请求并手动跟随重定向，每一跳都重新校验地址并连到校验过的地址，超时按截止前的剩余时间设置
+     */
+    private Connection.Response execute(URI uri, CachedPage cached, long deadline)
+            throws IOException, TimeoutException {
+        URI current = uri;
+        for (int hop = 0; ; hop++) {
+            Connection connection = Jsoup.connect(current.toString())
+                    .proxy(urlGuard.route(current))
+                    .userAgent(USER_AGENT)
+                    .timeout((int) Math.min(PAGE_TIMEOUT_MILLIS, remainingMillis(deadline)))
+                    .maxBodySize(MAX_BODY_BYTES)
+                    .followRedirects(false)
+                    .ignoreHttpErrors(true);
+            if (cached != null && cached.etag() != null) {
+                connection.header("If-None-Match", cached.etag());
+            }
+            if (cached != null && cached.lastModified() != null) {
+                connection.header("If-Modified-Since", cached.lastModified());
+            }
+            Connection.Response response = connection.execute();
+            int status = response.statusCode();
+            if (status < 300 || status >= 400 || status == 304) {
+                return response;
+            }
+            if (hop >= OutboundUrlGuard.MAX_REDIRECTS) {
+                throw new BlockedUrlException("too many redirects");
+            }
+            current = urlGuard.redirect(current, response.header("Location"));
+        }
+    }
+
+    /**
+     * 截止前的剩余毫秒数，已到截止时间时抛出超时
+     */
+    private static long remainingMillis(long deadline) throws TimeoutException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new TimeoutException("timeout");
+        }
+        return remaining;
+    }
+
+    private HostSlot enterHost(String host) {
+        if (hostSlots.size() > MAX_TRACKED_HOSTS) {
+            long now = System.currentTimeMillis();
+            for (String key : hostSlots.keySet()) {
+                hostSlots.computeIfPresent(key, (h, slot) -> slot.idle(now) ? null : slot);
+            }
+        }
+        return hostSlots.compute(host, (h, slot) -> {
+            HostSlot entered = slot != null ? slot : new HostSlot();
+            entered.users++;
+            return entered;
+        });
+    }
+
+    private void leaveHost(String host) {
+        long now = System.currentTimeMillis();
+        hostSlots.computeIfPresent(host, (h, slot) -> {
+            slot.users--;
+            return slot.idle(now) ? null : slot;
+        });
+    }
+
+    int trackedHosts() {
+        return hostSlots.size();
+    }
+
+    /**
+     * 格式化输出，所有页面合计不超过 MAX_TOTAL_CHARS
+     */
+    private String formatPages(List<String> urls, List<PageResult> pages) {
+        StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT][PAGE_READ_SUCCESS]\n");
+        int remaining = MAX_TOTAL_CHARS;
+        for (int i = 0; i < pages.size(); i++) {
+            PageResult page = pages.get(i);
+            if (i > 0) result.append("\n---\n");
+            result.append("[PAGE ").append(i + 1).append("]: ").append(urls.get(i)).append("\n");
+            if (page.error() != null) {
+                result.append("Error: ").append(page.error());
+                continue;
+            }
+            result.append("Title: ").append(page.title() == null || page.title().isEmpty() ? "N/A" : page.title()).append("\n");
+            String content = page.content();
+            if (remaining <= 0) {
+                content = "(omitted: total output limit reached)";
+            } else if (content.length() > remaining) {
+                content = content.substring(0, remaining) + "...";
+            }
+            remaining -= content.length();
+            result.append("Content: ").append(content);
+        }
+        return result.toString();
+    }
+
+    private List<String> splitUrls(String urls) {
+        if (urls == null || urls.isBlank()) {
+            return List.of();
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String url : urls.split("[,，\\s]+")) {
+            if (unique.size() >= MAX_PAGES) {
+                break;
+            }
+            if (isHttpUrl(url)) {
+                unique.add(url.trim());
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    private static boolean isHttpUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static int normalizeMaxChars(Integer maxCharsPerPage) {
+        if (maxCharsPerPage == null || maxCharsPerPage <= 0) {
+            return DEFAULT_CHARS_PER_PAGE;
+        }
+        return Math.min(maxCharsPerPage, MAX_CHARS_PER_PAGE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 缓存的页面正文及其验证信息
+     */
+    private record CachedPage(String title, String text, String etag, String lastModified, long validatedAt) {
+
+        CachedPage revalidated(long time) {
+            return new CachedPage(title, text, etag, lastModified, time);
+        }
+    }
+
+    /**
+     * 单个页面的读取结果
+     */
+    record PageResult(String url, String title, String content, String error) {
+
+        static PageResult of(String url, CachedPage page, int maxChars) {
+            String text = page.text();
+            if (text.length() > maxChars) {
+                text = text.substring(0, maxChars) + "...";
+            }
+            return new PageResult(url, page.title(), text, null);
+        }
+
+        static PageResult failed(String url, String error) {
+            return new PageResult(url, null, null, error == null ? "unknown error" : error);
+        }
+    }
+
+    /**
+     * 单个站点的访问限制：并发数 + 最小请求间隔
+     * users 为正在使用该站点的请求数，只在 hostSlots 的 compute 中修改
+     */
+    private static class HostSlot {
+
+        private final Semaphore permits = new Semaphore(MAX_CONCURRENT_PER_HOST);
+        private long nextAllowedAt;
+        private int users;
+
+        void acquire(long timeoutMillis) throws InterruptedException, TimeoutException {
+            if (!permits.tryAcquire(Math.min(PAGE_TIMEOUT_MILLIS, timeoutMillis), TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("host busy");
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                long start = Math.max(now, nextAllowedAt);
+                nextAllowedAt = start + MIN_HOST_INTERVAL_MILLIS;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        /**
+         * 没有请求在用且最小间隔已过，移除后不影响限流
+         */
+        synchronized boolean idle(long now) {
+            return users == 0 && nextAllowedAt <= now;
+        }
+    }
+
+    private static class PageReaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "page-reader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package com.zluolan.zaiagent.tools;
 
-import cn.hutool.http.HttpUtil;
-import cn.hutool.json.JSONArray;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.zluolan.zaiagent.resilience.GuardedResult;
+import com.zluolan.zaiagent.resilience.ToolGuard;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 联网搜索工具
- * 参考z-ai-agent项目的WebSearchTool，使用SearchAPI进行百度搜索
+ * 参考z-ai-agent项目的WebSearchTool，使用SearchAPI进行百度搜索。
+ * SearchAPI 调用受 {@link ToolGuard} 保护，不可用时返回 SEARCH_DEGRADED 结果而不是一直阻塞
  */
 @Component
 public class WebSearchTool {
@@ -22,63 +25,64 @@ public class WebSearchTool {
     // SearchAPI 的搜索接口地址
     private static final String SEARCH_API_URL = "https://www.searchapi.io/api/v1/search";
 
+    // 只保留前 5 条结果，响应体最多读取 512KB，单个字段最多 300 字符
+    private static final int MAX_RESULTS = 5;
+    private static final long MAX_RESPONSE_BYTES = 512 * 1024;
+    private static final int MAX_FIELD_CHARS = 300;
+
+    private static final SearchApiResponseParser RESPONSE_PARSER =
+            new SearchApiResponseParser(MAX_RESULTS, MAX_RESPONSE_BYTES, MAX_FIELD_CHARS);
+
     @Value("${search-api.api-key}")
     private String apiKey;
 
+    private final ToolGuard toolGuard;
+
     public WebSearchTool() {
+        this(ToolGuard.getDefault());
+    }
+
+    @Autowired
+    public WebSearchTool(ToolGuard toolGuard) {
+        this.toolGuard = toolGuard;
     }
     
     // 带参数的构造器（供手动创建实例使用）
     public WebSearchTool(String apiKey) {
+        this(ToolGuard.getDefault());
         this.apiKey = apiKey;
     }
 
     @Tool(description = "使用百度搜索引擎搜索实时旅游信息，包括景点、酒店、交通、天气等")
     public String searchWeb(
             @ToolParam(description = "搜索查询关键词，如：北京旅游攻略、上海酒店推荐、杭州天气等") String query) {
-        Map<String, Object> paramMap = new HashMap<>();
-        paramMap.put("q", query);
-        paramMap.put("api_key", apiKey);
-        paramMap.put("engine", "baidu");
+        if (query == null || query.isBlank()) {
+            return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] Search query must not be empty.";
+        }
         try {
-            String response = HttpUtil.get(SEARCH_API_URL, paramMap);
-
-            // 解析返回结果
-            JSONObject jsonObject = JSONUtil.parseObj(response);
-
-            // 检查是否存在错误信息
-            if (jsonObject.containsKey("error")) {
-                return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] Search API error: " + jsonObject.getStr("error");
-            }
-
-            // 检查搜索结果是否为空
-            if (!jsonObject.containsKey("organic_results")) {
-                return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] No search results found. Full response: " + response;
-            }
-
-            // 提取 organic_results 部分
-            JSONArray organicResults = jsonObject.getJSONArray("organic_results");
-            if (organicResults == null || organicResults.isEmpty()) {
-                return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] No search results found.";
+            GuardedResult<SearchApiResponseParser.ParsedResponse> guarded = guardedSearch(query);
+            if (guarded.degraded()) {
+                return "[TOOL_EXECUTION_RESULT][SEARCH_DEGRADED] 联网搜索暂不可用（" + guarded.reason()
+                        + "），未返回搜索结果。请改用本地景点、酒店、攻略工具，或稍后重试。";
             }
+            SearchApiResponseParser.ParsedResponse parsed = guarded.value();
 
-            // 取出返回结果的前 5 条
-            int resultCount = Math.min(5, organicResults.size());
-            JSONArray topResults = new JSONArray();
-            for (int i = 0; i < resultCount; i++) {
-                topResults.add(organicResults.get(i));
+            // 检查是否存在错误信息（不回传原始响应，避免无用内容进入上下文）
+            if (parsed.hasError()) {
+                return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] " + parsed.error();
             }
 
             // 格式化结果
             StringBuilder result = new StringBuilder("[TOOL_EXECUTION_RESULT][SEARCH_SUCCESS]\n");
             result.append("[SEARCH_QUERY]: ").append(query).append("\n");
             result.append("[SEARCH_RESULTS]:\n");
-            for (int i = 0; i < topResults.size(); i++) {
+            List<SearchApiResponseParser.SearchHit> hits = parsed.hits();
+            for (int i = 0; i < hits.size(); i++) {
                 if (i > 0) result.append("\n---\n");
-                JSONObject item = topResults.getJSONObject(i);
-                result.append("Title: ").append(item.getStr("title", "N/A")).append("\n");
-                result.append("Link: ").append(item.getStr("link", "N/A")).append("\n");
-                result.append("Snippet: ").append(item.getStr("snippet", "N/A"));
+                SearchApiResponseParser.SearchHit item = hits.get(i);
+                result.append("Title: ").append(valueOrNa(item.title())).append("\n");
+                result.append("Link: ").append(valueOrNa(item.link())).append("\n");
+                result.append("Snippet: ").append(valueOrNa(item.snippet()));
             }
 
             return result.toString();
@@ -86,4 +90,44 @@ public class WebSearchTool {
             return "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] Error searching Baidu: " + e.getMessage();
         }
     }
+
+    /**
+     * 调用 SearchAPI 并流式解析前 N 条结果，供其他工具复用；降级时返回带错误信息的结果
+     */
+    SearchApiResponseParser.ParsedResponse search(String query) {
+        return guardedSearch(query).value();
+    }
+
+    private GuardedResult<SearchApiResponseParser.ParsedResponse> guardedSearch(String query) {
+        return toolGuard.call(ToolGuard.SEARCH_API, () -> doSearch(query),
+                reason -> new SearchApiResponseParser.ParsedResponse(
+                        "[DEGRADED] Search service unavailable (" + reason + ")", List.of(), false));
+    }
+
+    /**
+     * 5xx 和 429 视为上游故障抛出异常，计入熔断统计
+     */
+    private SearchApiResponseParser.ParsedResponse doSearch(String query) {
+        Map<String, Object> paramMap = new HashMap<>();
+        paramMap.put("q", query);
+        paramMap.put("api_key", apiKey);
+        paramMap.put("engine", "baidu");
+        // executeAsync 不会预先读取响应体，交给流式解析器按需读取
+        int timeout = (int) toolGuard.policy(ToolGuard.SEARCH_API).timeoutMillis();
+        try (HttpResponse response = HttpRequest.get(SEARCH_API_URL).form(paramMap).timeout(timeout).executeAsync()) {
+            if (response.getStatus() >= 500 || response.getStatus() == 429) {
+                throw new IllegalStateException("SearchAPI status: " + response.getStatus());
+            }
+            if (response.contentLength() > MAX_RESPONSE_BYTES) {
+                return new SearchApiResponseParser.ParsedResponse(
+                        "Search response too large: " + response.contentLength() + " bytes", List.of(), true);
+            }
+            return RESPONSE_PARSER.parse(response.bodyStream());
+        }
+    }
+
+    private static String valueOrNa(String value) {
+        return value == null ? "N/A" : value;
+    }
 }
+
@@ -0,0 +1,189 @@
+package com.zluolan.zaiagent.weather;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.zluolan.zaiagent.resilience.GuardedResult;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.StepDeadline;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 高德天气客户端
+ * 单城市和批量天气工具共用同一个实例，因此共用城市编码缓存、天气缓存和 HTTP 连接
+ * （hutool 基于 HttpURLConnection，同一主机的 keep-alive 连接由 JDK 连接池复用）。
+ * <ul>
+ *     <li>城市编码长期缓存，无法识别的地点也缓存，避免重复查询</li>
+ *     <li>天气结果按城市和类型（实况/预报）缓存 {@link #WEATHER_TTL_MILLIS}</li>
+ *     <li>请求经 {@link ToolGuard} 的 amap 依赖保护，并由 {@link HedgedRequester} 对冲慢请求</li>
+ * </ul>
+ */
+@Slf4j
+public final class AmapWeatherClient {
+
+    public static final String DEFAULT_BASE_URL = "https://restapi.amap.com";
+
+    /**
+     * 天气缓存有效期，高德预报每天更新数次，10 分钟足够新鲜
+     */
+    public static final long WEATHER_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final int MAX_CACHED_CITIES = 2048;
+    private static final String UNKNOWN_CITY = "";
+
+    private static final AmapWeatherClient DEFAULT = new AmapWeatherClient(null, DEFAULT_BASE_URL,
+            ToolGuard.getDefault(), HedgedRequester.getDefault(), System::currentTimeMillis);
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final ToolGuard toolGuard;
+    private final HedgedRequester hedgedRequester;
+    private final LongSupplier clock;
+    private final Map<String, String> cityCodes = new ConcurrentHashMap<>();
+    private final Map<String, CachedWeather> weather = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+    public AmapWeatherClient(String apiKey, String baseUrl, ToolGuard toolGuard, HedgedRequester hedgedRequester,
+                             LongSupplier clock) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.toolGuard = toolGuard;
+        this.hedgedRequester = hedgedRequester;
+        this.clock = clock;
+    }
+
+    public AmapWeatherClient(String apiKey, ToolGuard toolGuard, HedgedRequester hedgedRequester) {
+        this(apiKey, DEFAULT_BASE_URL, toolGuard, hedgedRequester, System::currentTimeMillis);
+    }
+
+    /**
+     * 未配置 API Key 的共享实例，供手动创建的工具使用
+     */
+    public static AmapWeatherClient getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 查询地点的天气原始数据
+     *
+     * @param forecast true 查询预报（extensions=all），false 查询实况
+     * @return 高德返回的 JSON；地点无法识别时 value 为 null；高德不可用时为降级结果
+     */
+    public GuardedResult<JSONObject> fetch(String location, boolean forecast) {
+        return toolGuard.call(ToolGuard.AMAP, () -> fetchUnguarded(location, forecast), reason -> null);
+    }
+
+    /**
+     * 查询城市编码，无法识别返回 null
+     */
+    public String cityCode(String location) throws Exception {
+        String key = location.strip();
+        String cached = cityCodes.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.isEmpty() ? null : cached;
+        }
+        JSONObject geoData = JSONUtil.parseObj(get("amap.geocode", "/v3/geocode/geo", Map.of("address", key)));
+        JSONArray geocodes = geoData.getJSONArray("geocodes");
+        String code = geocodes != null && !geocodes.isEmpty() ? geocodes.getJSONObject(0).getStr("adcode") : null;
+        if (cityCodes.size() >= MAX_CACHED_CITIES) {
+            cityCodes.clear();
+        }
+        cityCodes.put(key, code != null ? code : UNKNOWN_CITY);
+        return code;
+    }
+
+    /**
+     * 解析预报数据中的逐日天气（forecasts[0].casts），数据缺失时返回空列表
+     */
+    public static List<DailyWeather> parseForecast(JSONObject weatherData) {
+        List<DailyWeather> days = new ArrayList<>();
+        JSONArray forecasts = weatherData != null ? weatherData.getJSONArray("forecasts") : null;
+        if (forecasts == null || forecasts.isEmpty()) {
+            return days;
+        }
+        JSONArray casts = forecasts.getJSONObject(0).getJSONArray("casts");
+        if (casts == null) {
+            return days;
+        }
+        for (int i = 0; i < casts.size(); i++) {
+            JSONObject cast = casts.getJSONObject(i);
+            try {
+                int dayTemp = Integer.parseInt(cast.getStr("daytemp", "").strip());
+                int nightTemp = Integer.parseInt(cast.getStr("nighttemp", "").strip());
+                days.add(new DailyWeather(LocalDate.parse(cast.getStr("date")), cast.getStr("dayweather"),
+                        cast.getStr("nightweather"), Math.min(dayTemp, nightTemp), Math.max(dayTemp, nightTemp),
+                        cast.getStr("daywind", "") + "风" + cast.getStr("daypower", "") + "级", -1, false));
+            } catch (NumberFormatException | DateTimeParseException | NullPointerException e) {
+                log.debug("跳过无法解析的预报: {}", cast);
+            }
+        }
+        return days;
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    public long cacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    private JSONObject fetchUnguarded(String location, boolean forecast) throws Exception {
+        String code = cityCode(location);
+        if (code == null) {
+            return null;
+        }
+        String key = code + (forecast ? ":all" : ":base");
+        long now = clock.getAsLong();
+        CachedWeather cached = weather.get(key);
+        if (cached != null && now - cached.fetchedAt() < WEATHER_TTL_MILLIS) {
+            cacheHits.increment();
+            return cached.data();
+        }
+        JSONObject data = JSONUtil.parseObj(get("amap.weather", "/v3/weather/weatherInfo",
+                Map.of("city", code, "extensions", forecast ? "all" : "base")));
+        // 只缓存成功的结果，高德返回错误时下次重新请求
+        if ("1".equals(data.getStr("status"))) {
+            weather.put(key, new CachedWeather(data, now));
+        }
+        return data;
+    }
+
+    /**
+     * 发送可对冲的 GET 请求，返回响应体；HTTP 错误抛出异常计为上游故障。
+     * 总预算取依赖超时和步骤剩余时间中较短的，每次请求按剩余预算设置连接和读取超时
+     */
+    private String get(String endpoint, String path, Map<String, Object> params) throws Exception {
+        long budget = Math.min(toolGuard.policy(ToolGuard.AMAP).timeoutMillis(), StepDeadline.remainingMillis());
+        Map<String, Object> form = new HashMap<>(params);
+        form.put("key", apiKey);
+        return hedgedRequester.call(endpoint, budget, timeout -> {
+            requests.increment();
+            try (HttpResponse response = HttpRequest.get(baseUrl + path).form(form).timeout(timeout).execute()) {
+                if (response.getStatus() != 200) {
+                    throw new IllegalStateException(endpoint + " 状态码: " + response.getStatus());
+                }
+                return response.body();
+            }
+        });
+    }
+
+    private record CachedWeather(JSONObject data, long fetchedAt) {
+    }
+}
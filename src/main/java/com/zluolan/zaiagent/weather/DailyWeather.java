@@ -0,0 +1,30 @@
+package com.zluolan.zaiagent.weather;
+
+import java.time.LocalDate;
+
+/**
+ * 单日天气
+ *
+ * @param dayWeather   白天天气
+ * @param nightWeather 夜间天气，与白天相同时只显示一个
+ * @param wind         风向风力描述，如“北风≤3级”
+ * @param humidity     湿度百分比，未知时为 -1
+ * @param estimated    是否为按季节估算的数据
+ */
+public record DailyWeather(LocalDate date, String dayWeather, String nightWeather, int minTemp, int maxTemp,
+                           String wind, int humidity, boolean estimated) {
+
+    /**
+     * 天气描述，如“晴转多云”
+     */
+    public String weatherText() {
+        if (nightWeather == null || nightWeather.isBlank() || nightWeather.equals(dayWeather)) {
+            return dayWeather;
+        }
+        return dayWeather + "转" + nightWeather;
+    }
+
+    public String temperatureText() {
+        return minTemp + "~" + maxTemp + "°C";
+    }
+}
@@ -0,0 +1,55 @@
+package com.zluolan.zaiagent.weather;
+
+import java.time.LocalDate;
+
+/**
+ * 按地点和季节估算天气，高德接口不可用或日期超出预报范围时使用
+ */
+public final class WeatherEstimator {
+
+    private static final String[] CONDITIONS = {"晴", "多云", "阴", "小雨", "中雨", "雷阵雨", "雾", "霾"};
+    private static final String[] WIND_LEVELS = {"微风1-2级", "轻风3-4级", "和风5-6级", "强风7-8级"};
+
+    private WeatherEstimator() {
+    }
+
+    /**
+     * 根据地点和日期生成合理的天气数据，同一地点结果固定
+     */
+    public static DailyWeather estimate(String location, LocalDate date) {
+        int minTemp;
+        int maxTemp;
+        // 根据地点和季节设置基础温度范围（使用固定值模拟）
+        String season = season(date.getMonthValue());
+        if (location.contains("北京") || location.contains("天津")) {
+            switch (season) {
+                case "春季" -> { minTemp = 8; maxTemp = 18; }
+                case "夏季" -> { minTemp = 22; maxTemp = 32; }
+                case "秋季" -> { minTemp = 10; maxTemp = 20; }
+                default -> { minTemp = -2; maxTemp = 8; }
+            }
+        } else if (location.contains("上海") || location.contains("杭州")) {
+            switch (season) {
+                case "春季" -> { minTemp = 12; maxTemp = 22; }
+                case "夏季" -> { minTemp = 26; maxTemp = 34; }
+                case "秋季" -> { minTemp = 18; maxTemp = 26; }
+                default -> { minTemp = 4; maxTemp = 12; }
+            }
+        } else {
+            // 通用温度范围
+            minTemp = 15;
+            maxTemp = 25;
+        }
+        int hash = Math.abs(location.hashCode());
+        String condition = CONDITIONS[hash % CONDITIONS.length];
+        return new DailyWeather(date, condition, condition, minTemp, maxTemp,
+                WIND_LEVELS[hash % WIND_LEVELS.length], 50 + hash % 30, true);
+    }
+
+    public static String season(int month) {
+        if (month >= 3 && month <= 5) return "春季";
+        if (month >= 6 && month <= 8) return "夏季";
+        if (month >= 9 && month <= 11) return "秋季";
+        return "冬季";
+    }
+}
@@ -0,0 +1,404 @@
+package com.zluolan.zaiagent.toolgen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * 工具回调生成器（编译期注解处理器）
+ * 为每个含 @Tool 方法的类生成同包的 {@code <类名>Callbacks}，其中每个工具方法对应一个
+ * GeneratedToolCallback 子类：工具名、描述、参数 JSON Schema 在编译期按 Spring AI 的规则算好写成常量，
+ * 调用时按参数名取值后直接调用方法。Spring AI 的注解按全限定名读取，处理器本身不依赖 Spring AI。
+ * 参数只支持 String、Integer、Long、Double、Boolean（含基本类型）和 ToolContext，
+ * 其他类型或自定义 resultConverter 直接报编译错误，避免生成的行为与反射回调不一致。
+ */
+@SupportedAnnotationTypes(ToolCallbackProcessor.TOOL)
+public class ToolCallbackProcessor extends AbstractProcessor {
+
+    static final String TOOL = "org.springframework.ai.tool.annotation.Tool";
+    static final String SUFFIX = "Callbacks";
+
+    private static final String TOOL_PARAM = "org.springframework.ai.tool.annotation.ToolParam";
+    private static final String TOOL_CONTEXT = "org.springframework.ai.chat.model.ToolContext";
+    private static final String DEFAULT_CONVERTER = "org.springframework.ai.tool.execution.DefaultToolCallResultConverter";
+    private static final String SCHEMA_URI = "https://json-schema.org/draft/2020-12/schema";
+    private static final Pattern CAMEL_CASE = Pattern.compile("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])");
+
+    /**
+     * 工具方法中的一个参数
+     *
+     * @param name        参数名
+     * @param type        参数类型
+     * @param description 参数描述，没有时为 null
+     * @param required    是否必填
+     */
+    private record Param(String name, ParamType type, String description, boolean required) {
+    }
+
+    /**
+     * 支持的参数类型：JSON Schema 中的类型与格式，以及 ToolArguments 的取值方法
+     */
+    private enum ParamType {
+        STRING("string", null, "getString"),
+        INTEGER("integer", "int32", "getInteger"),
+        INT("integer", "int32", "getIntValue"),
+        LONG_OBJECT("integer", "int64", "getLong"),
+        LONG("integer", "int64", "getLongValue"),
+        DOUBLE_OBJECT("number", "double", "getDouble"),
+        DOUBLE("number", "double", "getDoubleValue"),
+        BOOLEAN_OBJECT("boolean", null, "getBoolean"),
+        BOOLEAN("boolean", null, "getBooleanValue"),
+        CONTEXT(null, null, null);
+
+        private final String schemaType;
+        private final String format;
+        private final String getter;
+
+        ParamType(String schemaType, String format, String getter) {
+            this.schemaType = schemaType;
+            this.format = format;
+            this.getter = getter;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, TypeElement> types = new TreeMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    TypeElement type = (TypeElement) element.getEnclosingElement();
+                    types.put(type.getQualifiedName().toString(), type);
+                }
+            }
+        }
+        for (TypeElement type : types.values()) {
+            generate(type);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.PRIVATE)
+                || !type.getTypeParameters().isEmpty()) {
+            error(type, "含 @Tool 方法的类必须是非私有、非泛型的顶层类");
+            return;
+        }
+        // 按源码顺序生成，保证工具顺序稳定
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.METHOD && annotation(element, TOOL) != null) {
+                methods.add((ExecutableElement) element);
+            }
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String target = type.getSimpleName().toString();
+        String className = target + SUFFIX;
+
+        StringBuilder callbacks = new StringBuilder();
+        List<String> classNames = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        boolean valid = true;
+        for (ExecutableElement method : methods) {
+            String callbackName = capitalize(method.getSimpleName().toString()) + "Callback";
+            for (int i = 2; !usedNames.add(callbackName); i++) {
+                callbackName = capitalize(method.getSimpleName().toString()) + "Callback" + i;
+            }
+            String source = callbackClass(target, callbackName, method);
+            if (source == null) {
+                valid = false;
+                continue;
+            }
+            classNames.add(callbackName);
+            callbacks.append(source);
+        }
+        if (!valid) {
+            return;
+        }
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import com.zluolan.zaiagent.toolgen.GeneratedToolCallback;\n")
+                .append("import com.zluolan.zaiagent.toolgen.ToolArguments;\n")
+                .append("import org.springframework.ai.chat.model.ToolContext;\n")
+                .append("import org.springframework.ai.tool.ToolCallback;\n")
+                .append("import org.springframework.ai.tool.definition.ToolDefinition;\n")
+                .append("import org.springframework.ai.tool.metadata.ToolMetadata;\n\n")
+                .append("import javax.annotation.processing.Generated;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * {@link ").append(target).append("} 的工具回调，编译期生成，请勿手动修改\n */\n")
+                .append("@Generated(\"").append(ToolCallbackProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(className).append(" {\n\n")
+                .append("    private ").append(className).append("() {\n    }\n\n")
+                .append("    /**\n     * 创建工具对象的全部回调，顺序与源码中 @Tool 方法的顺序一致\n     */\n")
+                .append("    public static List<ToolCallback> of(").append(target).append(" target) {\n")
+                .append("        return List.of(");
+        for (int i = 0; i < classNames.size(); i++) {
+            out.append(i == 0 ? "" : ",\n                ").append("new ").append(classNames.get(i)).append("(target)");
+        }
+        out.append(");\n    }\n").append(callbacks).append("}\n");
+
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? className : packageName + "." + className, type)
+                .openWriter()) {
+            writer.write(out.toString());
+        } catch (IOException e) {
+            error(type, "生成工具回调失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 生成一个工具方法的回调类，方法不合法时报错并返回 null
+     */
+    private String callbackClass(String target, String callbackName, ExecutableElement method) {
+        AnnotationMirror tool = annotation(method, TOOL);
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(tool);
+        String methodName = method.getSimpleName().toString();
+        if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+            error(method, "@Tool 方法必须是非私有的实例方法");
+            return null;
+        }
+        if (!DEFAULT_CONVERTER.equals(String.valueOf(value(values, "resultConverter")))) {
+            error(method, "生成的工具回调只支持默认的 resultConverter");
+            return null;
+        }
+
+        List<Param> params = new ArrayList<>();
+        boolean acceptsContext = false;
+        for (VariableElement parameter : method.getParameters()) {
+            ParamType type = paramType(parameter.asType());
+            if (type == null) {
+                error(parameter, "生成的工具回调不支持参数类型 " + parameter.asType()
+                        + "，只支持 String、Integer、Long、Double、Boolean 和 ToolContext");
+                return null;
+            }
+            acceptsContext |= type == ParamType.CONTEXT;
+            params.add(param(parameter, type));
+        }
+
+        String name = (String) value(values, "name");
+        String description = (String) value(values, "description");
+        boolean returnDirect = (Boolean) value(values, "returnDirect");
+        String schema = inputSchema(params);
+
+        StringBuilder out = new StringBuilder();
+        out.append("\n    private static final class ").append(callbackName).append(" extends GeneratedToolCallback {\n\n")
+                .append("        private static final ToolDefinition DEFINITION = ToolDefinition.builder()\n")
+                .append("                .name(").append(literal(hasText(name) ? name : methodName)).append(")\n")
+                .append("                .description(")
+                .append(literal(hasText(description) ? description : splitCamelCase(methodName))).append(")\n")
+                .append("                .inputSchema(").append(literal(schema)).append(")\n")
+                .append("                .build();\n\n")
+                .append("        private static final ToolMetadata METADATA = ToolMetadata.builder()\n")
+                .append("                .returnDirect(").append(returnDirect).append(")\n")
+                .append("                .build();\n\n")
+                .append("        private final ").append(target).append(" target;\n\n")
+                .append("        ").append(callbackName).append("(").append(target).append(" target) {\n")
+                .append("            super(DEFINITION, METADATA, ").append(acceptsContext).append(");\n")
+                .append("            this.target = target;\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        protected Object invoke(ToolArguments arguments, ToolContext toolContext) throws Exception {\n");
+        StringBuilder call = new StringBuilder("target.").append(methodName).append("(");
+        for (int i = 0; i < params.size(); i++) {
+            Param param = params.get(i);
+            call.append(i == 0 ? "\n                    " : ",\n                    ");
+            if (param.type() == ParamType.CONTEXT) {
+                call.append("toolContext");
+            } else {
+                call.append("arguments.").append(param.type().getter).append("(").append(literal(param.name())).append(")");
+            }
+        }
+        call.append(")");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            out.append("            ").append(call).append(";\n")
+                    .append("            return VOID;\n");
+        } else {
+            out.append("            return ").append(call).append(";\n");
+        }
+        out.append("        }\n    }\n");
+        return out.toString();
+    }
+
+    /**
+     * 按 Spring AI JsonSchemaGenerator 的规则生成参数 Schema：ToolContext 不出现在 Schema 中，
+     * 有 @ToolParam 时按其 required，否则标注了 @Nullable 的可选、其余必填
+     */
+    private static String inputSchema(List<Param> params) {
+        StringBuilder properties = new StringBuilder();
+        StringBuilder required = new StringBuilder();
+        for (Param param : params) {
+            if (param.type() == ParamType.CONTEXT) {
+                continue;
+            }
+            if (!properties.isEmpty()) {
+                properties.append(',');
+            }
+            properties.append(json(param.name())).append(":{\"type\":").append(json(param.type().schemaType));
+            if (param.type().format != null) {
+                properties.append(",\"format\":").append(json(param.type().format));
+            }
+            if (hasText(param.description())) {
+                properties.append(",\"description\":").append(json(param.description()));
+            }
+            properties.append('}');
+            if (param.required()) {
+                required.append(required.isEmpty() ? "" : ",").append(json(param.name()));
+            }
+        }
+        return "{\"$schema\":" + json(SCHEMA_URI) + ",\"type\":\"object\",\"properties\":{" + properties
+                + "},\"required\":[" + required + "],\"additionalProperties\":false}";
+    }
+
+    private Param param(VariableElement parameter, ParamType type) {
+        String name = parameter.getSimpleName().toString();
+        AnnotationMirror toolParam = annotation(parameter, TOOL_PARAM);
+        if (toolParam != null) {
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(toolParam);
+            return new Param(name, type, (String) value(values, "description"), (Boolean) value(values, "required"));
+        }
+        boolean nullable = parameter.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().asElement().getSimpleName().contentEquals("Nullable"));
+        return new Param(name, type, null, !nullable);
+    }
+
+    private static ParamType paramType(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT -> ParamType.INT;
+            case LONG -> ParamType.LONG;
+            case DOUBLE -> ParamType.DOUBLE;
+            case BOOLEAN -> ParamType.BOOLEAN;
+            case DECLARED -> switch (type.toString()) {
+                case "java.lang.String" -> ParamType.STRING;
+                case "java.lang.Integer" -> ParamType.INTEGER;
+                case "java.lang.Long" -> ParamType.LONG_OBJECT;
+                case "java.lang.Double" -> ParamType.DOUBLE_OBJECT;
+                case "java.lang.Boolean" -> ParamType.BOOLEAN_OBJECT;
+                case TOOL_CONTEXT -> ParamType.CONTEXT;
+                default -> null;
+            };
+            default -> null;
+        };
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object value(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与 Spring AI 未写描述时的规则一致：驼峰方法名拆成小写单词，连续大写视为一个词，
+     * 如 doTerminate → "do terminate"，getHTMLPage → "get html page"
+     */
+    static String splitCamelCase(String name) {
+        return String.join(" ", CAMEL_CASE.split(name)).toLowerCase(Locale.ROOT);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && !text.isBlank();
+    }
+
+    /**
+     * JSON 字符串（用于 Schema）
+     */
+    private static String json(String text) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /**
+     * Java 字符串字面量，非 ASCII 字符写成 Unicode 转义，生成的源码不受编译编码影响
+     */
+    private static String literal(String text) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
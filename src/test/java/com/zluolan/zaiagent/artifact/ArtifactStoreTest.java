@@ -0,0 +1,199 @@
+package com.zluolan.zaiagent.artifact;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ArtifactStore测试类
+ * 校验按内容去重、来源键复用、序列化时不暴露路径、容量和保留期淘汰、重启后重建索引，以及下载时的 Range、ETag 和 sendfile 处理
+ */
+class ArtifactStoreTest {
+
+    @TempDir
+    Path root;
+
+    private static byte[] bytes(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+
+    @Test
+    void testDeduplicateByContent() throws Exception {
+        ArtifactStore store = new ArtifactStore(root, ArtifactStore.DEFAULT_MAX_BYTES, ArtifactStore.DEFAULT_RETENTION);
+        byte[] data = bytes(100_000, 1);
+        Artifact first = store.write(new ByteArrayInputStream(data), "成都行程单.pdf", null, "plan-a");
+        Path copy = root.resolve("copy.bin");
+        Files.write(copy, data);
+        Artifact second = store.moveIn(copy, "另一个名字.pdf", null, "plan-b");
+        System.out.println("制品: " + first);
+
+        assertEquals(first, second);
+        assertFalse(Files.exists(copy));
+        assertEquals(64, first.hash().length());
+        assertEquals(ArtifactStore.hash(Path.of(first.path())), first.hash());
+        assertEquals("application/pdf", first.contentType());
+        assertTrue(first.path().endsWith(first.hash() + ".pdf"));
+        assertEquals(1, store.size());
+        assertEquals(data.length, store.totalBytes());
+        assertEquals(first, store.findBySource("plan-b"));
+        assertNull(store.findBySource("plan-c"));
+        assertNull(store.get("../../etc/passwd"));
+
+        // 接口响应中不暴露磁盘路径
+        String json = new ObjectMapper().writeValueAsString(first);
+        assertFalse(json.contains("\"path\""), json);
+        assertFalse(json.contains(root.toString()), json);
+
+        // 复制入库不影响源文件
+        Artifact same = store.copyIn(Path.of(first.path()), "view.png", "image/png");
+        assertEquals(first, same);
+        assertTrue(Files.exists(Path.of(first.path())));
+    }
+
+    @Test
+    void testEvictBySizeAndRetention() throws Exception {
+        ArtifactStore store = new ArtifactStore(root, 250_000, ArtifactStore.DEFAULT_RETENTION);
+        Artifact a = store.write(new ByteArrayInputStream(bytes(100_000, 1)), "a.bin", null, "a");
+        Artifact b = store.write(new ByteArrayInputStream(bytes(100_000, 2)), "b.bin", null, null);
+        // 访问 a 后，b 成为最久未访问的
+        assertNotNull(store.get(a.hash()));
+        Artifact c = store.write(new ByteArrayInputStream(bytes(100_000, 3)), "c.bin", null, null);
+
+        assertNull(store.get(b.hash()));
+        assertFalse(Files.exists(Path.of(b.path())));
+        assertNotNull(store.get(a.hash()));
+        assertNotNull(store.get(c.hash()));
+        assertEquals(200_000, store.totalBytes());
+
+        ArtifactStore shortLived = new ArtifactStore(root.resolve("short"), ArtifactStore.DEFAULT_MAX_BYTES,
+                Duration.ofMillis(50));
+        Artifact old = shortLived.write(new ByteArrayInputStream(bytes(10, 4)), "old.txt", null, "old");
+        Thread.sleep(120);
+        assertEquals(1, shortLived.purge());
+        assertNull(shortLived.get(old.hash()));
+        assertNull(shortLived.findBySource("old"));
+        assertEquals(0, shortLived.totalBytes());
+    }
+
+    @Test
+    void testRebuildIndexOnRestart() throws Exception {
+        ArtifactStore store = new ArtifactStore(root, ArtifactStore.DEFAULT_MAX_BYTES, ArtifactStore.DEFAULT_RETENTION);
+        Artifact pdf = store.write(new ByteArrayInputStream(bytes(5_000, 1)), "成都行程单.pdf", null, null);
+        Path leftover = store.createIncomingFile(".pdf");
+
+        ArtifactStore restarted = new ArtifactStore(root, ArtifactStore.DEFAULT_MAX_BYTES,
+                ArtifactStore.DEFAULT_RETENTION);
+        Artifact rebuilt = restarted.get(pdf.hash());
+        assertNotNull(rebuilt);
+        assertEquals(pdf.size(), rebuilt.size());
+        assertEquals("application/pdf", rebuilt.contentType());
+        assertFalse(Files.exists(leftover));
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    void testParseRange() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-1", 100));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 100));
+        assertNull(ByteRange.parse("bytes=abc", 100));
+        assertNull(ByteRange.parse("bytes=5-2", 100));
+        assertEquals(new ByteRange(0, 9), ByteRange.parse("bytes=0-9", 100));
+        assertEquals(new ByteRange(90, 99), ByteRange.parse("bytes=90-", 100));
+        assertEquals(new ByteRange(90, 99), ByteRange.parse("bytes=90-500", 100));
+        assertEquals(new ByteRange(80, 99), ByteRange.parse("bytes=-20", 100));
+        assertEquals(new ByteRange(0, 99), ByteRange.parse("bytes=-500", 100));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100-", 100));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", 100));
+        assertEquals("bytes 0-9/100", new ByteRange(0, 9).contentRange(100));
+    }
+
+    @Test
+    void testSendWithRangeAndEtag() throws Exception {
+        ArtifactStore store = new ArtifactStore(root, ArtifactStore.DEFAULT_MAX_BYTES, ArtifactStore.DEFAULT_RETENTION);
+        byte[] data = bytes(300_000, 7);
+        Artifact artifact = store.write(new ByteArrayInputStream(data), "成都行程单.pdf", "application/pdf", null);
+
+        // 完整下载
+        MockHttpServletResponse full = send(artifact, new MockHttpServletRequest("GET", artifact.url()));
+        assertEquals(200, full.getStatus());
+        assertArrayEquals(data, full.getContentAsByteArray());
+        assertEquals(artifact.etag(), full.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", full.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(data.length, full.getContentLengthLong());
+        assertTrue(full.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("attachment"));
+
+        // 断点续传
+        MockHttpServletRequest ranged = new MockHttpServletRequest("GET", artifact.url());
+        ranged.addHeader(HttpHeaders.RANGE, "bytes=1000-1999");
+        ranged.addHeader(HttpHeaders.IF_RANGE, artifact.etag());
+        MockHttpServletResponse partial = send(artifact, ranged);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 1000-1999/300000", partial.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(data, 1000, 2000), partial.getContentAsByteArray());
+
+        // If-Range 不匹配时返回完整内容
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", artifact.url());
+        stale.addHeader(HttpHeaders.RANGE, "bytes=1000-1999");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"old\"");
+        assertEquals(200, send(artifact, stale).getStatus());
+
+        MockHttpServletRequest cached = new MockHttpServletRequest("GET", artifact.url());
+        cached.addHeader(HttpHeaders.IF_NONE_MATCH, artifact.etag());
+        MockHttpServletResponse notModified = send(artifact, cached);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", artifact.url());
+        outside.addHeader(HttpHeaders.RANGE, "bytes=300000-");
+        MockHttpServletResponse unsatisfiable = send(artifact, outside);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */300000", unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletResponse head = send(artifact, new MockHttpServletRequest("HEAD", artifact.url()));
+        assertEquals(data.length, head.getContentLengthLong());
+        assertEquals(0, head.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testSendfileWhenContainerSupportsIt() throws Exception {
+        ArtifactStore store = new ArtifactStore(root, ArtifactStore.DEFAULT_MAX_BYTES, ArtifactStore.DEFAULT_RETENTION);
+        Artifact artifact = store.write(new ByteArrayInputStream("宽窄巷子".repeat(1000)
+                .getBytes(StandardCharsets.UTF_8)), "view.png", null, null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", artifact.url());
+        request.setAttribute(ArtifactTransfer.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=-100");
+        MockHttpServletResponse response = send(artifact, request);
+
+        // 只登记文件和区间，由容器发送，响应体中没有经过 JVM 的内容
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(artifact.path(), request.getAttribute(ArtifactTransfer.SENDFILE_FILENAME));
+        assertEquals(artifact.size() - 100, request.getAttribute(ArtifactTransfer.SENDFILE_START));
+        assertEquals(artifact.size(), request.getAttribute(ArtifactTransfer.SENDFILE_END));
+        assertEquals("image/png", response.getContentType());
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).startsWith("inline"));
+    }
+
+    private static MockHttpServletResponse send(Artifact artifact, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ArtifactTransfer.send(artifact, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,74 @@
+package com.zluolan.zaiagent.budget;
+
+import com.zluolan.zaiagent.poi.PriceTier;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BudgetTable测试类
+ * 校验分项费用计算、预算对应档次、未收录城市的参考值以及数据格式错误的行号提示
+ */
+class BudgetTableTest {
+
+    private final BudgetTable table = BudgetTable.getDefault();
+
+    @Test
+    void testEstimateItems() {
+        BudgetEstimate estimate = table.estimate("北京", 3, 3);
+        assertEquals(2, estimate.nights());
+        assertEquals(2, estimate.rooms());
+        assertFalse(estimate.reference());
+        for (PriceTier tier : PriceTier.values()) {
+            assertEquals((long) table.cost("北京", tier, CostItem.LODGING) * 2 * 2, estimate.amount(tier, CostItem.LODGING));
+            assertEquals((long) table.cost("北京", tier, CostItem.MEALS) * 3 * 3, estimate.amount(tier, CostItem.MEALS));
+            long total = 0;
+            for (CostItem item : CostItem.values()) {
+                total += estimate.amount(tier, item);
+            }
+            assertEquals(total, estimate.total(tier));
+        }
+        assertTrue(estimate.total(PriceTier.ECONOMY) < estimate.total(PriceTier.LUXURY));
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            table.estimate("北京", 1 + i % 7, 1 + i % 4);
+        }
+        System.out.println("单次估算耗时: " + (System.nanoTime() - begin) / 100_000 + "ns，北京3天3人经济型: "
+                + estimate.total(PriceTier.ECONOMY) + "元");
+    }
+
+    @Test
+    void testFitTier() {
+        BudgetEstimate estimate = table.estimate("成都", 3, 2);
+        assertNull(estimate.fit(estimate.total(PriceTier.ECONOMY) - 1));
+        assertEquals(PriceTier.ECONOMY, estimate.fit(estimate.total(PriceTier.ECONOMY)));
+        assertEquals(PriceTier.COMFORT, estimate.fit(estimate.total(PriceTier.PREMIUM) - 1));
+        assertEquals(PriceTier.LUXURY, estimate.fit(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testUnknownCityUsesReference() {
+        BudgetEstimate estimate = table.estimate("喀什", 2, 1);
+        assertTrue(estimate.reference());
+        assertFalse(table.contains("喀什"));
+        assertFalse(table.contains("*"));
+        assertEquals(table.cost(null, PriceTier.COMFORT, CostItem.MEALS), table.cost("喀什", PriceTier.COMFORT, CostItem.MEALS));
+        assertEquals(0, table.estimate("北京", 1, 2).amount(PriceTier.ECONOMY, CostItem.LODGING));
+        assertThrows(IllegalArgumentException.class, () -> table.estimate("北京", 0, 2));
+    }
+
+    @Test
+    void testMalformedRowsRejected() {
+        String data = "@cost\t*\t1,2,3,4\t1,2,3,4\t1,2,3,4\t1,2,3,4\n@cost\t北京\t1,2,3\t1,2,3,4\t1,2,3,4\t1,2,3,4\n";
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> BudgetTable.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(error.getMessage().contains("第2行"), error.getMessage());
+        String noReference = "@cost\t北京\t1,2,3,4\t1,2,3,4\t1,2,3,4\t1,2,3,4\n";
+        assertThrows(IllegalArgumentException.class,
+                () -> BudgetTable.load(new ByteArrayInputStream(noReference.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,120 @@
+package com.zluolan.zaiagent.concurrent;
+
+import com.zluolan.zaiagent.resilience.StepDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FanOutExecutor测试类
+ * 测试子查询并发执行、共享截止时间、部分结果返回、进程内共享实例，以及步骤截止时间传递到工作线程
+ */
+class FanOutExecutorTest {
+
+    private final FanOutExecutor executor = new FanOutExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testSectionsRunConcurrently() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            int index = i;
+            tasks.put("section" + i, () -> {
+                Thread.sleep(200);
+                return "result" + index;
+            });
+        }
+
+        FanOutResult<String> result = executor.invokeAll(tasks, 2000);
+
+        assertTrue(result.isComplete());
+        assertEquals("result2", result.get("section2").value());
+        // 串行执行需要 800ms，并发执行应明显更快
+        assertTrue(result.totalMillis() < 600, "total: " + result.totalMillis());
+        System.out.println("并发耗时: " + result.timingSummary());
+    }
+
+    @Test
+    void testPartialResultsOnTimeout() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        tasks.put("fast", () -> "ok");
+        tasks.put("slow", () -> {
+            Thread.sleep(5000);
+            return "late";
+        });
+
+        FanOutResult<String> result = executor.invokeAll(tasks, 300);
+
+        assertFalse(result.isComplete());
+        assertEquals("ok", result.get("fast").value());
+        assertEquals(SectionResult.Status.TIMEOUT, result.get("slow").status());
+        assertTrue(result.totalMillis() < 2000);
+        assertTrue(result.timingSummary().contains("slow=TIMEOUT"));
+    }
+
+    @Test
+    void testFailedSectionDoesNotAffectOthers() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        tasks.put("broken", () -> {
+            throw new IllegalStateException("upstream error");
+        });
+        tasks.put("healthy", () -> "ok");
+
+        FanOutResult<String> result = executor.invokeAll(tasks, 1000);
+
+        assertEquals(SectionResult.Status.FAILED, result.get("broken").status());
+        assertEquals("upstream error", result.get("broken").error());
+        assertTrue(result.get("healthy").isOk());
+    }
+
+    @Test
+    void testSharedDefault() {
+        FanOutExecutor shared = FanOutExecutor.getDefault();
+        assertSame(shared, FanOutExecutor.getDefault());
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        tasks.put("a", () -> "A");
+        tasks.put("b", () -> "B");
+        FanOutResult<String> result = shared.invokeAll(tasks, 2000);
+        assertEquals("A", result.get("a").value());
+        assertEquals("B", result.get("b").value());
+    }
+
+    @Test
+    void testStepDeadlinePropagatesToWorkers() throws Exception {
+        Map<String, Callable<Long>> tasks = new LinkedHashMap<>();
+        tasks.put("a", StepDeadline::remainingMillis);
+        tasks.put("b", StepDeadline::remainingMillis);
+
+        // 步骤剩余时间短于共享截止时间时，工作线程看到的是步骤剩余时间
+        FanOutResult<Long> inStep = StepDeadline.within(800, () -> executor.invokeAll(tasks, 5000));
+        for (String name : tasks.keySet()) {
+            long remaining = inStep.get(name).value();
+            assertTrue(remaining > 0 && remaining <= 800, name + ": " + remaining);
+        }
+
+        // 没有步骤截止时间时以共享截止时间为上限
+        long plain = executor.invokeAll(tasks, 3000).get("a").value();
+        assertTrue(plain > 800 && plain <= 3000, "plain: " + plain);
+
+        // 任务结束后工作线程上不残留截止时间
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        FanOutExecutor sequential = new FanOutExecutor(single);
+        try {
+            StepDeadline.within(800, () -> sequential.invokeAll(tasks, 5000));
+            assertEquals(Long.MAX_VALUE, single.submit(StepDeadline::remainingMillis).get());
+        } finally {
+            sequential.shutdown();
+        }
+    }
+}
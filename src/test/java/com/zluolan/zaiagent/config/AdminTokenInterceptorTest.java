@@ -0,0 +1,39 @@
+package com.zluolan.zaiagent.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdminTokenInterceptor测试类
+ * 校验管理接口只接受正确的令牌，未配置令牌时全部拒绝
+ */
+class AdminTokenInterceptorTest {
+
+    private static MockHttpServletResponse call(AdminTokenInterceptor interceptor, String token, boolean allowed) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/travel/admin/tools/reload");
+        if (token != null) {
+            request.addHeader(AdminTokenInterceptor.HEADER, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertEquals(allowed, interceptor.preHandle(request, response, new Object()));
+        return response;
+    }
+
+    @Test
+    void testRequireToken() {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor("s3cret-token");
+        assertEquals(200, call(interceptor, "s3cret-token", true).getStatus());
+        assertEquals(401, call(interceptor, null, false).getStatus());
+        assertEquals(401, call(interceptor, "wrong", false).getStatus());
+        assertEquals(401, call(interceptor, "s3cret-token-x", false).getStatus());
+    }
+
+    @Test
+    void testRejectAllWithoutConfiguredToken() {
+        assertEquals(403, call(new AdminTokenInterceptor(""), "", false).getStatus());
+        assertEquals(403, call(new AdminTokenInterceptor(null), "anything", false).getStatus());
+    }
+}
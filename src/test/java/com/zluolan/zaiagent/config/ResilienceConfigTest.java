@@ -0,0 +1,44 @@
+package com.zluolan.zaiagent.config;
+
+import com.zluolan.zaiagent.resilience.GuardedResult;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResilienceConfig测试类
+ * 校验容器中的实例独立于共享实例、配置项生效，以及关闭容器实例后共享实例仍可用
+ */
+class ResilienceConfigTest {
+
+    private final ResilienceConfig config = new ResilienceConfig();
+
+    @Test
+    void testToolGuardBeanIsIndependent() {
+        ToolGuard guard = config.toolGuard(3, 1500, 2, 5000);
+        assertNotSame(ToolGuard.getDefault(), guard);
+        assertEquals(3, guard.policy(ToolGuard.AMAP).maxConcurrent());
+        assertEquals(1500, guard.policy(ToolGuard.AMAP).timeoutMillis());
+        assertEquals(2, guard.policy(ToolGuard.SEARCH_API).maxConcurrent());
+        assertEquals(8, ToolGuard.getDefault().policy(ToolGuard.AMAP).maxConcurrent());
+
+        // 模拟容器关闭：只关闭容器自己的线程池
+        guard.shutdown();
+        GuardedResult<String> result = ToolGuard.getDefault().call(ToolGuard.AMAP, () -> "ok", reason -> reason);
+        assertFalse(result.degraded(), result.reason());
+        assertEquals("ok", result.value());
+    }
+
+    @Test
+    void testHedgedRequesterBeanIsIndependent() throws Exception {
+        HedgedRequester requester = config.hedgedRequester(false);
+        assertNotSame(HedgedRequester.getDefault(), requester);
+        assertFalse(requester.isEnabled());
+        assertTrue(HedgedRequester.getDefault().isEnabled());
+
+        requester.shutdown();
+        assertEquals("ok", HedgedRequester.getDefault().call("config-test", 1000, timeout -> "ok"));
+    }
+}
@@ -0,0 +1,295 @@
+package com.zluolan.zaiagent.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.tools.ResourceDownloadTool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResourceDownloader测试类
+ * 用本地 HTTP 服务校验下载入库与复用、内容类型和大小限制、中断后续传、同站点并发限制、拒绝内网地址和指向内网的重定向、
+ * 连接固定到校验过的地址，以及工具只返回下载地址
+ */
+class ResourceDownloaderTest {
+
+    private static final byte[] PHOTO = bytes(500_000, 1);
+    private static final byte[] TRACK = bytes(300_000, 2);
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private String baseUrl;
+    private ArtifactStore store;
+    private ResourceDownloader downloader;
+    private final List<String> rangeHeaders = new CopyOnWriteArrayList<>();
+    private final List<String> hostHeaders = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private static byte[] bytes(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 17 + seed);
+        }
+        return data;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        store = new ArtifactStore(tempDir.resolve("artifacts"), ArtifactStore.DEFAULT_MAX_BYTES,
+                ArtifactStore.DEFAULT_RETENTION);
+        // 只放行本地测试服务本身，其他内网地址照常拒绝
+        downloader = new ResourceDownloader(store, tempDir.resolve("partial"), 1_000_000, 4, 2,
+                OutboundUrlGuard.allowing("127.0.0.1:" + server.getAddress().getPort()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        downloader.close();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int hit = hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        hostHeaders.add(exchange.getRequestHeaders().getFirst("Host"));
+        try (exchange) {
+            switch (path) {
+                case "/photos/panda.jpg", "/mirror/panda" -> send(exchange, "image/jpeg", PHOTO);
+                case "/go/panda" -> redirect(exchange, "/photos/panda.jpg");
+                case "/go/internal" -> redirect(exchange,
+                        "http://localhost:" + server.getAddress().getPort() + "/photos/panda.jpg");
+                case "/go/loop" -> redirect(exchange, "/go/loop");
+                case "/guide.html" -> send(exchange, "text/html; charset=utf-8", "<html></html>".getBytes());
+                case "/big.pdf" -> {
+                    exchange.getResponseHeaders().add("Content-Type", "application/pdf");
+                    exchange.sendResponseHeaders(200, 5_000_000);
+                }
+                case "/endless.gpx" -> {
+                    // 不声明长度
+                    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                    exchange.sendResponseHeaders(200, 0);
+                    OutputStream out = exchange.getResponseBody();
+                    for (int i = 0; i < 40; i++) {
+                        out.write(TRACK, 0, 100_000);
+                    }
+                }
+                case "/trails/qingcheng.gpx" -> {
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    if (range != null) {
+                        rangeHeaders.add(range + " " + exchange.getRequestHeaders().getFirst("If-Range"));
+                        int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                        exchange.getResponseHeaders().add("Content-Type", "application/gpx+xml");
+                        exchange.getResponseHeaders().add("ETag", "\"trail-v1\"");
+                        exchange.getResponseHeaders().add("Content-Range",
+                                "bytes " + start + "-" + (TRACK.length - 1) + "/" + TRACK.length);
+                        exchange.sendResponseHeaders(206, TRACK.length - start);
+                        exchange.getResponseBody().write(TRACK, start, TRACK.length - start);
+                    } else if (hit == 1) {
+                        // 第一次只发出一部分就断开连接
+                        exchange.getResponseHeaders().add("Content-Type", "application/gpx+xml");
+                        exchange.getResponseHeaders().add("ETag", "\"trail-v1\"");
+                        exchange.sendResponseHeaders(200, TRACK.length);
+                        exchange.getResponseBody().write(TRACK, 0, 120_000);
+                        exchange.getResponseBody().flush();
+                        throw new IOException("connection dropped");
+                    } else {
+                        send(exchange, "application/gpx+xml", TRACK);
+                    }
+                }
+                default -> {
+                    if (path.startsWith("/slow/")) {
+                        int now = active.incrementAndGet();
+                        maxActive.accumulateAndGet(now, Math::max);
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                        send(exchange, "image/png", path.getBytes());
+                    } else {
+                        exchange.sendResponseHeaders(404, -1);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    @Test
+    void testDownloadIntoArtifactStore() throws Exception {
+        DownloadResult result = downloader.download(baseUrl + "/photos/panda.jpg");
+        System.out.println("下载结果: " + result);
+        assertTrue(result.isOk(), result.error());
+        assertEquals("panda.jpg", result.artifact().name());
+        assertEquals("image/jpeg", result.artifact().contentType());
+        assertArrayEquals(PHOTO, Files.readAllBytes(Path.of(result.artifact().path())));
+
+        // 同一地址直接复用，不再请求
+        DownloadResult again = downloader.download(baseUrl + "/photos/panda.jpg");
+        assertTrue(again.cached());
+        assertEquals(1, hits.get("/photos/panda.jpg").get());
+
+        // 不同地址的相同内容只存一份，缺少扩展名时按内容类型补上
+        DownloadResult mirror = downloader.download(baseUrl + "/mirror/panda");
+        assertEquals(result.artifact().hash(), mirror.artifact().hash());
+        assertEquals(1, store.size());
+        assertEmptyPartialDir();
+    }
+
+    @Test
+    void testRejectTypeAndSize() throws Exception {
+        DownloadResult html = downloader.download(baseUrl + "/guide.html");
+        assertFalse(html.isOk());
+        assertTrue(html.error().contains("unsupported content type"), html.error());
+
+        DownloadResult big = downloader.download(baseUrl + "/big.pdf");
+        assertFalse(big.isOk());
+        assertTrue(big.error().contains("too large"), big.error());
+
+        DownloadResult endless = downloader.download(baseUrl + "/endless.gpx");
+        System.out.println("未声明长度的超大文件: " + endless.error());
+        assertFalse(endless.isOk());
+        assertTrue(endless.error().contains("too large"), endless.error());
+
+        assertFalse(downloader.download("ftp://example.com/a.pdf").isOk());
+        assertEquals(0, store.size());
+        assertEmptyPartialDir();
+    }
+
+    @Test
+    void testResumeAfterInterruption() throws Exception {
+        DownloadResult result = downloader.download(baseUrl + "/trails/qingcheng.gpx");
+        System.out.println("续传请求: " + rangeHeaders + "，结果: " + result);
+        assertTrue(result.isOk(), result.error());
+        assertTrue(result.resumed());
+        assertEquals(List.of("bytes=120000- \"trail-v1\""), rangeHeaders);
+        assertEquals("application/gpx+xml", result.artifact().contentType());
+        assertArrayEquals(TRACK, Files.readAllBytes(Path.of(result.artifact().path())));
+        assertEmptyPartialDir();
+    }
+
+    @Test
+    void testPerHostLimitAndToolOutput() {
+        ResourceDownloadTool tool = new ResourceDownloadTool(downloader);
+        String output = tool.downloadTravelResources(String.join(",",
+                baseUrl + "/slow/1.png", baseUrl + "/slow/2.png", baseUrl + "/slow/3.png",
+                baseUrl + "/slow/4.png", baseUrl + "/guide.html"));
+        System.out.println(output);
+
+        assertEquals(2, maxActive.get());
+        assertTrue(output.startsWith("[TOOL_EXECUTION_RESULT] 资源下载完成 4/5"));
+        assertTrue(output.contains("下载地址: /api/travel/artifacts/"));
+        assertTrue(output.contains("失败: unsupported content type"));
+        assertTrue(tool.downloadTravelResources("not a url").contains("资源下载失败"));
+
+        List<DownloadResult> results = downloader.downloadAll(List.of(baseUrl + "/slow/5.png"), Duration.ofMillis(1));
+        assertEquals("timeout", results.get(0).error());
+    }
+
+    @Test
+    void testBlockInternalAddresses() throws Exception {
+        for (String url : List.of("http://10.0.0.8/a.pdf", "http://192.168.1.1/a.jpg", "http://172.16.3.4/a.png",
+                "http://169.254.169.254/latest/meta-data/", "http://100.100.100.200/latest/meta-data/",
+                "http://127.0.0.1/a.pdf", "http://0.0.0.0/a.pdf", "http://[::1]/a.pdf", "http://[fd00::1]/a.pdf",
+                "http://[fe80::1]/a.pdf")) {
+            DownloadResult result = downloader.download(url);
+            assertFalse(result.isOk(), url);
+            assertTrue(result.error().startsWith("blocked address"), url + " " + result.error());
+        }
+        // 默认策略连本地测试服务也不放行
+        try (ResourceDownloader strict = new ResourceDownloader(store, tempDir.resolve("strict"), 1_000_000, 1, 1)) {
+            DownloadResult result = strict.download(baseUrl + "/photos/panda.jpg");
+            assertTrue(result.error().startsWith("blocked address"), result.error());
+        }
+        assertNull(hits.get("/photos/panda.jpg"));
+
+        // 站内重定向照常跟随，重定向到回环地址时拒绝，且不再请求目标
+        DownloadResult followed = downloader.download(baseUrl + "/go/panda");
+        assertTrue(followed.isOk(), followed.error());
+        assertEquals(1, hits.get("/photos/panda.jpg").get());
+
+        DownloadResult internal = downloader.download(baseUrl + "/go/internal");
+        System.out.println("重定向到回环地址: " + internal.error());
+        assertFalse(internal.isOk());
+        assertTrue(internal.error().startsWith("blocked address: localhost"), internal.error());
+        assertEquals(1, hits.get("/go/internal").get());
+        assertEquals(1, hits.get("/photos/panda.jpg").get());
+
+        DownloadResult loop = downloader.download(baseUrl + "/go/loop");
+        assertEquals("too many redirects", loop.error());
+        assertEquals(OutboundUrlGuard.MAX_REDIRECTS + 1, hits.get("/go/loop").get());
+        assertEmptyPartialDir();
+    }
+
+    @Test
+    void testConnectToValidatedAddress() throws Exception {
+        int port = server.getAddress().getPort();
+        AtomicInteger lookups = new AtomicInteger();
+        // 只有校验用的解析器认识这个主机名，连接若再走系统 DNS 就会失败
+        OutboundUrlGuard guard = OutboundUrlGuard.allowing(host -> {
+            lookups.incrementAndGet();
+            if (!host.equals("photos.travel.test")) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[]{InetAddress.getLoopbackAddress()};
+        }, "photos.travel.test:" + port);
+        try (ResourceDownloader pinned = new ResourceDownloader(store, tempDir.resolve("pinned"), 1_000_000, 1, 1,
+                guard)) {
+            DownloadResult result = pinned.download("http://photos.travel.test:" + port + "/go/panda");
+            System.out.println("固定地址下载: " + result.error() + ", 解析次数: " + lookups.get());
+            assertTrue(result.isOk(), result.error());
+            assertEquals(1, hits.get("/photos/panda.jpg").get());
+        }
+        // Host 头保持原主机名，每一跳都重新校验
+        assertEquals(List.of("photos.travel.test:" + port, "photos.travel.test:" + port), hostHeaders);
+        assertTrue(lookups.get() >= 3, "lookups: " + lookups.get());
+    }
+
+    private void assertEmptyPartialDir() throws IOException {
+        try (Stream<Path> files = Files.list(downloader.partialDir())) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.zluolan.zaiagent.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DistanceKernels测试类
+ * 与逐点 Haversine 计算对照，覆盖同城短距离（走级数）和跨省长距离（走 asin）两种情况
+ */
+class DistanceKernelsTest {
+
+    @Test
+    void testCityScaleMatchesHaversine() {
+        assertMatchesHaversine(new Random(1), 2000, 39.7, 40.1, 116.2, 116.6);
+    }
+
+    @Test
+    void testCountryScaleMatchesHaversine() {
+        assertMatchesHaversine(new Random(2), 2000, 18, 50, 75, 130);
+    }
+
+    @Test
+    void testDistanceMatrix() {
+        double[] lats = {39.9163, 39.8822, 40.0000, 31.2304};
+        double[] lons = {116.3972, 116.4066, 116.2755, 121.4737};
+        DistanceMatrix matrix = DistanceMatrix.compute(lats, lons);
+        for (int i = 0; i < lats.length; i++) {
+            assertEquals(0, matrix.meters(i, i), 1e-6);
+            for (int j = 0; j < lats.length; j++) {
+                assertEquals(matrix.meters(i, j), matrix.meters(j, i), 1e-6);
+                assertEquals(GeoMath.distanceMeters(lats[i], lons[i], lats[j], lons[j]), matrix.meters(i, j), 0.01);
+            }
+        }
+        DistanceMatrix sub = matrix.subMatrix(new int[]{3, 0});
+        assertEquals(matrix.meters(3, 0), sub.meters(0, 1), 1e-9);
+    }
+
+    @Test
+    void testBulkThroughput() {
+        Random random = new Random(3);
+        int n = 500;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 30 + random.nextDouble() * 0.5;
+            lons[i] = 120 + random.nextDouble() * 0.5;
+        }
+        // 预热后计时
+        for (int round = 0; round < 20; round++) {
+            DistanceMatrix.compute(lats, lons);
+        }
+        long begin = System.nanoTime();
+        DistanceMatrix matrix = DistanceMatrix.compute(lats, lons);
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%d×%d距离矩阵耗时: %.2fms，平均每对%.1fns%n",
+                n, n, elapsed / 1e6, (double) elapsed / ((long) n * n));
+        assertEquals(n, matrix.size());
+    }
+
+    private static void assertMatchesHaversine(Random random, int n,
+                                               double minLat, double maxLat, double minLon, double maxLon) {
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = minLat + random.nextDouble() * (maxLat - minLat);
+            lons[i] = minLon + random.nextDouble() * (maxLon - minLon);
+        }
+        DistanceKernels.UnitVectors points = DistanceKernels.toUnitVectors(lats, lons);
+        double[] out = new double[n];
+        for (int source = 0; source < n; source += 97) {
+            DistanceKernels.distancesFrom(points, source, out, 0);
+            for (int i = 0; i < n; i++) {
+                double expected = GeoMath.distanceMeters(lats[source], lons[source], lats[i], lons[i]);
+                assertEquals(expected, out[i], Math.max(0.01, expected * 1e-9));
+            }
+        }
+    }
+}
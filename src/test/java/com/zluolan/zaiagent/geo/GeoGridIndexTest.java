@@ -0,0 +1,90 @@
+package com.zluolan.zaiagent.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GeoGridIndex测试类
+ * 用暴力扫描校验半径查询和最近邻查询的结果，并观察大数据量下的查询耗时
+ */
+class GeoGridIndexTest {
+
+    private static final int POINTS = 200_000;
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final GeoGridIndex index;
+
+    GeoGridIndexTest() {
+        // 在华东地区随机生成点
+        Random random = new Random(42);
+        int[] ids = new int[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 28 + random.nextDouble() * 6;
+            longitudes[i] = 116 + random.nextDouble() * 6;
+            ids[i] = i;
+        }
+        index = new GeoGridIndex(latitudes, longitudes, ids);
+    }
+
+    @Test
+    void testWithinRadiusMatchesBruteForce() {
+        double lat = 31.2304;
+        double lon = 121.4737;
+        List<GeoHit> hits = index.withinRadius(lat, lon, 2000, null);
+
+        int[] expected = bruteForce(lat, lon, 2000);
+        int[] actual = hits.stream().mapToInt(GeoHit::id).sorted().toArray();
+        assertArrayEquals(expected, actual);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).distanceMeters() <= hits.get(i).distanceMeters());
+        }
+    }
+
+    @Test
+    void testNearestMatchesBruteForce() {
+        double lat = 30.2741;
+        double lon = 120.1551;
+        List<GeoHit> hits = index.nearest(lat, lon, 10, 100_000, id -> id % 2 == 0);
+
+        double[] distances = new double[POINTS / 2];
+        for (int i = 0; i < POINTS; i += 2) {
+            distances[i / 2] = GeoMath.distanceMeters(lat, lon, latitudes[i], longitudes[i]);
+        }
+        Arrays.sort(distances);
+        assertEquals(10, hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            assertEquals(0, hits.get(i).id() % 2);
+            assertEquals(distances[i], hits.get(i).distanceMeters(), 1e-6);
+        }
+    }
+
+    @Test
+    void testQueryLatency() {
+        Random random = new Random(7);
+        int rounds = 10_000;
+        // 预热
+        for (int i = 0; i < rounds; i++) {
+            index.nearest(28 + random.nextDouble() * 6, 116 + random.nextDouble() * 6, 5, 50_000, null);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            index.nearest(28 + random.nextDouble() * 6, 116 + random.nextDouble() * 6, 5, 50_000, null);
+            index.withinRadius(28 + random.nextDouble() * 6, 116 + random.nextDouble() * 6, 1000, null);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / rounds;
+        System.out.printf("%d个点，每轮最近邻+半径查询平均耗时: %.1f微秒%n", POINTS, micros);
+        assertTrue(micros < 1000, "查询应在亚毫秒级完成");
+    }
+
+    private int[] bruteForce(double lat, double lon, double radius) {
+        return java.util.stream.IntStream.range(0, POINTS)
+                .filter(i -> GeoMath.distanceMeters(lat, lon, latitudes[i], longitudes[i]) <= radius)
+                .toArray();
+    }
+}
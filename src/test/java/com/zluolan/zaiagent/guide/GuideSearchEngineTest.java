@@ -0,0 +1,162 @@
+package com.zluolan.zaiagent.guide;
+
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GuideSearchEngine测试类
+ * 校验二元组分词、BM25 相关度排序、最新/最热排序、热度衰减与互动累加，以及语料导入
+ */
+class GuideSearchEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 1);
+
+    private final PoiCatalog catalog = PoiCatalog.getDefault();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-10-01T00:00:00Z"), ZoneId.of("UTC"));
+
+    @Test
+    void testTokenizer() {
+        assertEquals(List.of("故宫", "宫博", "博物", "物院"), GuideTokenizer.tokenize("故宫博物院"));
+        assertEquals(List.of("吃", "citywalk", "路线"), GuideTokenizer.tokenize("吃 CityWalk路线！"));
+        assertTrue(GuideTokenizer.tokenize("，。 ").isEmpty());
+    }
+
+    @Test
+    void testRelevanceRanking() {
+        GuideSearchEngine engine = defaultEngine();
+        GuideSearchResult result = engine.search(GuideQuery.of("烤鸭").city(catalog.cityId("北京")).limit(3));
+        assertFalse(result.relaxed());
+        assertEquals(2, result.matches());
+        result.hits().forEach(hit -> assertTrue(hit.post().content().contains("烤鸭")
+                || hit.post().title().contains("烤鸭") || hit.post().tags().contains("烤鸭"), hit.post().title()));
+
+        // 标题命中的攻略排在只有正文命中的攻略之前，相关度降序
+        List<GuideHit> hits = engine.search(GuideQuery.of("火锅").city(catalog.cityId("成都"))
+                .types(GuideType.FOOD).limit(10)).hits();
+        assertTrue(hits.get(0).post().title().contains("火锅"));
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).relevance() >= hits.get(i).relevance());
+        }
+        hits.forEach(hit -> System.out.printf("%.3f %s%n", hit.relevance(), hit.post().title()));
+    }
+
+    @Test
+    void testLatestAndHotOrdering() {
+        GuideSearchEngine engine = defaultEngine();
+        int shanghai = catalog.cityId("上海");
+        List<GuideHit> latest = engine.search(GuideQuery.of(null).city(shanghai)
+                .sort(GuideSort.LATEST).limit(8)).hits();
+        assertEquals(8, latest.size());
+        for (int i = 1; i < latest.size(); i++) {
+            assertFalse(latest.get(i).post().publishedDate().isAfter(latest.get(i - 1).post().publishedDate()));
+        }
+
+        List<GuideHit> hot = engine.search(GuideQuery.of(null).city(shanghai)
+                .sort(GuideSort.HOT).limit(8)).hits();
+        for (int i = 1; i < hot.size(); i++) {
+            assertTrue(hot.get(i - 1).hotness() >= hot.get(i).hotness());
+        }
+        hot.forEach(hit -> assertEquals("上海", hit.post().city()));
+    }
+
+    @Test
+    void testHotnessDecayAndEngagement() {
+        // 一年前 1000 赞的旧帖，热度已衰减到 1000 × 2^-12 左右，不如上周 50 赞的新帖
+        GuidePost old = post(1, "外滩夜景拍照攻略", TODAY.minusDays(365), 1000);
+        GuidePost recent = post(2, "外滩夜景新机位", TODAY.minusDays(7), 50);
+        GuideSearchEngine engine = new GuideSearchEngine(List.of(old, recent), catalog, clock);
+        List<GuideHit> hits = engine.search(GuideQuery.of("外滩").sort(GuideSort.HOT)).hits();
+        assertEquals(List.of(2, 1), hits.stream().map(hit -> hit.post().id()).toList());
+        assertEquals(50 * Math.pow(2, -7 / GuideSearchEngine.HALF_LIFE_DAYS), hits.get(0).hotness(), 1e-6);
+
+        // 旧帖今天获得新的互动后重新上榜
+        assertTrue(engine.recordEngagement(1, 100));
+        assertFalse(engine.recordEngagement(99, 1));
+        hits = engine.search(GuideQuery.of("外滩").sort(GuideSort.HOT)).hits();
+        assertEquals(1, hits.get(0).post().id());
+    }
+
+    @Test
+    void testRelaxedWhenKeywordsMiss() {
+        GuideSearchEngine engine = defaultEngine();
+        GuideSearchResult result = engine.search(GuideQuery.of("zzzz").city(catalog.cityId("杭州")).limit(3));
+        assertTrue(result.relaxed());
+        assertEquals(3, result.hits().size());
+        result.hits().forEach(hit -> assertEquals("杭州", hit.post().city()));
+    }
+
+    @Test
+    void testImportCorpus() throws Exception {
+        GuidePost first = post(1, "外滩夜景拍照攻略", TODAY.minusDays(3), 10);
+        GuidePost second = post(2, "豫园小笼包排队攻略", TODAY.minusDays(3), 10);
+        GuideSearchEngine engine = new GuideSearchEngine(List.of(first, second), catalog, clock);
+        engine.recordEngagement(2, 500);
+
+        Path file = Files.createTempFile("guide-corpus", ".tsv");
+        try {
+            Files.writeString(file, """
+                    # 编号\t城市\t类型\t标题\t作者\t正文\t标签\t发布日期\t点赞\t收藏\t评论\t关联POI
+                    1\t上海\t打卡\t武康路梧桐区漫步\t城市漫步者\t梧桐树下的老洋房\t拍照,漫步\t2026-09-28\t5\t0\t0\t-
+                    3\t上海\t美食\t上海生煎测评\t吃货日记\t四家生煎横向对比\t美食\t2026-09-30\t20\t5\t1\t-
+                    """, StandardCharsets.UTF_8);
+            assertEquals(2, engine.importCorpus(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertEquals(3, engine.size());
+        assertTrue(engine.search(GuideQuery.of("外滩")).relaxed(), "编号1已被替换为武康路");
+        assertEquals(1, engine.search(GuideQuery.of("武康路")).hits().get(0).post().id());
+        assertEquals(3, engine.search(GuideQuery.of("生煎")).hits().get(0).post().id());
+        // 未被替换的攻略保留导入前累计的热度
+        assertEquals(2, engine.search(GuideQuery.of(null).sort(GuideSort.HOT)).hits().get(0).post().id());
+    }
+
+    @Test
+    void testQueryLatency() {
+        List<GuidePost> posts = new ArrayList<>(GuideCorpus.loadResource(GuideSearchEngine.DEFAULT_RESOURCE));
+        int size = posts.size();
+        // 复制语料扩充到约 2 万篇
+        for (int copy = 1; posts.size() < 20_000; copy++) {
+            for (int i = 0; i < size; i++) {
+                GuidePost p = posts.get(i);
+                posts.add(new GuidePost(copy * 100_000 + p.id(), p.city(), p.type(), p.title(), p.author(),
+                        p.content(), p.tags(), p.publishedDate().minusDays(copy), p.likes(), p.collects(),
+                        p.comments(), p.poiName()));
+            }
+        }
+        GuideSearchEngine engine = new GuideSearchEngine(posts, catalog, clock);
+        GuideQuery query = GuideQuery.of("拍照打卡夜景").limit(10);
+        for (int i = 0; i < 200; i++) {
+            engine.search(query);
+        }
+        int rounds = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(10, engine.search(query).hits().size());
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / rounds;
+        System.out.printf("%d 篇攻略，单次查询 %.3f ms%n", engine.size(), millis);
+        assertTrue(millis < 50, "单次查询耗时过长: " + millis);
+    }
+
+    private GuideSearchEngine defaultEngine() {
+        return new GuideSearchEngine(GuideCorpus.loadResource(GuideSearchEngine.DEFAULT_RESOURCE), catalog, clock);
+    }
+
+    private static GuidePost post(int id, String title, LocalDate published, int likes) {
+        return new GuidePost(id, "上海", GuideType.CHECKIN, title, "测试用户", title, List.of("拍照"),
+                published, likes, 0, 0, null);
+    }
+}
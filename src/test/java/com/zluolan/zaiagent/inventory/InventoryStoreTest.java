@@ -0,0 +1,224 @@
+package com.zluolan.zaiagent.inventory;
+
+import com.zluolan.zaiagent.poi.Poi;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InventoryStore测试类
+ * 校验入住区间查询、满房与预算过滤、写时复制快照、分批导入期间的并发查询，以及日历随日期滚动
+ */
+class InventoryStoreTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2026, 5, 1);
+
+    private final PoiCatalog catalog = PoiCatalog.getDefault();
+
+    @Test
+    void testSearchAvailabilityAndSorting() {
+        InventoryStore store = new InventoryStore(catalog.size(), FIRST, 30);
+        List<Poi> hotels = shanghaiHotels();
+        Poi cheap = hotels.get(0);
+        Poi expensive = hotels.get(1);
+        Poi soldOut = hotels.get(2);
+        List<InventoryRecord> records = new ArrayList<>();
+        for (int d = 0; d < 3; d++) {
+            records.add(new InventoryRecord(cheap.id(), FIRST.plusDays(d), 300 + d * 100, 5));
+            records.add(new InventoryRecord(expensive.id(), FIRST.plusDays(d), 900, 2));
+            records.add(new InventoryRecord(soldOut.id(), FIRST.plusDays(d), 400, d == 1 ? 0 : 5));
+        }
+        assertEquals(9, store.apply(records));
+
+        StayQuery query = StayQuery.of(FIRST, FIRST.plusDays(3)).guests(3).sortByPrice(true);
+        AvailabilityResult result = store.snapshot().search(List.of(expensive, soldOut, cheap), query);
+        assertEquals(2, result.offers().size());
+        assertEquals(1, result.soldOut());
+        RoomOffer first = result.offers().get(0);
+        assertEquals(cheap.id(), first.hotel().id());
+        assertEquals(2, first.rooms(), "3人需要2间房");
+        assertEquals(300 + 400 + 500, first.totalPrice());
+        assertEquals(300, first.minNightly());
+        assertEquals(500, first.maxNightly());
+        System.out.println(first.hotel().name() + ": " + first.priceText());
+
+        // 每晚预算 600 时排除价格 900 的酒店；4 人需要 2 间，剩 2 间仍可订
+        AvailabilityResult budget = store.snapshot()
+                .search(List.of(expensive, cheap), StayQuery.of(FIRST, FIRST.plusDays(3)).guests(4).maxNightly(600));
+        assertEquals(1, budget.overBudget());
+        assertEquals(List.of(cheap.id()), budget.offers().stream().map(offer -> offer.hotel().id()).toList());
+
+        // 超出日历范围的区间
+        StayQuery outside = StayQuery.of(FIRST.plusDays(29), FIRST.plusDays(31));
+        assertFalse(store.snapshot().covers(outside));
+        assertEquals(1, store.snapshot().search(List.of(cheap), outside).outOfRange());
+    }
+
+    @Test
+    void testCopyOnWriteKeepsOldSnapshot() {
+        InventoryStore store = new InventoryStore(catalog.size(), FIRST, 10);
+        Poi hotel = shanghaiHotels().get(0);
+        store.apply(List.of(new InventoryRecord(hotel.id(), FIRST, 500, 3)));
+        HotelInventory before = store.snapshot();
+        store.apply(List.of(new InventoryRecord(hotel.id(), FIRST, 800, 0)));
+        HotelInventory after = store.snapshot();
+
+        StayQuery night = StayQuery.of(FIRST, FIRST.plusDays(1));
+        assertEquals(500, before.search(List.of(hotel), night).offers().get(0).totalPrice());
+        assertEquals(1, after.search(List.of(hotel), night).soldOut());
+        assertEquals(before.version() + 1, after.version());
+    }
+
+    @Test
+    void testSeededInventoryIsDeterministic() {
+        InventoryStore a = InventoryStore.seeded(catalog, FIRST, 30);
+        InventoryStore b = InventoryStore.seeded(catalog, FIRST, 30);
+        List<Poi> hotels = shanghaiHotels();
+        StayQuery query = StayQuery.of(FIRST.plusDays(4), FIRST.plusDays(6));
+        assertEquals(a.snapshot().search(hotels, query).offers().stream().map(RoomOffer::totalPrice).toList(),
+                b.snapshot().search(hotels, query).offers().stream().map(RoomOffer::totalPrice).toList());
+        assertEquals(catalog.query(PoiQuery.of(PoiKind.HOTEL).limit(0)).size(), a.snapshot().hotelCount());
+    }
+
+    @Test
+    void testLoaderBatchesAndSkipsBadLines() throws Exception {
+        InventoryStore store = new InventoryStore(catalog.size(), FIRST, 30);
+        Poi hotel = shanghaiHotels().get(0);
+        String snapshot = """
+                # 酒店\t日期\t房价\t剩余房间
+                %s\t2026-05-01\t420\t6
+                %d\t2026-05-02\t460\t4
+                不存在的酒店\t2026-05-01\t300\t1
+                %s\t2026-13-01\t300\t1
+                %s\t2026-05-03\tabc\t1
+                """.formatted(hotel.name(), hotel.id(), hotel.name(), hotel.name());
+        InventoryLoader loader = new InventoryLoader(store, catalog, 1);
+        InventoryLoader.LoadReport report = loader.load(new StringReader(snapshot));
+        System.out.println("导入结果: " + report);
+        assertEquals(5, report.lines());
+        assertEquals(2, report.applied());
+        assertEquals(3, report.skipped());
+        assertEquals(2, report.batches());
+
+        RoomOffer offer = store.snapshot()
+                .search(List.of(hotel), StayQuery.of(FIRST, FIRST.plusDays(2))).offers().get(0);
+        assertEquals(880, offer.totalPrice());
+    }
+
+    @Test
+    void testQueriesDuringLoadSeeConsistentSnapshots() throws Exception {
+        InventoryStore store = new InventoryStore(catalog.size(), FIRST, 30);
+        List<Poi> hotels = shanghaiHotels();
+        StringBuilder snapshot = new StringBuilder();
+        for (int round = 0; round < 200; round++) {
+            for (Poi hotel : hotels) {
+                for (int d = 0; d < 30; d++) {
+                    snapshot.append(hotel.id()).append('\t').append(FIRST.plusDays(d))
+                            .append('\t').append(100 + round).append('\t').append(3).append('\n');
+                }
+            }
+        }
+        InventoryLoader loader = new InventoryLoader(store, catalog, 500);
+        AtomicBoolean done = new AtomicBoolean();
+        CompletableFuture<InventoryLoader.LoadReport> load = CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load(new StringReader(snapshot.toString()));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                done.set(true);
+            }
+        });
+
+        StayQuery query = StayQuery.of(FIRST, FIRST.plusDays(1));
+        int reads = 0;
+        while (!done.get()) {
+            // 每个批次只发布完整的快照，查询过程中版本和数据不会变化
+            HotelInventory view = store.snapshot();
+            long version = view.version();
+            view.search(hotels, query);
+            assertEquals(version, view.version());
+            reads++;
+        }
+        assertEquals(hotels.size() * 30 * 200, load.get().applied());
+        System.out.println("导入期间查询次数: " + reads + ", 最终版本: " + store.snapshot().version());
+        store.snapshot().search(hotels, query).offers()
+                .forEach(offer -> assertEquals(299, offer.totalPrice()));
+    }
+
+    @Test
+    void testRollingCalendarFollowsToday() {
+        MutableClock clock = new MutableClock(FIRST.atTime(23, 0).toInstant(ZoneOffset.UTC));
+        InventoryStore store = InventoryStore.rolling(catalog, clock, 30);
+        Poi hotel = shanghaiHotels().get(0);
+        assertEquals(FIRST, store.snapshot().firstDate());
+        store.apply(List.of(new InventoryRecord(hotel.id(), FIRST.plusDays(2), 777, 4)));
+        long version = store.snapshot().version();
+
+        // 过零点后第一次查询把日历移到当天，过去的日期不再可查，已导入的未来日期保留
+        clock.instant = FIRST.plusDays(1).atTime(0, 30).toInstant(ZoneOffset.UTC);
+        HotelInventory rolled = store.snapshot();
+        assertEquals(FIRST.plusDays(1), rolled.firstDate());
+        assertEquals(FIRST.plusDays(30), rolled.lastDate());
+        assertEquals(version + 1, rolled.version());
+        assertFalse(rolled.covers(StayQuery.of(FIRST, FIRST.plusDays(1))));
+        assertEquals(777, rolled.search(List.of(hotel), StayQuery.of(FIRST.plusDays(2), FIRST.plusDays(3)))
+                .offers().get(0).totalPrice());
+
+        // 新增的日期与直接从当天生成的模拟房态一致
+        InventoryStore fresh = InventoryStore.seeded(catalog, FIRST.plusDays(1), 30);
+        StayQuery tail = StayQuery.of(FIRST.plusDays(28), FIRST.plusDays(31));
+        List<Poi> hotels = shanghaiHotels();
+        assertEquals(fresh.snapshot().search(hotels, tail).offers().stream().map(RoomOffer::totalPrice).toList(),
+                rolled.search(hotels, tail).offers().stream().map(RoomOffer::totalPrice).toList());
+        assertSame(rolled, store.snapshot());
+
+        // 长时间无人查询时整段日历重新生成
+        clock.instant = FIRST.plusDays(100).atStartOfDay().toInstant(ZoneOffset.UTC);
+        assertEquals(FIRST.plusDays(100), store.snapshot().firstDate());
+        assertEquals(catalog.query(PoiQuery.of(PoiKind.HOTEL).limit(0)).size(), store.snapshot().hotelCount());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private List<Poi> shanghaiHotels() {
+        List<Poi> hotels = catalog.query(PoiQuery.of(PoiKind.HOTEL).city(catalog.cityId("上海")).limit(3));
+        assertEquals(3, hotels.size());
+        return hotels;
+    }
+}
@@ -0,0 +1,86 @@
+package com.zluolan.zaiagent.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LocationNormalizer测试类
+ * 校验别名、拼音、英文名、全角和空白写法归一，文本中的最长匹配与单词边界，别称只整段匹配、街道名不算城市，以及别名冲突检测
+ */
+class LocationNormalizerTest {
+
+    private final LocationNormalizer normalizer = LocationNormalizer.getDefault();
+
+    @Test
+    void testVariantsResolveToSamePlace() {
+        Place beijing = normalizer.resolve("北京");
+        assertNotNull(beijing);
+        for (String text : new String[]{"北京市", "Beijing", "beijing ", " BEIJING", "Bei Jing", "ｂｅｉｊｉｎｇ", "Peking", "京"}) {
+            assertEquals(beijing, normalizer.resolve(text), text);
+        }
+        assertEquals("西安", normalizer.canonicalCity("Xi'an"));
+        assertEquals("西安", normalizer.canonicalCity("xi-an"));
+        assertEquals("香港", normalizer.canonicalCity("Hong Kong"));
+        assertEquals("广州", normalizer.canonicalCity("Canton"));
+        assertEquals("北京", normalizer.cacheKey("北京市"));
+        assertEquals("atlantis", normalizer.cacheKey(" Atlantis "));
+        System.out.println("地点数: " + normalizer.size());
+    }
+
+    @Test
+    void testLongestMatchInText() {
+        assertEquals("成都", normalizer.canonicalCity("我想去成都玩三天"));
+        assertEquals("哈尔滨", normalizer.canonicalCity("冬天去哈尔滨看冰雕"));
+        // 同样长时取最早出现的，“上海南京路”是上海
+        assertEquals("上海", normalizer.canonicalCity("上海南京路"));
+        assertEquals("西安", normalizer.canonicalCity("trip to xian next week"));
+        // 拼音必须落在单词边界上，单字简称不参与文本匹配
+        assertNull(normalizer.resolve("xianyang"));
+        assertNull(normalizer.resolve("京剧"));
+        assertEquals("京剧", normalizer.canonicalCity(" 京剧 "));
+        assertNull(normalizer.canonicalCity(null));
+    }
+
+    @Test
+    void testNicknamesAndStreetsNotMatchedInText() {
+        // 别称整段出现时照常识别
+        assertEquals("西安", normalizer.canonicalCity("长安"));
+        assertEquals("重庆", normalizer.canonicalCity("山城"));
+        assertEquals("武汉", normalizer.canonicalCity("江城"));
+        assertEquals("北京", normalizer.canonicalCity("首都"));
+        assertEquals("昆明", normalizer.canonicalCity("春城"));
+        // 出现在文本中的别称不参与匹配
+        assertNull(normalizer.resolve("长安街"));
+        assertNull(normalizer.resolve("山城步道"));
+        assertNull(normalizer.resolve("首都机场"));
+        assertEquals("长安街", normalizer.canonicalCity("长安街"));
+        // 后面跟着“路”“街”的城市名是街道
+        assertNull(normalizer.resolve("南京路"));
+        assertNull(normalizer.resolve("南京东路步行街"));
+        assertNull(normalizer.resolve("北京大道"));
+        assertEquals("上海", normalizer.canonicalCity("上海南京东路"));
+        assertEquals("南京", normalizer.canonicalCity("去南京吃鸭血粉丝"));
+        assertEquals("北京", normalizer.canonicalCity("北京南站出发"));
+    }
+
+    @Test
+    void testCanonicalPlaceKeepsSpecificPlaces() {
+        assertEquals("北京", normalizer.canonicalPlace("beijing"));
+        assertEquals("北京故宫", normalizer.canonicalPlace(" 北京故宫 "));
+        assertEquals("虹桥站", normalizer.canonicalPlace("虹桥站"));
+        assertEquals("39.9,116.4", normalizer.canonicalPlace("39.9,116.4"));
+    }
+
+    @Test
+    void testConflictingAliasRejected() {
+        String data = "@place\t北京\tbeijing\n@place\t南京\tnanjing,beijing\n";
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> LocationNormalizer.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(error.getMessage().contains("第2行"), error.getMessage());
+        assertTrue(error.getMessage().contains("同时属于北京和南京"), error.getMessage());
+    }
+}
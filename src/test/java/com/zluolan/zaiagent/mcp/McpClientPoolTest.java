@@ -0,0 +1,164 @@
+package com.zluolan.zaiagent.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpClientPool测试类
+ * 以内置的 StandInMcpServer 作为服务进程，校验工具列表与调用、多个请求在少量进程上并发复用、
+ * 排队已满时拒绝、进程崩溃后自动重启，以及配置文件的读取
+ */
+class McpClientPoolTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static String text(McpSchema.CallToolResult result) {
+        return ((McpSchema.TextContent) result.content().get(0)).text();
+    }
+
+    @Test
+    void testListAndCallTools() throws Exception {
+        try (McpClientPool pool = new McpClientPool(McpServerSpec.standIn("standin"), 1, 4, 16, TIMEOUT)) {
+            assertTrue(pool.awaitReady(TIMEOUT));
+            List<String> names = pool.listTools().stream().map(McpSchema.Tool::name).toList();
+            System.out.println("工具: " + names);
+            assertTrue(names.containsAll(List.of("maps_text_search", "maps_weather", "echo", "exit")));
+
+            McpSchema.CallToolResult weather = pool.callTool("maps_weather", Map.of("city", "成都"))
+                    .get(10, TimeUnit.SECONDS);
+            System.out.println(text(weather));
+            assertFalse(Boolean.TRUE.equals(weather.isError()));
+            assertTrue(text(weather).startsWith("成都天气预报"));
+
+            McpSchema.CallToolResult unknownCity = pool.callTool("maps_text_search",
+                    Map.of("keywords", "景点", "city", "不存在的城市")).get(10, TimeUnit.SECONDS);
+            assertTrue(unknownCity.isError());
+            assertEquals(4, pool.stats().tools());
+        }
+    }
+
+    @Test
+    void testConcurrentCallsAreMultiplexed() throws Exception {
+        int calls = 40;
+        long delayMillis = 200;
+        try (McpClientPool pool = new McpClientPool(McpServerSpec.standIn("standin"), 2, 4, calls, TIMEOUT)) {
+            assertTrue(pool.awaitReady(TIMEOUT));
+            // 预热两个进程
+            pool.callTool("echo", Map.of("text", "warmup")).get(10, TimeUnit.SECONDS);
+            Thread.sleep(500);
+
+            long start = System.nanoTime();
+            List<CompletableFuture<McpSchema.CallToolResult>> futures = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                futures.add(pool.callTool("echo", Map.of("text", "m" + i, "delayMs", delayMillis)));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            for (int i = 0; i < calls; i++) {
+                assertEquals("m" + i, text(futures.get(i).get()));
+            }
+            McpPoolStats stats = pool.stats();
+            System.out.printf("%d次调用（每次%dms）耗时%dms，吞吐%.1f次/秒，串行需%dms%n", calls, delayMillis,
+                    elapsedMillis, calls * 1000.0 / elapsedMillis, calls * delayMillis);
+            System.out.println(stats);
+            // 2个进程 × 每个4个在途，至少5轮；串行需要8秒
+            assertTrue(elapsedMillis >= calls / 8 * delayMillis - 50, "在途请求数应受限制");
+            assertTrue(elapsedMillis < calls * delayMillis / 2, "请求应在进程内并发执行");
+            assertEquals(0, stats.inFlight());
+            assertEquals(0, stats.queued());
+            assertEquals(0, stats.failures());
+        }
+    }
+
+    @Test
+    void testRejectWhenQueueIsFull() throws Exception {
+        try (McpClientPool pool = new McpClientPool(McpServerSpec.standIn("standin"), 1, 1, 1, TIMEOUT)) {
+            assertTrue(pool.awaitReady(TIMEOUT));
+            CompletableFuture<McpSchema.CallToolResult> running = pool.callTool("echo", Map.of("text", "a", "delayMs", 300));
+            CompletableFuture<McpSchema.CallToolResult> queued = pool.callTool("echo", Map.of("text", "b"));
+            CompletableFuture<McpSchema.CallToolResult> rejected = pool.callTool("echo", Map.of("text", "c"));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+            System.out.println("被拒绝: " + e.getCause().getMessage());
+            assertEquals("a", text(running.get(10, TimeUnit.SECONDS)));
+            assertEquals("b", text(queued.get(10, TimeUnit.SECONDS)));
+            assertEquals(1, pool.stats().rejected());
+        }
+    }
+
+    @Test
+    void testRestartAfterCrash() throws Exception {
+        try (McpClientPool pool = new McpClientPool(McpServerSpec.standIn("standin"), 1, 4, 16, TIMEOUT)) {
+            assertTrue(pool.awaitReady(TIMEOUT));
+            CompletableFuture<McpSchema.CallToolResult> slow = pool.callTool("echo", Map.of("text", "x", "delayMs", 5000));
+            CompletableFuture<McpSchema.CallToolResult> crash = pool.callTool("exit", Map.of("code", 3));
+
+            // 进程退出后在途请求立即失败，不等到超时
+            assertThrows(ExecutionException.class, () -> crash.get(10, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> slow.get(10, TimeUnit.SECONDS));
+
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (pool.stats().restarts() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(pool.awaitReady(TIMEOUT));
+            assertEquals("back", text(pool.callTool("echo", Map.of("text", "back")).get(10, TimeUnit.SECONDS)));
+            McpPoolStats stats = pool.stats();
+            System.out.println(stats);
+            assertTrue(stats.restarts() >= 1);
+            assertEquals(2, stats.failures());
+        }
+    }
+
+    @Test
+    void testLoadSpecsAndCallbacks() throws Exception {
+        String json = """
+                {"mcpServers": {"amap-maps": {
+                  "command": "${java.home}/bin/java",
+                  "args": ["-cp", "${java.class.path}", "com.zluolan.zaiagent.mcp.StandInMcpServer"],
+                  "env": {"HOME_DIR": "${user.home}", "KEEP": "${no.such.property}"}}}}
+                """;
+        List<McpServerSpec> specs = McpServerSpec.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, specs.size());
+        McpServerSpec spec = specs.get(0);
+        assertEquals("amap-maps", spec.name());
+        assertEquals(System.getProperty("java.home") + "/bin/java", spec.command());
+        assertEquals(System.getProperty("java.class.path"), spec.args().get(1));
+        assertEquals(System.getProperty("user.home"), spec.env().get("HOME_DIR"));
+        assertEquals("${no.such.property}", spec.env().get("KEEP"));
+
+        McpClientPool pool = new McpClientPool(spec, 1, 4, 16, TIMEOUT);
+        try (McpToolCallbackProvider provider = new McpToolCallbackProvider(List.of(pool), TIMEOUT)) {
+            ToolCallback[] callbacks = provider.getToolCallbacks();
+            List<String> names = Arrays.stream(callbacks)
+                    .map(callback -> callback.getToolDefinition().name()).toList();
+            System.out.println("工具回调: " + names);
+            assertTrue(names.contains("amap_maps_maps_weather"));
+            ToolCallback search = Arrays.stream(callbacks)
+                    .filter(callback -> callback.getToolDefinition().name().equals("amap_maps_maps_text_search"))
+                    .findFirst().orElseThrow();
+            assertTrue(search.getToolDefinition().inputSchema().contains("keywords"));
+
+            String result = search.call("{\"keywords\":\"美食\",\"city\":\"成都\"}");
+            System.out.println(result);
+            assertTrue(result.startsWith("\"[TOOL_EXECUTION_RESULT] 成都美食搜索结果"));
+            String failed = search.call("{\"keywords\":\"景点\",\"city\":\"不存在的城市\"}");
+            assertTrue(failed.contains("MCP工具调用失败"));
+            assertEquals(1, provider.stats().size());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.zluolan.zaiagent.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.zluolan.zaiagent.agent.BaseAgent;
+import com.zluolan.zaiagent.agent.modle.AgentState;
+import com.zluolan.zaiagent.app.TravelApp.TravelPlan;
+import com.zluolan.zaiagent.artifact.Artifact;
+import com.zluolan.zaiagent.artifact.ArtifactStore;
+import com.zluolan.zaiagent.toolcall.OutputMode;
+import com.zluolan.zaiagent.toolcall.ToolOutputEncoder;
+import com.zluolan.zaiagent.tools.PdfGenerationTool;
+import com.zluolan.zaiagent.tools.PdfGenerationToolCallbacks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PdfRenderService测试类
+ * 校验提交后立即返回、后台渲染出可读的中文 PDF 并存入制品存储、长行程分页、字体只解析一次、
+ * 同一计划不重复渲染且来源键按字段计算、队列已满时拒绝，以及工具返回任务ID（含 RICH 模式下智能体取出任务ID）
+ */
+class PdfRenderServiceTest {
+
+    @TempDir
+    Path outputDir;
+
+    private ArtifactStore store() {
+        return new ArtifactStore(outputDir, ArtifactStore.DEFAULT_MAX_BYTES, ArtifactStore.DEFAULT_RETENTION);
+    }
+
+    private static TravelPlan plan(String destination, int days) {
+        List<String> itinerary = new ArrayList<>();
+        for (int day = 1; day <= days; day++) {
+            itinerary.add("第" + day + "天");
+            itinerary.add("09:00-11:30 宽窄巷子（步行15分钟）");
+            itinerary.add("12:00-13:30 午餐：钟水饺");
+            itinerary.add("14:00-17:00 成都大熊猫繁育研究基地（打车35分钟）");
+        }
+        return new TravelPlan(destination, days + "天", "人均3000元",
+                List.of("宽窄巷子：清代古街", "大熊猫基地：看熊猫"), List.of("提前预约熊猫基地门票"), itinerary);
+    }
+
+    @Test
+    void testRenderInBackground() throws Exception {
+        try (PdfRenderService service = new PdfRenderService(store(), 2, 8)) {
+            long start = System.nanoTime();
+            PdfJob submitted = service.submit(plan("成都", 3));
+            long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertNotEquals(PdfJob.Status.FAILED, submitted.status());
+
+            PdfJob job = service.completion(submitted.id()).get(60, TimeUnit.SECONDS);
+            System.out.println("提交耗时" + submitMillis + "ms，任务: " + job);
+            assertEquals(PdfJob.Status.DONE, job.status());
+            assertEquals(job, service.get(job.id()));
+            Path file = Path.of(job.path());
+            assertTrue(Files.size(file) > 0);
+            assertEquals("成都行程单.pdf", job.downloadName());
+            Artifact artifact = service.artifacts().get(job.artifact());
+            assertEquals(file.toString(), artifact.path());
+            assertEquals("成都行程单.pdf", artifact.name());
+            assertEquals(Files.size(file), artifact.size());
+            // 临时文件已移入存储，目录中只剩结果文件
+            try (Stream<Path> files = Files.walk(outputDir)) {
+                assertEquals(List.of(file), files.filter(Files::isRegularFile).toList());
+            }
+            try (PdfDocument pdf = new PdfDocument(new PdfReader(file.toFile()))) {
+                assertEquals(job.pages(), pdf.getNumberOfPages());
+                String text = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+                assertTrue(text.contains("成都旅行计划"), text);
+                assertTrue(text.contains("大熊猫"), text);
+            }
+        }
+    }
+
+    @Test
+    void testLongItineraryAndSharedFonts() throws Exception {
+        PdfFonts fonts = new PdfFonts();
+        try (PdfRenderService service = new PdfRenderService(store(), 4, 16, fonts,
+                ItineraryTemplate.getDefault())) {
+            List<CompletableFuture<PdfJob>> jobs = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < 8; i++) {
+                jobs.add(service.completion(service.submit(plan("西安", 14 + i)).id()));
+            }
+            for (CompletableFuture<PdfJob> job : jobs) {
+                PdfJob done = job.get(60, TimeUnit.SECONDS);
+                assertEquals(PdfJob.Status.DONE, done.status(), done.error());
+                assertTrue(done.pages() > 1, "14天行程应分多页");
+            }
+            System.out.printf("8份14天行程单共耗时%dms，每份%d页%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), jobs.get(0).get().pages());
+            assertEquals(1, fonts.size());
+            assertEquals(8, service.jobs().size());
+        }
+    }
+
+    @Test
+    void testSamePlanRendersOnce() throws Exception {
+        try (PdfRenderService service = new PdfRenderService(store(), 2, 8)) {
+            PdfJob first = service.submit(plan("重庆", 3));
+            // 渲染中再次提交同一计划，返回同一个任务
+            PdfJob again = service.submit(plan("重庆", 3));
+            assertEquals(first.id(), again.id());
+            PdfJob done = service.completion(first.id()).get(60, TimeUnit.SECONDS);
+            assertEquals(PdfJob.Status.DONE, done.status(), done.error());
+
+            // 完成后再提交，直接复用已有的行程单
+            PdfJob reused = service.submit(plan("重庆", 3));
+            System.out.println("首次: " + done + "\n复用: " + reused);
+            assertNotEquals(first.id(), reused.id());
+            assertEquals(PdfJob.Status.DONE, reused.status());
+            assertEquals(done.artifact(), reused.artifact());
+            assertEquals(done.pages(), reused.pages());
+
+            // 内容不同的计划单独渲染
+            PdfJob other = service.completion(service.submit(plan("重庆", 4)).id()).get(60, TimeUnit.SECONDS);
+            assertNotEquals(done.artifact(), other.artifact());
+            assertEquals(2, service.artifacts().size());
+        }
+
+        // 来源键按字段计算：相同内容得到相同键，字段边界移动或空列表与缺失列表都视为不同计划
+        assertEquals(PdfRenderService.planKey(plan("重庆", 3)), PdfRenderService.planKey(plan("重庆", 3)));
+        assertNotEquals(PdfRenderService.planKey(new TravelPlan("a", "b", null, List.of("c"), null, null)),
+                PdfRenderService.planKey(new TravelPlan("a", "b", null, null, List.of("c"), null)));
+        assertNotEquals(PdfRenderService.planKey(new TravelPlan("ab", "c", null, null, null, null)),
+                PdfRenderService.planKey(new TravelPlan("a", "bc", null, null, null, null)));
+        assertNotEquals(PdfRenderService.planKey(new TravelPlan("a", null, null, List.of(), null, null)),
+                PdfRenderService.planKey(new TravelPlan("a", null, null, null, null, null)));
+    }
+
+    @Test
+    void testRejectWhenQueueIsFull() throws Exception {
+        try (PdfRenderService service = new PdfRenderService(store(), 1, 1)) {
+            List<PdfJob> submitted = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                submitted.add(service.submit(plan("杭州", 14 + i)));
+            }
+            long rejected = submitted.stream().filter(job -> job.status() == PdfJob.Status.FAILED).count();
+            System.out.println("被拒绝的任务数: " + rejected);
+            assertTrue(rejected >= 1);
+            assertTrue(submitted.get(0).status() != PdfJob.Status.FAILED);
+            assertEquals(PdfJob.Status.DONE,
+                    service.completion(submitted.get(0).id()).get(60, TimeUnit.SECONDS).status());
+        }
+        assertThrows(IllegalArgumentException.class, () -> PdfRenderService.getDefault().submit(null));
+    }
+
+    @Test
+    void testToolReturnsJobHandle() throws Exception {
+        try (PdfRenderService service = new PdfRenderService(store(), 1, 4)) {
+            PdfGenerationTool tool = new PdfGenerationTool(service);
+            String result = tool.generateTravelPdf("苏州", "2天", null,
+                    "第1天\n拙政园；平江路\n第2天\n虎丘", "拙政园", null);
+            System.out.println(result);
+            assertTrue(result.startsWith("[TOOL_EXECUTION_RESULT] PDF生成任务已提交"));
+            int idx = result.indexOf(PdfGenerationTool.JOB_MARKER);
+            assertTrue(idx > 0);
+            String id = PdfGenerationTool.findJobId(result);
+            assertEquals(PdfJob.Status.DONE, service.completion(id).get(60, TimeUnit.SECONDS).status());
+
+            assertTrue(tool.generateTravelPdf(" ", null, null, null, null, null).contains("PDF生成失败"));
+
+            // RICH 模式下结果以 JSON 字符串原样传给模型，换行被转义，智能体仍能取出完整的任务ID
+            ToolCallback callback = new ToolOutputEncoder(OutputMode.RICH)
+                    .wrap(PdfGenerationToolCallbacks.of(tool).get(0));
+            String encoded = callback.call("{\"destination\":\"无锡\",\"itinerary\":\"第1天\\n鼋头渚\"}");
+            System.out.println("RICH 模式结果: " + encoded);
+            assertTrue(encoded.contains("\\n"), encoded);
+            BaseAgent agent = new BaseAgent() {
+                @Override
+                public String step() {
+                    setState(AgentState.FINISHED);
+                    return "工具 generateTravelPdf 完成了它的任务！结果: " + encoded;
+                }
+            };
+            String handle = agent.run("把行程导出为PDF");
+            String richId = handle.substring(PdfGenerationTool.JOB_MARKER.length());
+            assertTrue(handle.startsWith(PdfGenerationTool.JOB_MARKER), handle);
+            assertTrue(richId.matches("[0-9a-f]{32}"), handle);
+            assertEquals(PdfJob.Status.DONE, service.completion(richId).get(60, TimeUnit.SECONDS).status());
+        }
+    }
+}
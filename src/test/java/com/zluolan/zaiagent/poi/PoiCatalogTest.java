@@ -0,0 +1,120 @@
+package com.zluolan.zaiagent.poi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PoiCatalog测试类
+ * 测试数据加载、城市/分类解析、名称模糊匹配以及按索引过滤和评分排序
+ */
+class PoiCatalogTest {
+
+    private final PoiCatalog catalog = PoiCatalog.getDefault();
+
+    @Test
+    void testResolveCity() {
+        int beijing = catalog.cityId("北京");
+        assertTrue(beijing >= 0);
+        assertEquals(beijing, catalog.cityId("北京市"));
+        assertEquals(beijing, catalog.cityId("Beijing"));
+        assertEquals(beijing, catalog.cityId("我想去北京玩三天"));
+        // 最长匹配，不会被“北京”截获
+        assertEquals("南京", catalog.cityName(catalog.cityId("南京夫子庙")));
+        assertEquals(-1, catalog.cityId("巴黎"));
+        assertEquals(-1, catalog.cityId(null));
+    }
+
+    @Test
+    void testResolveCategory() {
+        int culture = catalog.categoryId(PoiKind.ATTRACTION, "文化历史");
+        assertEquals("文化古迹", catalog.categoryName(culture));
+        assertEquals("商务酒店", catalog.categoryName(catalog.categoryId(PoiKind.HOTEL, "星级酒店")));
+        assertEquals("民宿", catalog.categoryName(catalog.categoryId(PoiKind.HOTEL, "民宿/客栈")));
+        assertEquals(-1, catalog.categoryId(PoiKind.HOTEL, "文化古迹"));
+    }
+
+    @Test
+    void testQueryFiltersAndSortsByRating() {
+        int beijing = catalog.cityId("北京");
+        List<Poi> attractions = catalog.query(PoiQuery.of(PoiKind.ATTRACTION).city(beijing).limit(5));
+        assertEquals(5, attractions.size());
+        for (int i = 1; i < attractions.size(); i++) {
+            assertTrue(attractions.get(i - 1).rating() >= attractions.get(i).rating());
+        }
+
+        int heritage = catalog.tagId("世界遗产");
+        List<Poi> filtered = catalog.query(PoiQuery.of(PoiKind.ATTRACTION)
+                .city(beijing)
+                .category(catalog.categoryId(PoiKind.ATTRACTION, "文化古迹"))
+                .tag(heritage)
+                .limit(20));
+        assertFalse(filtered.isEmpty());
+        for (Poi poi : filtered) {
+            assertEquals("北京", poi.city());
+            assertEquals("文化古迹", poi.category());
+            assertTrue(poi.tags().contains("世界遗产"));
+        }
+
+        List<Poi> hotels = catalog.query(PoiQuery.of(PoiKind.HOTEL)
+                .city(catalog.cityId("上海")).tier(PriceTier.LUXURY).limit(10));
+        assertFalse(hotels.isEmpty());
+        hotels.forEach(hotel -> assertEquals(PriceTier.LUXURY, hotel.tier()));
+        System.out.println("上海奢华型酒店: " + hotels.stream().map(Poi::name).toList());
+    }
+
+    @Test
+    void testNearbyHotelsAroundAnchor() {
+        int beijing = catalog.cityId("北京");
+        PoiAnchor anchor = catalog.resolveAnchor("故宫附近", beijing);
+        assertNotNull(anchor);
+        assertEquals("故宫博物院", anchor.label());
+        // 城市名精确匹配优先，不会被解析成名称包含城市名的酒店
+        assertEquals("北京市中心", catalog.resolveAnchor("北京", -1).label());
+        PoiAnchor coordinate = catalog.resolveAnchor("116.3972,39.9163", -1);
+        assertEquals(39.9163, coordinate.latitude(), 1e-9);
+
+        List<NearbyPoi> hotels = catalog.nearby(PoiQuery.of(PoiKind.HOTEL).limit(10),
+                anchor.latitude(), anchor.longitude(), 1500);
+        assertFalse(hotels.isEmpty());
+        for (int i = 0; i < hotels.size(); i++) {
+            assertTrue(hotels.get(i).distanceMeters() <= 1500);
+            assertEquals(PoiKind.HOTEL, hotels.get(i).poi().kind());
+            if (i > 0) {
+                assertTrue(hotels.get(i - 1).distanceMeters() <= hotels.get(i).distanceMeters());
+            }
+        }
+
+        List<NearbyPoi> nearest = catalog.nearest(PoiQuery.of(PoiKind.HOTEL).tier(PriceTier.LUXURY).limit(1),
+                anchor.latitude(), anchor.longitude(), 50_000);
+        assertEquals(1, nearest.size());
+        assertEquals(PriceTier.LUXURY, nearest.get(0).poi().tier());
+        System.out.println("故宫1.5公里内的酒店: " + hotels.stream().map(h -> h.poi().name() + h.distanceText()).toList());
+    }
+
+    @Test
+    void testFuzzyNameMatching() {
+        int beijing = catalog.cityId("北京");
+        // 名称包含关键词
+        assertEquals("天坛公园", catalog.resolveAnchor("天坛", beijing).label());
+        assertEquals("天坛公园", catalog.resolveAnchor("天坛", -1).label());
+        // 关键词包含名称
+        assertEquals("颐和园", catalog.resolveAnchor("我想去颐和园看看", beijing).label());
+        assertEquals("故宫博物院", catalog.resolveAnchor("下午去故宫博物院参观", -1).label());
+        // 城市提示不符时在全部数据中查找，完全无关的文本无法解析
+        assertEquals("天坛公园", catalog.resolveAnchor("天坛", catalog.cityId("上海")).label());
+        assertNull(catalog.resolveAnchor("一个不存在的地方", -1));
+    }
+
+    @Test
+    void testMalformedDataReportsLineNumber() {
+        String data = "# 注释\n@city\t测试\t-\t30.0\t120.0\n@poi\tA\t未知城市\t景点\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PoiCatalog.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(e.getMessage().contains("第3行"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.zluolan.zaiagent.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HedgedRequester测试类
+ * 校验慢请求触发对冲并取消落后的请求、对冲预算限制额外负载、关闭时不对冲、p99 统计，
+ * 以及每次请求按剩余预算设置超时、预算耗尽时按时返回
+ */
+class HedgedRequesterTest {
+
+    @Test
+    void testSlowPrimaryIsHedgedAndLoserCancelled() throws Exception {
+        HedgedRequester requester = new HedgedRequester(true, 0.95, 1.0, 5);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean loserInterrupted = new AtomicBoolean();
+        long start = System.nanoTime();
+        String value = requester.call("geocode", 10_000, timeout -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    loserInterrupted.set(true);
+                    throw e;
+                }
+                return "slow";
+            }
+            return "fast";
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals("fast", value);
+        assertTrue(millis < 2000, "对冲请求先返回: " + millis);
+        Thread.sleep(100);
+        assertTrue(loserInterrupted.get(), "落后的首次请求被取消");
+
+        HedgeStats stats = requester.snapshot().get(0);
+        assertEquals(1, stats.hedged());
+        assertEquals(1, stats.hedgeWins());
+        requester.shutdown();
+    }
+
+    @Test
+    void testBudgetCapsHedgesAndTailImproves() throws Exception {
+        HedgedRequester requester = new HedgedRequester(true, 0.9, 0.1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        int requests = 200;
+        for (int i = 0; i < requests; i++) {
+            // 每 20 次首次请求有一次落在 300ms 的长尾上，对冲请求总是快速返回；
+            // 阻塞 IO 不响应中断，被取消的首次请求仍会完成并记录真实耗时
+            int request = i;
+            AtomicInteger local = new AtomicInteger();
+            requester.call("weather", 10_000, timeout -> {
+                attempts.incrementAndGet();
+                boolean first = local.incrementAndGet() == 1;
+                sleepIgnoringInterrupt(first && request % 20 == 19 ? 300 : 2);
+                return "ok";
+            });
+        }
+        HedgeStats stats = requester.snapshot().get(0);
+        System.out.println(stats + ", p99 改善 " + stats.p99ImprovementMillis() + "ms");
+        assertEquals(requests, stats.requests());
+        assertEquals(requests + stats.hedged(), attempts.get());
+        assertTrue(stats.hedged() <= requests * 0.1 + 2, "对冲次数受预算限制: " + stats.hedged());
+        assertTrue(stats.hedged() >= 5, "长尾请求被对冲: " + stats.hedged());
+        assertTrue(stats.p99Millis() < 200, "对冲后 p99: " + stats.p99Millis());
+        assertTrue(stats.primaryP99Millis() >= 300);
+        assertTrue(stats.p99ImprovementMillis() > 100);
+        requester.shutdown();
+    }
+
+    @Test
+    void testDisabledAndFailures() throws Exception {
+        HedgedRequester requester = new HedgedRequester(false, 0.95, 1.0, 5);
+        AtomicInteger attempts = new AtomicInteger();
+        assertEquals("ok", requester.call("geocode", 10_000, timeout -> {
+            attempts.incrementAndGet();
+            Thread.sleep(500);
+            return "ok";
+        }));
+        assertEquals(1, attempts.get(), "关闭对冲时只发一次请求");
+        assertEquals(0, requester.snapshot().get(0).hedged());
+
+        // 首次请求快速失败时不会对冲，直接抛出原始异常
+        requester.setEnabled(true);
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> requester.call("geocode", 10_000, timeout -> {
+                    throw new IllegalStateException("状态码: 500");
+                }));
+        assertEquals("状态码: 500", error.getMessage());
+        requester.shutdown();
+    }
+
+    @Test
+    void testAttemptsUseRemainingBudget() throws Exception {
+        HedgedRequester requester = new HedgedRequester(true, 0.95, 1.0, 5);
+        List<Integer> timeouts = new CopyOnWriteArrayList<>();
+        // 两次请求都像不响应中断的阻塞读取一样，在各自的超时到期后稍晚才结束
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> requester.call("geocode", 1000, timeout -> {
+            timeouts.add(timeout);
+            sleepIgnoringInterrupt(timeout + 200);
+            throw new IllegalStateException("read timed out");
+        }));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("请求超时参数: " + timeouts + ", 总耗时: " + millis + "ms");
+        assertTrue(millis < 1300, "预算耗尽即返回: " + millis);
+        assertEquals(2, timeouts.size());
+        assertEquals(1000, timeouts.get(0));
+        // 对冲请求在初始阈值 400ms 后发出，只拿到剩余的预算
+        assertTrue(timeouts.get(1) <= 620 && timeouts.get(1) > 0, "对冲请求超时: " + timeouts.get(1));
+        Thread.sleep(500);
+
+        // 剩余预算不足以发出对冲时只有一次请求
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(TimeoutException.class, () -> requester.call("geocode", 300, timeout -> {
+            attempts.incrementAndGet();
+            sleepIgnoringInterrupt(timeout + 200);
+            return "late";
+        }));
+        assertEquals(1, attempts.get());
+        requester.shutdown();
+    }
+
+    private static void sleepIgnoringInterrupt(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(deadline - System.nanoTime());
+            // 清除中断标记继续等待，模拟不响应中断的阻塞读取，避免被取消后空转
+            Thread.interrupted();
+        }
+    }
+}
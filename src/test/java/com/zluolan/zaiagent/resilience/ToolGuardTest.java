@@ -0,0 +1,131 @@
+package com.zluolan.zaiagent.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolGuard测试类
+ * 校验熔断与半开探测、舱壁隔离、超时取消、步骤截止时间收紧超时，以及降级原因标注
+ */
+class ToolGuardTest {
+
+    @Test
+    void testCircuitBreakerHalfOpenProbe() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, now::get);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        // 熔断到期后只放行一次探测，探测失败重新熔断
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "探测进行中时其他调用被拒绝");
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testFailuresOpenCircuitAndDegrade() {
+        ToolGuard guard = new ToolGuard(List.of(new DependencyPolicy("flaky", 2, 0, 1000, 3, 60_000)));
+        for (int i = 0; i < 3; i++) {
+            GuardedResult<String> result = guard.call("flaky", () -> {
+                throw new IllegalStateException("502");
+            }, reason -> "fallback");
+            assertTrue(result.degraded());
+            assertEquals("调用失败: 502", result.reason());
+        }
+        GuardedResult<String> open = guard.call("flaky", () -> "ok", reason -> "fallback: " + reason);
+        assertEquals("fallback: 熔断中", open.value());
+
+        DependencyStats stats = guard.stats("flaky");
+        System.out.println(stats);
+        assertEquals(CircuitBreaker.State.OPEN, stats.state());
+        assertEquals(4, stats.calls());
+        assertEquals(3, stats.failures());
+        assertEquals(1, stats.rejected());
+        assertEquals(4, stats.degraded());
+        guard.shutdown();
+    }
+
+    @Test
+    void testSlowDependencyIsIsolated() throws Exception {
+        ToolGuard guard = new ToolGuard(List.of(
+                new DependencyPolicy("slow", 2, 0, 200, 100, 60_000),
+                new DependencyPolicy("fast", 2, 0, 1000, 3, 60_000)));
+        CountDownLatch release = new CountDownLatch(1);
+        long start = System.nanoTime();
+        GuardedResult<String> timedOut = guard.call("slow", () -> {
+            awaitIgnoringInterrupt(release);
+            return "late";
+        }, reason -> "degraded");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(timedOut.degraded());
+        assertEquals("超时（200ms）", timedOut.reason());
+        assertTrue(elapsedMillis < 1000, "调用方按超时返回: " + elapsedMillis);
+
+        // 卡住的调用占满慢依赖自己的舱壁，之后的调用立即降级
+        guard.call("slow", () -> {
+            awaitIgnoringInterrupt(release);
+            return "late";
+        }, reason -> "degraded");
+        assertEquals(2, guard.stats("slow").inFlight());
+        GuardedResult<String> rejected = guard.call("slow", () -> "ok", reason -> "degraded");
+        assertEquals("并发已满", rejected.reason());
+
+        // 另一个依赖不受影响
+        assertEquals(GuardedResult.ok("fast"), guard.call("fast", () -> "fast", reason -> "degraded"));
+
+        release.countDown();
+        for (int i = 0; i < 50 && guard.stats("slow").inFlight() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, guard.stats("slow").inFlight(), "上游返回后归还舱壁额度");
+        guard.shutdown();
+    }
+
+    @Test
+    void testStepDeadlineBoundsTimeout() {
+        ToolGuard guard = new ToolGuard(List.of(new DependencyPolicy("api", 2, 0, 5000, 3, 60_000)));
+        assertEquals(Long.MAX_VALUE, StepDeadline.remainingMillis());
+
+        GuardedResult<String> result = StepDeadline.within(150, () -> guard.call("api", () -> {
+            Thread.sleep(2000);
+            return "late";
+        }, reason -> "degraded"));
+        assertTrue(result.reason().startsWith("超时"), result.reason());
+
+        // 嵌套时取更早的截止时间；剩余时间不足时不发起调用
+        GuardedResult<String> skipped = StepDeadline.within(10_000, () -> StepDeadline.within(10,
+                () -> guard.call("api", () -> "ok", reason -> "degraded")));
+        assertEquals("步骤剩余时间不足", skipped.reason());
+        assertEquals(Long.MAX_VALUE, StepDeadline.remainingMillis(), "执行结束后清除截止时间");
+        guard.shutdown();
+    }
+
+    /**
+     * 模拟不响应中断的阻塞 IO
+     */
+    private static void awaitIgnoringInterrupt(CountDownLatch latch) {
+        while (latch.getCount() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
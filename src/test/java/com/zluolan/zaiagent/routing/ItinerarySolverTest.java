@@ -0,0 +1,175 @@
+package com.zluolan.zaiagent.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ItinerarySolver测试类
+ * 校验结果确定（含步数预算耗尽时）、开放时间和每日时段约束、排不下时的处理以及各天的均衡
+ */
+class ItinerarySolverTest {
+
+    @Test
+    void testDeterministicAndFeasible() {
+        Random random = new Random(5);
+        int n = 21;
+        int[][] travel = randomMatrix(random, n);
+        int[] service = new int[n];
+        int[] open = new int[n];
+        int[] close = new int[n];
+        Arrays.fill(open, -1);
+        Arrays.fill(close, -1);
+        for (int i = 1; i < n; i++) {
+            service[i] = 60 + random.nextInt(4) * 30;
+            if (i % 4 == 0) {
+                open[i] = 10 * 60;
+                close[i] = 17 * 60;
+            }
+        }
+        ItineraryProblem problem = ItineraryProblem.of(travel).service(service).windows(open, close).days(4);
+        long begin = System.nanoTime();
+        Itinerary first = ItinerarySolver.solve(problem, ItinerarySolver.DEFAULT_MAX_MOVES);
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+        Itinerary second = ItinerarySolver.solve(problem, ItinerarySolver.DEFAULT_MAX_MOVES);
+
+        assertFalse(first.budgetExhausted());
+        for (int d = 0; d < first.days().size(); d++) {
+            assertArrayEquals(first.days().get(d).stops(), second.days().get(d).stops(), "第" + (d + 1) + "天");
+        }
+        assertArrayEquals(first.unscheduled(), second.unscheduled());
+        assertFeasible(problem, first);
+
+        // 预算按步数计，提前耗尽时结果同样可复现
+        Itinerary cutFirst = ItinerarySolver.solve(problem, 100);
+        Itinerary cutSecond = ItinerarySolver.solve(problem, 100);
+        assertTrue(cutFirst.budgetExhausted());
+        for (int d = 0; d < cutFirst.days().size(); d++) {
+            assertArrayEquals(cutFirst.days().get(d).stops(), cutSecond.days().get(d).stops(), "第" + (d + 1) + "天");
+        }
+        assertFeasible(problem, cutFirst);
+        System.out.println("20个地点4天编排耗时: " + elapsedMillis + "ms，已安排" + first.scheduledCount()
+                + "个，交通耗时" + first.travelMinutes() + "分钟");
+    }
+
+    @Test
+    void testOpeningHoursAreRespected() {
+        // 站点 1 只在 14:00-16:00 开放，不能排在上午
+        int[][] travel = uniform(4, 15);
+        int[] service = {0, 90, 60, 60};
+        int[] open = {-1, 14 * 60, -1, -1};
+        int[] close = {-1, 16 * 60, -1, -1};
+        ItineraryProblem problem = ItineraryProblem.of(travel).service(service).windows(open, close);
+        Itinerary itinerary = ItinerarySolver.solve(problem, ItinerarySolver.DEFAULT_MAX_MOVES);
+        assertEquals(3, itinerary.scheduledCount());
+        assertFeasible(problem, itinerary);
+        Itinerary.Day day = itinerary.days().get(0);
+        int position = indexOf(day.stops(), 1);
+        assertTrue(day.startMinutes()[position] >= 14 * 60);
+        System.out.println("开放时间顺序: " + Arrays.toString(day.stops()) + "，开始时间"
+                + Arrays.toString(day.startMinutes()));
+    }
+
+    @Test
+    void testOverflowIsReported() {
+        // 09:00-12:00 每站 60 分钟、往返各 10 分钟，一天最多排 2 站
+        int[][] travel = uniform(5, 10);
+        int[] service = {0, 60, 60, 60, 60};
+        ItineraryProblem oneDay = ItineraryProblem.of(travel).service(service).dayWindow(9 * 60, 12 * 60);
+        Itinerary itinerary = ItinerarySolver.solve(oneDay, ItinerarySolver.DEFAULT_MAX_MOVES);
+        assertEquals(2, itinerary.scheduledCount());
+        assertEquals(2, itinerary.unscheduled().length);
+        assertFeasible(oneDay, itinerary);
+
+        Itinerary twoDays = ItinerarySolver.solve(oneDay.days(2), ItinerarySolver.DEFAULT_MAX_MOVES);
+        assertEquals(4, twoDays.scheduledCount());
+        assertEquals(0, twoDays.unscheduled().length);
+        assertFeasible(oneDay, twoDays);
+    }
+
+    @Test
+    void testDaysAreBalanced() {
+        // 没有住处（往返耗时为 0）时，6 个地点 3 天应当每天 2 个，而不是挤在第一天
+        int n = 7;
+        int[][] travel = uniform(n, 20);
+        for (int i = 0; i < n; i++) {
+            travel[0][i] = 0;
+            travel[i][0] = 0;
+        }
+        int[] service = new int[n];
+        Arrays.fill(service, 1, n, 90);
+        ItineraryProblem problem = ItineraryProblem.of(travel).service(service).days(3);
+        Itinerary itinerary = ItinerarySolver.solve(problem, ItinerarySolver.DEFAULT_MAX_MOVES);
+        for (Itinerary.Day day : itinerary.days()) {
+            assertEquals(2, day.stops().length, Arrays.toString(day.stops()));
+            assertEquals(9 * 60, day.startMinutes()[0]);
+        }
+    }
+
+    private static void assertFeasible(ItineraryProblem problem, Itinerary itinerary) {
+        boolean[] seen = new boolean[problem.size()];
+        for (Itinerary.Day day : itinerary.days()) {
+            for (int i = 0; i < day.stops().length; i++) {
+                int stop = day.stops()[i];
+                assertFalse(seen[stop], "站点" + stop + "重复");
+                seen[stop] = true;
+                assertTrue(day.startMinutes()[i] >= problem.dayStartMinute());
+                if (problem.open(stop) >= 0) {
+                    assertTrue(day.startMinutes()[i] >= problem.open(stop));
+                }
+                if (problem.close(stop) >= 0) {
+                    assertTrue(day.startMinutes()[i] + problem.service(stop) <= problem.close(stop));
+                }
+            }
+            assertTrue(day.finishMinute() <= problem.dayEndMinute());
+        }
+        for (int stop : itinerary.unscheduled()) {
+            assertFalse(seen[stop], "站点" + stop + "重复");
+            seen[stop] = true;
+        }
+        for (int stop = 1; stop < problem.size(); stop++) {
+            assertTrue(seen[stop], "站点" + stop + "丢失");
+        }
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[][] uniform(int n, int minutes) {
+        int[][] travel = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                travel[i][j] = i == j ? 0 : minutes;
+            }
+        }
+        return travel;
+    }
+
+    /**
+     * 平面上的随机点，按欧氏距离折算分钟
+     */
+    private static int[][] randomMatrix(Random random, int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 60;
+            y[i] = random.nextDouble() * 60;
+        }
+        int[][] travel = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                travel[i][j] = (int) Math.round(Math.hypot(x[i] - x[j], y[i] - y[j]));
+            }
+        }
+        return travel;
+    }
+}
@@ -0,0 +1,95 @@
+package com.zluolan.zaiagent.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RoutingEngine测试类
+ * 校验 A* 与 Dijkstra 结果一致，以及交通方式过滤、途经点和地点解析
+ */
+class RoutingEngineTest {
+
+    private final RoutingEngine engine = RoutingEngine.getDefault();
+    private final TransportNetwork network = engine.getNetwork();
+
+    @Test
+    void testAStarMatchesDijkstra() {
+        List<Set<TransportMode>> modeSets = List.of(
+                EnumSet.allOf(TransportMode.class), EnumSet.of(TransportMode.RAIL),
+                EnumSet.of(TransportMode.ROAD), EnumSet.of(TransportMode.RAIL, TransportMode.BUS));
+        int checked = 0;
+        for (Set<TransportMode> modes : modeSets) {
+            int mask = RoutingEngine.modeMask(modes);
+            for (RouteMetric metric : RouteMetric.values()) {
+                for (int from = 0; from < network.nodeCount(); from++) {
+                    for (int to = 0; to < network.nodeCount(); to++) {
+                        if (from == to) {
+                            continue;
+                        }
+                        List<RouteLeg> astar = engine.search(from, to, mask, metric, true);
+                        List<RouteLeg> dijkstra = engine.search(from, to, mask, metric, false);
+                        assertEquals(dijkstra == null, astar == null);
+                        if (astar != null) {
+                            assertEquals(cost(dijkstra, metric), cost(astar, metric), 1e-6,
+                                    network.nodeName(from) + "→" + network.nodeName(to) + " " + metric);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("A*与Dijkstra对照路线数: " + checked);
+        assertTrue(checked > 1000);
+    }
+
+    @Test
+    void testFastestAndCheapestBetweenCities() {
+        int beijing = engine.resolveNode("北京");
+        int shanghai = engine.resolveNode("上海");
+        Set<TransportMode> all = EnumSet.allOf(TransportMode.class);
+
+        Route rail = engine.route(beijing, shanghai, EnumSet.of(TransportMode.RAIL), RouteMetric.FASTEST);
+        assertNotNull(rail);
+        assertEquals(270, rail.totalMinutes());
+        assertTrue(rail.legs().stream().allMatch(leg -> leg.mode() == TransportMode.RAIL));
+
+        Route fastest = engine.route(beijing, shanghai, all, RouteMetric.FASTEST);
+        Route cheapest = engine.route(beijing, shanghai, all, RouteMetric.CHEAPEST);
+        assertTrue(fastest.totalMinutes() <= cheapest.totalMinutes());
+        assertTrue(cheapest.totalCost() <= fastest.totalCost());
+        System.out.println("最快: " + fastest.summary() + "\n" + fastest.describe("  "));
+        System.out.println("最省钱: " + cheapest.summary() + "\n" + cheapest.describe("  "));
+    }
+
+    @Test
+    void testWaypointsAndUnreachableModes() {
+        int beijing = engine.resolveNode("北京");
+        int jinan = engine.resolveNode("济南");
+        int shanghai = engine.resolveNode("上海");
+        Route route = engine.route(List.of(beijing, jinan, shanghai), EnumSet.of(TransportMode.RAIL), RouteMetric.FASTEST);
+        assertNotNull(route);
+        assertTrue(route.legs().stream().anyMatch(leg -> leg.to().equals("济南")));
+        assertEquals("上海", route.legs().get(route.legs().size() - 1).to());
+
+        // 苏州没有机场，仅航班不可达
+        int suzhou = engine.resolveNode("苏州");
+        assertNull(engine.route(beijing, suzhou, EnumSet.of(TransportMode.FLIGHT), RouteMetric.FASTEST));
+    }
+
+    @Test
+    void testResolveNode() {
+        assertEquals("北京", network.nodeName(engine.resolveNode("北京南站")));
+        assertEquals("杭州", network.nodeName(engine.resolveNode("西湖")));
+        assertEquals("上海", network.nodeName(engine.resolveNode("shanghai")));
+        assertEquals(-1, engine.resolveNode("火星基地"));
+    }
+
+    private static double cost(List<RouteLeg> legs, RouteMetric metric) {
+        return legs.stream().mapToDouble(leg -> metric.weight(leg.minutes(), leg.cost(), leg.scenic())).sum();
+    }
+}
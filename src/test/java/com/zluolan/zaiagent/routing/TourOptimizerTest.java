@@ -0,0 +1,126 @@
+package com.zluolan.zaiagent.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TourOptimizer测试类
+ * 与小规模穷举对照，并校验时间窗、固定终点和时间预算
+ */
+class TourOptimizerTest {
+
+    @Test
+    void testNearOptimalAgainstBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            int[][] travel = randomMatrix(random, 8);
+            TourProblem problem = TourProblem.of(travel);
+            TourPlan plan = TourOptimizer.solve(problem, 1000);
+            int optimal = bruteForce(travel);
+            assertTrue(plan.travelMinutes() <= optimal * 1.05,
+                    "第" + round + "组: 求解" + plan.travelMinutes() + "，最优" + optimal);
+            assertTrue(plan.travelMinutes() <= travelOf(travel, TourOptimizer.nearestNeighbour(problem)));
+        }
+    }
+
+    @Test
+    void testTimeWindowsAreRespected() {
+        // 站点 3 离起点最远但 10:00 就关门，应当最先访问
+        int[][] travel = {
+                {0, 10, 20, 60},
+                {10, 0, 10, 50},
+                {20, 10, 0, 40},
+                {60, 50, 40, 0}};
+        int[] service = {0, 30, 30, 30};
+        int[] open = {-1, -1, -1, 9 * 60};
+        int[] close = {-1, -1, -1, 10 * 60 + 30};
+        TourProblem problem = TourProblem.of(travel).service(service).windows(open, close).startMinute(9 * 60);
+        TourPlan plan = TourOptimizer.solve(problem, 1000);
+        assertEquals(3, plan.order()[1]);
+        assertEquals(0, plan.lateMinutes());
+        System.out.println("时间窗顺序: " + Arrays.toString(plan.order()) + "，结束于第" + plan.finishMinute() + "分钟");
+    }
+
+    @Test
+    void testFixedEndAndBudget() {
+        Random random = new Random(11);
+        int n = 40;
+        int[][] travel = randomMatrix(random, n);
+        long begin = System.nanoTime();
+        TourPlan plan = TourOptimizer.solve(TourProblem.of(travel).fixedEnd(true), 20);
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+        assertEquals(0, plan.order()[0]);
+        assertEquals(n - 1, plan.order()[n - 1]);
+        assertEquals(n, Arrays.stream(plan.order()).distinct().count());
+        assertTrue(elapsedMillis < 500, "求解耗时" + elapsedMillis + "ms");
+        System.out.println("40个站点求解耗时: " + elapsedMillis + "ms，交通耗时: " + plan.travelMinutes()
+                + "分钟，预算耗尽: " + plan.budgetExhausted());
+    }
+
+    /**
+     * 平面随机点的欧氏距离矩阵
+     */
+    private static int[][] randomMatrix(Random random, int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 100;
+            y[i] = random.nextDouble() * 100;
+        }
+        int[][] travel = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                travel[i][j] = (int) Math.round(Math.hypot(x[i] - x[j], y[i] - y[j]));
+            }
+        }
+        return travel;
+    }
+
+    private static int bruteForce(int[][] travel) {
+        int n = travel.length;
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+        }
+        int best = Integer.MAX_VALUE;
+        do {
+            best = Math.min(best, travelOf(travel, tour));
+        } while (nextPermutation(tour, 1));
+        return best;
+    }
+
+    private static int travelOf(int[][] travel, int[] tour) {
+        int total = 0;
+        for (int i = 1; i < tour.length; i++) {
+            total += travel[tour[i - 1]][tour[i]];
+        }
+        return total;
+    }
+
+    private static boolean nextPermutation(int[] a, int from) {
+        int i = a.length - 2;
+        while (i >= from && a[i] >= a[i + 1]) {
+            i--;
+        }
+        if (i < from) {
+            return false;
+        }
+        int j = a.length - 1;
+        while (a[j] <= a[i]) {
+            j--;
+        }
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            t = a[l];
+            a[l] = a[r];
+            a[r] = t;
+        }
+        return true;
+    }
+}
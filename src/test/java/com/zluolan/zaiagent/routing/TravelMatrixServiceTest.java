@@ -0,0 +1,99 @@
+package com.zluolan.zaiagent.routing;
+
+import com.zluolan.zaiagent.geo.DistanceMatrix;
+import com.zluolan.zaiagent.geo.GeoMath;
+import com.zluolan.zaiagent.poi.PoiAnchor;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.poi.PoiKind;
+import com.zluolan.zaiagent.poi.PoiQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TravelMatrixService测试类
+ * 校验同城 POI 取自缓存矩阵、非 POI 地点和单对地点直接计算，以及按矩阵单元总数的 LRU 淘汰
+ */
+class TravelMatrixServiceTest {
+
+    private final PoiCatalog catalog = PoiCatalog.getDefault();
+
+    @Test
+    void testPoiSubMatrixMatchesDirectDistance() {
+        TravelMatrixService service = new TravelMatrixService(catalog, TravelMatrixService.DEFAULT_MAX_CELLS);
+        int beijing = catalog.cityId("北京");
+        List<PoiAnchor> anchors = List.of(
+                catalog.resolveAnchor("故宫", beijing),
+                catalog.resolveAnchor("颐和园", beijing),
+                catalog.resolveAnchor("天坛", beijing));
+        DistanceMatrix matrix = service.distances(anchors);
+        for (int i = 0; i < anchors.size(); i++) {
+            for (int j = 0; j < anchors.size(); j++) {
+                PoiAnchor a = anchors.get(i);
+                PoiAnchor b = anchors.get(j);
+                assertEquals(GeoMath.distanceMeters(a.latitude(), a.longitude(), b.latitude(), b.longitude()),
+                        matrix.meters(i, j), 0.01);
+            }
+        }
+        int[][] minutes = service.minutes(anchors, LocalTransport.TRANSIT);
+        assertEquals(0, minutes[0][0]);
+        assertTrue(minutes[0][1] > minutes[0][2], "故宫到颐和园应比到天坛远");
+
+        // 同城只计算一次，之后的查询都命中缓存
+        assertTrue(service.stats().startsWith("命中 1 / 未命中 1"), service.stats());
+    }
+
+    @Test
+    void testNonPoiAnchorsComputedDirectly() {
+        TravelMatrixService service = new TravelMatrixService(catalog, TravelMatrixService.DEFAULT_MAX_CELLS);
+        PoiAnchor center = catalog.resolveAnchor("上海", -1);
+        PoiAnchor coordinate = catalog.resolveAnchor("31.2397,121.4998", -1);
+        assertTrue(service.distanceMeters(center, coordinate) > 0);
+        assertTrue(service.stats().startsWith("命中 0 / 未命中 0"), service.stats());
+
+        // 同城 POI 之间的单对距离也不触发整城矩阵计算
+        int beijing = catalog.cityId("北京");
+        PoiAnchor palace = catalog.resolveAnchor("故宫", beijing);
+        PoiAnchor temple = catalog.resolveAnchor("天坛", beijing);
+        assertEquals(GeoMath.distanceMeters(palace.latitude(), palace.longitude(), temple.latitude(), temple.longitude()),
+                service.distanceMeters(palace, temple), 0.01);
+        assertEquals("命中 0 / 未命中 0 / 缓存城市 0 / 缓存单元 0", service.stats());
+    }
+
+    @Test
+    void testLruEvictionByCells() {
+        // 上限恰好容纳城市 0 和 1，加入城市 2 后需要淘汰
+        assertTrue(cells(2) <= cells(1));
+        TravelMatrixService service = new TravelMatrixService(catalog, cells(0) + cells(1));
+        service.cityMatrix(0);
+        service.cityMatrix(1);
+        service.cityMatrix(0);
+        service.cityMatrix(2);
+        // 城市 1 最久未使用，已被淘汰；重新加入时淘汰城市 0
+        service.cityMatrix(1);
+        System.out.println(service.stats());
+        assertEquals("命中 1 / 未命中 4 / 缓存城市 2 / 缓存单元 " + (cells(1) + cells(2)), service.stats());
+    }
+
+    @Test
+    void testOversizedCityNotCached() {
+        TravelMatrixService service = new TravelMatrixService(catalog, 16);
+        int beijing = catalog.cityId("北京");
+        List<PoiAnchor> anchors = List.of(
+                catalog.resolveAnchor("故宫", beijing),
+                catalog.resolveAnchor("颐和园", beijing));
+        DistanceMatrix matrix = service.distances(anchors);
+        assertEquals(service.distanceMeters(anchors.get(0), anchors.get(1)), matrix.meters(0, 1), 0.01);
+        assertTrue(service.stats().endsWith("缓存城市 0 / 缓存单元 0"), service.stats());
+    }
+
+    private long cells(int cityId) {
+        long count = 0;
+        for (PoiKind kind : PoiKind.values()) {
+            count += catalog.query(PoiQuery.of(kind).city(cityId).limit(0)).size();
+        }
+        return count * count;
+    }
+}
@@ -0,0 +1,170 @@
+package com.zluolan.zaiagent.toolcall;
+
+import com.zluolan.zaiagent.tools.HotelSearchTool;
+import com.zluolan.zaiagent.tools.WaypointOptimizerTool;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolOutputEncoder测试类
+ * 校验紧凑编码去装饰、去回显字段、只合并同一段内紧挨着的重复行、截断，以及经 ToolCallback 链调用时的模式切换与 token 统计
+ */
+class ToolOutputEncoderTest {
+
+    @Test
+    void testCompactJsonResult() {
+        String raw = "[TOOL_EXECUTION_RESULT] 酒店搜索成功！\n"
+                + "{\"destination\":\"上海\",\"guests\":2,\"priceRange\":\"舒适型\","
+                + "\"hotels\":\"=== 上海酒店推荐 ===\\n\\n1. 🏨 如家酒店  - 经济型\\n   - 价格：¥300/晚\\n\\n\","
+                + "\"searchTime\":1792409953738,\"status\":\"success\"}";
+        String compact = ToolOutputEncoder.compact("{\"destination\":\"上海\",\"guests\":2}", raw, 2000);
+        System.out.println(compact);
+        assertEquals("""
+                priceRange: 舒适型
+                hotels:
+                上海酒店推荐:
+                1. 如家酒店 - 经济型
+                - 价格：¥300/晚""", compact);
+    }
+
+    @Test
+    void testCompactDecoratedText() {
+        String raw = """
+                🎯 北京 综合旅游规划方案
+                ==================================================
+
+                🏛️ 景点推荐
+                --------------------
+                1. 故宫博物院（¥60，评分4.8）
+                1. 故宫博物院（¥60，评分4.8）
+                • 地铁/公交：约35分钟
+                🌤️ 气温 15°C
+                """;
+        assertEquals("""
+                北京 综合旅游规划方案
+                景点推荐
+                1. 故宫博物院（¥60，评分4.8）
+                - 地铁/公交：约35分钟
+                气温 15°C""", ToolOutputEncoder.compact("{}", raw, 2000));
+    }
+
+    @Test
+    void testKeepRepeatedLinesAcrossRecords() {
+        String weather = """
+                [TOOL_EXECUTION_RESULT] 天气查询成功！
+                📍 成都 天气预报
+                查询日期：2026-10-20
+
+                📅 2026-10-20 (星期二)
+                🌡️ 温度：15°C - 22°C
+                ☁️ 天气：晴
+                💨 风力：≤3级
+                🎒 出行建议：天气晴朗，适合户外活动，注意防晒
+
+                📅 2026-10-21 (星期三)
+                🌡️ 温度：16°C - 23°C
+                ☁️ 天气：晴
+                💨 风力：≤3级
+                🎒 出行建议：天气晴朗，适合户外活动，注意防晒
+                """;
+        String compact = ToolOutputEncoder.compact("{\"location\":\"成都\",\"days\":2}", weather, 2000);
+        System.out.println(compact);
+        // 两天相同的天气和建议都要保留，否则第二天看起来缺了数据
+        assertEquals(2, compact.split("天气：晴", -1).length - 1, compact);
+        assertEquals(2, compact.split("出行建议：天气晴朗", -1).length - 1, compact);
+        assertEquals(2, compact.split("风力：≤3级", -1).length - 1, compact);
+
+        String route = """
+                第1天
+                09:00 宽窄巷子
+                   ↓ 公交地铁约20分钟
+                11:00 人民公园
+                   ↓ 公交地铁约20分钟
+                14:00 武侯祠
+                   ↓ 公交地铁约20分钟
+                   ↓ 公交地铁约20分钟
+                """;
+        assertEquals("""
+                第1天
+                09:00 宽窄巷子
+                ↓ 公交地铁约20分钟
+                11:00 人民公园
+                ↓ 公交地铁约20分钟
+                14:00 武侯祠
+                ↓ 公交地铁约20分钟""", ToolOutputEncoder.compact("{}", route, 2000));
+    }
+
+    @Test
+    void testErrorsKeptAndTruncation() {
+        assertEquals("酒店搜索失败: 连接超时",
+                ToolOutputEncoder.compact("{}", "[TOOL_EXECUTION_RESULT] 酒店搜索失败: 连接超时", 2000));
+        assertEquals("ERROR: Search query must not be empty.", ToolOutputEncoder.compact("{}",
+                "[TOOL_EXECUTION_RESULT][SEARCH_ERROR] Search query must not be empty.", 2000));
+        assertEquals("Title: a", ToolOutputEncoder.compact("{}",
+                "[TOOL_EXECUTION_RESULT][SEARCH_SUCCESS]\nTitle: a", 2000));
+
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longText.append("第").append(i).append("行内容\n");
+        }
+        String truncated = ToolOutputEncoder.compact("{}", longText.toString(), 100);
+        assertTrue(truncated.length() < 130, truncated);
+        assertTrue(truncated.endsWith("…(已截断，原文" + longText.toString().strip().length() + "字)"), truncated);
+    }
+
+    @Test
+    void testEncodingThroughToolCallbackChain() {
+        ToolOutputEncoder encoder = new ToolOutputEncoder(OutputMode.COMPACT, 2000, Map.of("searchHotels", 300));
+        ToolCallback[] callbacks = encoder.wrapAll(MethodToolCallbackProvider.builder()
+                .toolObjects(new HotelSearchTool(), new WaypointOptimizerTool())
+                .build()
+                .getToolCallbacks());
+        ToolCallback hotels = Arrays.stream(callbacks)
+                .filter(callback -> callback.getToolDefinition().name().equals("searchHotels"))
+                .findFirst()
+                .orElseThrow();
+        assertSame(hotels, encoder.wrap(hotels), "已包装的回调不重复包装");
+
+        String input = "{\"destination\":\"杭州\",\"guests\":2,\"hotelType\":\"民宿\"}";
+        String compact = hotels.call(input);
+        assertFalse(compact.contains("TOOL_EXECUTION_RESULT"));
+        assertFalse(compact.contains("destination"));
+        assertTrue(compact.length() <= 300 + 30, compact);
+
+        encoder.setMode(OutputMode.RICH);
+        String rich = hotels.call(input);
+        assertTrue(rich.contains("[TOOL_EXECUTION_RESULT] 酒店搜索成功"));
+
+        List<ToolOutputStats.Entry> stats = encoder.getStats().snapshot();
+        assertEquals(1, stats.size());
+        ToolOutputStats.Entry entry = stats.get(0);
+        assertEquals("searchHotels", entry.tool());
+        assertEquals(2, entry.calls());
+        assertTrue(entry.savedTokens() > 0);
+        System.out.println("紧凑输出:\n" + compact);
+        System.out.print(encoder.getStats().report());
+    }
+
+    @Test
+    void testTokenEstimator() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(4, TokenEstimator.estimate("故宫门票"));
+        assertEquals(4, TokenEstimator.estimate("hello world"));
+        assertEquals(2, TokenEstimator.estimate("🏨"));
+    }
+
+    @Test
+    void testParseToolMaxChars() {
+        assertEquals(Map.of("searchHotels", 800, "planRoute", 1200),
+                ToolOutputEncoder.parseToolMaxChars("searchHotels=800, planRoute = 1200, bad=x, empty"));
+        assertEquals(OutputMode.RICH, OutputMode.fromText(" Rich "));
+        assertNull(OutputMode.fromText("verbose"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.zluolan.zaiagent.toolcall;
+
+import com.zluolan.zaiagent.tools.HotelSearchTool;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolPayloadStore测试类
+ * 校验双通道拆分：只有列表、表格类工具拆分，模型只收到结构化摘要和结果ID，
+ * 完整结果推送给会话订阅者，只能由同一会话按ID取回
+ */
+class ToolPayloadStoreTest {
+
+    @Test
+    void testLongResultSplitToPayloadChannel() {
+        ToolPayloadStore store = new ToolPayloadStore();
+        ToolOutputEncoder encoder = new ToolOutputEncoder(OutputMode.COMPACT, 2000, Map.of(), store, 60);
+        ToolCallback hotels = encoder.wrap(MethodToolCallbackProvider.builder()
+                .toolObjects(new HotelSearchTool())
+                .build()
+                .getToolCallbacks()[0]);
+
+        List<ToolPayload> pushed = new ArrayList<>();
+        Disposable subscription = store.stream("c1").subscribe(pushed::add);
+        String input = "{\"destination\":\"杭州\",\"guests\":2}";
+        String forModel = hotels.call(input, new ToolContext(Map.of(ToolPayloadStore.CONVERSATION_ID, "c1")));
+        subscription.dispose();
+        System.out.println("模型收到:\n" + forModel);
+
+        assertEquals(1, pushed.size());
+        ToolPayload payload = pushed.get(0);
+        assertEquals("searchHotels", payload.tool());
+        assertTrue(payload.content().startsWith("[TOOL_EXECUTION_RESULT] 酒店搜索成功"), "结果通道保留原文");
+        assertTrue(forModel.startsWith("酒店: "), forModel);
+        assertTrue(forModel.matches("(?s)酒店: \\d+家，每晚¥\\d+(-\\d+)?.*"), forModel);
+        assertTrue(forModel.contains("[结果ID: " + payload.id() + "]"));
+        assertSame(payload, store.get(payload.id(), "c1"));
+        assertNull(store.get(payload.id(), "c2"), "其他会话取不到");
+        assertTrue(payload.id().matches("[0-9a-f]{32}"), payload.id());
+        assertEquals(List.of(payload), store.list("c1"));
+
+        // 没有会话ID时仍是单通道紧凑输出
+        String single = hotels.call(input);
+        assertFalse(single.contains("结果ID"));
+        assertEquals(1, store.list("c1").size());
+        assertTrue(TokenEstimator.estimate(forModel) < TokenEstimator.estimate(single));
+        System.out.printf("token: 原文 %d, 单通道 %d, 双通道 %d%n", TokenEstimator.estimate(payload.content()),
+                TokenEstimator.estimate(single), TokenEstimator.estimate(forModel));
+    }
+
+    @Test
+    void testStructuredSummaries() {
+        String hotels = """
+                1. 杭州西子湖四季酒店 - 西湖畔园林式奢华酒店
+                - 价格：¥2500-4000/晚 | 评分：4.9
+                2. 杭州君悦酒店 - 湖滨商圈的五星酒店
+                - 价格：¥1100-1600/晚 | 评分：4.7
+                3. 龙井茶园民宿 - 茶园里的精品民宿
+                - 价格：¥500-900/晚 | 评分：4.7
+                4. 杭州西湖国际青年旅舍 - 南山路老牌青旅
+                - 价格：¥90-160/晚 | 评分：4.4""";
+        assertEquals("酒店: 4家，每晚¥90-4000，前3家: 杭州西子湖四季酒店、杭州君悦酒店、龙井茶园民宿",
+                PayloadSummary.HOTELS.summary(hotels));
+
+        String weather = """
+                weatherInfo:
+                [DEGRADED] 高德天气服务暂不可用，以下为估算数据，仅供参考
+                2026-10-19 (周一)
+                温度：12°C - 21°C
+                天气：小雨
+                2026-10-20 (周二)
+                温度：15°C - 25°C
+                天气：晴""";
+        assertEquals("""
+                [DEGRADED] 高德天气服务暂不可用，以下为估算数据，仅供参考
+                天气: 2天，气温12~25°C，小雨、晴""", PayloadSummary.WEATHER.summary(weather));
+        String table = """
+                | 城市 | 日期 | 天气 | 气温 | 风力 | 来源 |
+                | 成都 | 10-19 周一 | 阴 | 14~20°C | 微风 | 预报 |
+                | 重庆 | 10-21 周三 | 多云 | 18~26°C | 微风 | 预报 |""";
+        assertEquals("天气: 2天，气温14~26°C", PayloadSummary.WEATHER.summary(table));
+
+        String route = """
+                路线规划方案:
+                最快方案：总耗时4小时30分钟 | 费用约¥553 | 全程约1318公里
+                1. 北京 → 上海｜高铁｜4小时30分钟｜¥553""";
+        assertEquals("路线: 北京 → 上海｜高铁｜4小时30分钟｜¥553\n耗时4小时30分钟，费用¥553",
+                PayloadSummary.ROUTE.summary(route));
+        assertNull(PayloadSummary.ROUTE.summary("没有可用的路线"));
+    }
+
+    @Test
+    void testReasoningResultsNeverSplit() {
+        ToolPayloadStore store = new ToolPayloadStore();
+        ToolOutputEncoder encoder = new ToolOutputEncoder(OutputMode.COMPACT, 4000, Map.of(), store, 10);
+        StringBuilder itinerary = new StringBuilder("[TOOL_EXECUTION_RESULT] 行程规划成功！\n");
+        for (int day = 1; day <= 3; day++) {
+            itinerary.append("第").append(day).append("天\n09:00 宽窄巷子（¥0）\n   ↓ 公交地铁约20分钟\n")
+                    .append("11:00 人民公园\n   ↓ 步行约15分钟\n14:00 武侯祠（¥50）\n\n");
+        }
+        for (String tool : List.of("planItinerary", "readWebPages", "webSearch", "estimateBudget")) {
+            String encoded = encoder.encode(tool, "{}", itinerary.toString(), "c1");
+            assertFalse(encoded.contains("结果ID"), tool);
+            assertTrue(encoded.contains("第3天"), tool);
+        }
+        assertTrue(store.list("c1").isEmpty());
+
+        // 在拆分名单中但提取不到摘要数据时同样不拆分
+        assertFalse(encoder.encode("searchHotels", "{}", itinerary.toString(), "c1").contains("结果ID"));
+        assertTrue(store.list("c1").isEmpty());
+    }
+
+    @Test
+    void testShortResultNotSplit() {
+        ToolPayloadStore store = new ToolPayloadStore();
+        ToolOutputEncoder encoder = new ToolOutputEncoder(OutputMode.COMPACT, 2000, Map.of(), store,
+                ToolOutputEncoder.DEFAULT_PAYLOAD_MIN_TOKENS);
+        String encoded = encoder.encode("getWeather", "{}", "[TOOL_EXECUTION_RESULT] 杭州 晴 22°C", "c1");
+        assertEquals("杭州 晴 22°C", encoded);
+        assertTrue(store.list("c1").isEmpty());
+    }
+
+    @Test
+    void testSubscribersAreScopedAndEvicted() {
+        ToolPayloadStore store = new ToolPayloadStore(2);
+        List<ToolPayload> seen = new ArrayList<>();
+        Disposable subscription = store.stream("a").subscribe(seen::add);
+        ToolPayload first = store.save("a", "t", "1");
+        store.save("b", "t", "2");
+        subscription.dispose();
+        store.save("a", "t", "3");
+        assertEquals(List.of(first), seen, "只收到本会话、订阅期间的结果");
+
+        // 容量为2，最久未访问的结果被淘汰
+        assertNull(store.get(first.id(), "a"));
+        assertEquals(List.of("3"), store.list("a").stream().map(ToolPayload::content).toList());
+    }
+}
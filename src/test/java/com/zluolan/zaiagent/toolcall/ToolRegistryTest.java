@@ -0,0 +1,137 @@
+package com.zluolan.zaiagent.toolcall;
+
+import com.zluolan.zaiagent.tools.BudgetEstimateTool;
+import com.zluolan.zaiagent.tools.BudgetEstimateToolCallbacks;
+import com.zluolan.zaiagent.tools.TerminateTool;
+import com.zluolan.zaiagent.tools.TerminateToolCallbacks;
+import com.zluolan.zaiagent.tools.WebPageReaderTool;
+import com.zluolan.zaiagent.tools.WebPageReaderToolCallbacks;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolRegistry测试类
+ * 校验按名称查找、启停和权重排序、执行时遇到已停用或未注册的工具返回错误结果、重新加载时保留设置，以及并发读写时快照始终一致
+ */
+class ToolRegistryTest {
+
+    private final List<ToolCallback> terminate = TerminateToolCallbacks.of(new TerminateTool());
+    private final List<ToolCallback> budget = BudgetEstimateToolCallbacks.of(new BudgetEstimateTool());
+    private final List<ToolCallback> webPages = WebPageReaderToolCallbacks.of(new WebPageReaderTool());
+
+    private static List<String> names(List<ToolCallback> callbacks) {
+        return callbacks.stream().map(callback -> callback.getToolDefinition().name()).toList();
+    }
+
+    @Test
+    void testLookupAndUpdate() {
+        List<ToolCallback> all = new ArrayList<>(terminate);
+        all.addAll(budget);
+        all.addAll(webPages);
+        ToolRegistry registry = new ToolRegistry(() -> all, Set.of("searchAndReadWebPages"),
+                ToolRegistry.parseWeights("doTerminate=-10, estimateBudget=5, bad=x"));
+
+        System.out.println(registry.entries());
+        assertEquals(List.of("estimateBudget", "readWebPages", "doTerminate"), names(registry.tools()));
+        assertSame(budget.get(0), registry.resolve("estimateBudget"));
+        assertNull(registry.resolve("searchAndReadWebPages"));
+        assertNull(registry.resolve("unknown"));
+        assertEquals(4, registry.entries().size());
+
+        long version = registry.version();
+        ToolRegistry.ToolEntry entry = registry.update("searchAndReadWebPages", true, 20);
+        assertTrue(entry.enabled());
+        assertEquals(version + 1, registry.version());
+        assertEquals("searchAndReadWebPages", names(registry.tools()).get(0));
+        assertNotNull(registry.resolve("searchAndReadWebPages"));
+
+        registry.update("estimateBudget", false, null);
+        assertNull(registry.resolve("estimateBudget"));
+        assertFalse(names(registry.tools()).contains("estimateBudget"));
+        // 没有变化时不生成新快照
+        version = registry.version();
+        registry.update("estimateBudget", false, 5);
+        assertEquals(version, registry.version());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.update("unknown", true, null));
+
+        // 模型选中之后才被停用的工具，执行时返回错误结果而不是抛异常
+        assertSame(terminate.get(0), registry.resolveForExecution("doTerminate"));
+        String disabled = registry.resolveForExecution("estimateBudget").call("{}");
+        System.out.println(disabled);
+        assertTrue(disabled.contains("工具 estimateBudget 已停用"));
+        ToolCallback unknown = registry.resolveForExecution("bookFlight");
+        assertEquals("bookFlight", unknown.getToolDefinition().name());
+        assertTrue(unknown.call("{}").contains("未注册"));
+    }
+
+    @Test
+    void testReloadKeepsSettings() {
+        List<ToolCallback> source = new ArrayList<>(terminate);
+        source.addAll(budget);
+        ToolRegistry registry = new ToolRegistry(() -> List.copyOf(source));
+        registry.update("estimateBudget", false, 3);
+        List<ToolCallback> before = registry.tools();
+
+        source.remove(terminate.get(0));
+        source.addAll(webPages);
+        assertEquals(3, registry.reload());
+        assertNull(registry.resolve("doTerminate"));
+        assertNotNull(registry.resolve("readWebPages"));
+        assertFalse(registry.get("estimateBudget").enabled());
+        assertEquals(3, registry.get("estimateBudget").weight());
+        // 已经取到的快照不受影响
+        assertEquals(List.of("doTerminate"), names(before));
+
+        source.addAll(budget);
+        assertThrows(IllegalStateException.class, registry::reload);
+        assertNotNull(registry.resolve("readWebPages"));
+    }
+
+    @Test
+    void testConcurrentReadsSeeConsistentSnapshots() throws Exception {
+        List<ToolCallback> all = new ArrayList<>(terminate);
+        all.addAll(budget);
+        ToolRegistry registry = new ToolRegistry(() -> all);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readers.add(executor.submit(() -> {
+                    for (int n = 0; n < 20_000; n++) {
+                        List<String> names = names(registry.tools());
+                        assertTrue(names.contains("doTerminate"));
+                        assertTrue(names.size() == 1 || names.size() == 2);
+                    }
+                }));
+            }
+            for (int n = 1; n <= 2_000; n++) {
+                registry.update("estimateBudget", n % 2 == 0, n % 7);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2_001, registry.version());
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(Set.of("webSearch", "readWebPages"), ToolRegistry.parseNames(" webSearch, ,readWebPages"));
+        assertTrue(ToolRegistry.parseNames(null).isEmpty());
+        assertEquals(Map.of("webSearch", 10, "doTerminate", -1), ToolRegistry.parseWeights("webSearch=10,doTerminate=-1,x"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.zluolan.zaiagent.toolgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zluolan.zaiagent.config.ToolConfig;
+import com.zluolan.zaiagent.tools.BudgetEstimateTool;
+import com.zluolan.zaiagent.tools.BudgetEstimateToolCallbacks;
+import com.zluolan.zaiagent.tools.TerminateTool;
+import com.zluolan.zaiagent.tools.TerminateToolCallbacks;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 编译期生成的工具回调测试类
+ * 校验 ToolConfig 中每个工具类生成的工具定义都与 Spring AI 反射生成的一致，调用结果和参数取值规则也一致
+ */
+class GeneratedToolCallbackTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final TerminateTool terminateTool = new TerminateTool();
+    private final BudgetEstimateTool budgetEstimateTool = new BudgetEstimateTool();
+
+    /**
+     * 逐个比对 ToolConfig 中登记的全部工具类：工具类从配置方法的参数取得，新增工具时自动纳入。
+     * 定义只取决于工具类的注解，用 mock 实例即可，不需要真实的依赖
+     */
+    @Test
+    void testDefinitionsMatchReflection() throws Exception {
+        Method provider = Arrays.stream(ToolConfig.class.getMethods())
+                .filter(method -> method.getName().equals("travelToolCallbackProvider"))
+                .findFirst()
+                .orElseThrow();
+        int tools = 0;
+        for (Class<?> type : provider.getParameterTypes()) {
+            Object tool = mock(type);
+            Class<?> callbacksClass = Class.forName(type.getName() + "Callbacks");
+            @SuppressWarnings("unchecked")
+            List<ToolCallback> generated = new ArrayList<>(
+                    (List<ToolCallback>) callbacksClass.getMethod("of", type).invoke(null, tool));
+            List<ToolCallback> reflective = new ArrayList<>(Arrays.asList(MethodToolCallbackProvider.builder()
+                    .toolObjects(tool)
+                    .build()
+                    .getToolCallbacks()));
+            assertSameDefinitions(type.getSimpleName(), reflective, generated);
+            tools += generated.size();
+        }
+        System.out.println("已比对 " + provider.getParameterCount() + " 个工具类，共 " + tools + " 个工具");
+    }
+
+    private static void assertSameDefinitions(String owner, List<ToolCallback> reflective,
+                                              List<ToolCallback> generated) throws Exception {
+        Comparator<ToolCallback> byName = Comparator.comparing(callback -> callback.getToolDefinition().name());
+        generated.sort(byName);
+        reflective.sort(byName);
+
+        assertFalse(generated.isEmpty(), owner);
+        assertEquals(reflective.size(), generated.size(), owner);
+        for (int i = 0; i < generated.size(); i++) {
+            var expected = reflective.get(i).getToolDefinition();
+            var actual = generated.get(i).getToolDefinition();
+            System.out.println(owner + "." + actual.name() + " -> " + actual.inputSchema());
+            assertEquals(expected.name(), actual.name(), owner);
+            assertEquals(expected.description(), actual.description(), actual.name());
+            assertEquals(MAPPER.readTree(expected.inputSchema()), MAPPER.readTree(actual.inputSchema()), actual.name());
+            assertEquals(reflective.get(i).getToolMetadata().returnDirect(),
+                    generated.get(i).getToolMetadata().returnDirect(), actual.name());
+        }
+    }
+
+    @Test
+    void testCallMatchesReflection() {
+        ToolCallback terminate = TerminateToolCallbacks.of(terminateTool).get(0);
+        ToolCallback reflectiveTerminate = MethodToolCallbackProvider.builder()
+                .toolObjects(terminateTool).build().getToolCallbacks()[0];
+        assertEquals(reflectiveTerminate.call("{}"), terminate.call("{}"));
+
+        ToolCallback budget = BudgetEstimateToolCallbacks.of(budgetEstimateTool).get(0);
+        ToolCallback reflectiveBudget = MethodToolCallbackProvider.builder()
+                .toolObjects(budgetEstimateTool).build().getToolCallbacks()[0];
+        String input = "{\"destination\":\"北京\",\"days\":3,\"travelers\":2,\"budget\":\"5000\",\"level\":null}";
+        String result = budget.call(input);
+        System.out.println(result);
+        assertEquals(reflectiveBudget.call(input), result);
+        // 模型把数字写成字符串、省略可选参数时也能取值
+        assertEquals(result, budget.call("{\"destination\":\"北京\",\"days\":\"3\",\"travelers\":2,\"budget\":\"5000\"}"));
+
+        assertThrows(IllegalArgumentException.class, () -> budget.call(" "));
+        assertThrows(ToolExecutionException.class, () -> budget.call("{\"destination\":\"北京\",\"days\":\"三天\"}"));
+    }
+
+    @Test
+    void testToolArguments() {
+        ToolArguments arguments = ToolArguments.parse(
+                "{\"text\":\"杭州\",\"count\":\" 5 \",\"ratio\":1.5,\"flag\":\"true\",\"none\":null}");
+        assertEquals("杭州", arguments.getString("text"));
+        assertEquals(5, arguments.getInteger("count"));
+        assertEquals(5L, arguments.getLongValue("count"));
+        assertEquals(1.5, arguments.getDouble("ratio"));
+        assertEquals("1.5", arguments.getString("ratio"));
+        assertTrue(arguments.getBooleanValue("flag"));
+        assertNull(arguments.getString("none"));
+        assertNull(arguments.getInteger("missing"));
+        assertFalse(arguments.has("none"));
+        assertThrows(IllegalArgumentException.class, () -> arguments.getIntValue("missing"));
+        assertThrows(IllegalArgumentException.class, () -> ToolArguments.parse("[1,2]"));
+        assertThrows(IllegalArgumentException.class, () -> ToolArguments.parse("{broken"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.zluolan.zaiagent.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zluolan.zaiagent.concurrent.FanOutExecutor;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.resilience.DependencyPolicy;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BatchWeatherTool测试类
+ * 使用本地 HTTP 服务模拟高德接口，校验多城市一次并发查询、与单城市工具共用缓存、地点别名合并、站点解析和降级标注
+ */
+class BatchWeatherToolTest {
+
+    private static final Map<String, String> ADCODES = Map.of(
+            "北京", "110000", "上海", "310000", "杭州", "330100", "成都", "510100", "西安", "610100");
+
+    private final LocalDate today = LocalDate.now();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private HttpServer server;
+    private ToolGuard guard;
+    private HedgedRequester hedger;
+    private AmapWeatherClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v3/geocode/geo", exchange -> {
+            String address = query(exchange.getRequestURI().getRawQuery()).get("address");
+            String code = ADCODES.get(address);
+            respond(exchange, "geocode", code == null ? "{\"status\":\"1\",\"geocodes\":[]}"
+                    : "{\"status\":\"1\",\"geocodes\":[{\"adcode\":\"" + code + "\"}]}");
+        });
+        server.createContext("/v3/weather/weatherInfo", exchange -> {
+            StringBuilder casts = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                if (i > 0) casts.append(',');
+                casts.append("{\"date\":\"").append(today.plusDays(i)).append("\",\"dayweather\":\"")
+                        .append(i == 1 ? "小雨" : "晴").append("\",\"nightweather\":\"多云\",\"daytemp\":\"")
+                        .append(20 + i).append("\",\"nighttemp\":\"").append(10 + i)
+                        .append("\",\"daywind\":\"北\",\"daypower\":\"≤3\"}");
+            }
+            respond(exchange, "weather", "{\"status\":\"1\",\"forecasts\":[{\"casts\":[" + casts + "]}]}");
+        });
+        server.start();
+        guard = new ToolGuard(List.of(new DependencyPolicy(ToolGuard.AMAP, 8, 200, 2000, 2, 60_000)));
+        hedger = new HedgedRequester(false, 0.95, 0.1, 5);
+        client = new AmapWeatherClient("test-key", "http://127.0.0.1:" + server.getAddress().getPort(),
+                guard, hedger, System::currentTimeMillis);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        guard.shutdown();
+        hedger.shutdown();
+    }
+
+    @Test
+    void testFiveCitiesInOneCall() {
+        BatchWeatherTool tool = new BatchWeatherTool(client, new FanOutExecutor(), LocationNormalizer.getDefault());
+        String stops = "北京 %s~%s；上海 %s；杭州, 成都 %s~%s; 西安".formatted(
+                today, today.plusDays(1), today.plusDays(2), today.plusDays(3), today.plusDays(5));
+        String result = tool.queryWeatherBatch(stops);
+        System.out.println(result);
+
+        assertEquals(5, count("geocode"));
+        assertEquals(5, count("weather"));
+        assertTrue(result.contains("| 北京 | " + today.getMonthValue() + "-" + today.getDayOfMonth()));
+        assertTrue(result.contains("晴转多云 | 10~20°C | 北风≤3级 | 预报"));
+        // 成都第 4、5 天超出高德预报范围，按季节估算
+        assertTrue(result.contains("预报 6 天，估算 2 天"), result);
+        assertTrue(result.contains("季节估算"));
+        assertTrue(result.contains("雨雪天：北京 "));
+
+        // 单城市工具共用同一个客户端，命中缓存不再请求
+        String single = new WeatherQueryTool(client, LocationNormalizer.getDefault()).queryWeather("上海", today.toString(), 3);
+        assertTrue(single.contains("小雨转多云"), single);
+        assertEquals(5, count("weather"));
+        assertTrue(client.cacheHitCount() >= 2);
+    }
+
+    @Test
+    void testUnavailableUpstreamIsLabelledDegraded() {
+        failing.set(true);
+        BatchWeatherTool tool = new BatchWeatherTool(client, new FanOutExecutor(), LocationNormalizer.getDefault());
+        String result = tool.queryWeatherBatch("北京；上海；火星基地");
+        System.out.println(result);
+        assertTrue(result.contains("估算（降级）"));
+        assertTrue(result.contains("高德天气服务暂不可用"));
+        assertTrue(result.contains("预报 0 天，估算 3 天"));
+
+        // 连续失败后熔断，未知城市也走降级；上游恢复后换一个未熔断的守卫验证未知城市提示
+        failing.set(false);
+        ToolGuard freshGuard = new ToolGuard(List.of(new DependencyPolicy(ToolGuard.AMAP, 8, 200, 2000, 2, 60_000)));
+        AmapWeatherClient recovered = new AmapWeatherClient("test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort(), freshGuard, hedger, System::currentTimeMillis);
+        String unknown = new BatchWeatherTool(recovered, new FanOutExecutor(), LocationNormalizer.getDefault()).queryWeatherBatch("火星基地");
+        freshGuard.shutdown();
+        assertTrue(unknown.contains("无法识别该城市"), unknown);
+    }
+
+    @Test
+    void testAliasesShareOneLookup() {
+        BatchWeatherTool tool = new BatchWeatherTool(client, new FanOutExecutor(), LocationNormalizer.getDefault());
+        String result = tool.queryWeatherBatch("北京；Beijing %s；北京市 %s".formatted(today.plusDays(1), today.plusDays(2)));
+        System.out.println(result);
+        assertEquals(1, count("geocode"));
+        assertEquals(1, count("weather"));
+        assertFalse(result.contains("Beijing"));
+
+        WeatherQueryTool single = new WeatherQueryTool(client, LocationNormalizer.getDefault());
+        assertTrue(single.queryWeather(" beijing ", today.toString(), 3).contains("北京 天气预报"));
+        assertTrue(single.queryWeather("ＢＥＩＪＩＮＧ", today.toString(), 3).contains("北京 天气预报"));
+        assertEquals(1, count("geocode"));
+        assertEquals(1, count("weather"));
+    }
+
+    @Test
+    void testParseStops() {
+        LocalDate day = LocalDate.of(2026, 10, 20);
+        List<BatchWeatherTool.Stop> stops = BatchWeatherTool.parseStops(
+                "北京：2026-10-20~2026-10-22，上海 2026-10-23\n杭州 2026-10-25 至 2026-10-24；  ；成都 2026-10-01~2026-12-01",
+                day);
+        assertEquals(List.of(
+                new BatchWeatherTool.Stop("北京", day, day.plusDays(2)),
+                new BatchWeatherTool.Stop("上海", day.plusDays(3), day.plusDays(3)),
+                new BatchWeatherTool.Stop("杭州", day.plusDays(5), day.plusDays(5)),
+                new BatchWeatherTool.Stop("成都", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 7))), stops);
+        assertEquals(List.of(new BatchWeatherTool.Stop("西安", day, day)), BatchWeatherTool.parseStops("西安", day));
+        assertTrue(BatchWeatherTool.parseStops(" ", day).isEmpty());
+    }
+
+    private int count(String endpoint) {
+        AtomicInteger counter = requests.get(endpoint);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private void respond(HttpExchange exchange, String endpoint, String body) throws IOException {
+        requests.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        int status = failing.get() ? 502 : 200;
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new ConcurrentHashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            String[] kv = pair.split("=", 2);
+            if (kv.length == 2) {
+                params.put(kv[0], URLDecoder.decode(kv[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,47 @@
+package com.zluolan.zaiagent.tools;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BudgetEstimateTool测试类
+ * 校验预算描述解析、适合档次判断和预算不足时的提示
+ */
+class BudgetEstimateToolTest {
+
+    private final BudgetEstimateTool tool = new BudgetEstimateTool();
+
+    @Test
+    void testParseBudget() {
+        assertEquals(5000, BudgetEstimateTool.parseBudget("预算5000元玩3天", 3, 2));
+        assertEquals(5000, BudgetEstimateTool.parseBudget("3天5000元", 3, 2));
+        assertEquals(15000, BudgetEstimateTool.parseBudget("1.5万", 3, 2));
+        assertEquals(6000, BudgetEstimateTool.parseBudget("人均3000", 3, 2));
+        assertEquals(2400, BudgetEstimateTool.parseBudget("每天800", 3, 2));
+        assertEquals(8000, BudgetEstimateTool.parseBudget("8k", 3, 2));
+        assertEquals(0, BudgetEstimateTool.parseBudget("舒适型", 3, 2));
+        assertEquals(0, BudgetEstimateTool.parseBudget(null, 3, 2));
+    }
+
+    @Test
+    void testEstimateBudget() {
+        String result = tool.estimateBudget("Beijing", 3, 2, "预算5000元", "豪华型");
+        System.out.println(result);
+        assertTrue(result.startsWith("[TOOL_EXECUTION_RESULT] 预算估算完成！"));
+        assertTrue(result.contains("=== 北京 3天2晚 · 2人 预算估算 ==="));
+        assertTrue(result.contains("| 住宿（1间×2晚） |"));
+        assertTrue(result.contains("豪华型★"));
+        assertTrue(result.contains("✅ 适合「"));
+        assertTrue(result.contains("⚠️ 期望的豪华型"));
+
+        String tight = tool.estimateBudget("三亚", 5, 2, "1000", null);
+        System.out.println(tight);
+        assertTrue(tight.contains("⚠️ 预算低于经济型所需的"));
+        assertTrue(tight.contains("按经济型可以玩"));
+
+        String reference = tool.estimateBudget("喀什", 2, 1, null, null);
+        assertTrue(reference.contains("按全国参考水平估算"));
+        assertTrue(tool.estimateBudget(null, 2, 1, null, null).contains("预算估算失败"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.zluolan.zaiagent.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zluolan.zaiagent.concurrent.FanOutExecutor;
+import com.zluolan.zaiagent.inventory.InventoryStore;
+import com.zluolan.zaiagent.location.LocationNormalizer;
+import com.zluolan.zaiagent.poi.PoiCatalog;
+import com.zluolan.zaiagent.resilience.DependencyPolicy;
+import com.zluolan.zaiagent.resilience.HedgedRequester;
+import com.zluolan.zaiagent.resilience.ToolGuard;
+import com.zluolan.zaiagent.weather.AmapWeatherClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DestinationCompareTool测试类
+ * 使用响应较慢的本地高德服务，校验多城市子查询并发执行、评分矩阵输出、降级说明和目的地解析
+ */
+class DestinationCompareToolTest {
+
+    private static final long UPSTREAM_DELAY_MILLIS = 200;
+
+    private final LocalDate today = LocalDate.now();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ToolGuard guard;
+    private HedgedRequester hedger;
+    private DestinationCompareTool tool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v3/geocode/geo", exchange -> respond(exchange,
+                "{\"status\":\"1\",\"geocodes\":[{\"adcode\":\"" + Math.abs(exchange.getRequestURI().hashCode()) + "\"}]}"));
+        server.createContext("/v3/weather/weatherInfo", exchange -> {
+            StringBuilder casts = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                if (i > 0) casts.append(',');
+                casts.append("{\"date\":\"").append(today.plusDays(i)).append("\",\"dayweather\":\"晴\",")
+                        .append("\"nightweather\":\"晴\",\"daytemp\":\"24\",\"nighttemp\":\"16\",")
+                        .append("\"daywind\":\"东\",\"daypower\":\"≤3\"}");
+            }
+            respond(exchange, "{\"status\":\"1\",\"forecasts\":[{\"casts\":[" + casts + "]}]}");
+        });
+        server.start();
+        guard = new ToolGuard(List.of(new DependencyPolicy(ToolGuard.AMAP, 8, 200, 3000, 5, 30_000)));
+        hedger = new HedgedRequester(false, 0.95, 0.1, 5);
+        AmapWeatherClient client = new AmapWeatherClient("test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort(), guard, hedger, System::currentTimeMillis);
+        tool = new DestinationCompareTool(PoiCatalog.getDefault(), InventoryStore.getDefault(), client,
+                new FanOutExecutor(), LocationNormalizer.getDefault());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        guard.shutdown();
+        hedger.shutdown();
+    }
+
+    @Test
+    void testComparesDestinationsInParallel() {
+        long start = System.nanoTime();
+        String result = tool.compareDestinations("杭州还是成都，北京？", today.toString(), 3, "舒适型", "自然风光");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(result);
+        System.out.println("耗时: " + elapsedMillis + "ms, 上游请求: " + requests.get());
+
+        // 每个城市串行需要编码和预报两次请求，三个城市串行至少 1200ms
+        assertEquals(6, requests.get());
+        assertTrue(elapsedMillis < 3 * 2 * UPSTREAM_DELAY_MILLIS, "耗时 " + elapsedMillis + "ms");
+
+        assertTrue(result.contains("| 维度 | 杭州 | 成都 | 北京 |"), result);
+        assertTrue(result.contains("| 景点 |"));
+        assertTrue(result.contains("| 住宿 |"));
+        assertTrue(result.contains("| 天气 | 10.0 无雨3天/雨雪0天，16~24°C |"), result);
+        assertTrue(result.contains("符合偏好"));
+        assertTrue(result.contains("（第1）"));
+        assertTrue(result.contains("（第3）"));
+        assertTrue(result.contains("推荐："));
+        assertFalse(result.contains("\n说明："), result);
+    }
+
+    @Test
+    void testUnknownCityAndOutOfRangeForecast() {
+        String result = tool.compareDestinations("杭州,火星基地", today.plusDays(2).toString(), 5, null, null);
+        System.out.println(result);
+        assertTrue(result.contains("| 维度 | 杭州 | 火星基地 |"));
+        assertTrue(result.contains("0.0 暂无数据"));
+        assertTrue(result.contains("（3天估算）"), "第 3 天以后超出预报范围");
+        assertTrue(result.contains("说明：火星基地：目录中暂无该城市数据"));
+        assertTrue(result.contains("推荐：杭州"));
+
+        assertTrue(tool.compareDestinations("杭州", null, null, null, null).contains("请至少提供两个目的地"));
+    }
+
+    @Test
+    void testParseDestinations() {
+        LocationNormalizer normalizer = LocationNormalizer.getDefault();
+        assertEquals(List.of("杭州", "成都"), DestinationCompareTool.parseDestinations("杭州还是成都？", normalizer));
+        assertEquals(List.of("北京", "上海"), DestinationCompareTool.parseDestinations(" 北京、上海 和 北京 ", normalizer));
+        assertEquals(DestinationCompareTool.MAX_DESTINATIONS,
+                DestinationCompareTool.parseDestinations("北京,上海,杭州,成都,西安,广州,深圳", normalizer).size());
+        assertTrue(DestinationCompareTool.parseDestinations(null, normalizer).isEmpty());
+
+        // 地名中的“和”不是连接词
+        assertEquals(List.of("呼和浩特", "成都"), DestinationCompareTool.parseDestinations("呼和浩特还是成都", normalizer));
+        assertEquals(List.of("和田", "喀什"), DestinationCompareTool.parseDestinations("和田和喀什", normalizer));
+        assertEquals(List.of("呼和浩特市", "和田"), DestinationCompareTool.parseDestinations("呼和浩特市和和田？", normalizer));
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(UPSTREAM_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.zluolan.zaiagent.tools;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ItineraryPlannerTool测试类
+ * 使用内置景点目录编排多日行程，校验逐日条目和输出格式
+ */
+class ItineraryPlannerToolTest {
+
+    private final ItineraryPlannerTool tool = new ItineraryPlannerTool();
+
+    @Test
+    void testPlanItinerary() {
+        String result = tool.planItinerary("北京", "故宫,天坛公园,颐和园,圆明园,雍和宫,南锣鼓巷,火星基地",
+                2, "2025-05-01", "北京饭店", "公交地铁", null, null);
+        System.out.println(result);
+        assertTrue(result.startsWith("[TOOL_EXECUTION_RESULT] 行程编排完成！"));
+        assertTrue(result.contains("【第1天（2025-05-01 周四）】"));
+        assertTrue(result.contains("【第2天（2025-05-02 周五）】"));
+        assertTrue(result.contains("回到 北京饭店"));
+        assertTrue(result.contains("未识别的地点已忽略：火星基地"));
+
+        ItineraryPlannerTool.PlannedItinerary planned = tool.plan("北京", "故宫,天坛公园,颐和园,圆明园,雍和宫,南锣鼓巷",
+                2, "2025-05-01", "北京饭店", "公交地铁", null, null);
+        assertEquals("北京", planned.destination());
+        assertEquals(2, planned.days());
+        assertEquals(1, planned.itinerary().stream().filter(line -> line.endsWith(" 故宫博物院")).count());
+        assertTrue(planned.itinerary().stream().allMatch(line -> line.startsWith("第1天") || line.startsWith("第2天")));
+        // 同样的输入总是得到同样的行程
+        assertEquals(planned.itinerary(), tool.plan("北京", "故宫,天坛公园,颐和园,圆明园,雍和宫,南锣鼓巷",
+                2, "2025-05-01", "北京饭店", "公交地铁", null, null).itinerary());
+        planned.itinerary().forEach(System.out::println);
+    }
+
+    @Test
+    void testInvalidInput() {
+        String result = tool.planItinerary("北京", "火星基地", 2, null, null, null, null, null);
+        assertTrue(result.startsWith("[TOOL_EXECUTION_RESULT] 行程编排失败: 没有可识别的游览地点"));
+        result = tool.planItinerary("北京", "故宫", 1, null, null, null, "18:00", "09:00");
+        assertTrue(result.contains("每天的结束时间必须晚于出发时间"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.zluolan.zaiagent.tools;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PageContentExtractor测试类
+ * 测试网页正文提取和长度限制
+ */
+class PageContentExtractorTest {
+
+    private static final String PAGE = """
+            <html><head><title>成都三日游攻略</title><script>var tracking = 1;</script></head>
+            <body>
+              <nav><a href="/">首页</a><a href="/guide">攻略</a><a href="/hotel">酒店</a></nav>
+              <div class="sidebar"><a href="/a">热门推荐链接一</a><a href="/b">热门推荐链接二</a></div>
+              <div class="content">
+                <h1>成都三日游完整攻略</h1>
+                <p>第一天上午前往宽窄巷子，感受老成都的慢生活节奏。</p>
+                <p>下午去人民公园喝盖碗茶，晚上在春熙路品尝火锅。</p>
+                <p>第二天早起去大熊猫繁育研究基地，建议八点前到达。</p>
+              </div>
+              <footer>版权所有 联系我们 关于我们</footer>
+            </body></html>
+            """;
+
+    @Test
+    void testExtractMainText() {
+        Document document = Jsoup.parse(PAGE);
+
+        String text = PageContentExtractor.extractMainText(document, 2000);
+
+        assertTrue(text.contains("宽窄巷子"));
+        assertTrue(text.contains("大熊猫"));
+        assertFalse(text.contains("tracking"));
+        assertFalse(text.contains("版权所有"));
+        assertFalse(text.contains("热门推荐"));
+        System.out.println("正文提取结果: " + text);
+    }
+
+    @Test
+    void testPreferArticleElement() {
+        Document document = Jsoup.parse("""
+                <body><div><p>这是一段很长的评论区内容，和正文无关但文字不少。</p></div>
+                <article><p>这是文章的正文内容，应当被优先选中。</p></article></body>
+                """);
+
+        String text = PageContentExtractor.extractMainText(document, 2000);
+
+        assertEquals("这是文章的正文内容，应当被优先选中。", text);
+    }
+
+    @Test
+    void testMaxCharsIsRespected() {
+        Document document = Jsoup.parse(PAGE);
+
+        String text = PageContentExtractor.extractMainText(document, 30);
+
+        assertTrue(text.length() <= 33);
+        assertTrue(text.endsWith("..."));
+    }
+}
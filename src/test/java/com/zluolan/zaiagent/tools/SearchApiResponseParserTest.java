@@ -0,0 +1,91 @@
+package com.zluolan.zaiagent.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SearchApiResponseParser测试类
+ * 测试搜索结果的流式解析、提前终止和大小限制
+ */
+class SearchApiResponseParserTest {
+
+    private final SearchApiResponseParser parser = new SearchApiResponseParser(2, 4096, 20);
+
+    @Test
+    void testParseTopResultsOnly() {
+        String json = """
+                {"search_metadata":{"id":"abc","status":"Success"},
+                 "organic_results":[
+                   {"position":1,"title":"北京旅游攻略","link":"https://a.example","snippet":"故宫","sitelinks":[{"title":"x"}]},
+                   {"position":2,"title":"北京美食","link":"https://b.example","snippet":"烤鸭"},
+                   {"position":3,"title":"不应出现","link":"https://c.example","snippet":"第三条"}
+                 ],
+                 "related_searches":[{"query":"北京天气"}]}
+                """;
+
+        SearchApiResponseParser.ParsedResponse result = parser.parse(stream(json));
+
+        assertFalse(result.hasError());
+        assertEquals(2, result.hits().size());
+        assertEquals("北京旅游攻略", result.hits().get(0).title());
+        assertEquals("https://b.example", result.hits().get(1).link());
+    }
+
+    @Test
+    void testStopsBeforeMalformedTail() {
+        // 取够结果后不再读取后续内容，因此尾部损坏的 JSON 不影响结果
+        String json = "{\"organic_results\":[{\"title\":\"a\"},{\"title\":\"b\"},{\"title\": broken";
+
+        SearchApiResponseParser.ParsedResponse result = parser.parse(stream(json));
+
+        assertFalse(result.hasError());
+        assertEquals(2, result.hits().size());
+    }
+
+    @Test
+    void testErrorFieldIsReported() {
+        SearchApiResponseParser.ParsedResponse result = parser.parse(stream("{\"error\":\"Invalid API key\"}"));
+
+        assertTrue(result.hasError());
+        assertEquals("Invalid API key", result.error());
+    }
+
+    @Test
+    void testUnexpectedPayloadDoesNotEchoRawResponse() {
+        String json = "{\"search_metadata\":{\"secret\":\"raw-payload-content\"}}";
+
+        SearchApiResponseParser.ParsedResponse result = parser.parse(stream(json));
+
+        assertTrue(result.hasError());
+        assertFalse(result.error().contains("raw-payload-content"));
+    }
+
+    @Test
+    void testResponseSizeIsCapped() {
+        SearchApiResponseParser smallParser = new SearchApiResponseParser(5, 64, 20);
+        String json = "{\"search_metadata\":{\"padding\":\"" + "x".repeat(500) + "\"},\"organic_results\":[]}";
+
+        SearchApiResponseParser.ParsedResponse result = smallParser.parse(stream(json));
+
+        assertTrue(result.hasError());
+        assertTrue(result.truncated());
+    }
+
+    @Test
+    void testLongSnippetIsTruncated() {
+        String json = "{\"organic_results\":[{\"title\":\"t\",\"snippet\":\"" + "长".repeat(100) + "\"}]}";
+
+        SearchApiResponseParser.ParsedResponse result = parser.parse(stream(json));
+
+        assertEquals(23, result.hits().get(0).snippet().length());
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
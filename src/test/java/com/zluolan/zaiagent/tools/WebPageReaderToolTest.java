@@ -0,0 +1,114 @@
+package com.zluolan.zaiagent.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zluolan.zaiagent.download.OutboundUrlGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WebPageReaderTool测试类
+ * 用本地 HTTP 服务校验正文读取、站内重定向、拒绝内网地址和指向内网的重定向，以及站点限流状态不会无限增长
+ */
+class WebPageReaderToolTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private WebPageReaderTool tool;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        int port = server.getAddress().getPort();
+        baseUrl = "http://127.0.0.1:" + port;
+        tool = new WebPageReaderTool(OutboundUrlGuard.allowing("127.0.0.1:" + port));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tool.shutdown();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        try (exchange) {
+            switch (path) {
+                case "/guide" -> {
+                    byte[] body = ("<html><head><title>成都三日游攻略</title></head><body><div class=\"content\">"
+                            + "<p>第一天上午前往宽窄巷子，感受老成都的慢生活节奏。</p>"
+                            + "<p>下午去人民公园喝盖碗茶，晚上在春熙路品尝火锅。</p></div></body></html>")
+                            .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+                case "/go/guide" -> redirect(exchange, "/guide");
+                case "/go/internal" -> redirect(exchange, "http://localhost:" + server.getAddress().getPort() + "/guide");
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    @Test
+    void testReadAndFollowSafeRedirect() {
+        String output = tool.readWebPages(baseUrl + "/go/guide", null);
+        System.out.println(output);
+        assertTrue(output.contains("Title: 成都三日游攻略"));
+        assertTrue(output.contains("宽窄巷子"));
+        assertEquals(1, hits.get("/guide").get());
+    }
+
+    @Test
+    void testBlockInternalAddresses() {
+        String output = tool.readWebPages(String.join(",", "http://169.254.169.254/latest/meta-data/",
+                "http://192.168.1.1/admin", "http://[::1]/", baseUrl + "/go/internal"), null);
+        System.out.println(output);
+        assertTrue(output.contains("Error: blocked address: 169.254.169.254"));
+        assertTrue(output.contains("Error: blocked address: 192.168.1.1"));
+        assertTrue(output.contains("Error: blocked address: [::1]"));
+        assertTrue(output.contains("Error: blocked address: localhost"));
+        assertFalse(output.contains("宽窄巷子"));
+        assertNull(hits.get("/guide"));
+
+        WebPageReaderTool publicOnly = new WebPageReaderTool();
+        String strict = publicOnly.readWebPages(baseUrl + "/guide", null);
+        publicOnly.shutdown();
+        assertTrue(strict.contains("Error: blocked address: 127.0.0.1"), strict);
+    }
+
+    @Test
+    void testHostSlotsStayBounded() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            urls.add("http://10.0.0." + i + "/");
+        }
+        for (int i = 0; i < urls.size(); i += 5) {
+            tool.readWebPages(String.join(",", urls.subList(i, i + 5)), null);
+        }
+        tool.readWebPages(baseUrl + "/guide", null);
+        // 请求结束后空闲的站点被移除，最多剩下仍在最小间隔内的本地站点
+        assertTrue(tool.trackedHosts() <= 1, "tracked hosts: " + tool.trackedHosts());
+    }
+}